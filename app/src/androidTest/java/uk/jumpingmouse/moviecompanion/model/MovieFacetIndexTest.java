@@ -0,0 +1,131 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.data.Movie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for MovieFacetIndex.
+ * @author Edmund Johnson
+ */
+public class MovieFacetIndexTest {
+
+    private MovieFacetIndex mFacetIndex;
+
+    @Before
+    public void setUp() {
+        mFacetIndex = new MovieFacetIndex();
+        mFacetIndex.addMovie(newMovie("4016934", "EN,RU", "US", "GB:12A"));
+        mFacetIndex.addMovie(newMovie("1219827", "en", "GB, US", "GB:15"));
+        mFacetIndex.addMovie(newMovie("3315342", "FR", "FR", "GB:15"));
+    }
+
+    @After
+    public void tearDown() {
+        mFacetIndex = null;
+    }
+
+    /**
+     * Test that the movies with several facet values are found, ignoring case and spaces,
+     * and that each distinct value is encoded once.
+     */
+    @Test
+    public void selectMovies() {
+        assertEquals(new HashSet<>(Arrays.asList("4016934", "1219827")),
+                new HashSet<>(select("language", "EN")));
+        assertEquals(Collections.singletonList("1219827"),
+                select("language", "en", "country", "gb"));
+        assertEquals(Collections.singletonList("3315342"),
+                select("certificate", "GB:15", "country", "FR"));
+        assertTrue(select("language", "DE").isEmpty());
+        assertTrue(select("language", "FR", "certificate", "GB:12A").isEmpty());
+
+        assertEquals(3, mFacetIndex.getValueCount("language"));
+        assertEquals(3, mFacetIndex.getValueCount("country"));
+        assertEquals(2, mFacetIndex.getValueCount("certificate"));
+    }
+
+    /**
+     * Test that updating or removing a movie removes it from the values it no longer has,
+     * and that the ordinal of a removed movie is reused.
+     */
+    @Test
+    public void updateAndRemoveMovie() {
+        mFacetIndex.addMovie(newMovie("4016934", "RU", "RU", "GB:12A"));
+        assertEquals(Collections.singletonList("1219827"), select("language", "EN"));
+
+        Map<String, String> facetValues = new HashMap<>();
+        facetValues.put("certificate", "GB:15");
+        BitSet movies = mFacetIndex.selectMovies(facetValues);
+        assertTrue(mFacetIndex.contains(movies, "3315342"));
+        assertFalse(mFacetIndex.contains(movies, "4016934"));
+
+        mFacetIndex.removeMovie("1219827");
+        assertTrue(select("language", "EN").isEmpty());
+        assertFalse(mFacetIndex.contains(mFacetIndex.selectMovies(facetValues), "1219827"));
+
+        mFacetIndex.addMovie(newMovie("2543164", "EN", "US", "GB:12A"));
+        assertEquals(Collections.singletonList("2543164"), select("language", "EN"));
+        assertEquals(3, mFacetIndex.getMovieIds(
+                mFacetIndex.selectMovies(new HashMap<String, String>())).size());
+    }
+
+    /**
+     * Test that selecting by a column which is not a facet is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownFacet() {
+        select("genre", "18");
+    }
+
+    /**
+     * Returns the ids of the movies with some facet values.
+     * @param facetValues the facet columns and values, alternately
+     * @return the ids of the movies with the facet values
+     */
+    private List<String> select(String... facetValues) {
+        Map<String, String> facetValueMap = new HashMap<>();
+        for (int i = 0; i < facetValues.length; i += 2) {
+            facetValueMap.put(facetValues[i], facetValues[i + 1]);
+        }
+        return mFacetIndex.getMovieIds(mFacetIndex.selectMovies(facetValueMap));
+    }
+
+    /**
+     * Returns a movie with the mandatory fields and the facets set.
+     * @param id the movie id
+     * @param language the language CSV
+     * @param country the country CSV
+     * @param certificate the certificate
+     * @return the movie
+     */
+    private static Movie newMovie(String id, String language, String country,
+                                  String certificate) {
+        return Movie.builder()
+                .id(id)
+                .imdbId("tt" + id)
+                .tmdbId(Integer.parseInt(id))
+                .title("Title " + id)
+                .released(Movie.RELEASED_UNKNOWN)
+                .runtime(Movie.RUNTIME_UNKNOWN)
+                .language(language)
+                .country(country)
+                .certificate(certificate)
+                .build();
+    }
+
+}
@@ -0,0 +1,94 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import uk.jumpingmouse.moviecompanion.data.Movie;
+import uk.jumpingmouse.moviecompanion.utils.StringPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for PeopleIndex.
+ * @author Edmund Johnson
+ */
+public class PeopleIndexTest {
+
+    private PeopleIndex mPeopleIndex;
+
+    @Before
+    public void setUp() {
+        mPeopleIndex = new PeopleIndex(new StringPool());
+        mPeopleIndex.addMovie(newMovie("4016934", "Denis Villeneuve", "Eric Heisserer",
+                "Amy Adams, Jeremy Renner, Forest Whitaker"));
+        mPeopleIndex.addMovie(newMovie("1219827", "Paul Thomas Anderson",
+                "Paul Thomas Anderson", "Joaquin Phoenix, Philip Seymour Hoffman, Amy Adams"));
+    }
+
+    @After
+    public void tearDown() {
+        mPeopleIndex = null;
+    }
+
+    /**
+     * Test that the movies featuring a person are found in any role,
+     * however the person's name is written.
+     */
+    @Test
+    public void selectMovieIds() {
+        assertEquals(new HashSet<>(Arrays.asList("4016934", "1219827")),
+                new HashSet<>(mPeopleIndex.selectMovieIds("Amy Adams")));
+        assertEquals(Collections.singletonList("4016934"),
+                mPeopleIndex.selectMovieIds("  denis   VILLENEUVE "));
+        assertEquals(Collections.singletonList("1219827"),
+                mPeopleIndex.selectMovieIds("Paul Thomas Anderson"));
+        assertTrue(mPeopleIndex.selectMovieIds("Harrison Ford").isEmpty());
+        // Amy Adams and Paul Thomas Anderson are each indexed once
+        assertEquals(8, mPeopleIndex.size());
+    }
+
+    /**
+     * Test that updating or removing a movie removes the people who are no longer in it.
+     */
+    @Test
+    public void updateAndRemoveMovie() {
+        mPeopleIndex.addMovie(newMovie("4016934", "Denis Villeneuve", null, "Amy Adams"));
+        assertTrue(mPeopleIndex.selectMovieIds("Jeremy Renner").isEmpty());
+        assertEquals(2, mPeopleIndex.selectMovieIds("Amy Adams").size());
+
+        mPeopleIndex.removeMovie("1219827");
+        assertEquals(Collections.singletonList("4016934"),
+                mPeopleIndex.selectMovieIds("Amy Adams"));
+        assertTrue(mPeopleIndex.selectMovieIds("Joaquin Phoenix").isEmpty());
+        assertEquals(2, mPeopleIndex.size());
+    }
+
+    /**
+     * Returns a movie with the mandatory fields and the people set.
+     * @param id the movie id
+     * @param director the director CSV
+     * @param screenplay the screenplay CSV
+     * @param cast the cast CSV
+     * @return the movie
+     */
+    private static Movie newMovie(String id, String director, String screenplay, String cast) {
+        return Movie.builder()
+                .id(id)
+                .imdbId("tt" + id)
+                .tmdbId(Integer.parseInt(id))
+                .title("Title " + id)
+                .released(Movie.RELEASED_UNKNOWN)
+                .runtime(Movie.RUNTIME_UNKNOWN)
+                .director(director)
+                .screenplay(screenplay)
+                .cast(cast)
+                .build();
+    }
+
+}
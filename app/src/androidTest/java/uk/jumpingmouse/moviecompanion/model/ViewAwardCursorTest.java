@@ -0,0 +1,115 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import uk.jumpingmouse.moviecompanion.data.Award;
+import uk.jumpingmouse.moviecompanion.data.ViewAward;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for ViewAwardCursor.
+ * @author Edmund Johnson
+ */
+public class ViewAwardCursorTest {
+
+    private ViewAward mViewAward1;
+    private ViewAward mViewAward2;
+
+    @Before
+    public void setUp() {
+        mViewAward1 = ViewAward.builder()
+                .id("award_pk_1")
+                .movieId("4016934")
+                .imdbId("tt4016934")
+                .tmdbId(329865)
+                .awardDate("170512")
+                .category(Award.CATEGORY_MOVIE)
+                .review("A really smart film.")
+                .displayOrder(1)
+                .title("Arrival")
+                .runtime(116)
+                .releaseYear(2016)
+                .genre("18,878")
+                .poster("/poster.jpg")
+                .onWishlist(true)
+                .build();
+        mViewAward2 = ViewAward.builder()
+                .id("award_pk_2")
+                .movieId("1219827")
+                .imdbId("tt1219827")
+                .tmdbId(71859)
+                .awardDate("170519")
+                .category(Award.CATEGORY_DVD)
+                .review("Ghostly.")
+                .displayOrder(1)
+                .title("Ghost in the Shell")
+                .runtime(107)
+                .watched(true)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        mViewAward1 = null;
+        mViewAward2 = null;
+    }
+
+    /**
+     * Test that the column values are read from the view awards, with the types
+     * which a MatrixCursor containing the same values would report.
+     */
+    @Test
+    public void columnValues() {
+        Cursor cursor = new ViewAwardCursor(Arrays.asList(mViewAward1, mViewAward2));
+        assertEquals(2, cursor.getCount());
+        assertEquals(DataContract.ViewAwardEntry.getAllColumns().length, cursor.getColumnCount());
+
+        assertTrue(cursor.moveToFirst());
+        assertEquals("award_pk_1", cursor.getString(DataContract.ViewAwardEntry.COL_ID));
+        assertEquals("Arrival", cursor.getString(DataContract.ViewAwardEntry.COL_TITLE));
+        assertEquals(116, cursor.getInt(DataContract.ViewAwardEntry.COL_RUNTIME));
+        assertEquals("116", cursor.getString(DataContract.ViewAwardEntry.COL_RUNTIME));
+        assertEquals(2016, cursor.getInt(DataContract.ViewAwardEntry.COL_RELEASE_YEAR));
+        assertEquals(1, cursor.getInt(DataContract.ViewAwardEntry.COL_ON_WISHLIST));
+        assertEquals(0, cursor.getInt(DataContract.ViewAwardEntry.COL_WATCHED));
+        assertEquals(Cursor.FIELD_TYPE_INTEGER,
+                cursor.getType(DataContract.ViewAwardEntry.COL_TMDB_ID));
+        assertEquals(Cursor.FIELD_TYPE_STRING,
+                cursor.getType(DataContract.ViewAwardEntry.COL_GENRE));
+
+        assertTrue(cursor.moveToNext());
+        assertEquals("award_pk_2", cursor.getString(DataContract.ViewAwardEntry.COL_ID));
+        assertTrue(cursor.isNull(DataContract.ViewAwardEntry.COL_POSTER));
+        assertEquals(Cursor.FIELD_TYPE_NULL,
+                cursor.getType(DataContract.ViewAwardEntry.COL_POSTER));
+        assertEquals(1, cursor.getInt(DataContract.ViewAwardEntry.COL_WATCHED));
+        assertFalse(cursor.moveToNext());
+        cursor.close();
+    }
+
+    /**
+     * Test that a view award read from the cursor is equal to the original.
+     */
+    @Test
+    public void newViewAward() {
+        Cursor cursor = new ViewAwardCursor(Arrays.asList(mViewAward1, mViewAward2));
+        assertTrue(cursor.moveToFirst());
+        ViewAward viewAward = ModelUtils.newViewAward(cursor);
+        assertNotNull(viewAward);
+        assertEquals(mViewAward1, viewAward);
+        assertEquals(mViewAward1.toString(), viewAward.toString());
+        cursor.close();
+    }
+
+}
@@ -0,0 +1,201 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.data.Award;
+import uk.jumpingmouse.moviecompanion.data.ViewAward;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for ViewAwardSelection.
+ * @author Edmund Johnson
+ */
+public class ViewAwardSelectionTest {
+
+    private ViewAward mViewAward;
+
+    // By default, expect no exceptions.
+    // thrown must be public.
+    @SuppressWarnings("WeakerAccess")
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        mViewAward = ViewAward.builder()
+                .id("award_pk_1")
+                .movieId("4016934")
+                .imdbId("tt4016934")
+                .tmdbId(329865)
+                .awardDate("170512")
+                .category(Award.CATEGORY_MOVIE)
+                .review("A really smart film.")
+                .displayOrder(1)
+                .title("Arrival")
+                .runtime(116)
+                .genre("18,878")
+                .poster("/poster.jpg")
+                .onWishlist(true)
+                .watched(false)
+                .favourite(false)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        mViewAward = null;
+    }
+
+    /**
+     * Test that a selection is only parsed once.
+     */
+    @Test
+    public void compileIsCached() {
+        String selection = "category=? AND limit=?";
+        assertSame(ViewAwardSelection.compile(selection), ViewAwardSelection.compile(selection));
+    }
+
+    /**
+     * Test equality predicates, including the genre CSV column and boolean columns.
+     */
+    @Test
+    public void equality() {
+        assertTrue(matches("category=? AND genre=? AND onWishlist=?", "M", "878", "1"));
+        assertFalse(matches("category=?", Award.CATEGORY_DVD));
+        assertFalse(matches("genre=?", "35"));
+        assertTrue(matches("watched=0 AND title<>'Gravity'"));
+    }
+
+    /**
+     * Test each comparison operator on numeric and string columns, and the genre
+     * CSV column, whose elements must match exactly.
+     */
+    @Test
+    public void comparisonOperators() {
+        assertTrue(matches("runtime=116 AND runtime!=115 AND runtime<117 AND runtime<=116"
+                + " AND runtime>115 AND runtime>=116"));
+        assertFalse(matches("runtime<116"));
+        assertFalse(matches("runtime>=117"));
+        assertTrue(matches("title='Arrival' AND title!='Gravity' AND title<'B' AND title<='Arrival'"
+                + " AND title>'A' AND title>='Arrival'"));
+        assertFalse(matches("title>'Arrival'"));
+        assertTrue(matches("genre!=?", "35"));
+        assertFalse(matches("genre!=?", "878"));
+        assertFalse(matches("genre=?", "87"));
+        assertFalse(matches("genre=?", "1"));
+    }
+
+    /**
+     * Test IN and BETWEEN predicates.
+     */
+    @Test
+    public void inAndRange() {
+        assertTrue(matches("genre IN (?, ?)", "35", "18"));
+        assertFalse(matches("category IN ('D')"));
+        assertTrue(matches("runtime BETWEEN ? AND ?", "90", "120"));
+        assertFalse(matches("runtime > 116"));
+        assertTrue(matches("awardDate >= '170101' AND awardDate < '180101'"));
+    }
+
+    /**
+     * Test that AND binds more tightly than OR, and that parentheses override this.
+     */
+    @Test
+    public void andOr() {
+        assertTrue(matches("category='D' AND runtime=1 OR title='Arrival'"));
+        assertFalse(matches("category='D' AND (runtime=1 OR title='Arrival')"));
+    }
+
+    /**
+     * Test that the limit is extracted from the selection.
+     */
+    @Test
+    public void limit() {
+        ViewAwardSelection selection = ViewAwardSelection.compile("category=? AND limit=?");
+        assertEquals(5, selection.getLimit(new String[] {"M", "5"}));
+        assertTrue(selection.bind(new String[] {"M", "5"}).matches(mViewAward));
+        assertEquals(0, ViewAwardSelection.compile("category=?").getLimit(new String[] {"M"}));
+    }
+
+    /**
+     * Test that the range of a column is extracted from the top-level AND terms of the selection.
+     */
+    @Test
+    public void range() {
+        ViewAwardSelection selection = ViewAwardSelection.compile(
+                "runtime BETWEEN ? AND ? AND category=? AND runtime < 100");
+        String[] selectionArgs = new String[] {"90", "120", "M"};
+        assertArrayEquals(new long[] {90, 99}, selection.getRange("runtime", selectionArgs));
+        assertNull(selection.getRange("releaseYear", selectionArgs));
+        assertArrayEquals(new long[] {2010, 2010},
+                ViewAwardSelection.compile("releaseYear=2010").getRange("releaseYear", null));
+        assertNull(ViewAwardSelection.compile("runtime < 100 OR category='M'")
+                .getRange("runtime", null));
+    }
+
+    /**
+     * Test that facet terms are returned as facet values rather than tested by the predicate.
+     */
+    @Test
+    public void facets() {
+        ViewAwardSelection selection =
+                ViewAwardSelection.compile("country=? AND category=? AND language='FR'");
+        Map<String, String> facetValues = selection.getFacetValues(new String[] {"GB", "M"});
+        assertEquals(2, facetValues.size());
+        assertEquals("GB", facetValues.get("country"));
+        assertEquals("FR", facetValues.get("language"));
+        assertTrue(selection.bind(new String[] {"US", "M"}).matches(mViewAward));
+        assertTrue(ViewAwardSelection.compile("category='M'").getFacetValues(null).isEmpty());
+    }
+
+    /**
+     * Test that a facet term which is not a top-level AND term is rejected.
+     */
+    @Test
+    public void facetInsideOr() {
+        thrown.expect(IllegalArgumentException.class);
+        ViewAwardSelection.compile("category='M' OR certificate='GB:15'");
+    }
+
+    /**
+     * Test that a selection containing an unknown column is rejected.
+     */
+    @Test
+    public void unknownColumn() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unknown view award column: filterWishlist");
+        ViewAwardSelection.compile("filterWishlist=?");
+    }
+
+    /**
+     * Test that a limit which is not a top-level AND term is rejected.
+     */
+    @Test
+    public void limitInsideOr() {
+        thrown.expect(IllegalArgumentException.class);
+        ViewAwardSelection.compile("category='M' OR limit=5");
+    }
+
+    /**
+     * Returns whether the test view award matches a selection.
+     * @param selection the selection
+     * @param selectionArgs the selection args
+     * @return true if the test view award matches the selection, false otherwise
+     */
+    private boolean matches(String selection, String... selectionArgs) {
+        return ViewAwardSelection.compile(selection).bind(selectionArgs).matches(mViewAward);
+    }
+
+}
@@ -1,8 +1,10 @@
 package uk.jumpingmouse.moviecompanion.utils;
 
 import android.content.ContentValues;
+import android.content.Context;
 import android.database.MatrixCursor;
 import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
 import android.support.test.runner.AndroidJUnit4;
 
 import org.junit.Test;
@@ -11,12 +13,15 @@ import org.junit.runner.RunWith;
 import java.util.List;
 
 import uk.jumpingmouse.moviecompanion.AndroidTestUtils;
+import uk.jumpingmouse.moviecompanion.R;
+import uk.jumpingmouse.moviecompanion.data.Award;
 import uk.jumpingmouse.moviecompanion.data.Movie;
 import uk.jumpingmouse.moviecompanion.model.DataContract;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class for ModelUtils.
@@ -508,6 +513,79 @@ public class ModelUtilsTest {
         getAndroidTestUtils().closeCursor(cursor);
     }
 
+    /**
+     * Test that the smallest TMDb poster size covering the target view is chosen.
+     */
+    @Test
+    public void getTmdbPosterSize() {
+        // the width determines the size
+        assertEquals("w92", ModelUtils.getTmdbPosterSize(92, 100));
+        assertEquals("w154", ModelUtils.getTmdbPosterSize(93, 100));
+        // the height determines the size, posters being 1.5 times as high as wide
+        assertEquals("w185", ModelUtils.getTmdbPosterSize(100, 270));
+        // no size covers the view
+        assertEquals("w780", ModelUtils.getTmdbPosterSize(1440, 1272));
+        assertEquals("http://image.tmdb.org/t/p/w342/d2f3g4sd12fg.jpg",
+                ModelUtils.getPosterUrl("/d2f3g4sd12fg.jpg", 330, 440));
+    }
+
+    /**
+     * Test that the smaller poster sizes are returned largest first.
+     */
+    @Test
+    public void getSmallerPosterUrls() {
+        List<String> posterUrls = ModelUtils.getSmallerPosterUrls("/d2f3g4sd12fg.jpg", 330, 440);
+        assertEquals(3, posterUrls.size());
+        assertEquals("http://image.tmdb.org/t/p/w185/d2f3g4sd12fg.jpg", posterUrls.get(0));
+        assertEquals("http://image.tmdb.org/t/p/w92/d2f3g4sd12fg.jpg", posterUrls.get(2));
+        // there is no size smaller than the smallest
+        assertTrue(ModelUtils.getSmallerPosterUrls("/d2f3g4sd12fg.jpg", 50, 50).isEmpty());
+    }
+
+    /**
+     * Test that genre ids are converted to genre names, including when the genre names
+     * are cached, and that unknown genre ids are ignored.
+     */
+    @Test
+    public void toGenreNameCsv() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        String genreIdCsv = Movie.GENRE_ID_COMEDY + ",999," + Movie.GENRE_ID_DRAMA;
+        String genreNameCsv = context.getString(R.string.genre_name_comedy) + ", "
+                + context.getString(R.string.genre_name_drama);
+        assertEquals(genreNameCsv, ModelUtils.toGenreNameCsv(context, genreIdCsv));
+        // the second conversion uses the cached genre names
+        assertEquals(genreNameCsv, ModelUtils.toGenreNameCsv(context, genreIdCsv));
+        assertEquals("", ModelUtils.toGenreNameCsv(context, "999"));
+        assertNull(ModelUtils.toGenreNameCsv(context, null));
+        assertNull(ModelUtils.toGenreNameCsv(null, genreIdCsv));
+    }
+
+    /**
+     * Test that award dates are converted to award days and back, and that invalid
+     * award dates are rejected.
+     */
+    @Test
+    public void toAwardDay() {
+        assertEquals(17319, ModelUtils.toAwardDay("170602"));
+        assertEquals(10957, ModelUtils.toAwardDay("000101"));
+        assertEquals("170602", ModelUtils.toAwardDate(17319));
+        assertEquals("000101", ModelUtils.toAwardDate(10957));
+        // leap days
+        assertEquals("160229", ModelUtils.toAwardDate(ModelUtils.toAwardDay("160229")));
+        assertEquals(Award.AWARD_DAY_UNKNOWN, ModelUtils.toAwardDay("170229"));
+        // invalid award dates
+        assertEquals(Award.AWARD_DAY_UNKNOWN, ModelUtils.toAwardDay("170631"));
+        assertEquals(Award.AWARD_DAY_UNKNOWN, ModelUtils.toAwardDay("171301"));
+        assertEquals(Award.AWARD_DAY_UNKNOWN, ModelUtils.toAwardDay("17060"));
+        assertEquals(Award.AWARD_DAY_UNKNOWN, ModelUtils.toAwardDay("17o602"));
+        assertEquals(Award.AWARD_DAY_UNKNOWN, ModelUtils.toAwardDay((String) null));
+        // the award day starts at local midnight
+        long startMillis = ModelUtils.getAwardDayStartMillis(17319);
+        assertEquals(17319, ModelUtils.toAwardDay(startMillis));
+        assertEquals(17318, ModelUtils.toAwardDay(startMillis - 1));
+        assertEquals(-1, ModelUtils.getAwardDayStartMillis(Award.AWARD_DAY_UNKNOWN));
+    }
+
     //---------------------------------------------------------------------
     // Getters
 
@@ -15,12 +15,16 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import timber.log.Timber;
 
 import uk.jumpingmouse.moviecompanion.AndroidTestUtils;
+import uk.jumpingmouse.moviecompanion.data.Award;
 import uk.jumpingmouse.moviecompanion.data.Movie;
+import uk.jumpingmouse.moviecompanion.data.UserMovie;
 import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
 
 import static junit.framework.Assert.assertEquals;
@@ -46,10 +50,17 @@ public class DataProviderTest {
     private static final Movie TEST_MOVIE_1_MODIFIED;
     private static final Movie TEST_MOVIE_2;
     private static final Movie TEST_MOVIE_3;
+    private static final Movie TEST_MOVIE_4;
 
     private static final Uri URI_TEST_MOVIE_1;
     private static final Uri URI_TEST_MOVIE_2;
     private static final Uri URI_TEST_MOVIE_3;
+    private static final Uri URI_TEST_MOVIE_4;
+
+    // The selection of the view awards of the movies used by the paging tests
+    private static final String PAGING_SELECTION =
+            DataContract.ViewAwardEntry.COLUMN_MOVIE_ID + " IN (?, ?, ?)";
+    private static final String[] PAGING_SELECTION_ARGS;
 
     static {
         // DO NOT USE REAL MOVIES, as these tests are destructive!
@@ -94,10 +105,26 @@ public class DataProviderTest {
                 .genre("Drama, Mystery, Romance")
                 .poster(TEST_POSTER)
                 .build();
+        TEST_MOVIE_4 = Movie.builder()
+                .id("9999994")
+                .imdbId("tt9999994")
+                .tmdbId(554)
+                // The title contains the keyset separator and a URI escape character,
+                // and the runtime is the same as that of Test Movie 2
+                .title("Test Movie, 100% 4")
+                .released(AndroidTestUtils.toLongOmdbReleased("01 Jun 2014"))
+                .runtime(122)
+                .genre("Drama, Mystery, Romance")
+                .poster(TEST_POSTER)
+                .build();
 
         URI_TEST_MOVIE_1 = DataContract.MovieEntry.buildUriForRowById(TEST_MOVIE_1.getId());
         URI_TEST_MOVIE_2 = DataContract.MovieEntry.buildUriForRowById(TEST_MOVIE_2.getId());
         URI_TEST_MOVIE_3 = DataContract.MovieEntry.buildUriForRowById(TEST_MOVIE_3.getId());
+        URI_TEST_MOVIE_4 = DataContract.MovieEntry.buildUriForRowById(TEST_MOVIE_4.getId());
+
+        PAGING_SELECTION_ARGS = new String[] {
+                TEST_MOVIE_1.getId(), TEST_MOVIE_2.getId(), TEST_MOVIE_4.getId()};
     }
 
     // By default, expect no exceptions.
@@ -122,6 +149,7 @@ public class DataProviderTest {
         mContentResolver.delete(URI_TEST_MOVIE_1, null, null);
         mContentResolver.delete(URI_TEST_MOVIE_2, null, null);
         mContentResolver.delete(URI_TEST_MOVIE_3, null, null);
+        mContentResolver.delete(URI_TEST_MOVIE_4, null, null);
     }
 
     @Test
@@ -465,6 +493,295 @@ public class DataProviderTest {
         closeCursor(cursor);
     }
 
+    /**
+     * Test the content provider query ".../viewAward/movie/*", and that deleting a movie
+     * deletes its awards.
+     */
+    @Test
+    public void queryViewAwardsForMovie() {
+        Award awardMovie = Award.builder()
+                .id("test_award_1")
+                .movieId(TEST_MOVIE_1.getId())
+                .awardDate("170512")
+                .category(Award.CATEGORY_MOVIE)
+                .review("Test review 1")
+                .displayOrder(1)
+                .build();
+        Award awardDvd = Award.builder()
+                .id("test_award_2")
+                .movieId(TEST_MOVIE_1.getId())
+                .awardDate("171110")
+                .category(Award.CATEGORY_DVD)
+                .review("Test review 2")
+                .displayOrder(1)
+                .build();
+        Uri uriMovieAwards = DataContract.ViewAwardEntry.buildUriForMovie(TEST_MOVIE_1.getId());
+
+        mContentResolver.insert(DataContract.MovieEntry.CONTENT_URI, TEST_MOVIE_1.toContentValues());
+        mContentResolver.insert(DataContract.AwardEntry.CONTENT_URI, awardMovie.toContentValues());
+        mContentResolver.insert(DataContract.AwardEntry.CONTENT_URI, awardDvd.toContentValues());
+
+        // both awards should be returned, most recent first
+        Cursor cursor = mContentResolver.query(uriMovieAwards, null, null, null, null);
+        assertNotNull(cursor);
+        assertEquals("The query should return 2 rows", 2, cursor.getCount());
+        cursor.moveToFirst();
+        assertEquals(awardDvd.getId(), cursor.getString(DataContract.ViewAwardEntry.COL_ID));
+        closeCursor(cursor);
+
+        // tidy up
+        mContentResolver.delete(
+                DataContract.AwardEntry.buildUriForRowById(awardMovie.getId()), null, null);
+        mContentResolver.delete(
+                DataContract.AwardEntry.buildUriForRowById(awardDvd.getId()), null, null);
+    }
+
+    /**
+     * Test that query results are cached until the data is modified, so that a cached
+     * result reflects later changes to the user's flags for a movie.
+     */
+    @Test
+    public void queryResultCache() {
+        Award awardMovie = Award.builder()
+                .id("test_award_cache_1")
+                .movieId(TEST_MOVIE_1.getId())
+                .awardDate("170512")
+                .category(Award.CATEGORY_MOVIE)
+                .review("Test review 1")
+                .displayOrder(1)
+                .build();
+        Award awardDvd = Award.builder()
+                .id("test_award_cache_2")
+                .movieId(TEST_MOVIE_1.getId())
+                .awardDate("171110")
+                .category(Award.CATEGORY_DVD)
+                .review("Test review 2")
+                .displayOrder(1)
+                .build();
+        UserMovie userMovie = UserMovie.builder()
+                .id(TEST_MOVIE_1.getId())
+                .onWishlist(true)
+                .build();
+        Uri uriMovieAwards = DataContract.ViewAwardEntry.buildUriForMovie(TEST_MOVIE_1.getId());
+        QueryResultCache queryResultCache = QueryResultCache.getInstance();
+
+        mContentResolver.insert(DataContract.MovieEntry.CONTENT_URI, TEST_MOVIE_1.toContentValues());
+        mContentResolver.insert(DataContract.AwardEntry.CONTENT_URI, awardMovie.toContentValues());
+
+        // the first query is a miss, the second is answered from the cache
+        long missCount = queryResultCache.getMissCount();
+        Cursor cursor = mContentResolver.query(uriMovieAwards, null, null, null, null);
+        assertNotNull(cursor);
+        assertEquals("The query should return 1 row", 1, cursor.getCount());
+        closeCursor(cursor);
+        assertEquals(missCount + 1, queryResultCache.getMissCount());
+
+        long hitCount = queryResultCache.getHitCount();
+        cursor = mContentResolver.query(uriMovieAwards, null, null, null, null);
+        assertNotNull(cursor);
+        assertEquals("The cached query should return 1 row", 1, cursor.getCount());
+        cursor.moveToFirst();
+        assertEquals(0, cursor.getInt(DataContract.ViewAwardEntry.COL_ON_WISHLIST));
+        closeCursor(cursor);
+        assertEquals(hitCount + 1, queryResultCache.getHitCount());
+
+        // adding the user movie modifies the data, so the cached result is not used
+        missCount = queryResultCache.getMissCount();
+        mContentResolver.insert(DataContract.UserMovieEntry.CONTENT_URI, userMovie.toContentValues());
+        cursor = mContentResolver.query(uriMovieAwards, null, null, null, null);
+        assertNotNull(cursor);
+        cursor.moveToFirst();
+        assertEquals("The query should reflect the user movie's flags",
+                1, cursor.getInt(DataContract.ViewAwardEntry.COL_ON_WISHLIST));
+        closeCursor(cursor);
+        assertEquals(missCount + 1, queryResultCache.getMissCount());
+
+        // adding an award modifies the data, so the cached result is not used
+        missCount = queryResultCache.getMissCount();
+        mContentResolver.insert(DataContract.AwardEntry.CONTENT_URI, awardDvd.toContentValues());
+        cursor = mContentResolver.query(uriMovieAwards, null, null, null, null);
+        assertNotNull(cursor);
+        assertEquals("The query should return 2 rows", 2, cursor.getCount());
+        closeCursor(cursor);
+        assertEquals(missCount + 1, queryResultCache.getMissCount());
+
+        // tidy up
+        mContentResolver.delete(
+                DataContract.UserMovieEntry.buildUriForRowById(userMovie.getId()), null, null);
+        mContentResolver.delete(
+                DataContract.AwardEntry.buildUriForRowById(awardMovie.getId()), null, null);
+        mContentResolver.delete(
+                DataContract.AwardEntry.buildUriForRowById(awardDvd.getId()), null, null);
+    }
+
+    /**
+     * Test the content provider query ".../widgetAward/*".
+     */
+    @Test
+    public void queryWidgetAwards() {
+        // The award date sorts after any real award date, so the award is the most recent
+        // once its award date has started
+        Award awardMovie = Award.builder()
+                .id("test_award_3")
+                .movieId(TEST_MOVIE_1.getId())
+                .awardDate("991231")
+                .category(Award.CATEGORY_MOVIE)
+                .review("Test review 3")
+                .displayOrder(1)
+                .build();
+        Uri uriMovieWidgetAwards = DataContract.WidgetAwardEntry.buildUriForCategory(
+                DataContract.ViewAwardEntry.FILTER_CATEGORY_MOVIE, 1, "991231");
+        Uri uriDvdWidgetAwards = DataContract.WidgetAwardEntry.buildUriForCategory(
+                DataContract.ViewAwardEntry.FILTER_CATEGORY_DVD, 1, "991231");
+        Uri uriMovieWidgetAwardsToday = DataContract.WidgetAwardEntry.buildUriForCategory(
+                DataContract.ViewAwardEntry.FILTER_CATEGORY_MOVIE, 1);
+
+        mContentResolver.insert(DataContract.MovieEntry.CONTENT_URI, TEST_MOVIE_1.toContentValues());
+        mContentResolver.insert(DataContract.AwardEntry.CONTENT_URI, awardMovie.toContentValues());
+
+        // the award should be the most recent movie award, with only the widget columns
+        Cursor cursor = mContentResolver.query(uriMovieWidgetAwards, null, null, null, null);
+        assertNotNull(cursor);
+        assertEquals("The query should return 1 row", 1, cursor.getCount());
+        assertEquals(DataContract.WidgetAwardEntry.getAllColumns().length, cursor.getColumnCount());
+        cursor.moveToFirst();
+        assertEquals(awardMovie.getId(), cursor.getString(DataContract.WidgetAwardEntry.COL_ID));
+        assertEquals(TEST_MOVIE_1.getTitle(),
+                cursor.getString(DataContract.WidgetAwardEntry.COL_TITLE));
+        closeCursor(cursor);
+
+        // the award date has not started today, so the award should not be displayed yet
+        cursor = mContentResolver.query(uriMovieWidgetAwardsToday, null, null, null, null);
+        assertNotNull(cursor);
+        if (cursor.moveToFirst()) {
+            assertTrue(!awardMovie.getId().equals(
+                    cursor.getString(DataContract.WidgetAwardEntry.COL_ID)));
+        }
+        closeCursor(cursor);
+
+        // the award should not be a DVD award
+        cursor = mContentResolver.query(uriDvdWidgetAwards, null, null, null, null);
+        assertNotNull(cursor);
+        if (cursor.moveToFirst()) {
+            assertTrue(!awardMovie.getId().equals(
+                    cursor.getString(DataContract.WidgetAwardEntry.COL_ID)));
+        }
+        closeCursor(cursor);
+
+        // deleting the movie should remove the award from the widget awards
+        mContentResolver.delete(URI_TEST_MOVIE_1, null, null);
+        cursor = mContentResolver.query(uriMovieWidgetAwards, null, null, null, null);
+        assertNotNull(cursor);
+        if (cursor.moveToFirst()) {
+            assertTrue(!awardMovie.getId().equals(
+                    cursor.getString(DataContract.WidgetAwardEntry.COL_ID)));
+        }
+        closeCursor(cursor);
+    }
+
+    /**
+     * Test that walking every page of a keyset-paged ".../viewAward" query, for each
+     * sort order, returns the same rows in the same order as the unpaged query.
+     * Rows with equal sort keys are ordered by tie-breaker and then by id.
+     */
+    @Test
+    public void queryViewAwardPages() {
+        List<Award> awards = insertPagingTestData();
+        String[] sortOrders = {
+                DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_ASC,
+                DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_DESC,
+                DataContract.ViewAwardEntry.SORT_ORDER_TITLE_ASC,
+                DataContract.ViewAwardEntry.SORT_ORDER_TITLE_DESC,
+                DataContract.ViewAwardEntry.SORT_ORDER_RUNTIME_ASC,
+                DataContract.ViewAwardEntry.SORT_ORDER_RUNTIME_DESC
+        };
+
+        for (String sortOrder : sortOrders) {
+            List<String> expectedIds = queryViewAwardIds(
+                    DataContract.ViewAwardEntry.CONTENT_URI, sortOrder);
+            assertEquals("The unpaged query should return every award for " + sortOrder,
+                    awards.size(), expectedIds.size());
+            for (int pageSize = 1; pageSize <= awards.size(); pageSize++) {
+                assertEquals("The pages should match the unpaged query for " + sortOrder
+                                + " with page size " + pageSize,
+                        expectedIds, queryViewAwardIdsByPage(sortOrder, pageSize));
+            }
+        }
+
+        // award date ties are resolved by category, then by id
+        assertEquals(Arrays.asList("test_award_page_1", "test_award_page_3",
+                "test_award_page_4", "test_award_page_2", "test_award_page_5",
+                "test_award_page_6"), queryViewAwardIds(DataContract.ViewAwardEntry.CONTENT_URI,
+                DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_ASC));
+        // runtime ties are resolved by title, then by id
+        assertEquals(Arrays.asList("test_award_page_1", "test_award_page_2",
+                "test_award_page_3", "test_award_page_6", "test_award_page_4",
+                "test_award_page_5"), queryViewAwardIds(DataContract.ViewAwardEntry.CONTENT_URI,
+                DataContract.ViewAwardEntry.SORT_ORDER_RUNTIME_ASC));
+
+        deletePagingTestData(awards);
+    }
+
+    /**
+     * Test that the next page of a keyset-paged ".../viewAward" query starts after the
+     * last row of the previous page, even if that row has since been deleted.
+     */
+    @Test
+    public void queryViewAwardPageAfterDeletedRow() {
+        List<Award> awards = insertPagingTestData();
+        String sortOrder = DataContract.ViewAwardEntry.SORT_ORDER_TITLE_ASC;
+        List<String> expectedIds = queryViewAwardIds(
+                DataContract.ViewAwardEntry.CONTENT_URI, sortOrder);
+
+        // the last row of the first page is the anchor of the second page
+        Uri uri = DataContract.ViewAwardEntry.buildUriForPage(
+                DataContract.ViewAwardEntry.CONTENT_URI, null, null, null, 3);
+        Cursor cursor = mContentResolver.query(uri, null, PAGING_SELECTION,
+                PAGING_SELECTION_ARGS, sortOrder);
+        assertNotNull(cursor);
+        assertEquals(3, cursor.getCount());
+        cursor.moveToLast();
+        String anchorId = cursor.getString(DataContract.ViewAwardEntry.COL_ID);
+        Uri nextUri = buildUriForNextPage(uri, cursor, sortOrder, awards.size());
+        closeCursor(cursor);
+
+        mContentResolver.delete(
+                DataContract.AwardEntry.buildUriForRowById(anchorId), null, null);
+
+        // the second page should hold the rows after the deleted anchor
+        assertEquals(expectedIds.subList(3, expectedIds.size()),
+                queryViewAwardIds(nextUri, sortOrder));
+
+        deletePagingTestData(awards);
+    }
+
+    /**
+     * Test that a keyset whose sort key contains the keyset separator and URI escape
+     * characters, as a title may, is decoded from a page URI unchanged.
+     */
+    @Test
+    public void encodeAndParseKeyset() {
+        Uri uri = DataContract.ViewAwardEntry.buildUriForPage(
+                DataContract.ViewAwardEntry.CONTENT_URI, TEST_MOVIE_4.getTitle(),
+                TEST_MOVIE_4.getImdbId(), "test_award_page_5", 30);
+        String after = uri.getQueryParameter(DataContract.PARAM_AFTER);
+        assertNotNull(after);
+
+        String[] keyset = DataContract.ViewAwardEntry.parseKeyset(after);
+        assertNotNull(keyset);
+        assertEquals(TEST_MOVIE_4.getTitle(), keyset[0]);
+        assertEquals(TEST_MOVIE_4.getImdbId(), keyset[1]);
+        assertEquals("test_award_page_5", keyset[2]);
+        assertEquals("30", uri.getQueryParameter(DataContract.PARAM_PAGE_SIZE));
+
+        // a page URI built from a page URI should replace its keyset and page size
+        Uri firstPageUri = DataContract.ViewAwardEntry.buildUriForPage(uri, null, null, null, 60);
+        assertNull(firstPageUri.getQueryParameter(DataContract.PARAM_AFTER));
+        assertEquals("60", firstPageUri.getQueryParameter(DataContract.PARAM_PAGE_SIZE));
+
+        assertNull(DataContract.ViewAwardEntry.parseKeyset("no separator"));
+    }
+
     /**
      * Test inserting a movie using null content values.
      */
@@ -702,6 +1019,116 @@ public class DataProviderTest {
     //---------------------------------------------------------------------
     // Utility methods
 
+    /**
+     * Inserts the movies and awards used by the paging tests.
+     * Several awards share an award date and category, two movies share a runtime,
+     * and each of three movies has two awards, so that every sort order has ties.
+     * @return the inserted awards
+     */
+    @NonNull
+    private List<Award> insertPagingTestData() {
+        List<Award> awards = Arrays.asList(
+                buildPagingTestAward(1, TEST_MOVIE_1, "170512", Award.CATEGORY_DVD),
+                buildPagingTestAward(2, TEST_MOVIE_1, "171110", Award.CATEGORY_DVD),
+                buildPagingTestAward(3, TEST_MOVIE_2, "170512", Award.CATEGORY_DVD),
+                buildPagingTestAward(4, TEST_MOVIE_4, "170512", Award.CATEGORY_MOVIE),
+                buildPagingTestAward(5, TEST_MOVIE_4, "171110", Award.CATEGORY_MOVIE),
+                buildPagingTestAward(6, TEST_MOVIE_2, "171110", Award.CATEGORY_MOVIE));
+        mContentResolver.insert(DataContract.MovieEntry.CONTENT_URI, TEST_MOVIE_1.toContentValues());
+        mContentResolver.insert(DataContract.MovieEntry.CONTENT_URI, TEST_MOVIE_2.toContentValues());
+        mContentResolver.insert(DataContract.MovieEntry.CONTENT_URI, TEST_MOVIE_4.toContentValues());
+        for (Award award : awards) {
+            mContentResolver.insert(DataContract.AwardEntry.CONTENT_URI, award.toContentValues());
+        }
+        return awards;
+    }
+
+    @NonNull
+    private static Award buildPagingTestAward(int number, @NonNull Movie movie,
+                                              @NonNull String awardDate, @NonNull String category) {
+        return Award.builder()
+                .id("test_award_page_" + number)
+                .movieId(movie.getId())
+                .awardDate(awardDate)
+                .category(category)
+                .review("Test review " + number)
+                .displayOrder(1)
+                .build();
+    }
+
+    private void deletePagingTestData(@NonNull List<Award> awards) {
+        for (Award award : awards) {
+            mContentResolver.delete(
+                    DataContract.AwardEntry.buildUriForRowById(award.getId()), null, null);
+        }
+        mContentResolver.delete(URI_TEST_MOVIE_1, null, null);
+        mContentResolver.delete(URI_TEST_MOVIE_2, null, null);
+        mContentResolver.delete(URI_TEST_MOVIE_4, null, null);
+    }
+
+    /**
+     * Returns the ids of the view awards of the paging test movies returned by a query.
+     * @param uri the URI of the query
+     * @param sortOrder the sort order of the query
+     * @return the ids of the view awards, in the order returned
+     */
+    @NonNull
+    private List<String> queryViewAwardIds(@NonNull Uri uri, @NonNull String sortOrder) {
+        Cursor cursor = mContentResolver.query(uri, null, PAGING_SELECTION,
+                PAGING_SELECTION_ARGS, sortOrder);
+        assertNotNull(cursor);
+        List<String> ids = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getString(DataContract.ViewAwardEntry.COL_ID));
+        }
+        closeCursor(cursor);
+        return ids;
+    }
+
+    /**
+     * Returns the ids of the view awards of the paging test movies returned by walking
+     * every page of a query, keying each page from the last row of the previous page.
+     * @param sortOrder the sort order of the query
+     * @param pageSize the number of rows in each page
+     * @return the ids of the view awards, in the order returned
+     */
+    @NonNull
+    private List<String> queryViewAwardIdsByPage(@NonNull String sortOrder, int pageSize) {
+        List<String> ids = new ArrayList<>();
+        Uri uri = DataContract.ViewAwardEntry.buildUriForPage(
+                DataContract.ViewAwardEntry.CONTENT_URI, null, null, null, pageSize);
+        while (uri != null) {
+            Cursor cursor = mContentResolver.query(uri, null, PAGING_SELECTION,
+                    PAGING_SELECTION_ARGS, sortOrder);
+            assertNotNull(cursor);
+            assertTrue("A page should not exceed the page size", cursor.getCount() <= pageSize);
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(DataContract.ViewAwardEntry.COL_ID));
+            }
+            uri = cursor.moveToLast() ? buildUriForNextPage(uri, cursor, sortOrder, pageSize)
+                    : null;
+            closeCursor(cursor);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the URI of the page following the row at which a cursor is positioned.
+     * @param uri the URI of the current page
+     * @param cursor the cursor, positioned at the last row of the current page
+     * @param sortOrder the sort order of the query
+     * @param pageSize the number of rows in the next page
+     * @return the URI of the next page
+     */
+    @NonNull
+    private static Uri buildUriForNextPage(@NonNull Uri uri, @NonNull Cursor cursor,
+                                           @NonNull String sortOrder, int pageSize) {
+        return DataContract.ViewAwardEntry.buildUriForPage(uri,
+                cursor.getString(DataContract.ViewAwardEntry.getSortKeyColumnIndex(sortOrder)),
+                cursor.getString(DataContract.ViewAwardEntry.getTieBreakerColumnIndex(sortOrder)),
+                cursor.getString(DataContract.ViewAwardEntry.COL_ID), pageSize);
+    }
+
     private int getMovieCount() {
         return getAndroidTestUtils().getMovieCount(mContentResolver);
     }
@@ -4,12 +4,15 @@ import android.support.annotation.NonNull;
 
 import uk.jumpingmouse.moviecompanion.analytics.AnalyticsManager;
 import uk.jumpingmouse.moviecompanion.analytics.AnalyticsManagerFirebase;
+import uk.jumpingmouse.moviecompanion.image.PosterCache;
+import uk.jumpingmouse.moviecompanion.image.PosterPaletteCache;
 import uk.jumpingmouse.moviecompanion.model.LocalDatabase;
 import uk.jumpingmouse.moviecompanion.model.LocalDatabaseInMemory;
 import uk.jumpingmouse.moviecompanion.security.SecurityManager;
 import uk.jumpingmouse.moviecompanion.security.SecurityManagerFirebase;
 import uk.jumpingmouse.moviecompanion.utils.NetUtils;
 import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
+import uk.jumpingmouse.moviecompanion.widget.WidgetRefreshScheduler;
 
 /**
  * A factory class which generates implementations of objects used in the app.
@@ -51,6 +54,35 @@ public abstract class ObjectFactoryBase {
         return LocalDatabaseInMemory.getInstance();
     }
 
+    /**
+     * Returns a reference to the poster cache, through which movie posters are loaded.
+     * @return a reference to the poster cache
+     */
+    @NonNull
+    public static PosterCache getPosterCache() {
+        return PosterCache.getInstance();
+    }
+
+    /**
+     * Returns a reference to the poster palette cache, which holds the colours derived
+     * from movie posters.
+     * @return a reference to the poster palette cache
+     */
+    @NonNull
+    public static PosterPaletteCache getPosterPaletteCache() {
+        return PosterPaletteCache.getInstance();
+    }
+
+    /**
+     * Returns a reference to the widget refresh scheduler, through which changes to the data
+     * displayed by the widgets are notified.
+     * @return a reference to the widget refresh scheduler
+     */
+    @NonNull
+    public static WidgetRefreshScheduler getWidgetRefreshScheduler() {
+        return WidgetRefreshScheduler.getInstance();
+    }
+
     /**
      * Returns a reference to a ViewUtils object.
      * @return a reference to a ViewUtils object
@@ -82,6 +82,61 @@ public final class AwardListFilterFragment extends DialogFragment {
                     R.id.spnFilterFavourite, R.id.frameFilterFavourite,
                     R.array.filter_favourite_pref_display);
 
+            // Runtime filter
+            String[] filterPrefValuesRuntime =
+                    context.getResources().getStringArray(R.array.filter_runtime_pref_key);
+            ListFilter listFilterRuntime = new ListFilter(
+                    R.string.pref_award_list_filter_runtime_key, filterPrefValuesRuntime,
+                    DataContract.ViewAwardEntry.FILTER_RUNTIME_DEFAULT);
+            final ListFilterSpinner spinnerRuntime = new ListFilterSpinner(
+                    context, view, listFilterRuntime,
+                    R.id.spnFilterRuntime, R.id.frameFilterRuntime,
+                    R.array.filter_runtime_pref_display);
+
+            // Release year filter
+            String[] filterPrefValuesReleaseYear =
+                    context.getResources().getStringArray(R.array.filter_release_year_pref_key);
+            ListFilter listFilterReleaseYear = new ListFilter(
+                    R.string.pref_award_list_filter_release_year_key, filterPrefValuesReleaseYear,
+                    DataContract.ViewAwardEntry.FILTER_RELEASE_YEAR_DEFAULT);
+            final ListFilterSpinner spinnerReleaseYear = new ListFilterSpinner(
+                    context, view, listFilterReleaseYear,
+                    R.id.spnFilterReleaseYear, R.id.frameFilterReleaseYear,
+                    R.array.filter_release_year_pref_display);
+
+            // Language filter
+            String[] filterPrefValuesLanguage =
+                    context.getResources().getStringArray(R.array.filter_language_pref_key);
+            ListFilter listFilterLanguage = new ListFilter(
+                    R.string.pref_award_list_filter_language_key, filterPrefValuesLanguage,
+                    DataContract.ViewAwardEntry.FILTER_LANGUAGE_DEFAULT);
+            final ListFilterSpinner spinnerLanguage = new ListFilterSpinner(
+                    context, view, listFilterLanguage,
+                    R.id.spnFilterLanguage, R.id.frameFilterLanguage,
+                    R.array.filter_language_pref_display);
+
+            // Country filter
+            String[] filterPrefValuesCountry =
+                    context.getResources().getStringArray(R.array.filter_country_pref_key);
+            ListFilter listFilterCountry = new ListFilter(
+                    R.string.pref_award_list_filter_country_key, filterPrefValuesCountry,
+                    DataContract.ViewAwardEntry.FILTER_COUNTRY_DEFAULT);
+            final ListFilterSpinner spinnerCountry = new ListFilterSpinner(
+                    context, view, listFilterCountry,
+                    R.id.spnFilterCountry, R.id.frameFilterCountry,
+                    R.array.filter_country_pref_display);
+
+            // Certificate filter
+            String[] filterPrefValuesCertificate =
+                    context.getResources().getStringArray(R.array.filter_certificate_pref_key);
+            ListFilter listFilterCertificate = new ListFilter(
+                    R.string.pref_award_list_filter_certificate_key, filterPrefValuesCertificate,
+                    DataContract.ViewAwardEntry.FILTER_CERTIFICATE_DEFAULT);
+            final ListFilterSpinner spinnerCertificate = new ListFilterSpinner(
+                    context, view, listFilterCertificate,
+                    R.id.spnFilterCertificate, R.id.frameFilterCertificate,
+                    R.array.filter_certificate_pref_display);
+
             // Category filter
             String[] filterPrefValuesCategory =
                     context.getResources().getStringArray(R.array.filter_category_pref_key);
@@ -111,6 +166,11 @@ public final class AwardListFilterFragment extends DialogFragment {
                     spinnerWishlist.clear();
                     spinnerWatched.clear();
                     spinnerFavourite.clear();
+                    spinnerRuntime.clear();
+                    spinnerReleaseYear.clear();
+                    spinnerLanguage.clear();
+                    spinnerCountry.clear();
+                    spinnerCertificate.clear();
                     spinnerCategory.clear();
                 }
             });
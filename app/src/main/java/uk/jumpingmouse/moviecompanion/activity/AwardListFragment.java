@@ -33,7 +33,11 @@ import android.widget.TextView;
 import uk.jumpingmouse.moviecompanion.ObjectFactory;
 import uk.jumpingmouse.moviecompanion.R;
 import uk.jumpingmouse.moviecompanion.adapter.ViewAwardAdapter;
+import uk.jumpingmouse.moviecompanion.adapter.PosterPrefetcher;
+import uk.jumpingmouse.moviecompanion.adapter.ViewAwardCursorLoader;
+import uk.jumpingmouse.moviecompanion.adapter.ViewAwardPagingSource;
 import uk.jumpingmouse.moviecompanion.data.ViewAwardQueryParameters;
+import uk.jumpingmouse.moviecompanion.image.PosterPaletteCache;
 import uk.jumpingmouse.moviecompanion.model.DataContract;
 import uk.jumpingmouse.moviecompanion.model.DataProvider;
 import uk.jumpingmouse.moviecompanion.model.LocalDatabase;
@@ -67,6 +71,10 @@ public final class AwardListFragment extends Fragment
 
     // The data adapter.
     private ViewAwardAdapter mViewAwardAdapter;
+    // The paging data source, which loads further pages into the adapter on scroll.
+    private ViewAwardPagingSource mViewAwardPagingSource;
+    // The poster prefetcher, which loads thumbnails into the poster cache ahead of the scroll.
+    private PosterPrefetcher mPosterPrefetcher;
 
     // The RecyclerView containing the list of awards.
     private RecyclerView mRecyclerView;
@@ -81,6 +89,8 @@ public final class AwardListFragment extends Fragment
         super.onCreate(savedInstanceState);
         // Add the next line if the fragment needs to handle menu events.
         setHasOptionsMenu(true);
+        // Load the saved poster colours in the background, ready for the movie screen
+        getPosterPaletteCache().load(getActivity());
     }
 
     @Override
@@ -107,6 +117,14 @@ public final class AwardListFragment extends Fragment
         mRecyclerView = rootView.findViewById(R.id.viewAwardList);
         mRecyclerView.setAdapter(mViewAwardAdapter);
 
+        // Load further pages of the list as it is scrolled
+        mViewAwardPagingSource = ViewAwardPagingSource.newInstance(activity, mViewAwardAdapter);
+        mRecyclerView.addOnScrollListener(mViewAwardPagingSource);
+
+        // Load the thumbnails of the rows which are about to scroll into view
+        mPosterPrefetcher = PosterPrefetcher.newInstance(activity, mViewAwardAdapter);
+        mRecyclerView.addOnScrollListener(mPosterPrefetcher);
+
         // This setting improves performance as long as changes in content do not change
         // the layout size of the RecyclerView.
         mRecyclerView.setHasFixedSize(true);
@@ -155,6 +173,9 @@ public final class AwardListFragment extends Fragment
 
     @Override
     public void onPause() {
+        // Stop prefetching thumbnails for the list
+        mPosterPrefetcher.cancelAll();
+
         // Unregister the view awards content observer.
         getContext().getContentResolver().unregisterContentObserver(
                 getViewAwardContentObserver());
@@ -316,6 +337,11 @@ public final class AwardListFragment extends Fragment
         String filterWatched = null;
         String filterFavourite = null;
         String filterCategory = null;
+        String filterRuntime = null;
+        String filterReleaseYear = null;
+        String filterLanguage = null;
+        String filterCountry = null;
+        String filterCertificate = null;
 
         // URI, sort order and filters are fiddly!
         if (args != null) {
@@ -327,6 +353,11 @@ public final class AwardListFragment extends Fragment
                 filterWatched = uri.getQueryParameter(DataContract.PARAM_FILTER_WATCHED);
                 filterFavourite = uri.getQueryParameter(DataContract.PARAM_FILTER_FAVOURITE);
                 filterCategory = uri.getQueryParameter(DataContract.PARAM_FILTER_CATEGORY);
+                filterRuntime = uri.getQueryParameter(DataContract.PARAM_FILTER_RUNTIME);
+                filterReleaseYear = uri.getQueryParameter(DataContract.PARAM_FILTER_RELEASE_YEAR);
+                filterLanguage = uri.getQueryParameter(DataContract.PARAM_FILTER_LANGUAGE);
+                filterCountry = uri.getQueryParameter(DataContract.PARAM_FILTER_COUNTRY);
+                filterCertificate = uri.getQueryParameter(DataContract.PARAM_FILTER_CERTIFICATE);
             }
         }
         if (sortOrder == null) {
@@ -347,6 +378,21 @@ public final class AwardListFragment extends Fragment
         if (filterCategory == null) {
             filterCategory = PrefUtils.getAwardListFilterCategory(context);
         }
+        if (filterRuntime == null) {
+            filterRuntime = PrefUtils.getAwardListFilterRuntime(context);
+        }
+        if (filterReleaseYear == null) {
+            filterReleaseYear = PrefUtils.getAwardListFilterReleaseYear(context);
+        }
+        if (filterLanguage == null) {
+            filterLanguage = PrefUtils.getAwardListFilterLanguage(context);
+        }
+        if (filterCountry == null) {
+            filterCountry = PrefUtils.getAwardListFilterCountry(context);
+        }
+        if (filterCertificate == null) {
+            filterCertificate = PrefUtils.getAwardListFilterCertificate(context);
+        }
 
         ViewAwardQueryParameters parameters = ViewAwardQueryParameters.builder()
                 .sortOrder(sortOrder)
@@ -355,17 +401,28 @@ public final class AwardListFragment extends Fragment
                 .filterWatched(filterWatched)
                 .filterFavourite(filterFavourite)
                 .filterCategory(filterCategory)
+                .filterRuntime(filterRuntime)
+                .filterReleaseYear(filterReleaseYear)
+                .filterLanguage(filterLanguage)
+                .filterCountry(filterCountry)
+                .filterCertificate(filterCertificate)
                 .build();
 
         if (uri == null) {
-            uri = DataContract.ViewAwardEntry.buildUriWithParameters(parameters);
+            // The first page must contain any position being restored, so that it can be
+            // scrolled to when the load finishes
+            uri = DataContract.ViewAwardEntry.buildUriForPage(
+                    DataContract.ViewAwardEntry.buildUriWithParameters(parameters),
+                    null, null, null,
+                    ViewAwardPagingSource.getFirstPageSize(mSelectedPosition + 1));
         }
 
         // Get the selection and selectionArgs corresponding to the parameters
-        String selection = DataProvider.getSelectionForViewAwardQueryParams();
+        String selection = DataProvider.getSelectionForViewAwardQueryParams(parameters);
         String[] selectionArgs = DataProvider.getSelectionArgsForViewAwardQueryParams(parameters);
 
-        return new CursorLoader(context,
+        // The loader also creates the display models of the rows on its background thread
+        return new ViewAwardCursorLoader(context,
                 uri,
                 DataContract.ViewAwardEntry.ALL_COLUMNS,
                 selection,
@@ -416,7 +473,10 @@ public final class AwardListFragment extends Fragment
      */
     @Override
     public void onLoadFinished(final Loader<Cursor> loader, final Cursor cursor) {
-        mViewAwardAdapter.swapCursor(cursor);
+        // The rows are being replaced, so any prefetches are for the wrong rows
+        mPosterPrefetcher.cancelAll();
+        // The paging source copies the first page and passes the rows to the adapter
+        mViewAwardPagingSource.reset((CursorLoader) loader, cursor);
 
         // If there's a desired position to restore to, do so now.
         if (mSelectedPosition != RecyclerView.NO_POSITION) {
@@ -437,7 +497,8 @@ public final class AwardListFragment extends Fragment
     @Override
     public void onLoaderReset(final Loader<Cursor> loader) {
         if (loader != null) {
-            mViewAwardAdapter.swapCursor(null);
+            mPosterPrefetcher.cancelAll();
+            mViewAwardPagingSource.clear();
         }
     }
 
@@ -448,6 +509,11 @@ public final class AwardListFragment extends Fragment
     private void onDataChanged() {
         Loader loader = getLoaderManager().getLoader(AWARD_LIST_LOADER_ID);
         if (loader != null) {
+            // Reload all the pages which have been loaded, not just the first one
+            if (loader instanceof CursorLoader) {
+                CursorLoader cursorLoader = (CursorLoader) loader;
+                cursorLoader.setUri(mViewAwardPagingSource.getUriForReload(cursorLoader.getUri()));
+            }
             loader.forceLoad();
         }
     }
@@ -505,6 +571,15 @@ public final class AwardListFragment extends Fragment
         return ObjectFactory.getLocalDatabase();
     }
 
+    /**
+     * Convenience method which returns a reference to the poster palette cache.
+     * @return a reference to the poster palette cache
+     */
+    @NonNull
+    private static PosterPaletteCache getPosterPaletteCache() {
+        return ObjectFactory.getPosterPaletteCache();
+    }
+
     /**
      * Convenience method which returns a reference to a NetUtils object.
      * @return a reference to a NetUtils object
@@ -544,7 +619,12 @@ public final class AwardListFragment extends Fragment
                 || PrefUtils.isAwardListFilterWishlistKey(context, key)
                 || PrefUtils.isAwardListFilterWatchedKey(context, key)
                 || PrefUtils.isAwardListFilterFavouriteKey(context, key)
-                || PrefUtils.isAwardListFilterCategoryKey(context, key)) {
+                || PrefUtils.isAwardListFilterCategoryKey(context, key)
+                || PrefUtils.isAwardListFilterRuntimeKey(context, key)
+                || PrefUtils.isAwardListFilterReleaseYearKey(context, key)
+                || PrefUtils.isAwardListFilterLanguageKey(context, key)
+                || PrefUtils.isAwardListFilterCountryKey(context, key)
+                || PrefUtils.isAwardListFilterCertificateKey(context, key)) {
 
             // Construct the URI using the sort and filter parameters
             ViewAwardQueryParameters parameters = ViewAwardQueryParameters.builder()
@@ -554,8 +634,15 @@ public final class AwardListFragment extends Fragment
                     .filterWatched(PrefUtils.getAwardListFilterWatched(context))
                     .filterFavourite(PrefUtils.getAwardListFilterFavourite(context))
                     .filterCategory(PrefUtils.getAwardListFilterCategory(context))
+                    .filterRuntime(PrefUtils.getAwardListFilterRuntime(context))
+                    .filterReleaseYear(PrefUtils.getAwardListFilterReleaseYear(context))
+                    .filterLanguage(PrefUtils.getAwardListFilterLanguage(context))
+                    .filterCountry(PrefUtils.getAwardListFilterCountry(context))
+                    .filterCertificate(PrefUtils.getAwardListFilterCertificate(context))
                     .build();
-            Uri uri = DataContract.ViewAwardEntry.buildUriWithParameters(parameters);
+            Uri uri = DataContract.ViewAwardEntry.buildUriForPage(
+                    DataContract.ViewAwardEntry.buildUriWithParameters(parameters),
+                    null, null, null, ViewAwardPagingSource.PAGE_SIZE);
 
             // Restart the loader
             Bundle bundle = new Bundle();
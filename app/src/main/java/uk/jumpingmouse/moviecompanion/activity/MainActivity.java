@@ -14,6 +14,9 @@ import uk.jumpingmouse.moviecompanion.BuildConfig;
 import uk.jumpingmouse.moviecompanion.ObjectFactory;
 import uk.jumpingmouse.moviecompanion.R;
 import uk.jumpingmouse.moviecompanion.analytics.AnalyticsManager;
+import uk.jumpingmouse.moviecompanion.image.PosterWarmUpService;
+import uk.jumpingmouse.moviecompanion.model.QueryResultCache;
+import uk.jumpingmouse.moviecompanion.model.QueryStats;
 import uk.jumpingmouse.moviecompanion.security.SecurityManager;
 import uk.jumpingmouse.moviecompanion.utils.NavUtils;
 import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
@@ -55,6 +58,9 @@ public class MainActivity extends AppCompatActivity {
 
         // Initialise the analytics manager
         getAnalyticsManager().onCreateActivity(this);
+
+        // Download the newest posters in advance, while charging on an unmetered network
+        PosterWarmUpService.schedule(this);
     }
 
     /**
@@ -105,6 +111,12 @@ public class MainActivity extends AppCompatActivity {
     public boolean onCreateOptionsMenu(Menu menu) {
         MenuInflater inflater = getMenuInflater();
         inflater.inflate(R.menu.menu_main_activity, menu);
+
+        // The query statistics are only available in debug builds
+        MenuItem queryStatsItem = menu.findItem(R.id.menu_option_query_stats);
+        if (queryStatsItem != null) {
+            queryStatsItem.setVisible(BuildConfig.DEBUG);
+        }
         return true;
     }
 
@@ -125,6 +137,13 @@ public class MainActivity extends AppCompatActivity {
                 getSecurityManager().signOut(this);
                 return true;
 
+            // query statistics (debug builds only)
+            case R.id.menu_option_query_stats:
+                getViewUtils().displayDebugMessage(this, R.string.menu_option_query_stats,
+                        QueryStats.getInstance().dump() + "\n" + QueryResultCache.getInstance()
+                        + "\n\n" + ObjectFactory.getPosterCache());
+                return true;
+
             default:
                 // handle menu options which are specific to a product flavour here
                 boolean consumed = getNavUtils().onFlavourSpecificItemSelectedMainActivity(this, item);
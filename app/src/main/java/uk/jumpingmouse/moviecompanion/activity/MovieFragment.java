@@ -30,7 +30,10 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import com.squareup.picasso.Callback;
-import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import timber.log.Timber;
 import uk.jumpingmouse.moviecompanion.ObjectFactory;
@@ -38,6 +41,9 @@ import uk.jumpingmouse.moviecompanion.R;
 import uk.jumpingmouse.moviecompanion.analytics.AnalyticsManager;
 import uk.jumpingmouse.moviecompanion.data.UserMovie;
 import uk.jumpingmouse.moviecompanion.data.ViewAward;
+import uk.jumpingmouse.moviecompanion.image.PosterCache;
+import uk.jumpingmouse.moviecompanion.image.PosterPaletteCache;
+import uk.jumpingmouse.moviecompanion.image.PosterPaletteCache.PosterColors;
 import uk.jumpingmouse.moviecompanion.model.DataContract;
 import uk.jumpingmouse.moviecompanion.model.LocalDatabase;
 import uk.jumpingmouse.moviecompanion.model.MasterDatabase;
@@ -53,12 +59,21 @@ import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
 public final class MovieFragment extends Fragment
         implements LoaderManager.LoaderCallbacks<Cursor> {
 
-    /** The cursor loader id. */
+    // The cursor loader ids
     private static final int VIEW_AWARD_LOADER_ID = 1;
+    private static final int MOVIE_AWARDS_LOADER_ID = 2;
+    private static final int MOVIE_PEOPLE_LOADER_ID = 3;
+    private static final int PERSON_AWARDS_LOADER_ID = 4;
+
+    /** The maximum number of cast members displayed in the list of people in the movie. */
+    private static final int CAST_DISPLAYED_MAX = 10;
 
     // Bundle keys, e.g. for use when saving and restoring the fragment's state
     private static final String KEY_VIEW_AWARD = "KEY_VIEW_AWARD";
     private static final String KEY_VIEW_AWARD_URI = "KEY_VIEW_AWARD_URI";
+    private static final String KEY_MOVIE_AWARDS_MOVIE_ID = "KEY_MOVIE_AWARDS_MOVIE_ID";
+    private static final String KEY_PEOPLE_MOVIE_ID = "KEY_PEOPLE_MOVIE_ID";
+    private static final String KEY_PERSON_NAME = "KEY_PERSON_NAME";
 
     private static final int DARK_MUTED_COLOR_DEFAULT = 0xFF333333;
     // green_50
@@ -73,6 +88,15 @@ public final class MovieFragment extends Fragment
     /** The cursor loader for view award. */
     private CursorLoader mCursorLoader;
 
+    /** The id of the movie whose awards are being loaded, or null if there is none. */
+    private String mMovieAwardsMovieId;
+
+    /** The id of the movie whose people are being loaded, or null if there is none. */
+    private String mPeopleMovieId;
+
+    /** The name of the person whose awards are being loaded, or null if there is none. */
+    private String mPersonName;
+
     /** The menu. */
     private Menu mMenu;
 
@@ -90,6 +114,12 @@ public final class MovieFragment extends Fragment
     private TextView mTxtCategory;
     private TextView mTxtAwardDate;
     private TextView mTxtReview;
+    private TextView mTxtMovieAwardsHeading;
+    private LinearLayout mLayoutMovieAwards;
+    private TextView mTxtPeopleHeading;
+    private LinearLayout mLayoutPeople;
+    private TextView mTxtPersonAwardsHeading;
+    private LinearLayout mLayoutPersonAwards;
 
     //--------------------------------------------------------------
     // Lifecycle methods
@@ -118,6 +148,12 @@ public final class MovieFragment extends Fragment
         mTxtCategory = mRootView.findViewById(R.id.txtCategory);
         mTxtAwardDate = mRootView.findViewById(R.id.txtAwardDate);
         mTxtReview = mRootView.findViewById(R.id.txtReview);
+        mTxtMovieAwardsHeading = mRootView.findViewById(R.id.txtMovieAwardsHeading);
+        mLayoutMovieAwards = mRootView.findViewById(R.id.layoutMovieAwards);
+        mTxtPeopleHeading = mRootView.findViewById(R.id.txtPeopleHeading);
+        mLayoutPeople = mRootView.findViewById(R.id.layoutPeople);
+        mTxtPersonAwardsHeading = mRootView.findViewById(R.id.txtPersonAwardsHeading);
+        mLayoutPersonAwards = mRootView.findViewById(R.id.layoutPersonAwards);
 
         // Set the transition name for the poster
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
@@ -132,6 +168,9 @@ public final class MovieFragment extends Fragment
         if (savedInstanceState != null) {
             // Retrieve and display the saved ViewAward
             mViewAward = savedInstanceState.getParcelable(KEY_VIEW_AWARD);
+            mMovieAwardsMovieId = savedInstanceState.getString(KEY_MOVIE_AWARDS_MOVIE_ID);
+            mPeopleMovieId = savedInstanceState.getString(KEY_PEOPLE_MOVIE_ID);
+            mPersonName = savedInstanceState.getString(KEY_PERSON_NAME);
             if (context != null && mViewAward != null) {
                 displayViewAward(context, mViewAward);
             }
@@ -147,6 +186,12 @@ public final class MovieFragment extends Fragment
         if (mArgViewAwardUri != null) {
             loadData(mArgViewAwardUri);
         }
+        if (mPersonName != null) {
+            // Redisplay the awards of the person who was selected before the fragment was
+            // recreated, reloading them if the loader did not survive
+            getLoaderManager().initLoader(PERSON_AWARDS_LOADER_ID,
+                    newPersonAwardsBundle(mPersonName), this);
+        }
 
         mLayoutImdbLink.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -177,6 +222,9 @@ public final class MovieFragment extends Fragment
         super.onSaveInstanceState(outState);
 
         outState.putParcelable(KEY_VIEW_AWARD, mViewAward);
+        outState.putString(KEY_MOVIE_AWARDS_MOVIE_ID, mMovieAwardsMovieId);
+        outState.putString(KEY_PEOPLE_MOVIE_ID, mPeopleMovieId);
+        outState.putString(KEY_PERSON_NAME, mPersonName);
     }
 
     //--------------------------------------------------------------
@@ -358,13 +406,30 @@ public final class MovieFragment extends Fragment
      */
     @Override
     public Loader<Cursor> onCreateLoader(final int id, @Nullable final Bundle args) {
-        // This fragment only uses one loader, so we don't care about checking the id.
-
         Uri uri = null;
         if (args != null) {
             uri = args.getParcelable(KEY_VIEW_AWARD_URI);
         }
 
+        if (id == MOVIE_PEOPLE_LOADER_ID) {
+            return new CursorLoader(getActivity(),
+                    uri,
+                    DataContract.MovieEntry.getAllColumns(),
+                    null,
+                    null,
+                    null);
+        }
+
+        if (id == MOVIE_AWARDS_LOADER_ID || id == PERSON_AWARDS_LOADER_ID) {
+            // The awards are sorted by the content provider
+            return new CursorLoader(getActivity(),
+                    uri,
+                    DataContract.ViewAwardEntry.getAllColumns(),
+                    null,
+                    null,
+                    null);
+        }
+
         mCursorLoader = new CursorLoader(getActivity(),
                 uri,
                 DataContract.ViewAwardEntry.getAllColumns(),
@@ -422,10 +487,31 @@ public final class MovieFragment extends Fragment
      */
     @Override
     public void onLoadFinished(Loader<Cursor> loader, Cursor cursor) {
+        if (loader.getId() == MOVIE_AWARDS_LOADER_ID) {
+            if (getActivity() != null && mViewAward != null) {
+                displayMovieAwards(getActivity(), mViewAward, cursor);
+            }
+            return;
+        }
+        if (loader.getId() == MOVIE_PEOPLE_LOADER_ID) {
+            if (getActivity() != null) {
+                displayPeople(getActivity(), cursor);
+            }
+            return;
+        }
+        if (loader.getId() == PERSON_AWARDS_LOADER_ID) {
+            if (getActivity() != null && mViewAward != null) {
+                displayPersonAwards(getActivity(), mViewAward, cursor);
+            }
+            return;
+        }
+
         // Construct and display the ViewAward
         if (cursor != null && cursor.moveToFirst()) {
             mViewAward = ModelUtils.newViewAward(cursor);
             displayViewAward(getActivity(), mViewAward);
+            loadMovieAwards(mViewAward.getMovieId());
+            loadPeople(mViewAward.getMovieId());
         }
     }
 
@@ -461,6 +547,78 @@ public final class MovieFragment extends Fragment
         }
     }
 
+    /**
+     * Loads all the awards for a movie into the movie awards cursor loader.
+     * If they are already loaded, they are redisplayed rather than reloaded,
+     * as the cursor loader reloads the awards itself when they change.
+     * @param movieId the id of the movie
+     */
+    private void loadMovieAwards(@NonNull String movieId) {
+        if (getActivity() != null) {
+            Bundle bundle = new Bundle();
+            bundle.putParcelable(KEY_VIEW_AWARD_URI,
+                    DataContract.ViewAwardEntry.buildUriForMovie(movieId));
+            if (movieId.equals(mMovieAwardsMovieId)) {
+                // initLoader redelivers the loaded awards
+                getLoaderManager().initLoader(MOVIE_AWARDS_LOADER_ID, bundle, this);
+            } else {
+                mMovieAwardsMovieId = movieId;
+                getLoaderManager().restartLoader(MOVIE_AWARDS_LOADER_ID, bundle, this);
+            }
+        }
+    }
+
+    /**
+     * Loads the movie, whose director, screenplay and cast are the people in the movie,
+     * into the movie people cursor loader.
+     * If the movie is not the one whose people are displayed, the awards featuring
+     * the selected person are no longer displayed.
+     * @param movieId the id of the movie
+     */
+    private void loadPeople(@NonNull String movieId) {
+        if (getActivity() != null) {
+            Bundle bundle = new Bundle();
+            bundle.putParcelable(KEY_VIEW_AWARD_URI,
+                    DataContract.MovieEntry.buildUriForRowById(movieId));
+            if (movieId.equals(mPeopleMovieId)) {
+                // initLoader redelivers the loaded movie
+                getLoaderManager().initLoader(MOVIE_PEOPLE_LOADER_ID, bundle, this);
+            } else {
+                mPeopleMovieId = movieId;
+                mPersonName = null;
+                getLoaderManager().destroyLoader(PERSON_AWARDS_LOADER_ID);
+                displayPersonAwards(getActivity(), null, null);
+                getLoaderManager().restartLoader(MOVIE_PEOPLE_LOADER_ID, bundle, this);
+            }
+        }
+    }
+
+    /**
+     * Loads all the awards featuring a person into the person awards cursor loader.
+     * The awards are found in the people index by the content provider.
+     * @param personName the person's name
+     */
+    private void loadPersonAwards(@NonNull String personName) {
+        if (getActivity() != null) {
+            mPersonName = personName;
+            getLoaderManager().restartLoader(PERSON_AWARDS_LOADER_ID,
+                    newPersonAwardsBundle(personName), this);
+        }
+    }
+
+    /**
+     * Returns the arguments of the person awards cursor loader for a person.
+     * @param personName the person's name
+     * @return the arguments of the person awards cursor loader
+     */
+    @NonNull
+    private static Bundle newPersonAwardsBundle(@NonNull String personName) {
+        Bundle bundle = new Bundle();
+        bundle.putParcelable(KEY_VIEW_AWARD_URI,
+                DataContract.ViewAwardEntry.buildUriForPerson(personName));
+        return bundle;
+    }
+
     //--------------------------------------------------------------
     // UI methods
 
@@ -475,30 +633,34 @@ public final class MovieFragment extends Fragment
             setMenuItemVisibility(mMenu, viewAward);
         }
 
-        String posterUrl = ModelUtils.getPosterUrl(viewAward.getPoster());
-        Picasso.with(context).load(posterUrl).into(mImgPoster, new Callback() {
+        // Apply the colours derived from the poster immediately if they have been saved,
+        // otherwise derive them once the poster has loaded
+        final String poster = viewAward.getPoster();
+        final PosterColors savedColors = getPosterPaletteCache().get(context, poster);
+        if (savedColors != null) {
+            applyPosterColors(savedColors);
+        }
+
+        // If a smaller size of the poster is in the memory cache, e.g. the list thumbnail,
+        // display it immediately, so that it can be used by the shared element transition,
+        // until the poster itself has loaded.
+        // Picasso attaches a request to any request in progress for the same poster.
+        // If the connection is poor, a reduced size of the poster may be loaded, which is
+        // replaced by the full size once it has loaded, if the connection has improved.
+        final String posterUrl = getPosterCache().getPosterUrl(mImgPoster, poster);
+        RequestCreator requestCreator = getPosterCache().getPicasso(context).load(posterUrl);
+        Bitmap smallerPoster = getPosterCache().getCachedSmallerPoster(mImgPoster, poster);
+        if (smallerPoster != null) {
+            requestCreator.placeholder(new BitmapDrawable(context.getResources(), smallerPoster));
+        }
+        requestCreator.into(mImgPoster, new Callback() {
             @Override
             public void onSuccess() {
-                if (mRootView == null || mImgPoster.getDrawable() == null) {
-                    return;
-                }
-                Bitmap bitmap = ((BitmapDrawable) mImgPoster.getDrawable()).getBitmap();
-                if (bitmap != null) {
-                    Palette.Builder paletteBuilder = new Palette.Builder(bitmap);
-                    Palette palette = paletteBuilder.generate();
-                    mDarkMutedColor = palette.getDarkMutedColor(DARK_MUTED_COLOR_DEFAULT);
-                    mLightMutedColor = getViewUtils().lightenColor(
-                            palette.getLightMutedColor(LIGHT_MUTED_COLOR_DEFAULT));
-
-                    mRootView.findViewById(R.id.layoutMovieInfo).setBackgroundColor(mDarkMutedColor);
-                    mRootView.findViewById(R.id.layoutMovieFragment).setBackgroundColor(mLightMutedColor);
-                    mRootView.findViewById(R.id.layoutAwardInfo).setBackgroundColor(mLightMutedColor);
-                    mRootView.findViewById(R.id.txtReview).setBackgroundColor(mLightMutedColor);
-
-                    // Note: Setting the app bar background colour to match the movie info bar
-                    // is a bad idea.  It's distracting, and the app bar goes green when the
-                    // review is scrolled to the top.
+                pinDisplayedPoster();
+                if (savedColors == null) {
+                    derivePosterColors(context, poster);
                 }
+                upgradePoster(context, poster, posterUrl);
             }
 
             @Override
@@ -523,6 +685,256 @@ public final class MovieFragment extends Fragment
         mTxtReview.setText(viewAward.getReview());
     }
 
+    /**
+     * Pins the displayed poster, which is displayed until the fragment is destroyed,
+     * so it is pinned rather than acquired and released.
+     */
+    private void pinDisplayedPoster() {
+        if (mImgPoster.getDrawable() instanceof BitmapDrawable) {
+            Bitmap bitmap = ((BitmapDrawable) mImgPoster.getDrawable()).getBitmap();
+            if (bitmap != null) {
+                getPosterCache().pin(bitmap);
+            }
+        }
+    }
+
+    /**
+     * Replaces a poster which was loaded in a reduced size because the connection was poor
+     * with the full-size poster, if the connection is no longer poor.
+     * The reduced poster is displayed until the full-size poster has loaded.
+     * @param context the context
+     * @param poster the TMDb poster path of the displayed poster
+     * @param posterUrl the URL of the displayed poster
+     */
+    private void upgradePoster(@NonNull final Context context, @Nullable final String poster,
+                               @NonNull final String posterUrl) {
+        String fullSizePosterUrl = getPosterCache().getFullSizePosterUrl(mImgPoster, poster);
+        if (fullSizePosterUrl.equals(posterUrl) || getNetUtils().isConnectionPoor()
+                || mViewAward == null || poster == null || !poster.equals(mViewAward.getPoster())) {
+            return;
+        }
+        RequestCreator requestCreator = getPosterCache().getPicasso(context).load(fullSizePosterUrl);
+        if (mImgPoster.getDrawable() != null) {
+            requestCreator.placeholder(mImgPoster.getDrawable());
+        }
+        requestCreator.into(mImgPoster, new Callback() {
+            @Override
+            public void onSuccess() {
+                pinDisplayedPoster();
+            }
+
+            @Override
+            public void onError() {
+                Timber.w("Error loading full-size poster into ImageView");
+            }
+        });
+    }
+
+    /**
+     * Derives the colours from the displayed poster in the background, saves them so that
+     * they are applied immediately the next time the movie is displayed, and applies them.
+     * @param context the context
+     * @param poster the TMDb poster path of the displayed poster
+     */
+    private void derivePosterColors(@NonNull final Context context, @Nullable final String poster) {
+        if (mRootView == null || !(mImgPoster.getDrawable() instanceof BitmapDrawable)) {
+            return;
+        }
+        Bitmap bitmap = ((BitmapDrawable) mImgPoster.getDrawable()).getBitmap();
+        if (bitmap == null) {
+            return;
+        }
+        final Context applicationContext = context.getApplicationContext();
+        new Palette.Builder(bitmap).generate(new Palette.PaletteAsyncListener() {
+            @Override
+            public void onGenerated(Palette palette) {
+                PosterColors posterColors = new PosterColors(
+                        palette.getDarkMutedColor(DARK_MUTED_COLOR_DEFAULT),
+                        getViewUtils().lightenColor(
+                                palette.getLightMutedColor(LIGHT_MUTED_COLOR_DEFAULT)));
+                getPosterPaletteCache().put(applicationContext, poster, posterColors);
+
+                // Only apply the colours if the poster is still displayed
+                if (mViewAward != null && poster != null && poster.equals(mViewAward.getPoster())) {
+                    applyPosterColors(posterColors);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies the colours derived from a poster to the background of the screen.
+     * @param posterColors the colours derived from the poster
+     */
+    private void applyPosterColors(@NonNull final PosterColors posterColors) {
+        if (mRootView == null) {
+            return;
+        }
+        mDarkMutedColor = posterColors.getDarkMutedColor();
+        mLightMutedColor = posterColors.getLightMutedColor();
+
+        mRootView.findViewById(R.id.layoutMovieInfo).setBackgroundColor(mDarkMutedColor);
+        mRootView.findViewById(R.id.layoutMovieFragment).setBackgroundColor(mLightMutedColor);
+        mRootView.findViewById(R.id.layoutAwardInfo).setBackgroundColor(mLightMutedColor);
+        mRootView.findViewById(R.id.txtReview).setBackgroundColor(mLightMutedColor);
+
+        // Note: Setting the app bar background colour to match the movie info bar
+        // is a bad idea.  It's distracting, and the app bar goes green when the
+        // review is scrolled to the top.
+    }
+
+    /**
+     * Displays all the awards for the movie of the displayed ViewAward.
+     * The list is only displayed if the movie has more than one award.
+     * Selecting an award other than the displayed one displays that award.
+     * @param context the context
+     * @param viewAward the displayed ViewAward
+     * @param cursor a cursor containing the awards for the movie, most recent first
+     */
+    private void displayMovieAwards(@NonNull final Context context,
+                                    @NonNull final ViewAward viewAward, @Nullable Cursor cursor) {
+        mLayoutMovieAwards.removeAllViews();
+        int awardCount = cursor == null ? 0 : cursor.getCount();
+        int visibility = awardCount > 1 ? View.VISIBLE : View.GONE;
+        mTxtMovieAwardsHeading.setVisibility(visibility);
+        mLayoutMovieAwards.setVisibility(visibility);
+        if (awardCount <= 1) {
+            return;
+        }
+
+        LayoutInflater inflater = LayoutInflater.from(context);
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            final String awardId = cursor.getString(DataContract.ViewAwardEntry.COL_ID);
+            String categoryCode = cursor.getString(DataContract.ViewAwardEntry.COL_CATEGORY);
+            String awardDate = cursor.getString(DataContract.ViewAwardEntry.COL_AWARD_DATE);
+
+            TextView txtMovieAward =
+                    (TextView) inflater.inflate(R.layout.movie_award_item, mLayoutMovieAwards, false);
+            txtMovieAward.setText(getString(R.string.movie_award_text,
+                    getViewUtils().getCategoryText(context, categoryCode),
+                    getViewUtils().getAwardDateDisplayable(awardDate)));
+            txtMovieAward.setCompoundDrawablesRelativeWithIntrinsicBounds(
+                    getViewUtils().getCategoryRes(categoryCode), 0, 0, 0);
+            if (awardId.equals(viewAward.getId())) {
+                txtMovieAward.setEnabled(false);
+            } else {
+                txtMovieAward.setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View view) {
+                        setArgViewAwardUri(DataContract.ViewAwardEntry.buildUriForRowById(awardId));
+                    }
+                });
+            }
+            mLayoutMovieAwards.addView(txtMovieAward);
+        }
+    }
+
+    /**
+     * Displays the people in a movie, i.e. its directors, screenwriters and leading
+     * cast members. Selecting a person displays all the awards featuring the person.
+     * @param context the context
+     * @param cursor a cursor whose first row is the movie
+     */
+    private void displayPeople(@NonNull final Context context, @Nullable Cursor cursor) {
+        mLayoutPeople.removeAllViews();
+        Map<String, String> personNames = new LinkedHashMap<>();
+        if (cursor != null && cursor.moveToFirst()) {
+            addPersonNames(personNames,
+                    cursor.getString(DataContract.MovieEntry.COL_DIRECTOR), Integer.MAX_VALUE);
+            addPersonNames(personNames,
+                    cursor.getString(DataContract.MovieEntry.COL_SCREENPLAY), Integer.MAX_VALUE);
+            addPersonNames(personNames,
+                    cursor.getString(DataContract.MovieEntry.COL_CAST), CAST_DISPLAYED_MAX);
+        }
+        int visibility = personNames.isEmpty() ? View.GONE : View.VISIBLE;
+        mTxtPeopleHeading.setVisibility(visibility);
+        mLayoutPeople.setVisibility(visibility);
+
+        LayoutInflater inflater = LayoutInflater.from(context);
+        for (final String personName : personNames.values()) {
+            TextView txtPerson =
+                    (TextView) inflater.inflate(R.layout.movie_award_item, mLayoutPeople, false);
+            txtPerson.setText(personName);
+            txtPerson.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View view) {
+                    loadPersonAwards(personName);
+                }
+            });
+            mLayoutPeople.addView(txtPerson);
+        }
+    }
+
+    /**
+     * Adds the people in a CSV string of people to a map of the people in a movie,
+     * unless they are already in the map.
+     * @param personNames the names of the people in the movie, keyed by person key
+     * @param personCsv a CSV string of people, e.g. "Amy Adams, Jeremy Renner"
+     * @param countMax the maximum number of people in the CSV string to add
+     */
+    private static void addPersonNames(@NonNull Map<String, String> personNames,
+                                       @Nullable String personCsv, int countMax) {
+        int count = 0;
+        for (String personName : ModelUtils.toPersonNames(personCsv)) {
+            if (count++ == countMax) {
+                break;
+            }
+            String personKey = ModelUtils.toPersonKey(personName);
+            if (!personNames.containsKey(personKey)) {
+                personNames.put(personKey, personName);
+            }
+        }
+    }
+
+    /**
+     * Displays all the awards featuring the selected person, most recent first.
+     * Selecting an award other than the displayed one displays that award.
+     * @param context the context
+     * @param viewAward the displayed ViewAward, or null to stop displaying the awards
+     * @param cursor a cursor containing the awards featuring the person, most recent first
+     */
+    private void displayPersonAwards(@NonNull final Context context,
+                                     @Nullable final ViewAward viewAward, @Nullable Cursor cursor) {
+        mLayoutPersonAwards.removeAllViews();
+        int visibility = viewAward == null || mPersonName == null || cursor == null
+                ? View.GONE : View.VISIBLE;
+        mTxtPersonAwardsHeading.setVisibility(visibility);
+        mLayoutPersonAwards.setVisibility(visibility);
+        if (visibility == View.GONE) {
+            return;
+        }
+        mTxtPersonAwardsHeading.setText(getString(R.string.person_awards_heading, mPersonName));
+
+        LayoutInflater inflater = LayoutInflater.from(context);
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            final String awardId = cursor.getString(DataContract.ViewAwardEntry.COL_ID);
+            String categoryCode = cursor.getString(DataContract.ViewAwardEntry.COL_CATEGORY);
+            String awardDate = cursor.getString(DataContract.ViewAwardEntry.COL_AWARD_DATE);
+
+            TextView txtPersonAward = (TextView) inflater.inflate(
+                    R.layout.movie_award_item, mLayoutPersonAwards, false);
+            txtPersonAward.setText(getString(R.string.person_award_text,
+                    cursor.getString(DataContract.ViewAwardEntry.COL_TITLE),
+                    getViewUtils().getCategoryText(context, categoryCode),
+                    getViewUtils().getAwardDateDisplayable(awardDate)));
+            txtPersonAward.setCompoundDrawablesRelativeWithIntrinsicBounds(
+                    getViewUtils().getCategoryRes(categoryCode), 0, 0, 0);
+            if (awardId.equals(viewAward.getId())) {
+                txtPersonAward.setEnabled(false);
+            } else {
+                txtPersonAward.setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View view) {
+                        setArgViewAwardUri(DataContract.ViewAwardEntry.buildUriForRowById(awardId));
+                    }
+                });
+            }
+            mLayoutPersonAwards.addView(txtPersonAward);
+        }
+    }
+
     /**
      * Set the correct visibility for the ViewAward-related menu items.
      * @param menu the menu
@@ -607,4 +1019,22 @@ public final class MovieFragment extends Fragment
         return ObjectFactory.getViewUtils();
     }
 
+    /**
+     * Convenience method which returns a reference to the poster cache.
+     * @return a reference to the poster cache
+     */
+    @NonNull
+    private static PosterCache getPosterCache() {
+        return ObjectFactory.getPosterCache();
+    }
+
+    /**
+     * Convenience method which returns a reference to the poster palette cache.
+     * @return a reference to the poster palette cache
+     */
+    @NonNull
+    private static PosterPaletteCache getPosterPaletteCache() {
+        return ObjectFactory.getPosterPaletteCache();
+    }
+
 }
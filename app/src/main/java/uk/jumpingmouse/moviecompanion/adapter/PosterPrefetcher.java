@@ -0,0 +1,328 @@
+package uk.jumpingmouse.moviecompanion.adapter;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Target;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+import uk.jumpingmouse.moviecompanion.image.PosterCache;
+
+/**
+ * The poster prefetcher for the view award list.
+ * As the list is scrolled, the thumbnails of the rows which are about to scroll into view
+ * are loaded into the poster cache, so that they can be displayed as soon as their rows are
+ * bound. The direction of the scroll determines which rows are prefetched, and its velocity
+ * determines how many. Prefetches for rows which are no longer about to scroll into view
+ * are cancelled, and only a limited number of prefetches are in progress at any time.
+ * @author Edmund Johnson
+ */
+public final class PosterPrefetcher extends RecyclerView.OnScrollListener {
+
+    /** The minimum number of rows ahead of the visible rows which are prefetched. */
+    private static final int MIN_PREFETCH_ROWS = 4;
+    /** The maximum number of rows ahead of the visible rows which are prefetched. */
+    private static final int MAX_PREFETCH_ROWS = 24;
+    /** The number of milliseconds of scrolling, at the current velocity, which are prefetched. */
+    private static final int PREFETCH_MILLIS = 500;
+    /** The maximum number of prefetches in progress at any time. */
+    private static final int MAX_IN_FLIGHT = 3;
+    /** The weight given to the latest scroll when smoothing the velocity, out of 10. */
+    private static final int VELOCITY_SMOOTHING = 3;
+
+    private final Context mContext;
+    private final ViewAwardAdapter mViewAwardAdapter;
+
+    /** The prefetches in progress, keyed by poster URL. */
+    private final Map<String, PrefetchTarget> mInFlight = new HashMap<>();
+    /** The prefetches waiting to be started, nearest row first. */
+    private final Deque<PrefetchTarget> mPending = new ArrayDeque<>();
+
+    /** The first position in the range of rows currently being prefetched. */
+    private int mRangeStart;
+    /** The position after the last in the range of rows currently being prefetched. */
+    private int mRangeEnd;
+
+    /** The smoothed scroll velocity, in pixels per second. */
+    private float mVelocity;
+    /** The time of the previous scroll, or 0 if the list is not being scrolled. */
+    private long mLastScrollMillis;
+    /** Whether prefetches are being started, to prevent re-entrant starts. */
+    private boolean mStarting;
+
+    /**
+     * Private constructor to prevent direct instantiation from outside this class.
+     * @param context the context
+     * @param viewAwardAdapter the adapter which displays the rows
+     */
+    private PosterPrefetcher(@NonNull final Context context,
+                             @NonNull final ViewAwardAdapter viewAwardAdapter) {
+        mContext = context.getApplicationContext();
+        mViewAwardAdapter = viewAwardAdapter;
+    }
+
+    /**
+     * Returns a new instance of the poster prefetcher.
+     * @param context the context
+     * @param viewAwardAdapter the adapter which displays the rows
+     * @return a new instance of the poster prefetcher
+     */
+    @NonNull
+    public static PosterPrefetcher newInstance(@NonNull final Context context,
+                                               @NonNull final ViewAwardAdapter viewAwardAdapter) {
+        return new PosterPrefetcher(context, viewAwardAdapter);
+    }
+
+    //---------------------------------------------------------------------
+    // Scroll listener
+
+    /**
+     * Prefetches the thumbnails of the rows which are about to scroll into view.
+     * @param recyclerView the RecyclerView which scrolled
+     * @param dx the amount of horizontal scroll
+     * @param dy the amount of vertical scroll
+     */
+    @Override
+    public void onScrolled(final RecyclerView recyclerView, final int dx, final int dy) {
+        if (dy == 0) {
+            return;
+        }
+        updateVelocity(dy);
+
+        // GridLayoutManager is a subclass of LinearLayoutManager
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager) || recyclerView.getChildCount() == 0) {
+            return;
+        }
+        LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+        int spanCount = layoutManager instanceof GridLayoutManager
+                ? ((GridLayoutManager) layoutManager).getSpanCount() : 1;
+
+        // The size of a row, and the thumbnail size, are taken from a visible row
+        View child = recyclerView.getChildAt(0);
+        RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(child);
+        if (!(viewHolder instanceof ViewAwardAdapter.ViewHolder) || child.getHeight() <= 0) {
+            return;
+        }
+
+        // Prefetch the number of rows which will scroll into view in the next PREFETCH_MILLIS
+        int prefetchRows = (int) (mVelocity * PREFETCH_MILLIS / 1000 / child.getHeight());
+        prefetchRows = Math.max(MIN_PREFETCH_ROWS, Math.min(MAX_PREFETCH_ROWS, prefetchRows));
+        int prefetchCount = prefetchRows * spanCount;
+
+        int itemCount = mViewAwardAdapter.getItemCount();
+        int rangeStart;
+        int rangeEnd;
+        if (dy > 0) {
+            rangeStart = linearLayoutManager.findLastVisibleItemPosition() + 1;
+            rangeEnd = Math.min(itemCount, rangeStart + prefetchCount);
+        } else {
+            rangeEnd = linearLayoutManager.findFirstVisibleItemPosition();
+            rangeStart = Math.max(0, rangeEnd - prefetchCount);
+        }
+        if (rangeStart < 0 || rangeStart >= rangeEnd) {
+            return;
+        }
+        prefetch(((ViewAwardAdapter.ViewHolder) viewHolder), rangeStart, rangeEnd, dy > 0);
+    }
+
+    /**
+     * Resets the scroll velocity when the list stops scrolling.
+     * @param recyclerView the RecyclerView whose scroll state has changed
+     * @param newState the new scroll state
+     */
+    @Override
+    public void onScrollStateChanged(final RecyclerView recyclerView, final int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            mVelocity = 0;
+            mLastScrollMillis = 0;
+        }
+    }
+
+    /**
+     * Updates the smoothed scroll velocity.
+     * @param dy the amount of vertical scroll since the previous scroll
+     */
+    private void updateVelocity(final int dy) {
+        long now = SystemClock.uptimeMillis();
+        if (mLastScrollMillis > 0 && now > mLastScrollMillis) {
+            float velocity = Math.abs(dy) * 1000f / (now - mLastScrollMillis);
+            mVelocity = (velocity * VELOCITY_SMOOTHING + mVelocity * (10 - VELOCITY_SMOOTHING)) / 10;
+        }
+        mLastScrollMillis = now;
+    }
+
+    //---------------------------------------------------------------------
+    // Prefetching
+
+    /**
+     * Prefetches the thumbnails of a range of rows, cancelling any prefetches for rows
+     * outside the range.
+     * @param viewHolder a view holder whose poster view determines the thumbnail size
+     * @param rangeStart the first position in the range
+     * @param rangeEnd the position after the last in the range
+     * @param isScrollingDown whether the list is being scrolled down, in which case
+     *                        the first row in the range is nearest, otherwise the last
+     */
+    private void prefetch(@NonNull final ViewAwardAdapter.ViewHolder viewHolder,
+                          final int rangeStart, final int rangeEnd, final boolean isScrollingDown) {
+        if (rangeStart == mRangeStart && rangeEnd == mRangeEnd) {
+            return;
+        }
+        mRangeStart = rangeStart;
+        mRangeEnd = rangeEnd;
+
+        // Cancel the prefetches for rows which are no longer in range
+        mPending.clear();
+        Iterator<PrefetchTarget> iterator = mInFlight.values().iterator();
+        while (iterator.hasNext()) {
+            PrefetchTarget target = iterator.next();
+            if (!isInRange(target.mPosition)) {
+                getPicasso().cancelRequest(target);
+                iterator.remove();
+            }
+        }
+
+        // Queue the rows in range, nearest first
+        for (int i = 0; i < rangeEnd - rangeStart; i++) {
+            int position = isScrollingDown ? rangeStart + i : rangeEnd - 1 - i;
+            String poster = mViewAwardAdapter.getPoster(position);
+            if (poster == null) {
+                continue;
+            }
+            String thumbnailUrl = getPosterCache().getPosterUrl(viewHolder.getImgPoster(), poster);
+            if (!mInFlight.containsKey(thumbnailUrl)) {
+                mPending.add(new PrefetchTarget(position, thumbnailUrl));
+            }
+        }
+        startPending();
+    }
+
+    /**
+     * Starts pending prefetches, up to the maximum number in progress.
+     */
+    private void startPending() {
+        if (mStarting) {
+            return;
+        }
+        mStarting = true;
+        while (mInFlight.size() < MAX_IN_FLIGHT && !mPending.isEmpty()) {
+            PrefetchTarget target = mPending.removeFirst();
+            if (mInFlight.containsKey(target.mUrl)) {
+                continue;
+            }
+            // The target is added first, as it is called back immediately if the
+            // thumbnail is already in the memory cache
+            mInFlight.put(target.mUrl, target);
+            getPicasso().load(target.mUrl)
+                    .priority(Picasso.Priority.LOW)
+                    .into(target);
+        }
+        mStarting = false;
+    }
+
+    /**
+     * Processes the completion of a prefetch, whether or not it succeeded.
+     * @param target the target of the prefetch
+     */
+    private void onPrefetchComplete(@NonNull final PrefetchTarget target) {
+        if (mInFlight.get(target.mUrl) == target) {
+            mInFlight.remove(target.mUrl);
+            startPending();
+        }
+    }
+
+    /**
+     * Cancels all prefetches, e.g. when the rows of the list are replaced.
+     */
+    public void cancelAll() {
+        mPending.clear();
+        for (PrefetchTarget target : mInFlight.values()) {
+            getPicasso().cancelRequest(target);
+        }
+        mInFlight.clear();
+        mRangeStart = 0;
+        mRangeEnd = 0;
+    }
+
+    /**
+     * Returns whether a position is in the range of rows currently being prefetched.
+     * @param position the position
+     * @return true if the position is in range, false otherwise
+     */
+    private boolean isInRange(final int position) {
+        return position >= mRangeStart && position < mRangeEnd;
+    }
+
+    /**
+     * Returns the Picasso instance which loads posters through the poster cache.
+     * @return the Picasso instance which loads posters through the poster cache
+     */
+    @NonNull
+    private Picasso getPicasso() {
+        return getPosterCache().getPicasso(mContext);
+    }
+
+    /**
+     * Convenience method which returns a reference to the poster cache.
+     * @return a reference to the poster cache
+     */
+    @NonNull
+    private static PosterCache getPosterCache() {
+        return ObjectFactory.getPosterCache();
+    }
+
+    //---------------------------------------------------------------------
+    // Prefetch target
+
+    /**
+     * The target of a prefetch, which discards the loaded thumbnail, as it only needs to be
+     * in the poster cache. Picasso holds its targets weakly, so each target is held in the
+     * map of prefetches in progress until it completes.
+     */
+    private final class PrefetchTarget implements Target {
+        private final int mPosition;
+        private final String mUrl;
+
+        /**
+         * Constructor.
+         * @param position the position of the row
+         * @param url the thumbnail URL
+         */
+        PrefetchTarget(final int position, @NonNull final String url) {
+            mPosition = position;
+            mUrl = url;
+        }
+
+        @Override
+        public void onBitmapLoaded(final Bitmap bitmap, final Picasso.LoadedFrom from) {
+            onPrefetchComplete(this);
+        }
+
+        @Override
+        public void onBitmapFailed(@Nullable final Drawable errorDrawable) {
+            onPrefetchComplete(this);
+        }
+
+        @Override
+        public void onPrepareLoad(@Nullable final Drawable placeHolderDrawable) {
+            // no action required
+        }
+    }
+
+}
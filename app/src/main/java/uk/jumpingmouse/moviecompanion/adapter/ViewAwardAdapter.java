@@ -2,11 +2,11 @@ package uk.jumpingmouse.moviecompanion.adapter;
 
 import android.app.Activity;
 import android.content.Intent;
-import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.support.annotation.DrawableRes;
 import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -18,20 +18,21 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Callback;
+
+import java.util.List;
 
 import uk.jumpingmouse.moviecompanion.ObjectFactory;
 import uk.jumpingmouse.moviecompanion.R;
 import uk.jumpingmouse.moviecompanion.activity.MovieActivity;
 import uk.jumpingmouse.moviecompanion.analytics.AnalyticsManager;
+import uk.jumpingmouse.moviecompanion.image.PosterCache;
 import uk.jumpingmouse.moviecompanion.model.DataContract;
-import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
-import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
 
 /**
  * The adapter for the view award list.
- * This adapter exposes a list of view awards from a {@link Cursor}
- * to a {@link android.support.v7.widget.RecyclerView}.
+ * This adapter exposes a list of view award display models, which are created as the
+ * view awards are loaded, to a {@link android.support.v7.widget.RecyclerView}.
  * @author Edmund Johnson
  */
 public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapter.ViewHolder> {
@@ -40,7 +41,8 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
     private int mSelectedPosition = RecyclerView.NO_POSITION;
 
     private final Activity mActivity;
-    private Cursor mCursor;
+    /** The display models of the rows, in list order. */
+    private List<ViewAwardRow> mRows;
     private final View mEmptyListView;
     private @LayoutRes int mListLayout;
 
@@ -105,8 +107,6 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
      */
     @Override
     public void onBindViewHolder(@NonNull final ViewHolder viewHolder, final int cursorPosition) {
-        mCursor.moveToPosition(cursorPosition);
-
         if (cursorPosition == getSelectedPosition()) {
             viewHolder.itemView.setSelected(true);
         }
@@ -118,74 +118,91 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
             viewHolder.itemView.setActivated(false);
         }
 
-        // Extract the award info from the cursor
-        String viewAwardId = mCursor.getString(DataContract.ViewAwardEntry.COL_ID);
-        //int movieId = mCursor.getInt(DataContract.ViewAwardEntry.COL_MOVIE_ID);
-        String awardDate = getViewUtils().getAwardDateDisplayable(
-                mCursor.getString(DataContract.ViewAwardEntry.COL_AWARD_DATE));
-        String categoryCode = mCursor.getString(DataContract.ViewAwardEntry.COL_CATEGORY);
-        @DrawableRes int categoryRes = getViewUtils().getCategoryRes(categoryCode);
-        String categoryText = getViewUtils().getCategoryText(mActivity, categoryCode);
-        //int displayOrder = mCursor.getInt(DataContract.ViewAwardEntry.COL_DISPLAY_ORDER);
-
-        String movieTitle = mCursor.getString(DataContract.ViewAwardEntry.COL_TITLE);
-        int runtime = mCursor.getInt(DataContract.ViewAwardEntry.COL_RUNTIME);
-        String runtimeText = getViewUtils().getRuntimeText(mActivity, runtime);
-        String genre = mCursor.getString(DataContract.ViewAwardEntry.COL_GENRE);
-        String poster = mCursor.getString(DataContract.ViewAwardEntry.COL_POSTER);
-        String thumbnailUrl = ModelUtils.getThumbnailUrl(poster);
+        // The display model of the row was created when the row was loaded,
+        // so binding only assigns its fields
+        ViewAwardRow row = mRows.get(cursorPosition);
         // the values of onWishlist etc. affect the menu only and are handled in the fragment
 
         // replace the contents of the item view with the data for the award
         if (mActivity != null) {
-            Picasso.with(mActivity).load(thumbnailUrl).into(viewHolder.getImgPoster());
-            viewHolder.getTxtMovieTitle().setText(movieTitle);
-            viewHolder.getTxtRuntime().setText(runtimeText);
-            viewHolder.getTxtGenre().setText(ModelUtils.toGenreNameCsv(mActivity, genre));
-            viewHolder.getImgCategory().setImageResource(categoryRes);
-            viewHolder.getImgCategory().setContentDescription(categoryText);
-            viewHolder.getTxtAwardDate().setText(awardDate);
+            String thumbnailUrl =
+                    getPosterCache().getPosterUrl(viewHolder.getImgPoster(), row.getPoster());
+            getPosterCache().getPicasso(mActivity).load(thumbnailUrl)
+                    .into(viewHolder.getImgPoster(), viewHolder);
+            viewHolder.getTxtMovieTitle().setText(row.getTitle());
+            viewHolder.getTxtRuntime().setText(row.getRuntimeText());
+            viewHolder.getTxtGenre().setText(row.getGenreText());
+            viewHolder.getImgCategory().setImageResource(row.getCategoryRes());
+            viewHolder.getImgCategory().setContentDescription(row.getCategoryText());
+            viewHolder.getTxtAwardDate().setText(row.getAwardDateText());
 
             // Assign the shared element name to the list item's poster
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                String transitionName = mActivity.getString(R.string.transition_movie, viewAwardId);
-                viewHolder.getImgPoster().setTransitionName(transitionName);
+                viewHolder.getImgPoster().setTransitionName(row.getTransitionName());
                 // Set the tag so the view can be found when the list activity is returned to.
-                viewHolder.getImgPoster().setTag(transitionName);
+                viewHolder.getImgPoster().setTag(row.getTransitionName());
             }
         }
     }
 
+    /**
+     * Called when a view holder is recycled, i.e. its item is no longer displayed, so that
+     * the memory of its thumbnail can be reused.
+     * @param viewHolder the view holder which is being recycled
+     */
+    @Override
+    public void onViewRecycled(@NonNull final ViewHolder viewHolder) {
+        viewHolder.releasePoster();
+    }
+
     /**
      * Returns the total number of items in the data set held by the adapter.
      * @return The total number of items in this adapter.
      */
     @Override
     public int getItemCount() {
-        return mCursor == null ? 0 : mCursor.getCount();
+        return mRows == null ? 0 : mRows.size();
     }
 
     /**
-     * Return the cursor.
-     * @return the cursor
+     * Returns the poster of the row at a position, e.g. for prefetching its thumbnail.
+     * @param position the position of the row
+     * @return the poster of the row at the position, or null if there is no such row
      */
     @Nullable
-    private Cursor getCursor() {
-        return mCursor;
+    String getPoster(final int position) {
+        if (mRows == null || position < 0 || position >= mRows.size()) {
+            return null;
+        }
+        return mRows.get(position).getPoster();
     }
 
     /**
-     * Swap in a new cursor.
-     * @param newCursor the new cursor
+     * Swap in new rows.
+     * @param newRows the display models of the new rows, to which further rows may
+     *                later be appended, or null if there are no rows
      */
-    public void swapCursor(@Nullable final Cursor newCursor) {
-        mCursor = newCursor;
+    void swapRows(@Nullable final List<ViewAwardRow> newRows) {
+        mRows = newRows;
         notifyDataSetChanged();
 
         int emptyViewVisibility = getItemCount() == 0 ? View.VISIBLE : View.GONE;
         mEmptyListView.setVisibility(emptyViewVisibility);
     }
 
+    /**
+     * Notify the adapter that rows have been appended to the end of its rows,
+     * e.g. when a further page of the list has been loaded.
+     * @param positionStart the position of the first appended row
+     * @param rowCount the number of rows appended
+     */
+    public void notifyRowsAppended(final int positionStart, final int rowCount) {
+        if (rowCount > 0) {
+            notifyItemRangeInserted(positionStart, rowCount);
+            mEmptyListView.setVisibility(View.GONE);
+        }
+    }
+
     // Getters and setters
 
     public @LayoutRes int getListLayout() {
@@ -221,20 +238,22 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
     }
 
     /**
-     * Convenience method which returns a reference to a ViewUtils object.
-     * @return a reference to a ViewUtils object
+     * Convenience method which returns a reference to the poster cache.
+     * @return a reference to the poster cache
      */
     @NonNull
-    private static ViewUtils getViewUtils() {
-        return ObjectFactory.getViewUtils();
+    private static PosterCache getPosterCache() {
+        return ObjectFactory.getPosterCache();
     }
 
     /**
      * The ViewHolder class, which provides a cache of the views within a list item.
      */
-    class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+    class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener, Callback {
         /** The image view containing the poster. */
         private final ImageView imgPoster;
+        /** The poster bitmap displayed, which is released when it is no longer displayed. */
+        private Bitmap posterBitmap;
         /** The view containing the movie title. */
         private final TextView txtMovieTitle;
         /** The view containing the movie runtime. */
@@ -264,15 +283,16 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
 
         @Override
         public void onClick(View view) {
-            if (mActivity == null || mCursor == null) {
+            if (mActivity == null || mRows == null) {
                 return;
             }
 
             int position = getAdapterPosition();
-            if (mCursor.moveToPosition(position)) {
-                final String viewAwardId = mCursor.getString(DataContract.ViewAwardEntry.COL_ID);
-                String movieId = mCursor.getString(DataContract.ViewAwardEntry.COL_MOVIE_ID);
-                String movieTitle = mCursor.getString(DataContract.ViewAwardEntry.COL_TITLE);
+            if (position >= 0 && position < mRows.size()) {
+                ViewAwardRow row = mRows.get(position);
+                final String viewAwardId = row.getId();
+                String movieId = row.getMovieId();
+                String movieTitle = row.getTitle();
 
                 // log the event in analytics
                 getAnalyticsManager().logViewMovie(movieId, movieTitle);
@@ -285,7 +305,7 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
                         && imgPoster != null) {
 
                     // Start the movie activity with a shared element transition
-                    String transitionName = mActivity.getString(R.string.transition_movie, viewAwardId);
+                    String transitionName = row.getTransitionName();
                     intent.setAction(Intent.ACTION_VIEW);
                     Bundle bundle = ActivityOptionsCompat.makeSceneTransitionAnimation(
                             mActivity,
@@ -300,6 +320,41 @@ public final class ViewAwardAdapter extends RecyclerView.Adapter<ViewAwardAdapte
             }
         }
 
+        /**
+         * Acquires the loaded poster bitmap, so that it is not reused while it is displayed,
+         * and releases the poster bitmap which it replaced.
+         */
+        @Override
+        public void onSuccess() {
+            Bitmap bitmap = null;
+            if (imgPoster.getDrawable() instanceof BitmapDrawable) {
+                bitmap = ((BitmapDrawable) imgPoster.getDrawable()).getBitmap();
+                if (bitmap != null) {
+                    getPosterCache().acquire(bitmap);
+                }
+            }
+            releasePoster();
+            posterBitmap = bitmap;
+        }
+
+        /**
+         * Releases the poster bitmap which was displayed before the failed load.
+         */
+        @Override
+        public void onError() {
+            releasePoster();
+        }
+
+        /**
+         * Releases the displayed poster bitmap, if any, as it is no longer displayed.
+         */
+        void releasePoster() {
+            if (posterBitmap != null) {
+                getPosterCache().release(posterBitmap);
+                posterBitmap = null;
+            }
+        }
+
         // Getters
 
         @NonNull
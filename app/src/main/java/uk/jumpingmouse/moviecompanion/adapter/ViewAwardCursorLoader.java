@@ -0,0 +1,47 @@
+package uk.jumpingmouse.moviecompanion.adapter;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.content.CursorLoader;
+
+/**
+ * The cursor loader for the view award list, which also creates the display model of
+ * each row on the loader's background thread, so that the rows are ready to be bound.
+ * @author Edmund Johnson
+ */
+public final class ViewAwardCursorLoader extends CursorLoader {
+
+    /**
+     * Constructor.
+     * @param context the context
+     * @param uri the URI of the view award query
+     * @param projection the columns of the view award query
+     * @param selection the selection of the view award query
+     * @param selectionArgs the selection arguments of the view award query
+     * @param sortOrder the sort order of the view award query
+     */
+    public ViewAwardCursorLoader(@NonNull Context context, @NonNull Uri uri,
+                                 @Nullable String[] projection, @Nullable String selection,
+                                 @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        super(context, uri, projection, selection, selectionArgs, sortOrder);
+    }
+
+    /**
+     * Queries the view awards and creates the display models of their rows.
+     * @return a cursor of the view awards, with the display models of its rows,
+     *         or null if the view awards could not be queried
+     */
+    @Override
+    public Cursor loadInBackground() {
+        Cursor cursor = super.loadInBackground();
+        if (cursor == null) {
+            return null;
+        }
+        return new ViewAwardRowCursor(cursor,
+                ViewAwardRowFormatter.getInstance(getContext()).newViewAwardRows(cursor));
+    }
+
+}
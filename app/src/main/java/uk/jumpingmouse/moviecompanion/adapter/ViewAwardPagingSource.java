@@ -0,0 +1,311 @@
+package uk.jumpingmouse.moviecompanion.adapter;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.content.CursorLoader;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import timber.log.Timber;
+
+import uk.jumpingmouse.moviecompanion.model.DataContract;
+
+/**
+ * The paging data source for the view award list.
+ * The first page of view awards is supplied by the list's cursor loader, further pages are
+ * loaded using keyset pagination as the list is scrolled towards the end of the loaded rows.
+ * The display models of the loaded rows, which are created on the thread which loaded each
+ * page, are accumulated and displayed by a {@link ViewAwardAdapter}, and the next page is
+ * keyed by the last row of the last page loaded.
+ * @author Edmund Johnson
+ */
+public final class ViewAwardPagingSource extends RecyclerView.OnScrollListener {
+
+    /** The number of view awards in each page. */
+    public static final int PAGE_SIZE = 30;
+
+    /** The next page is loaded when the list is scrolled to within this many rows of the end. */
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private final Context mContext;
+    private final ViewAwardAdapter mViewAwardAdapter;
+
+    /** The display models of all the rows loaded so far, in list order. */
+    private List<ViewAwardRow> mRows;
+
+    // The keyset of the last row loaded so far, from which the next page is keyed
+    private String mAfterSortKey;
+    private String mAfterTieBreaker;
+    private String mAfterId;
+
+    // The query for the list, as used by the cursor loader
+    private Uri mUri;
+    private String[] mProjection;
+    private String mSelection;
+    private String[] mSelectionArgs;
+    private String mSortOrder;
+
+    /** Whether the last page of the list has been loaded. */
+    private boolean mExhausted;
+    /** The task loading the next page, or null if no page is being loaded. */
+    private LoadPageTask mLoadPageTask;
+
+    /**
+     * Private constructor to prevent direct instantiation from outside this class.
+     * @param context the context
+     * @param viewAwardAdapter the adapter which displays the loaded rows
+     */
+    private ViewAwardPagingSource(@NonNull final Context context,
+                                  @NonNull final ViewAwardAdapter viewAwardAdapter) {
+        mContext = context.getApplicationContext();
+        mViewAwardAdapter = viewAwardAdapter;
+    }
+
+    /**
+     * Returns a new instance of the paging source.
+     * @param context the context
+     * @param viewAwardAdapter the adapter which displays the loaded rows
+     * @return a new instance of the paging source
+     */
+    @NonNull
+    public static ViewAwardPagingSource newInstance(@NonNull final Context context,
+                                                    @NonNull final ViewAwardAdapter viewAwardAdapter) {
+        return new ViewAwardPagingSource(context, viewAwardAdapter);
+    }
+
+    //---------------------------------------------------------------------
+    // Page loading
+
+    /**
+     * Starts a new list using the first page supplied by a cursor loader.
+     * Any pages previously loaded are discarded.
+     * @param loader the cursor loader which loaded the first page
+     * @param firstPage the cursor containing the first page, or null if there is no data
+     */
+    public void reset(@NonNull final CursorLoader loader, @Nullable final Cursor firstPage) {
+        cancelLoadPageTask();
+
+        mUri = loader.getUri();
+        mProjection = loader.getProjection();
+        mSelection = loader.getSelection();
+        mSelectionArgs = loader.getSelectionArgs();
+        mSortOrder = loader.getSortOrder();
+        clearKeyset();
+
+        if (firstPage == null) {
+            mRows = null;
+            mExhausted = true;
+        } else {
+            mRows = new ArrayList<>();
+            int rowCount = appendRows(firstPage);
+            mExhausted = rowCount < getPageSize(mUri);
+        }
+        mViewAwardAdapter.swapRows(mRows);
+    }
+
+    /**
+     * Discards all loaded pages.
+     */
+    public void clear() {
+        cancelLoadPageTask();
+        mRows = null;
+        clearKeyset();
+        mExhausted = true;
+        mViewAwardAdapter.swapRows(null);
+    }
+
+    /**
+     * Returns the URI with which the list should be reloaded when its data changes,
+     * i.e. a first page which is large enough to contain all the rows currently loaded,
+     * so that the list does not shrink back to a single page.
+     * @param uri the URI currently used by the cursor loader
+     * @return the URI with which the list should be reloaded
+     */
+    @NonNull
+    public Uri getUriForReload(@NonNull final Uri uri) {
+        int rowCount = mRows == null ? 0 : mRows.size();
+        return DataContract.ViewAwardEntry.buildUriForPage(
+                uri, null, null, null, getFirstPageSize(rowCount));
+    }
+
+    /**
+     * Returns the size of a first page which is large enough to contain a number of rows,
+     * rounded up to a whole number of pages.
+     * @param rowCount the number of rows which the first page must contain
+     * @return the size of the first page
+     */
+    public static int getFirstPageSize(final int rowCount) {
+        return Math.max(PAGE_SIZE, (rowCount + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE);
+    }
+
+    /**
+     * Loads the next page of the list in the background, unless it is already being loaded
+     * or there are no more pages.
+     */
+    private void loadNextPage() {
+        if (mLoadPageTask != null || mExhausted || mUri == null
+                || mRows == null || mAfterId == null) {
+            return;
+        }
+        Uri uri = DataContract.ViewAwardEntry.buildUriForPage(
+                mUri, mAfterSortKey, mAfterTieBreaker, mAfterId, PAGE_SIZE);
+
+        mLoadPageTask = new LoadPageTask();
+        mLoadPageTask.execute(uri);
+    }
+
+    /**
+     * Appends the display models of a page of rows to the loaded rows, and records the
+     * keyset of the last row of the page, from which the next page is keyed.
+     * @param page the page of rows
+     * @return the number of rows appended
+     */
+    private int appendRows(@NonNull final Cursor page) {
+        List<ViewAwardRow> rows = getRows(page);
+        mRows.addAll(rows);
+        if (page.moveToLast()) {
+            mAfterId = page.getString(DataContract.ViewAwardEntry.COL_ID);
+            mAfterSortKey = page.getString(
+                    DataContract.ViewAwardEntry.getSortKeyColumnIndex(mSortOrder));
+            mAfterTieBreaker = page.getString(
+                    DataContract.ViewAwardEntry.getTieBreakerColumnIndex(mSortOrder));
+        }
+        return rows.size();
+    }
+
+    /**
+     * Clears the keyset of the last row loaded, as there are no rows loaded.
+     */
+    private void clearKeyset() {
+        mAfterSortKey = null;
+        mAfterTieBreaker = null;
+        mAfterId = null;
+    }
+
+    /**
+     * Returns the display models of the rows of a page.
+     * These are normally created by the thread which loaded the page, but are created now
+     * if the page was loaded by other means.
+     * @param page the page of rows
+     * @return the display models of the rows of the page, in cursor order
+     */
+    @NonNull
+    private List<ViewAwardRow> getRows(@NonNull final Cursor page) {
+        if (page instanceof ViewAwardRowCursor) {
+            return ((ViewAwardRowCursor) page).getRows();
+        }
+        return ViewAwardRowFormatter.getInstance(mContext).newViewAwardRows(page);
+    }
+
+    /**
+     * Processes a page which has been loaded in the background.
+     * @param page the page, or null if it could not be loaded
+     */
+    private void onPageLoaded(@Nullable final Cursor page) {
+        mLoadPageTask = null;
+        if (page == null) {
+            Timber.w("onPageLoaded: page could not be loaded");
+            return;
+        }
+        if (mRows != null) {
+            int positionStart = mRows.size();
+            int rowCount = appendRows(page);
+            mExhausted = rowCount < PAGE_SIZE;
+            mViewAwardAdapter.notifyRowsAppended(positionStart, rowCount);
+        }
+        page.close();
+    }
+
+    /**
+     * Cancels any page which is being loaded.
+     */
+    private void cancelLoadPageTask() {
+        if (mLoadPageTask != null) {
+            mLoadPageTask.cancel(false);
+            mLoadPageTask = null;
+        }
+    }
+
+    /**
+     * Returns the page size specified by a URI.
+     * @param uri the URI
+     * @return the page size specified by the URI, or 0 if there is none
+     */
+    private static int getPageSize(@Nullable final Uri uri) {
+        String pageSize = uri == null ? null : uri.getQueryParameter(DataContract.PARAM_PAGE_SIZE);
+        if (pageSize != null) {
+            try {
+                return Integer.parseInt(pageSize);
+            } catch (NumberFormatException e) {
+                Timber.w("getPageSize: invalid page size: " + pageSize);
+            }
+        }
+        return 0;
+    }
+
+    //---------------------------------------------------------------------
+    // Scroll listener
+
+    /**
+     * Loads the next page when the list is scrolled down to near the end of the loaded rows.
+     * @param recyclerView the RecyclerView which scrolled
+     * @param dx the amount of horizontal scroll
+     * @param dy the amount of vertical scroll
+     */
+    @Override
+    public void onScrolled(final RecyclerView recyclerView, final int dx, final int dy) {
+        if (dy <= 0) {
+            return;
+        }
+        // GridLayoutManager is a subclass of LinearLayoutManager
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            int lastVisiblePosition =
+                    ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+            if (lastVisiblePosition >= mViewAwardAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                loadNextPage();
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Background task
+
+    /**
+     * The task which queries the content provider for a page of view awards, and creates
+     * the display models of its rows.
+     */
+    private final class LoadPageTask extends AsyncTask<Uri, Void, Cursor> {
+
+        @Override
+        protected Cursor doInBackground(Uri... uris) {
+            Cursor page = mContext.getContentResolver().query(
+                    uris[0], mProjection, mSelection, mSelectionArgs, mSortOrder);
+            if (page == null) {
+                return null;
+            }
+            return new ViewAwardRowCursor(page,
+                    ViewAwardRowFormatter.getInstance(mContext).newViewAwardRows(page));
+        }
+
+        @Override
+        protected void onPostExecute(Cursor page) {
+            onPageLoaded(page);
+        }
+
+        @Override
+        protected void onCancelled(Cursor page) {
+            if (page != null) {
+                page.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package uk.jumpingmouse.moviecompanion.adapter;
+
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * The immutable display model of a row of the view award list.
+ * The displayed strings are formatted by a {@link ViewAwardRowFormatter} on the thread which
+ * queries the view awards, so that binding a row to its view only assigns the fields.
+ * @author Edmund Johnson
+ */
+final class ViewAwardRow {
+    private final String mId;
+    private final String mMovieId;
+    private final String mTitle;
+    private final String mPoster;
+    private final String mRuntimeText;
+    private final String mGenreText;
+    private final String mAwardDateText;
+    private final @DrawableRes int mCategoryRes;
+    private final String mCategoryText;
+    private final String mTransitionName;
+
+    /**
+     * Constructor.
+     * @param id the view award id
+     * @param movieId the movie id
+     * @param title the movie title
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @param runtimeText the displayed runtime, e.g. "106 minutes"
+     * @param genreText the displayed genres, e.g. "Comedy, Drama"
+     * @param awardDateText the displayed award date, e.g. "02 Jun 17"
+     * @param categoryRes the resource id of the award category icon
+     * @param categoryText the award category text, e.g. "Movie of the Week"
+     * @param transitionName the name of the poster's shared element transition
+     */
+    ViewAwardRow(@NonNull String id, @Nullable String movieId, @Nullable String title,
+                 @Nullable String poster, @Nullable String runtimeText,
+                 @Nullable String genreText, @Nullable String awardDateText,
+                 @DrawableRes int categoryRes, @Nullable String categoryText,
+                 @NonNull String transitionName) {
+        mId = id;
+        mMovieId = movieId;
+        mTitle = title;
+        mPoster = poster;
+        mRuntimeText = runtimeText;
+        mGenreText = genreText;
+        mAwardDateText = awardDateText;
+        mCategoryRes = categoryRes;
+        mCategoryText = categoryText;
+        mTransitionName = transitionName;
+    }
+
+    // Getters
+
+    @NonNull
+    String getId() {
+        return mId;
+    }
+
+    @Nullable
+    String getMovieId() {
+        return mMovieId;
+    }
+
+    @Nullable
+    String getTitle() {
+        return mTitle;
+    }
+
+    @Nullable
+    String getPoster() {
+        return mPoster;
+    }
+
+    @Nullable
+    String getRuntimeText() {
+        return mRuntimeText;
+    }
+
+    @Nullable
+    String getGenreText() {
+        return mGenreText;
+    }
+
+    @Nullable
+    String getAwardDateText() {
+        return mAwardDateText;
+    }
+
+    @DrawableRes
+    int getCategoryRes() {
+        return mCategoryRes;
+    }
+
+    @Nullable
+    String getCategoryText() {
+        return mCategoryText;
+    }
+
+    @NonNull
+    String getTransitionName() {
+        return mTransitionName;
+    }
+
+}
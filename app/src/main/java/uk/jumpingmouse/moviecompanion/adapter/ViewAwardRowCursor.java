@@ -0,0 +1,36 @@
+package uk.jumpingmouse.moviecompanion.adapter;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * A cursor of view awards, together with the display models of its rows, which were
+ * created on the thread which queried the view awards.
+ * @author Edmund Johnson
+ */
+final class ViewAwardRowCursor extends CursorWrapper {
+    private final List<ViewAwardRow> mRows;
+
+    /**
+     * Constructor.
+     * @param cursor the cursor of view awards
+     * @param rows the display models of the rows of the cursor, in cursor order
+     */
+    ViewAwardRowCursor(@NonNull final Cursor cursor, @NonNull final List<ViewAwardRow> rows) {
+        super(cursor);
+        mRows = rows;
+    }
+
+    /**
+     * Returns the display models of the rows of the cursor, in cursor order.
+     * @return the display models of the rows of the cursor
+     */
+    @NonNull
+    List<ViewAwardRow> getRows() {
+        return mRows;
+    }
+
+}
@@ -0,0 +1,181 @@
+package uk.jumpingmouse.moviecompanion.adapter;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+import uk.jumpingmouse.moviecompanion.R;
+import uk.jumpingmouse.moviecompanion.model.DataContract;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
+
+/**
+ * The formatter which creates the display models of the rows of the view award list.
+ * The formatter is used on the threads which query the view awards, rather than the
+ * main thread. The displayed strings are cached, as few distinct runtimes, award dates
+ * and categories occur in the list, and the caches are cleared when the locale changes.
+ * The genre names are cached by {@link ModelUtils#toGenreNameCsv(Context, String)}.
+ * @author Edmund Johnson
+ */
+final class ViewAwardRowFormatter {
+    /** The singleton instance of this class. */
+    private static ViewAwardRowFormatter sViewAwardRowFormatter = null;
+
+    private final Context mContext;
+
+    /** The locale of the cached strings. */
+    private Locale mLocale;
+    /** The displayed runtimes, keyed by runtime. */
+    private final SparseArray<String> mRuntimeTexts = new SparseArray<>();
+    /** The displayed award dates, keyed by award date. */
+    private final Map<String, String> mAwardDateTexts = new HashMap<>();
+    /** The award category texts, keyed by award category code. */
+    private final Map<String, String> mCategoryTexts = new HashMap<>();
+
+    //---------------------------------------------------------------------
+    // Instance handling methods
+
+    /**
+     * Returns an instance of this class.
+     * @param context the context
+     * @return an instance of this class
+     */
+    @NonNull
+    static synchronized ViewAwardRowFormatter getInstance(@NonNull final Context context) {
+        if (sViewAwardRowFormatter == null) {
+            sViewAwardRowFormatter = new ViewAwardRowFormatter(context);
+        }
+        return sViewAwardRowFormatter;
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside this class.
+     * @param context the context
+     */
+    private ViewAwardRowFormatter(@NonNull final Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    //---------------------------------------------------------------------
+    // Formatting methods
+
+    /**
+     * Returns the display models of the rows of a cursor of view awards.
+     * @param cursor the cursor, whose columns are DataContract.ViewAwardEntry.ALL_COLUMNS
+     * @return the display models of the rows of the cursor, in cursor order
+     */
+    @NonNull
+    synchronized List<ViewAwardRow> newViewAwardRows(@NonNull final Cursor cursor) {
+        clearIfLocaleChanged();
+        List<ViewAwardRow> rows = new ArrayList<>(cursor.getCount());
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            rows.add(newViewAwardRow(cursor));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the display model of the current row of a cursor of view awards.
+     * @param cursor the cursor, positioned at the row
+     * @return the display model of the row
+     */
+    @NonNull
+    private ViewAwardRow newViewAwardRow(@NonNull final Cursor cursor) {
+        String id = cursor.getString(DataContract.ViewAwardEntry.COL_ID);
+        String categoryCode = cursor.getString(DataContract.ViewAwardEntry.COL_CATEGORY);
+        return new ViewAwardRow(
+                id,
+                cursor.getString(DataContract.ViewAwardEntry.COL_MOVIE_ID),
+                cursor.getString(DataContract.ViewAwardEntry.COL_TITLE),
+                cursor.getString(DataContract.ViewAwardEntry.COL_POSTER),
+                getRuntimeText(cursor.getInt(DataContract.ViewAwardEntry.COL_RUNTIME)),
+                ModelUtils.toGenreNameCsv(mContext,
+                        cursor.getString(DataContract.ViewAwardEntry.COL_GENRE)),
+                getAwardDateText(cursor.getString(DataContract.ViewAwardEntry.COL_AWARD_DATE)),
+                getViewUtils().getCategoryRes(categoryCode),
+                getCategoryText(categoryCode),
+                mContext.getString(R.string.transition_movie, id));
+    }
+
+    /**
+     * Clears the cached strings if the locale has changed since they were cached.
+     */
+    @SuppressWarnings("deprecation")
+    private void clearIfLocaleChanged() {
+        Locale locale = mContext.getResources().getConfiguration().locale;
+        if (!locale.equals(mLocale)) {
+            mRuntimeTexts.clear();
+            mAwardDateTexts.clear();
+            mCategoryTexts.clear();
+            mLocale = locale;
+        }
+    }
+
+    /**
+     * Returns the displayed runtime for a runtime.
+     * @param runtime the runtime in minutes
+     * @return the displayed runtime, e.g. "106 minutes"
+     */
+    @Nullable
+    private String getRuntimeText(final int runtime) {
+        String runtimeText = mRuntimeTexts.get(runtime);
+        if (runtimeText == null) {
+            runtimeText = getViewUtils().getRuntimeText(mContext, runtime);
+            mRuntimeTexts.put(runtime, runtimeText);
+        }
+        return runtimeText;
+    }
+
+    /**
+     * Returns the displayed award date for an award date.
+     * @param awardDate the award date as stored in the database, e.g. "170602"
+     * @return the displayed award date, e.g. "02 Jun 17"
+     */
+    @Nullable
+    private String getAwardDateText(@Nullable final String awardDate) {
+        if (awardDate == null) {
+            return getViewUtils().getAwardDateDisplayable(null);
+        }
+        String awardDateText = mAwardDateTexts.get(awardDate);
+        if (awardDateText == null) {
+            awardDateText = getViewUtils().getAwardDateDisplayable(awardDate);
+            mAwardDateTexts.put(awardDate, awardDateText);
+        }
+        return awardDateText;
+    }
+
+    /**
+     * Returns the award category text for an award category code.
+     * @param categoryCode the award category code, e.g. "M"
+     * @return the award category text, e.g. "Movie of the Week"
+     */
+    @Nullable
+    private String getCategoryText(@Nullable final String categoryCode) {
+        String categoryText = mCategoryTexts.get(categoryCode);
+        if (categoryText == null) {
+            categoryText = getViewUtils().getCategoryText(mContext, categoryCode);
+            mCategoryTexts.put(categoryCode, categoryText);
+        }
+        return categoryText;
+    }
+
+    /**
+     * Convenience method which returns a reference to a ViewUtils object.
+     * @return a reference to a ViewUtils object
+     */
+    @NonNull
+    private static ViewUtils getViewUtils() {
+        return ObjectFactory.getViewUtils();
+    }
+
+}
@@ -6,9 +6,13 @@ import android.os.Parcelable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.firebase.database.Exclude;
+
 import java.util.Comparator;
 
 import uk.jumpingmouse.moviecompanion.model.DataContract;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+import uk.jumpingmouse.moviecompanion.utils.StringPool;
 
 /**
  * The Award model class.
@@ -20,6 +24,10 @@ import uk.jumpingmouse.moviecompanion.model.DataContract;
 public final class Award implements Parcelable {
     public static final String CATEGORY_MOVIE = "M";
     public static final String CATEGORY_DVD = "D";
+    /** The award day of an award whose award date is invalid. */
+    public static final int AWARD_DAY_UNKNOWN = -1;
+    /** The value of awardDay before it has been derived from awardDate. */
+    private static final int AWARD_DAY_UNSET = Integer.MIN_VALUE;
 
     // id is a unique identifier for award
     private String id;
@@ -27,6 +35,8 @@ public final class Award implements Parcelable {
     private String movieId;
     // awardDate is formatted as "YYMMDD"
     private String awardDate;
+    // awardDay is the epoch day of awardDate, which is derived from it rather than stored
+    private transient int awardDay = AWARD_DAY_UNSET;
     // categoryId is one of CATEGORY_MOVIE, CATEGORY_DVD
     private String category;
     // free text
@@ -65,6 +75,7 @@ public final class Award implements Parcelable {
         this.id = id;
         this.movieId = movieId;
         this.awardDate = awardDate;
+        this.awardDay = ModelUtils.toAwardDay(awardDate);
         this.category = category;
         this.review = review;
         this.displayOrder = displayOrder;
@@ -89,6 +100,23 @@ public final class Award implements Parcelable {
         return awardDate;
     }
 
+    /**
+     * Returns the award day, i.e. the epoch day of the award date, which is used to
+     * compare and display award dates without parsing them.
+     * Awards loaded from Firebase are created without calling a constructor which sets
+     * the award day, so it is derived from the award date when it is first required.
+     * This is excluded from the Firebase database, as it is derived from the award date.
+     * @return the number of days since 1 Jan 1970 of the award date,
+     *         or AWARD_DAY_UNKNOWN if the award date is invalid
+     */
+    @Exclude
+    public int getAwardDay() {
+        if (awardDay == AWARD_DAY_UNSET) {
+            awardDay = ModelUtils.toAwardDay(awardDate);
+        }
+        return awardDay;
+    }
+
     @NonNull
     public String getCategory() {
         return category;
@@ -125,6 +153,22 @@ public final class Award implements Parcelable {
         return values;
     }
 
+    /**
+     * Returns a copy of the award whose repeated strings, i.e. the movie id, award date
+     * and category, are the instances held in a string pool, so that they are shared
+     * with the other awards and movies in the pool.
+     * @param stringPool the string pool
+     * @return a copy of the award which shares the pooled strings
+     */
+    @NonNull
+    public Award intern(@NonNull StringPool stringPool) {
+        return new Award.Builder(this)
+                .movieId(stringPool.intern(movieId))
+                .awardDate(stringPool.intern(awardDate))
+                .category(stringPool.intern(category))
+                .build();
+    }
+
     /**
      * Returns an award as an object array, one element per field value.
      * @return the award as an Object array
@@ -151,6 +195,7 @@ public final class Award implements Parcelable {
         id = in.readString();
         movieId = in.readString();
         awardDate = in.readString();
+        awardDay = ModelUtils.toAwardDay(awardDate);
         category = in.readString();
         review = in.readString();
         displayOrder = in.readInt();
@@ -358,11 +403,13 @@ public final class Award implements Parcelable {
                 public int compare(Award award1, Award award2) {
                     // ascending order
                     if (award1.movieId.equals(award2.movieId)) {
-                        // movieId, then awardDate, then reverse category ("M" > "D")
-                        if (award1.awardDate.equals(award2.awardDate)) {
+                        // movieId, then awardDay, then reverse category ("M" > "D")
+                        int awardDay1 = award1.getAwardDay();
+                        int awardDay2 = award2.getAwardDay();
+                        if (awardDay1 == awardDay2) {
                             return award2.category.compareTo(award1.category);
                         }
-                        return award1.awardDate.compareTo(award2.awardDate);
+                        return awardDay1 < awardDay2 ? -1 : 1;
                     }
                     return award1.movieId.compareTo(award2.movieId);
                 }
@@ -373,11 +420,13 @@ public final class Award implements Parcelable {
             = new Comparator<Award>() {
                 public int compare(Award award1, Award award2) {
                     // ascending order
-                    if (award1.awardDate.equals(award2.awardDate)) {
-                        // awardDate, then reverse category ("M" > "D")
+                    int awardDay1 = award1.getAwardDay();
+                    int awardDay2 = award2.getAwardDay();
+                    if (awardDay1 == awardDay2) {
+                        // awardDay, then reverse category ("M" > "D")
                         return award2.category.compareTo(award1.category);
                     }
-                    return award1.awardDate.compareTo(award2.awardDate);
+                    return awardDay1 < awardDay2 ? -1 : 1;
                 }
             };
 
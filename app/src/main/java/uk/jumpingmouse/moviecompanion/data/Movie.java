@@ -6,9 +6,13 @@ import android.os.Parcelable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.firebase.database.Exclude;
+
 import java.util.Comparator;
 
 import uk.jumpingmouse.moviecompanion.model.DataContract;
+import uk.jumpingmouse.moviecompanion.utils.JavaUtils;
+import uk.jumpingmouse.moviecompanion.utils.StringPool;
 
 /**
  * The Movie model class.
@@ -20,6 +24,11 @@ import uk.jumpingmouse.moviecompanion.model.DataContract;
 public final class Movie implements Parcelable {
     public static final int RUNTIME_UNKNOWN = -1;
     public static final int RELEASED_UNKNOWN = -1;
+    public static final int RELEASE_YEAR_UNKNOWN = -1;
+    /** The released day of a movie whose released date is unknown, which sorts first. */
+    public static final int RELEASED_DAY_UNKNOWN = Integer.MIN_VALUE + 1;
+    /** The value of releasedDay before it has been derived from released. */
+    private static final int RELEASED_DAY_UNSET = Integer.MIN_VALUE;
 
     // Genre Ids
     public static final String GENRE_ID_ACTION = "28";
@@ -53,6 +62,8 @@ public final class Movie implements Parcelable {
     private String certificate;
     // The release date, as a millisecond value
     private long released;
+    // The epoch day of the release date, which is derived from released rather than stored
+    private transient int releasedDay = RELEASED_DAY_UNSET;
     // The length in minutes
     private int runtime;
     // A comma-separated list of genre ids, e.g. "28,35,18"
@@ -110,6 +121,7 @@ public final class Movie implements Parcelable {
         this.title = title;
         this.certificate = certificate;
         this.released = released;
+        this.releasedDay = toReleasedDay(released);
         this.runtime = runtime;
         this.genre = genre;
         this.director = director;
@@ -178,6 +190,47 @@ public final class Movie implements Parcelable {
         return released;
     }
 
+    /**
+     * Returns the released date as an epoch day, which is used to compare release dates
+     * without converting them to dates.
+     * Movies loaded from Firebase are created without calling a constructor which sets
+     * the epoch day, so it is derived from the released date when it is first required.
+     * This is excluded from the Firebase database, as it is derived from the released date.
+     * @return the number of days since 1 Jan 1970 of the released date,
+     *         or RELEASED_DAY_UNKNOWN if the released date is unknown
+     */
+    @Exclude
+    public int getReleasedDay() {
+        if (releasedDay == RELEASED_DAY_UNSET) {
+            releasedDay = toReleasedDay(released);
+        }
+        return releasedDay;
+    }
+
+    /**
+     * Returns the year of the released date, e.g. 2017.
+     * This is excluded from the Firebase database, as it is derived from the released date.
+     * @return the year of the released date, or RELEASE_YEAR_UNKNOWN if the released date
+     *         is unknown
+     */
+    @Exclude
+    public int getReleaseYear() {
+        int releasedDay = getReleasedDay();
+        return releasedDay == RELEASED_DAY_UNKNOWN
+                ? RELEASE_YEAR_UNKNOWN : JavaUtils.toYearMonthDay(releasedDay) / 10000;
+    }
+
+    /**
+     * Returns the epoch day of a released date.
+     * @param released the released date as a millisecond value, or RELEASED_UNKNOWN
+     * @return the number of days since 1 Jan 1970 of the released date,
+     *         or RELEASED_DAY_UNKNOWN if the released date is unknown
+     */
+    private static int toReleasedDay(long released) {
+        return released == RELEASED_UNKNOWN
+                ? RELEASED_DAY_UNKNOWN : JavaUtils.toLocalEpochDay(released);
+    }
+
     /**
      * Returns the runtime in minutes, e.g. 144.
      * @return the runtime in minutes
@@ -248,6 +301,7 @@ public final class Movie implements Parcelable {
         title = in.readString();
         certificate = in.readString();
         released = in.readLong();
+        releasedDay = toReleasedDay(released);
         runtime = in.readInt();
         genre = in.readString();
         director = in.readString();
@@ -527,6 +581,26 @@ public final class Movie implements Parcelable {
         return values;
     }
 
+    /**
+     * Returns a copy of the movie whose repeated strings, i.e. the id, certificate, genre,
+     * director, language and country, are the instances held in a string pool, so that
+     * they are shared with the other movies and awards in the pool.
+     * Fields which are rarely repeated, e.g. the title and plot, are not pooled.
+     * @param stringPool the string pool
+     * @return a copy of the movie which shares the pooled strings
+     */
+    @NonNull
+    public Movie intern(@NonNull StringPool stringPool) {
+        return new Movie.Builder(this)
+                .id(stringPool.intern(id))
+                .certificate(stringPool.intern(certificate))
+                .genre(stringPool.intern(genre))
+                .director(stringPool.intern(director))
+                .language(stringPool.intern(language))
+                .country(stringPool.intern(country))
+                .build();
+    }
+
     /**
      * Returns the movie as an object array, one element per field value.
      * @return the movie as an Object array
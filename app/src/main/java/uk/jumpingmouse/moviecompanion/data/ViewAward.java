@@ -7,38 +7,22 @@ import android.support.annotation.Nullable;
 
 import java.util.Comparator;
 
+import uk.jumpingmouse.moviecompanion.utils.JavaUtils;
+
 /**
  * The ViewAward model class.
  * This class represents an entry in the displayed award list.
- * It contains fields from the Award and from the Movie which received the Award.
+ * It presents the fields of the Award and of the Movie which received the Award.
+ * A ViewAward is a flyweight: it references the award and the movie rather than copying
+ * their fields, and holds only the user's flags for the movie, which may be changed.
  * @author Edmund Johnson
  */
 public final class ViewAward implements Parcelable {
 
-    // the unique identifier for the award, a push id
-    private String id;
-    // the unique identifier for the movie, e.g. 4016934
-    private String movieId;
-    // The IMDb identifier for the movie, e.g. "tt4016934"
-    private String imdbId;
-    // The TMDb identifier for the movie, e.g. 550
-    private int tmdbId;
-    // awardDate is formatted as "YYMMDD"
-    private String awardDate;
-    // categoryId is one of CATEGORY_MOVIE, CATEGORY_DVD
-    private String category;
-    // the review for the award (free text)
-    private String review;
-    // displayOrder determines the displayed order of awards for a movie
-    private int displayOrder;
-    // The movie title, e.g. "The Handmaiden"
-    private String title;
-    // The length of the movie in minutes, e.g. 144
-    private int runtime;
-    // A comma-separated list of genres, e.g. "Drama, Mystery, Romance"
-    private String genre;
-    // The URL of the movie poster image
-    private String poster;
+    // the award which the view award presents
+    private Award award;
+    // the movie which received the award
+    private Movie movie;
     // Whether the movie is on the current user's wishlist
     private boolean onWishlist;
     // Whether the movie is on the current user's watched list
@@ -50,33 +34,13 @@ public final class ViewAward implements Parcelable {
     }
 
     private ViewAward(
-            @NonNull String id,
-            @NonNull String movieId,
-            @NonNull String imdbId,
-            int tmdbId,
-            @NonNull String awardDate,
-            @NonNull String category,
-            @NonNull String review,
-            int displayOrder,
-            @NonNull String title,
-            int runtime,
-            @Nullable String genre,
-            @Nullable String poster,
+            @NonNull Award award,
+            @NonNull Movie movie,
             boolean onWishlist,
             boolean watched,
             boolean favourite) {
-        this.id = id;
-        this.movieId = movieId;
-        this.imdbId = imdbId;
-        this.tmdbId = tmdbId;
-        this.awardDate = awardDate;
-        this.category = category;
-        this.review = review;
-        this.displayOrder = displayOrder;
-        this.title = title;
-        this.runtime = runtime;
-        this.genre = genre;
-        this.poster = poster;
+        this.award = award;
+        this.movie = movie;
         this.onWishlist = onWishlist;
         this.watched = watched;
         this.favourite = favourite;
@@ -89,18 +53,8 @@ public final class ViewAward implements Parcelable {
      * @param userMovie the user info for the movie (on wishlist, etc.)
      */
     public ViewAward(@NonNull Award award, @NonNull Movie movie, @Nullable UserMovie userMovie) {
-        this.id = award.getId();
-        this.movieId = movie.getId();
-        this.imdbId = movie.getImdbId();
-        this.tmdbId = movie.getTmdbId();
-        this.awardDate = award.getAwardDate();
-        this.category = award.getCategory();
-        this.review = award.getReview();
-        this.displayOrder = award.getDisplayOrder();
-        this.title = movie.getTitle();
-        this.runtime = movie.getRuntime();
-        this.genre = movie.getGenre();
-        this.poster = movie.getPoster();
+        this.award = award;
+        this.movie = movie;
         if (userMovie != null) {
             this.onWishlist = userMovie.isOnWishlist();
             this.watched = userMovie.isWatched();
@@ -108,6 +62,16 @@ public final class ViewAward implements Parcelable {
         }
     }
 
+    /**
+     * Returns a view award for the same award and movie, with the user info of a user movie.
+     * @param userMovie the user info for the movie (on wishlist, etc.)
+     * @return a view award for the same award and movie, with the user info
+     */
+    @NonNull
+    public ViewAward withUserMovie(@Nullable UserMovie userMovie) {
+        return new ViewAward(award, movie, userMovie);
+    }
+
     //---------------------------------------------------------------
     // Getters
     // These MUST all be public - if not, Firebase will fail to
@@ -116,58 +80,71 @@ public final class ViewAward implements Parcelable {
 
     @NonNull
     public String getId() {
-        return id;
+        return award.getId();
     }
 
     public String getMovieId() {
-        return movieId;
+        return movie.getId();
     }
 
     @NonNull
     public String getImdbId() {
-        return imdbId;
+        return movie.getImdbId();
     }
 
     public int getTmdbId() {
-        return tmdbId;
+        return movie.getTmdbId();
     }
 
     @NonNull
     public String getAwardDate() {
-        return awardDate;
+        return award.getAwardDate();
+    }
+
+    /**
+     * Returns the award day, i.e. the epoch day of the award date.
+     * @return the number of days since 1 Jan 1970 of the award date,
+     *         or Award.AWARD_DAY_UNKNOWN if the award date is invalid
+     */
+    public int getAwardDay() {
+        return award.getAwardDay();
     }
 
     @NonNull
     public String getCategory() {
-        return category;
+        return award.getCategory();
     }
 
     @NonNull
     public String getReview() {
-        return review;
+        return award.getReview();
     }
 
     public int getDisplayOrder() {
-        return displayOrder;
+        return award.getDisplayOrder();
     }
 
     @NonNull
     public String getTitle() {
-        return title;
+        return movie.getTitle();
     }
 
     public int getRuntime() {
-        return runtime;
+        return movie.getRuntime();
+    }
+
+    public int getReleaseYear() {
+        return movie.getReleaseYear();
     }
 
     @Nullable
     public String getGenre() {
-        return genre;
+        return movie.getGenre();
     }
 
     @Nullable
     public String getPoster() {
-        return poster;
+        return movie.getPoster();
     }
 
     public boolean isOnWishlist() {
@@ -205,18 +182,8 @@ public final class ViewAward implements Parcelable {
      * @param in a Parcel containing the object
      */
     private ViewAward(@NonNull final Parcel in) {
-        id = in.readString();
-        movieId = in.readString();
-        imdbId = in.readString();
-        tmdbId = in.readInt();
-        awardDate = in.readString();
-        category = in.readString();
-        review = in.readString();
-        displayOrder = in.readInt();
-        title = in.readString();
-        runtime = in.readInt();
-        genre = in.readString();
-        poster = in.readString();
+        award = in.readParcelable(Award.class.getClassLoader());
+        movie = in.readParcelable(Movie.class.getClassLoader());
         onWishlist = in.readInt() == 1;
         watched = in.readInt() == 1;
         favourite = in.readInt() == 1;
@@ -231,18 +198,8 @@ public final class ViewAward implements Parcelable {
      */
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        dest.writeString(id);
-        dest.writeString(movieId);
-        dest.writeString(imdbId);
-        dest.writeInt(tmdbId);
-        dest.writeString(awardDate);
-        dest.writeString(category);
-        dest.writeString(review);
-        dest.writeInt(displayOrder);
-        dest.writeString(title);
-        dest.writeInt(runtime);
-        dest.writeString(genre);
-        dest.writeString(poster);
+        dest.writeParcelable(award, flags);
+        dest.writeParcelable(movie, flags);
         dest.writeInt(onWishlist ? 1 : 0);
         dest.writeInt(watched ? 1 : 0);
         dest.writeInt(favourite ? 1 : 0);
@@ -314,6 +271,7 @@ public final class ViewAward implements Parcelable {
         private int displayOrder;
         private String title;
         private int runtime;
+        private int releaseYear = Movie.RELEASE_YEAR_UNKNOWN;
         private String genre;
         private String poster;
         private boolean onWishlist;
@@ -324,18 +282,19 @@ public final class ViewAward implements Parcelable {
         }
 
         Builder(ViewAward source) {
-            this.id = source.id;
-            this.movieId = source.movieId;
-            this.imdbId = source.imdbId;
-            this.tmdbId = source.tmdbId;
-            this.awardDate = source.awardDate;
-            this.category = source.category;
-            this.review = source.review;
-            this.displayOrder = source.displayOrder;
-            this.title = source.title;
-            this.runtime = source.runtime;
-            this.genre = source.genre;
-            this.poster = source.poster;
+            this.id = source.getId();
+            this.movieId = source.getMovieId();
+            this.imdbId = source.getImdbId();
+            this.tmdbId = source.getTmdbId();
+            this.awardDate = source.getAwardDate();
+            this.category = source.getCategory();
+            this.review = source.getReview();
+            this.displayOrder = source.getDisplayOrder();
+            this.title = source.getTitle();
+            this.runtime = source.getRuntime();
+            this.releaseYear = source.getReleaseYear();
+            this.genre = source.getGenre();
+            this.poster = source.getPoster();
             this.onWishlist = source.onWishlist;
             this.watched = source.watched;
             this.favourite = source.favourite;
@@ -391,6 +350,11 @@ public final class ViewAward implements Parcelable {
             return this;
         }
 
+        public ViewAward.Builder releaseYear(int releaseYear) {
+            this.releaseYear = releaseYear;
+            return this;
+        }
+
         public ViewAward.Builder genre(@NonNull String genre) {
             this.genre = genre;
             return this;
@@ -452,71 +416,52 @@ public final class ViewAward implements Parcelable {
             if (!missing.isEmpty()) {
                 throw new IllegalStateException("Missing required properties:" + missing);
             }
-            return new ViewAward(
-                    this.id,
-                    this.movieId,
-                    this.imdbId,
-                    this.tmdbId,
-                    this.awardDate,
-                    this.category,
-                    this.review,
-                    this.displayOrder,
-                    this.title,
-                    this.runtime,
-                    this.genre,
-                    this.poster,
-                    this.onWishlist,
-                    this.watched,
-                    this.favourite);
+            Award award = Award.builder()
+                    .id(this.id)
+                    .movieId(this.movieId)
+                    .awardDate(this.awardDate)
+                    .category(this.category)
+                    .review(this.review)
+                    .displayOrder(this.displayOrder)
+                    .build();
+            // The movie holds the released date rather than the release year,
+            // so it is released at the start of the release year
+            Movie movie = Movie.builder()
+                    .id(this.movieId)
+                    .imdbId(this.imdbId)
+                    .tmdbId(this.tmdbId)
+                    .title(this.title)
+                    .released(this.releaseYear == Movie.RELEASE_YEAR_UNKNOWN
+                            ? Movie.RELEASED_UNKNOWN
+                            : JavaUtils.toLocalTimeMillis(
+                                    JavaUtils.toEpochDay(this.releaseYear, 1, 1)))
+                    .runtime(this.runtime)
+                    .genre(this.genre)
+                    .poster(this.poster)
+                    .build();
+            return new ViewAward(award, movie, this.onWishlist, this.watched, this.favourite);
         }
     }
 
-    //---------------------------------------------------------------
-    // Utilities
-
-    /**
-     * Returns a view award as an object array, one element per field value.
-     * @return the view award as an Object array
-     */
-    public Object[] toObjectArray() {
-        return new Object[] {
-                // This must match the order of columns in DataContract.ViewAwardEntry.getAllColumns().
-                id,
-                movieId,
-                imdbId,
-                tmdbId,
-                awardDate,
-                category,
-                review,
-                displayOrder,
-                title,
-                runtime,
-                genre,
-                poster,
-                onWishlist ? 1 : 0,
-                watched ? 1 : 0,
-                favourite ? 1 : 0
-        };
-    }
-
     //---------------------------------------------------------------
     // Override object methods
 
     @Override
     public String toString() {
         return "ViewAward{"
-                + "id=" + id
-                + ", movieId=" + movieId
-                + ", imdbId=" + imdbId
-                + ", tmdbId=" + tmdbId
-                + ", awardDate=" + awardDate
-                + ", category=" + category
-                + ", review=" + review
-                + ", displayOrder=" + displayOrder
-                + ", title=" + title
-                + ", runtime=" + runtime
-                + ", genre=" + genre
-                + ", poster=" + poster
+                + "id=" + getId()
+                + ", movieId=" + getMovieId()
+                + ", imdbId=" + getImdbId()
+                + ", tmdbId=" + getTmdbId()
+                + ", awardDate=" + getAwardDate()
+                + ", category=" + getCategory()
+                + ", review=" + getReview()
+                + ", displayOrder=" + getDisplayOrder()
+                + ", title=" + getTitle()
+                + ", runtime=" + getRuntime()
+                + ", releaseYear=" + getReleaseYear()
+                + ", genre=" + getGenre()
+                + ", poster=" + getPoster()
                 + ", onWishlist=" + onWishlist
                 + ", watched=" + watched
                 + ", favourite=" + favourite
@@ -530,8 +475,8 @@ public final class ViewAward implements Parcelable {
         }
         if (o instanceof ViewAward) {
             ViewAward that = (ViewAward) o;
-            return (this.id.equals(that.id))
-                    && (this.movieId.equals(that.movieId));
+            return (this.getId().equals(that.getId()))
+                    && (this.getMovieId().equals(that.getMovieId()));
         }
         return false;
     }
@@ -540,9 +485,9 @@ public final class ViewAward implements Parcelable {
     public int hashCode() {
         int h = 1;
         h *= 1000003;
-        h ^= this.id.hashCode();
+        h ^= this.getId().hashCode();
         h *= 1000003;
-        h ^= this.movieId.hashCode();
+        h ^= this.getMovieId().hashCode();
         return h;
     }
 
@@ -554,13 +499,15 @@ public final class ViewAward implements Parcelable {
             = new Comparator<ViewAward>() {
                 public int compare(ViewAward viewAward1, ViewAward viewAward2) {
                     // ascending order
-                    if (viewAward1.awardDate.equals(viewAward2.awardDate)) {
-                        // awardDate ascending, then category ("D" before "M")
+                    if (viewAward1.getAwardDay() == viewAward2.getAwardDay()) {
+                        // awardDay ascending, then category ("D" before "M"), then id
                         // This unintuitive ordering of category is so that when the comparator is
                         // reversed, as it is by default, Movie comes before DVD
-                        return viewAward1.category.compareTo(viewAward2.category);
+                        int comparison =
+                                viewAward1.getCategory().compareTo(viewAward2.getCategory());
+                        return comparison != 0 ? comparison : compareIds(viewAward1, viewAward2);
                     }
-                    return viewAward1.awardDate.compareTo(viewAward2.awardDate);
+                    return viewAward1.getAwardDay() < viewAward2.getAwardDay() ? -1 : 1;
                 }
             };
 
@@ -569,11 +516,12 @@ public final class ViewAward implements Parcelable {
             = new Comparator<ViewAward>() {
                 public int compare(ViewAward viewAward1, ViewAward viewAward2) {
                     // ascending order
-                    if (viewAward1.title.equals(viewAward2.title)) {
-                        // title ascending, then imdbId (released date would be better)
-                        return viewAward1.imdbId.compareTo(viewAward2.imdbId);
+                    if (viewAward1.getTitle().equals(viewAward2.getTitle())) {
+                        // title ascending, then imdbId (released date would be better), then id
+                        int comparison = viewAward1.getImdbId().compareTo(viewAward2.getImdbId());
+                        return comparison != 0 ? comparison : compareIds(viewAward1, viewAward2);
                     }
-                    return viewAward1.title.compareTo(viewAward2.title);
+                    return viewAward1.getTitle().compareTo(viewAward2.getTitle());
                 }
             };
 
@@ -582,12 +530,26 @@ public final class ViewAward implements Parcelable {
             = new Comparator<ViewAward>() {
                 public int compare(ViewAward viewAward1, ViewAward viewAward2) {
                     // ascending order
-                    if (viewAward1.runtime == viewAward2.runtime) {
-                        // runtime ascending, then title
-                        return viewAward1.title.compareTo(viewAward2.title);
+                    if (viewAward1.getRuntime() == viewAward2.getRuntime()) {
+                        // runtime ascending, then title, then id
+                        int comparison = viewAward1.getTitle().compareTo(viewAward2.getTitle());
+                        return comparison != 0 ? comparison : compareIds(viewAward1, viewAward2);
                     }
-                    return viewAward1.runtime - viewAward2.runtime;
+                    return viewAward1.getRuntime() - viewAward2.getRuntime();
                 }
             };
 
+    /**
+     * Compares the ids of two view awards, which is the last tie-breaker of every comparator,
+     * so that each comparator is a total order, and keyset pagination can resume after any
+     * view award.
+     * @param viewAward1 the first view award
+     * @param viewAward2 the second view award
+     * @return a negative number, zero or a positive number as the id of the first view award
+     *     is less than, equal to or greater than the id of the second
+     */
+    private static int compareIds(ViewAward viewAward1, ViewAward viewAward2) {
+        return viewAward1.getId().compareTo(viewAward2.getId());
+    }
+
 }
@@ -18,6 +18,11 @@ public final class ViewAwardQueryParameters {
     private String mFilterWatched;
     private String mFilterFavourite;
     private String mFilterCategory;
+    private String mFilterRuntime;
+    private String mFilterReleaseYear;
+    private String mFilterLanguage;
+    private String mFilterCountry;
+    private String mFilterCertificate;
     private int mLimit;
 
     private ViewAwardQueryParameters() {
@@ -26,13 +31,21 @@ public final class ViewAwardQueryParameters {
     private ViewAwardQueryParameters(@NonNull String sortOrder, @NonNull String filterGenre,
                                      @NonNull String filterWishlist, @NonNull String filterWatched,
                                      @NonNull String filterFavourite, @NonNull String filterCategory,
-                                     int limit) {
+                                     @NonNull String filterRuntime,
+                                     @NonNull String filterReleaseYear,
+                                     @NonNull String filterLanguage, @NonNull String filterCountry,
+                                     @NonNull String filterCertificate, int limit) {
         this.mSortOrder = sortOrder;
         this.mFilterGenre = filterGenre;
         this.mFilterWishlist = filterWishlist;
         this.mFilterWatched = filterWatched;
         this.mFilterFavourite = filterFavourite;
         this.mFilterCategory = filterCategory;
+        this.mFilterRuntime = filterRuntime;
+        this.mFilterReleaseYear = filterReleaseYear;
+        this.mFilterLanguage = filterLanguage;
+        this.mFilterCountry = filterCountry;
+        this.mFilterCertificate = filterCertificate;
         this.mLimit = limit;
     }
 
@@ -69,6 +82,31 @@ public final class ViewAwardQueryParameters {
         return mFilterCategory;
     }
 
+    @NonNull
+    public String getFilterRuntime() {
+        return mFilterRuntime;
+    }
+
+    @NonNull
+    public String getFilterReleaseYear() {
+        return mFilterReleaseYear;
+    }
+
+    @NonNull
+    public String getFilterLanguage() {
+        return mFilterLanguage;
+    }
+
+    @NonNull
+    public String getFilterCountry() {
+        return mFilterCountry;
+    }
+
+    @NonNull
+    public String getFilterCertificate() {
+        return mFilterCertificate;
+    }
+
     public int getLimit() {
         return mLimit;
     }
@@ -102,6 +140,11 @@ public final class ViewAwardQueryParameters {
         private String mFilterWatched;
         private String mFilterFavourite;
         private String mFilterCategory;
+        private String mFilterRuntime;
+        private String mFilterReleaseYear;
+        private String mFilterLanguage;
+        private String mFilterCountry;
+        private String mFilterCertificate;
         private int mLimit;
 
         private Builder() {
@@ -144,6 +187,38 @@ public final class ViewAwardQueryParameters {
             return this;
         }
 
+        @NonNull
+        public ViewAwardQueryParameters.Builder filterRuntime(@Nullable String filterRuntime) {
+            this.mFilterRuntime = filterRuntime;
+            return this;
+        }
+
+        @NonNull
+        public ViewAwardQueryParameters.Builder filterReleaseYear(
+                @Nullable String filterReleaseYear) {
+            this.mFilterReleaseYear = filterReleaseYear;
+            return this;
+        }
+
+        @NonNull
+        public ViewAwardQueryParameters.Builder filterLanguage(@Nullable String filterLanguage) {
+            this.mFilterLanguage = filterLanguage;
+            return this;
+        }
+
+        @NonNull
+        public ViewAwardQueryParameters.Builder filterCountry(@Nullable String filterCountry) {
+            this.mFilterCountry = filterCountry;
+            return this;
+        }
+
+        @NonNull
+        public ViewAwardQueryParameters.Builder filterCertificate(
+                @Nullable String filterCertificate) {
+            this.mFilterCertificate = filterCertificate;
+            return this;
+        }
+
         @NonNull
         public ViewAwardQueryParameters.Builder limit(int limit) {
             this.mLimit = limit;
@@ -175,6 +250,21 @@ public final class ViewAwardQueryParameters {
             if (mFilterCategory == null) {
                 missing += " filterCategory";
             }
+            if (mFilterRuntime == null) {
+                missing += " filterRuntime";
+            }
+            if (mFilterReleaseYear == null) {
+                missing += " filterReleaseYear";
+            }
+            if (mFilterLanguage == null) {
+                missing += " filterLanguage";
+            }
+            if (mFilterCountry == null) {
+                missing += " filterCountry";
+            }
+            if (mFilterCertificate == null) {
+                missing += " filterCertificate";
+            }
             if (!missing.isEmpty()) {
                 throw new IllegalStateException("Missing required properties:" + missing);
             }
@@ -185,6 +275,11 @@ public final class ViewAwardQueryParameters {
                     this.mFilterWatched,
                     this.mFilterFavourite,
                     this.mFilterCategory,
+                    this.mFilterRuntime,
+                    this.mFilterReleaseYear,
+                    this.mFilterLanguage,
+                    this.mFilterCountry,
+                    this.mFilterCertificate,
                     this.mLimit);
         }
     }
@@ -0,0 +1,259 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of poster bitmaps which are no longer used, so that their memory can be reused
+ * when further posters are decoded, rather than a new bitmap being allocated for each one.
+ * The pool is bucketed by bitmap size and configuration, since a bitmap can only be
+ * reused to decode a poster of exactly the same size on all supported API levels.
+ * Posters are requested in a small number of fixed TMDb sizes, so each bucket
+ * typically contains the list thumbnails of one size.
+ *
+ * <p>A bitmap is only returned to the pool once nothing can display it, i.e. it has been
+ * removed from the memory cache and every view which displayed it has released it.
+ * Views which display posters without releasing them must pin them, so that they are
+ * never reused.</p>
+ * @author Edmund Johnson
+ */
+final class BitmapPool {
+
+    /** The maximum number of bytes used by the pooled bitmaps. */
+    private final int mMaxBytes;
+
+    /** The pooled bitmaps, keyed by bucket, in least-recently-used bucket order. */
+    private final Map<String, Deque<Bitmap>> mBuckets = new LinkedHashMap<>(0, 0.75f, true);
+
+    /** The usage of the bitmaps which may be returned to the pool, keyed by bitmap. */
+    private final Map<Bitmap, Usage> mUsages = new WeakHashMap<>();
+
+    /** The number of bytes used by the pooled bitmaps. */
+    private int mBytes;
+
+    // Statistics
+    private long mHitCount;
+    private long mMissCount;
+    private long mBytesReused;
+    private long mPutCount;
+
+    /**
+     * Constructor.
+     * @param maxBytes the maximum number of bytes used by the pooled bitmaps
+     */
+    BitmapPool(final int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    //---------------------------------------------------------------------
+    // Pool methods
+
+    /**
+     * Removes a bitmap of a specified size and configuration from the pool, for reuse when
+     * decoding a poster.
+     * @param width the width of the bitmap
+     * @param height the height of the bitmap
+     * @param config the configuration of the bitmap
+     * @return a pooled bitmap of the specified size and configuration,
+     *         or null if there is none
+     */
+    @Nullable
+    synchronized Bitmap get(final int width, final int height, @NonNull final Bitmap.Config config) {
+        Deque<Bitmap> bucket = mBuckets.get(getBucketKey(width, height, config));
+        Bitmap bitmap = bucket == null ? null : bucket.pollFirst();
+        if (bitmap == null) {
+            mMissCount++;
+            return null;
+        }
+        int bitmapBytes = getBitmapBytes(bitmap);
+        mBytes -= bitmapBytes;
+        mHitCount++;
+        mBytesReused += bitmapBytes;
+        return bitmap;
+    }
+
+    /**
+     * Adds a bitmap which is no longer used to the pool, evicting the bitmaps in the least
+     * recently used buckets if necessary.
+     * @param bitmap the bitmap
+     */
+    private void put(@NonNull final Bitmap bitmap) {
+        int bitmapBytes = getBitmapBytes(bitmap);
+        if (!bitmap.isMutable() || bitmap.isRecycled() || bitmapBytes > mMaxBytes) {
+            return;
+        }
+        String bucketKey = getBucketKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        Deque<Bitmap> bucket = mBuckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            mBuckets.put(bucketKey, bucket);
+        }
+        bucket.addFirst(bitmap);
+        mBytes += bitmapBytes;
+        mPutCount++;
+        trimToSize(mMaxBytes);
+    }
+
+    /**
+     * Discards pooled bitmaps, least recently used buckets first, until the pooled bitmaps
+     * use no more than a specified number of bytes.
+     * @param maxBytes the maximum number of bytes to be used by the pooled bitmaps,
+     *                 or 0 to discard all the pooled bitmaps
+     */
+    synchronized void trimToSize(final int maxBytes) {
+        Iterator<Deque<Bitmap>> iterator = mBuckets.values().iterator();
+        while (mBytes > maxBytes && iterator.hasNext()) {
+            Deque<Bitmap> bucket = iterator.next();
+            while (mBytes > maxBytes && !bucket.isEmpty()) {
+                mBytes -= getBitmapBytes(bucket.pollLast());
+            }
+            if (bucket.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the key of the bucket for bitmaps of a specified size and configuration.
+     * @param width the width of the bitmaps
+     * @param height the height of the bitmaps
+     * @param config the configuration of the bitmaps
+     * @return the key of the bucket, e.g. "154x231:ARGB_8888"
+     */
+    @NonNull
+    private static String getBucketKey(final int width, final int height,
+                                       @Nullable final Bitmap.Config config) {
+        return width + "x" + height + ":" + config;
+    }
+
+    /**
+     * Returns the number of bytes used by a bitmap.
+     * @param bitmap the bitmap
+     * @return the number of bytes used by the bitmap
+     */
+    private static int getBitmapBytes(@NonNull final Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+
+    //---------------------------------------------------------------------
+    // Usage methods
+
+    /**
+     * Records that a bitmap has been added to the memory cache.
+     * @param bitmap the bitmap
+     */
+    synchronized void onCached(@NonNull final Bitmap bitmap) {
+        getUsage(bitmap).mCached = true;
+    }
+
+    /**
+     * Records that a bitmap has been removed from the memory cache.
+     * The bitmap is not returned to the pool here, even if no view has acquired it, as it may
+     * be about to be delivered to a view; it is returned when a view releases it.
+     * @param bitmap the bitmap
+     */
+    synchronized void onUncached(@NonNull final Bitmap bitmap) {
+        Usage usage = mUsages.get(bitmap);
+        if (usage != null) {
+            usage.mCached = false;
+        }
+    }
+
+    /**
+     * Records that a view is displaying a bitmap, and will release it when it stops.
+     * @param bitmap the bitmap
+     */
+    synchronized void acquire(@NonNull final Bitmap bitmap) {
+        getUsage(bitmap).mViewCount++;
+    }
+
+    /**
+     * Records that a view has stopped displaying a bitmap. If no view is displaying it and
+     * it is not in the memory cache, it is returned to the pool.
+     * @param bitmap the bitmap
+     */
+    synchronized void release(@NonNull final Bitmap bitmap) {
+        Usage usage = mUsages.get(bitmap);
+        if (usage == null || usage.mViewCount == 0) {
+            return;
+        }
+        usage.mViewCount--;
+        if (usage.mViewCount == 0 && !usage.mCached && !usage.mPinned) {
+            mUsages.remove(bitmap);
+            put(bitmap);
+        }
+    }
+
+    /**
+     * Records that a bitmap is being displayed by a view which will not release it,
+     * so that it is never returned to the pool.
+     * @param bitmap the bitmap
+     */
+    synchronized void pin(@NonNull final Bitmap bitmap) {
+        getUsage(bitmap).mPinned = true;
+    }
+
+    /**
+     * Returns the usage of a bitmap, creating it if necessary.
+     * @param bitmap the bitmap
+     * @return the usage of the bitmap
+     */
+    @NonNull
+    private Usage getUsage(@NonNull final Bitmap bitmap) {
+        Usage usage = mUsages.get(bitmap);
+        if (usage == null) {
+            usage = new Usage();
+            mUsages.put(bitmap, usage);
+        }
+        return usage;
+    }
+
+    /**
+     * The usage of a bitmap which may be returned to the pool.
+     */
+    private static final class Usage {
+        /** Whether the bitmap is in the memory cache. */
+        private boolean mCached;
+        /** The number of views which have acquired the bitmap and not yet released it. */
+        private int mViewCount;
+        /** Whether the bitmap is displayed by a view which will not release it. */
+        private boolean mPinned;
+    }
+
+    //---------------------------------------------------------------------
+    // Statistics
+
+    /**
+     * Returns a description of the pool statistics, e.g. for inclusion in the poster cache
+     * statistics.
+     * @return a description of the pool statistics
+     */
+    @NonNull
+    synchronized String getStatistics() {
+        Map<String, Integer> bucketSizes = new HashMap<>();
+        for (Map.Entry<String, Deque<Bitmap>> entry : mBuckets.entrySet()) {
+            bucketSizes.put(entry.getKey(), entry.getValue().size());
+        }
+        return "pool: " + mBytes / 1024 + "/" + mMaxBytes / 1024 + "KB"
+                + ", reused=" + mHitCount
+                + ", allocated=" + mMissCount
+                + ", reuseRate=" + PosterCache.formatRate(mHitCount, mMissCount)
+                + ", reusedBytes=" + mBytesReused / 1024 + "KB"
+                + ", returned=" + mPutCount
+                + ", buckets=" + bucketSizes;
+    }
+
+}
@@ -0,0 +1,385 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.DisplayMetrics;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.squareup.picasso.Picasso;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+import timber.log.Timber;
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+import uk.jumpingmouse.moviecompanion.R;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+import uk.jumpingmouse.moviecompanion.utils.NetUtils;
+
+/**
+ * The two-tier poster cache, through which all movie posters are loaded.
+ * Decoded posters are held in a memory cache limited by its size in bytes, and downloaded
+ * posters are held in a disk cache keyed by movie poster and TMDb size.
+ * Posters are requested in the smallest TMDb size which covers the target view,
+ * or a smaller size while the connection is poor.
+ * @author Edmund Johnson
+ */
+public final class PosterCache {
+    /** The singleton instance of this class. */
+    private static PosterCache sPosterCache = null;
+
+    /** The fraction of the app's memory class used by the memory cache. */
+    private static final int MEMORY_CACHE_FRACTION = 8;
+    /** The fraction of the memory cache size used by the bitmap pool. */
+    private static final int BITMAP_POOL_FRACTION = 4;
+    /** The maximum total size of the files in the disk cache. */
+    private static final long DISK_CACHE_MAX_BYTES = 25L * 1024 * 1024;
+    /** The name of the disk cache directory, within the app's cache directory. */
+    private static final String DISK_CACHE_DIRECTORY = "posters";
+    /** The divisor applied to the target size of a poster when the connection is poor. */
+    private static final int REDUCED_SIZE_DIVISOR = 2;
+
+    private Picasso mPicasso;
+    private PosterMemoryCache mMemoryCache;
+    private PosterDiskCache mDiskCache;
+    private BitmapPool mBitmapPool;
+
+    /** The number of posters requested in a reduced size because the connection was poor. */
+    private long mReducedCount;
+
+    //---------------------------------------------------------------------
+    // Instance handling methods
+
+    /**
+     * Returns an instance of this class.
+     * @return an instance of this class
+     */
+    @NonNull
+    public static PosterCache getInstance() {
+        if (sPosterCache == null) {
+            sPosterCache = new PosterCache();
+        }
+        return sPosterCache;
+    }
+
+    /** Private default constructor to prevent instantiation from outside this class. */
+    private PosterCache() {
+    }
+
+    //---------------------------------------------------------------------
+    // Poster loading methods
+
+    /**
+     * Returns the Picasso instance which loads posters through the poster cache.
+     * @param context the context
+     * @return the Picasso instance which loads posters through the poster cache
+     */
+    @NonNull
+    public synchronized Picasso getPicasso(@NonNull final Context context) {
+        if (mPicasso == null) {
+            Context applicationContext = context.getApplicationContext();
+            ActivityManager activityManager =
+                    (ActivityManager) applicationContext.getSystemService(Context.ACTIVITY_SERVICE);
+            int memoryClassBytes = activityManager.getMemoryClass() * 1024 * 1024;
+
+            int memoryCacheBytes = memoryClassBytes / MEMORY_CACHE_FRACTION;
+            mBitmapPool = new BitmapPool(memoryCacheBytes / BITMAP_POOL_FRACTION);
+            mMemoryCache = new PosterMemoryCache(memoryCacheBytes, mBitmapPool);
+            Resources resources = applicationContext.getResources();
+            mDiskCache = new PosterDiskCache(
+                    new File(applicationContext.getCacheDir(), DISK_CACHE_DIRECTORY),
+                    DISK_CACHE_MAX_BYTES,
+                    resources.getInteger(R.integer.poster_cache_webp_quality_thumbnail),
+                    resources.getInteger(R.integer.poster_cache_webp_quality));
+            // List the cached files in the background, so that isCached(...) does not
+            // access the disk
+            final PosterDiskCache diskCache = mDiskCache;
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    diskCache.loadFileNames();
+                }
+            });
+            mPicasso = new Picasso.Builder(applicationContext)
+                    .memoryCache(mMemoryCache)
+                    .downloader(mDiskCache)
+                    .addRequestHandler(new PosterRequestHandler(mDiskCache, mBitmapPool))
+                    .build();
+            applicationContext.registerComponentCallbacks(new TrimMemoryCallbacks());
+        }
+        return mPicasso;
+    }
+
+    /**
+     * Records that a view is displaying a poster bitmap, and will release it when it
+     * stops displaying it, e.g. when a list item is recycled.
+     * @param bitmap the poster bitmap
+     */
+    public synchronized void acquire(@NonNull final Bitmap bitmap) {
+        if (mBitmapPool != null) {
+            mBitmapPool.acquire(bitmap);
+        }
+    }
+
+    /**
+     * Records that a view has stopped displaying a poster bitmap, so that its memory can be
+     * reused to decode another poster once it is no longer cached.
+     * @param bitmap the poster bitmap
+     */
+    public synchronized void release(@NonNull final Bitmap bitmap) {
+        if (mBitmapPool != null) {
+            mBitmapPool.release(bitmap);
+        }
+    }
+
+    /**
+     * Records that a view is displaying a poster bitmap and will not release it,
+     * so that its memory is never reused.
+     * @param bitmap the poster bitmap
+     */
+    public synchronized void pin(@NonNull final Bitmap bitmap) {
+        if (mBitmapPool != null) {
+            mBitmapPool.pin(bitmap);
+        }
+    }
+
+    /**
+     * Downloads a poster into the disk cache, unless it is already cached, so that it
+     * does not need to be downloaded when it is first displayed.
+     * This downloads synchronously, so must not be called on the main thread.
+     * @param context the context
+     * @param posterUrl the poster URL, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     * @return true if the poster is now in the disk cache, false otherwise
+     */
+    public boolean warmUp(@NonNull final Context context, @NonNull final String posterUrl) {
+        getPicasso(context);
+        Uri uri = Uri.parse(posterUrl);
+        if (mDiskCache.isCached(uri)) {
+            return true;
+        }
+        try {
+            InputStream inputStream = mDiskCache.load(uri, 0).getInputStream();
+            if (inputStream != null) {
+                inputStream.close();
+            }
+            return true;
+        } catch (IOException e) {
+            Timber.w("warmUp: IOException downloading poster: " + posterUrl, e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the URL of a poster in the TMDb size to be loaded into an image view.
+     * This is normally the smallest size which covers the image view, but if the connection
+     * is poor and the poster is not cached in that size, a smaller size is returned,
+     * which is displayed scaled up until the connection improves.
+     * @param imageView the image view
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the poster URL, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     */
+    @NonNull
+    public synchronized String getPosterUrl(@NonNull final ImageView imageView,
+                                            @Nullable final String poster) {
+        String posterUrl = getFullSizePosterUrl(imageView, poster);
+        if (!getNetUtils().isConnectionPoor() || isCached(posterUrl)) {
+            return posterUrl;
+        }
+        int[] targetSize = getTargetSize(imageView);
+        String reducedPosterUrl = ModelUtils.getPosterUrl(poster,
+                targetSize[0] / REDUCED_SIZE_DIVISOR, targetSize[1] / REDUCED_SIZE_DIVISOR);
+        if (!reducedPosterUrl.equals(posterUrl)) {
+            mReducedCount++;
+        }
+        return reducedPosterUrl;
+    }
+
+    /**
+     * Returns the URL of a poster in the smallest TMDb size which covers an image view,
+     * regardless of the quality of the connection.
+     * If the image view does not have a fixed size, e.g. if it matches its parent,
+     * the size of the display is used instead.
+     * @param imageView the image view
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the poster URL, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     */
+    @NonNull
+    public String getFullSizePosterUrl(@NonNull final ImageView imageView,
+                                       @Nullable final String poster) {
+        int[] targetSize = getTargetSize(imageView);
+        return ModelUtils.getPosterUrl(poster, targetSize[0], targetSize[1]);
+    }
+
+    /**
+     * Returns whether a poster is in the memory cache or the disk cache.
+     * @param posterUrl the poster URL, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     * @return true if the poster is cached, false otherwise
+     */
+    private boolean isCached(@NonNull final String posterUrl) {
+        if (mMemoryCache == null) {
+            return false;
+        }
+        return mMemoryCache.peek(posterUrl) != null || mDiskCache.isCached(Uri.parse(posterUrl));
+    }
+
+    /**
+     * Returns the largest poster which is in the memory cache in a smaller TMDb size than
+     * the one which covers an image view, e.g. the thumbnail displayed in the award list.
+     * This can be displayed immediately while the poster itself is loaded.
+     * @param imageView the image view
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the largest smaller poster in the memory cache, or null if there is none
+     */
+    @Nullable
+    public synchronized Bitmap getCachedSmallerPoster(@NonNull final ImageView imageView,
+                                                      @Nullable final String poster) {
+        if (mMemoryCache == null || poster == null) {
+            return null;
+        }
+        int[] targetSize = getTargetSize(imageView);
+        for (String posterUrl : ModelUtils.getSmallerPosterUrls(poster, targetSize[0], targetSize[1])) {
+            Bitmap bitmap = mMemoryCache.peek(posterUrl);
+            if (bitmap != null) {
+                // The caller displays the bitmap without releasing it
+                mBitmapPool.pin(bitmap);
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the size in pixels of an image view into which a poster is to be loaded.
+     * If the image view does not have a fixed size, e.g. if it matches its parent,
+     * the size of the display is used instead.
+     * @param imageView the image view
+     * @return the width and height of the image view
+     */
+    @NonNull
+    private static int[] getTargetSize(@NonNull final ImageView imageView) {
+        DisplayMetrics displayMetrics = imageView.getResources().getDisplayMetrics();
+        ViewGroup.LayoutParams layoutParams = imageView.getLayoutParams();
+        int width = displayMetrics.widthPixels;
+        int height = displayMetrics.heightPixels;
+        if (layoutParams != null) {
+            if (layoutParams.width > 0) {
+                width = layoutParams.width;
+            }
+            if (layoutParams.height > 0) {
+                height = layoutParams.height;
+            }
+        }
+        return new int[] {width, height};
+    }
+
+    /**
+     * Convenience method which returns a reference to a NetUtils object.
+     * @return a reference to a NetUtils object
+     */
+    @NonNull
+    private static NetUtils getNetUtils() {
+        return ObjectFactory.getNetUtils();
+    }
+
+    //---------------------------------------------------------------------
+    // Statistics
+
+    /**
+     * Returns a description of the poster cache statistics, i.e. the hit rate of each tier,
+     * the number of duplicate downloads avoided, the disk space saved by re-encoding posters
+     * as WebP with the extra disk cache hits that gives, the number of bytes downloaded and saved,
+     * the number of bitmap allocations avoided by the bitmap pool, and the estimated
+     * bandwidth with the number of posters requested in a reduced size.
+     * @return a description of the poster cache statistics
+     */
+    @Override
+    public synchronized String toString() {
+        if (mPicasso == null) {
+            return "PosterCache{not used}";
+        }
+        return "PosterCache{"
+                + "memory: " + mMemoryCache.size() / 1024 + "/" + mMemoryCache.maxSize() / 1024 + "KB"
+                + ", hits=" + mMemoryCache.getHitCount()
+                + ", misses=" + mMemoryCache.getMissCount()
+                + ", hitRate=" + formatRate(mMemoryCache.getHitCount(), mMemoryCache.getMissCount())
+                + ", evictions=" + mMemoryCache.getEvictionCount()
+                + "; disk: hits=" + mDiskCache.getHitCount()
+                + ", misses=" + mDiskCache.getMissCount()
+                + ", hitRate=" + formatRate(mDiskCache.getHitCount(), mDiskCache.getMissCount())
+                + ", sharedDownloads=" + mDiskCache.getSharedDownloadCount()
+                + ", webpTranscoded=" + mDiskCache.getTranscodedCount()
+                + ", webpSaved=" + mDiskCache.getBytesTranscodeSaved() / 1024 + "KB"
+                + ", webpExtraHits=" + mDiskCache.getTranscodeHitCount()
+                + ", webpExtraHitRate=" + formatRate(mDiskCache.getTranscodeHitCount(),
+                        mDiskCache.getHitCount() + mDiskCache.getMissCount()
+                                - mDiskCache.getTranscodeHitCount())
+                + ", downloaded=" + mDiskCache.getBytesDownloaded() / 1024 + "KB"
+                + ", saved=" + mDiskCache.getBytesSaved() / 1024 + "KB"
+                + "; " + mBitmapPool.getStatistics()
+                + "; network: bandwidth=" + getNetUtils().getBandwidthKbps() + "kbps"
+                + ", reducedPosters=" + mReducedCount
+                + "}";
+    }
+
+    /**
+     * Returns a hit rate formatted as a percentage, e.g. "85%".
+     * @param hitCount the number of hits
+     * @param missCount the number of misses
+     * @return the hit rate formatted as a percentage
+     */
+    @NonNull
+    static String formatRate(final long hitCount, final long missCount) {
+        long total = hitCount + missCount;
+        if (total == 0) {
+            return "-";
+        }
+        return String.format(Locale.UK, "%d%%", hitCount * 100 / total);
+    }
+
+    //---------------------------------------------------------------------
+    // Memory trimming
+
+    /**
+     * The callbacks which release memory held by the poster cache when the system is
+     * low on memory. The bitmap pool is released first, as its bitmaps are not displayed.
+     */
+    private final class TrimMemoryCallbacks implements ComponentCallbacks2 {
+
+        @Override
+        public void onTrimMemory(final int level) {
+            if (level >= TRIM_MEMORY_MODERATE) {
+                mBitmapPool.trimToSize(0);
+                mMemoryCache.clear();
+            } else if (level >= TRIM_MEMORY_BACKGROUND
+                    || level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+                mBitmapPool.trimToSize(0);
+                mMemoryCache.trimToSize(mMemoryCache.maxSize() / 2);
+            } else {
+                mBitmapPool.trimToSize(0);
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            mBitmapPool.trimToSize(0);
+            mMemoryCache.clear();
+        }
+
+        @Override
+        public void onConfigurationChanged(final Configuration newConfig) {
+            // no action required
+        }
+    }
+
+}
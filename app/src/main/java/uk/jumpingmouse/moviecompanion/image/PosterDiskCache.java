@@ -0,0 +1,589 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+
+import com.squareup.picasso.Downloader;
+import com.squareup.picasso.NetworkPolicy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import timber.log.Timber;
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+
+/**
+ * The disk tier of the poster cache, which is the downloader used by Picasso.
+ * Each downloaded poster is stored in a file keyed by its poster path and TMDb size,
+ * e.g. "w154_d2f3g4sd12fg.jpg", so that each size of each movie's poster is downloaded
+ * only once. The cache is limited by the total size of its files, and the least recently
+ * used files are deleted first.
+ * Concurrent requests for the same poster share a single download.
+ * Downloaded posters are re-encoded as WebP before they are stored, when that makes them
+ * smaller, so that the cache holds more posters. The file names are unchanged, as posters
+ * are decoded according to their content.
+ * @author Edmund Johnson
+ */
+final class PosterDiskCache implements Downloader {
+
+    /** The HTTP status returned when an offline-only request cannot be satisfied. */
+    private static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 15000;
+    private static final int READ_TIMEOUT_MILLIS = 20000;
+    private static final int BUFFER_SIZE = 8192;
+    /** The maximum width of a poster stored with the thumbnail WebP quality, i.e. "w185". */
+    private static final int THUMBNAIL_MAX_WIDTH = 185;
+
+    /** The suffix of a file which is being downloaded. */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /** The directory containing the cached files. */
+    private final File mDirectory;
+    /** The maximum total size of the cached files. */
+    private final long mMaxBytes;
+    /** The WebP quality of stored thumbnails, or 0 if they are stored as downloaded. */
+    private final int mWebpQualityThumbnail;
+    /** The WebP quality of other stored posters, or 0 if they are stored as downloaded. */
+    private final int mWebpQuality;
+
+    /** The downloads in progress, keyed by cache file name. */
+    private final Map<String, CountDownLatch> mDownloads = new HashMap<>();
+
+    /** The total size of the cached files, or -1 if it has not yet been calculated. */
+    private long mBytes = -1;
+
+    /**
+     * The names of the cached files, so that whether a poster is cached can be checked
+     * without accessing the disk, e.g. on the main thread.
+     * Until loadFileNames() has listed the directory, this only includes files added
+     * since the app started.
+     */
+    private final Set<String> mFileNames =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    /** Whether the names of the files in the directory have been added to mFileNames. */
+    private boolean mFileNamesLoaded;
+
+    /**
+     * The files which would be in the cache if posters were stored as downloaded,
+     * with their downloaded sizes, in least-recently-used order.
+     * This only includes files downloaded since the app started.
+     */
+    private final Map<String, Long> mDownloadedSizeFiles = new LinkedHashMap<>(0, 0.75f, true);
+    /** The downloaded sizes of the files downloaded since the app started, keyed by file name. */
+    private final Map<String, Long> mDownloadedLengths = new HashMap<>();
+    /** The total size of the files which would be in the cache if stored as downloaded. */
+    private long mDownloadedSizeBytes;
+
+    // Statistics
+    private long mHitCount;
+    private long mMissCount;
+    private long mBytesDownloaded;
+    private long mBytesSaved;
+    private long mSharedDownloadCount;
+    private long mTranscodedCount;
+    private long mBytesTranscodeSaved;
+    private long mTranscodeHitCount;
+
+    /**
+     * Constructor.
+     * @param directory the directory containing the cached files
+     * @param maxBytes the maximum total size of the cached files
+     * @param webpQualityThumbnail the WebP quality (1-100) of stored thumbnails,
+     *                             or 0 to store them as downloaded
+     * @param webpQuality the WebP quality (1-100) of other stored posters,
+     *                    or 0 to store them as downloaded
+     */
+    PosterDiskCache(@NonNull final File directory, final long maxBytes,
+                    final int webpQualityThumbnail, final int webpQuality) {
+        mDirectory = directory;
+        mMaxBytes = maxBytes;
+        mWebpQualityThumbnail = webpQualityThumbnail;
+        mWebpQuality = webpQuality;
+    }
+
+    //---------------------------------------------------------------------
+    // Downloader implementation
+
+    /**
+     * Returns the poster at a URI, from the disk cache if possible, otherwise from the network.
+     * This is called by Picasso on a background thread.
+     * @param uri the URI of the poster
+     * @param networkPolicy the Picasso network policy for the request
+     * @return the poster
+     * @throws IOException if the poster could not be obtained
+     */
+    @Override
+    public Response load(@NonNull final Uri uri, final int networkPolicy) throws IOException {
+        File file = getFile(uri);
+        if (NetworkPolicy.shouldReadFromDiskCache(networkPolicy) && file.exists()) {
+            long length = file.length();
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            onHit(file.getName(), length);
+            return new Response(new FileInputStream(file), true, length);
+        }
+
+        if (NetworkPolicy.isOfflineOnly(networkPolicy)) {
+            onMiss();
+            throw new ResponseException("Poster is not cached: " + uri,
+                    networkPolicy, HTTP_GATEWAY_TIMEOUT);
+        }
+
+        if (!NetworkPolicy.shouldWriteToDiskCache(networkPolicy)) {
+            onMiss();
+            return download(uri, file, networkPolicy);
+        }
+
+        // If the poster is already being downloaded, e.g. for a request with different
+        // transformations, wait for that download rather than downloading it again
+        while (true) {
+            CountDownLatch download;
+            synchronized (mDownloads) {
+                download = mDownloads.get(file.getName());
+                if (download == null) {
+                    mDownloads.put(file.getName(), new CountDownLatch(1));
+                }
+            }
+            if (download == null) {
+                break;
+            }
+            try {
+                download.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted waiting for poster: " + uri);
+            }
+            if (file.exists()) {
+                long length = file.length();
+                onSharedDownload(length);
+                return new Response(new FileInputStream(file), true, length);
+            }
+            // The other download failed, so try again
+        }
+
+        try {
+            // The poster may have been downloaded since it was looked for
+            if (NetworkPolicy.shouldReadFromDiskCache(networkPolicy) && file.exists()) {
+                long length = file.length();
+                onHit(file.getName(), length);
+                return new Response(new FileInputStream(file), true, length);
+            }
+            onMiss();
+            return download(uri, file, networkPolicy);
+        } finally {
+            CountDownLatch download;
+            synchronized (mDownloads) {
+                download = mDownloads.remove(file.getName());
+            }
+            download.countDown();
+        }
+    }
+
+    /**
+     * Downloads a poster, writing it to the disk cache if the network policy allows.
+     * @param uri the URI of the poster
+     * @param file the cache file for the poster
+     * @param networkPolicy the Picasso network policy for the request
+     * @return the poster
+     * @throws IOException if the poster could not be downloaded
+     */
+    @NonNull
+    private Response download(@NonNull final Uri uri, @NonNull final File file,
+                              final int networkPolicy) throws IOException {
+        long startNanos = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) new URL(uri.toString()).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        int responseCode = connection.getResponseCode();
+        if (responseCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
+            connection.disconnect();
+            throw new ResponseException(responseCode + " " + connection.getResponseMessage(),
+                    networkPolicy, responseCode);
+        }
+
+        if (!NetworkPolicy.shouldWriteToDiskCache(networkPolicy)) {
+            long contentLength = connection.getContentLength();
+            onDownloaded(Math.max(contentLength, 0));
+            return new Response(connection.getInputStream(), false, contentLength);
+        }
+
+        byte[] data;
+        try {
+            data = readFully(connection.getInputStream());
+        } finally {
+            connection.disconnect();
+        }
+        // The time taken by the download is a sample of the bandwidth of the connection
+        ObjectFactory.getNetUtils().recordDownload(data.length, System.nanoTime() - startNanos);
+        onDownloaded(data.length);
+
+        byte[] storedData = transcode(data);
+        writeFile(storedData, file);
+        onFileAdded(file.getName(), storedData.length, data.length);
+        return new Response(new FileInputStream(file), false, storedData.length);
+    }
+
+    /**
+     * Releases any resources held by the downloader; there are none.
+     */
+    @Override
+    public void shutdown() {
+        // no action required
+    }
+
+    //---------------------------------------------------------------------
+    // File methods
+
+    /**
+     * Returns whether a poster is in the disk cache.
+     * This does not access the disk, so may be called on the main thread. Until
+     * loadFileNames() has completed, only posters added since the app started are found.
+     * @param uri the URI of the poster
+     * @return true if the poster is in the disk cache, false otherwise
+     */
+    boolean isCached(@NonNull final Uri uri) {
+        return mFileNames.contains(getFileName(uri));
+    }
+
+    /**
+     * Lists the cache directory to find the names of the files cached before the app started.
+     * This accesses the disk, so must not be called on the main thread.
+     */
+    synchronized void loadFileNames() {
+        if (mFileNamesLoaded) {
+            return;
+        }
+        for (File file : listFiles()) {
+            mFileNames.add(file.getName());
+        }
+        mFileNamesLoaded = true;
+    }
+
+    /**
+     * Returns the cache file for a poster URI.
+     * @param uri the URI of the poster, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     * @return the cache file for the URI, e.g. "w154_d2f3g4sd12fg.jpg"
+     */
+    @NonNull
+    File getFile(@NonNull final Uri uri) {
+        return new File(mDirectory, getFileName(uri));
+    }
+
+    /**
+     * Returns the cache file name for a poster URI, which is made up of the TMDb size
+     * and the poster path.
+     * @param uri the URI of the poster, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     * @return the cache file name for the URI, e.g. "w154_d2f3g4sd12fg.jpg"
+     */
+    @NonNull
+    static String getFileName(@NonNull final Uri uri) {
+        List<String> segments = uri.getPathSegments();
+        int segmentCount = segments.size();
+        if (segmentCount >= 2) {
+            return sanitise(segments.get(segmentCount - 2)) + "_"
+                    + sanitise(segments.get(segmentCount - 1));
+        }
+        // Not a TMDb poster URI
+        return Integer.toHexString(uri.toString().hashCode());
+    }
+
+    /**
+     * Returns a string with any characters which are not safe in a file name replaced.
+     * @param string the string
+     * @return the string with unsafe characters replaced by underscores
+     */
+    @NonNull
+    private static String sanitise(@NonNull final String string) {
+        return string.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Reads and closes an input stream.
+     * @param inputStream the input stream
+     * @return the data read from the input stream
+     * @throws IOException if the input stream could not be read
+     */
+    @NonNull
+    private static byte[] readFully(@NonNull final InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, count);
+            }
+        } finally {
+            inputStream.close();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Re-encodes a downloaded poster as WebP, with the quality configured for its size.
+     * @param data the downloaded poster
+     * @return the poster re-encoded as WebP, or the downloaded poster if re-encoding is
+     *         disabled, fails, or does not make the poster smaller
+     */
+    @NonNull
+    private byte[] transcode(@NonNull final byte[] data) {
+        if (mWebpQualityThumbnail <= 0 && mWebpQuality <= 0) {
+            return data;
+        }
+        Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
+        if (bitmap == null) {
+            return data;
+        }
+        int quality = bitmap.getWidth() <= THUMBNAIL_MAX_WIDTH ? mWebpQualityThumbnail : mWebpQuality;
+        if (quality <= 0) {
+            bitmap.recycle();
+            return data;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
+        boolean compressed = bitmap.compress(Bitmap.CompressFormat.WEBP, quality, outputStream);
+        bitmap.recycle();
+        if (!compressed || outputStream.size() >= data.length) {
+            return data;
+        }
+        byte[] webpData = outputStream.toByteArray();
+        onTranscoded(data.length - webpData.length);
+        return webpData;
+    }
+
+    /**
+     * Writes a downloaded poster to a cache file.
+     * The poster is written to a temporary file which is then renamed, so that a partly
+     * written poster is never read from the cache.
+     * @param data the poster
+     * @param file the cache file
+     * @throws IOException if the file could not be written
+     */
+    private void writeFile(@NonNull final byte[] data, @NonNull final File file)
+            throws IOException {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            throw new IOException("Could not create poster cache directory: " + mDirectory);
+        }
+        // The temporary file name is unique to the thread, in case the same poster is
+        // downloaded concurrently
+        File tempFile = new File(mDirectory,
+                file.getName() + "." + Thread.currentThread().getId() + TEMP_FILE_SUFFIX);
+        OutputStream outputStream = new FileOutputStream(tempFile);
+        try {
+            outputStream.write(data);
+        } finally {
+            outputStream.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw new IOException("Could not rename poster cache file: " + tempFile);
+        }
+    }
+
+    /**
+     * Records that a file has been added to the cache, deleting the least recently used files
+     * if the cache is now too large.
+     * @param fileName the name of the added file
+     * @param length the size of the added file
+     * @param downloadedLength the size of the poster as downloaded
+     */
+    private synchronized void onFileAdded(@NonNull final String fileName, final long length,
+                                          final long downloadedLength) {
+        onDownloadedSizeFileAdded(fileName, downloadedLength);
+        mFileNames.add(fileName);
+
+        if (mBytes < 0) {
+            // The first time, calculate the size of the cache, which includes the new file
+            mBytes = 0;
+            for (File file : listFiles()) {
+                mBytes += file.length();
+            }
+        } else {
+            mBytes += length;
+        }
+        if (mBytes <= mMaxBytes) {
+            return;
+        }
+
+        File[] files = listFiles();
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                long lastModified1 = file1.lastModified();
+                long lastModified2 = file2.lastModified();
+                return lastModified1 < lastModified2 ? -1 : (lastModified1 == lastModified2 ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (mBytes <= mMaxBytes) {
+                break;
+            }
+            long fileLength = file.length();
+            if (file.delete()) {
+                mBytes -= fileLength;
+                mFileNames.remove(file.getName());
+            } else {
+                Timber.w("onFileAdded: could not delete poster cache file: " + file);
+            }
+        }
+    }
+
+    /**
+     * Records that a file would have been added to the cache if posters were stored as
+     * downloaded, evicting the least recently used files if it would then be too large.
+     * This is used to measure the extra hits due to re-encoding posters.
+     * @param fileName the name of the added file
+     * @param downloadedLength the size of the poster as downloaded
+     */
+    private void onDownloadedSizeFileAdded(@NonNull final String fileName,
+                                           final long downloadedLength) {
+        mDownloadedLengths.put(fileName, downloadedLength);
+        Long previousLength = mDownloadedSizeFiles.put(fileName, downloadedLength);
+        mDownloadedSizeBytes += downloadedLength - (previousLength == null ? 0 : previousLength);
+        Iterator<Long> iterator = mDownloadedSizeFiles.values().iterator();
+        while (mDownloadedSizeBytes > mMaxBytes && iterator.hasNext()) {
+            mDownloadedSizeBytes -= iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the files in the cache, excluding any which are being downloaded.
+     * @return the files in the cache
+     */
+    @NonNull
+    private File[] listFiles() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        int count = 0;
+        for (File file : files) {
+            if (!file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                files[count++] = file;
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+
+    //---------------------------------------------------------------------
+    // Statistics
+
+    private synchronized void onHit(@NonNull final String fileName, final long length) {
+        mHitCount++;
+        mBytesSaved += length;
+        Long downloadedLength = mDownloadedLengths.get(fileName);
+        if (downloadedLength != null && mDownloadedSizeFiles.get(fileName) == null) {
+            // The file would have been evicted if posters were stored as downloaded,
+            // in which case it would have been downloaded again
+            mTranscodeHitCount++;
+            onDownloadedSizeFileAdded(fileName, downloadedLength);
+        }
+    }
+
+    private synchronized void onSharedDownload(final long length) {
+        mSharedDownloadCount++;
+        mBytesSaved += length;
+    }
+
+    private synchronized void onMiss() {
+        mMissCount++;
+    }
+
+    private synchronized void onDownloaded(final long length) {
+        mBytesDownloaded += length;
+    }
+
+    private synchronized void onTranscoded(final long bytesSaved) {
+        mTranscodedCount++;
+        mBytesTranscodeSaved += bytesSaved;
+    }
+
+    /**
+     * Returns the number of posters read from the disk cache.
+     * @return the number of disk cache hits
+     */
+    synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of posters which were not in the disk cache.
+     * @return the number of disk cache misses
+     */
+    synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of posters which were being downloaded for another request when
+     * they were requested, i.e. the number of duplicate downloads avoided.
+     * @return the number of shared downloads
+     */
+    synchronized long getSharedDownloadCount() {
+        return mSharedDownloadCount;
+    }
+
+    /**
+     * Returns the number of posters which were re-encoded as WebP before they were stored.
+     * @return the number of re-encoded posters
+     */
+    synchronized long getTranscodedCount() {
+        return mTranscodedCount;
+    }
+
+    /**
+     * Returns the number of bytes of disk cache space saved by re-encoding posters as WebP.
+     * @return the number of bytes saved by re-encoding
+     */
+    synchronized long getBytesTranscodeSaved() {
+        return mBytesTranscodeSaved;
+    }
+
+    /**
+     * Returns the number of disk cache hits on posters which would have been evicted if
+     * posters were stored as downloaded, i.e. the extra hits due to re-encoding, with the
+     * same cache size. Only posters downloaded since the app started are counted.
+     * @return the number of extra hits due to re-encoding
+     */
+    synchronized long getTranscodeHitCount() {
+        return mTranscodeHitCount;
+    }
+
+    /**
+     * Returns the number of bytes downloaded from the network.
+     * @return the number of bytes downloaded
+     */
+    synchronized long getBytesDownloaded() {
+        return mBytesDownloaded;
+    }
+
+    /**
+     * Returns the number of bytes read from the disk cache rather than downloaded.
+     * @return the number of bytes saved
+     */
+    synchronized long getBytesSaved() {
+        return mBytesSaved;
+    }
+
+}
@@ -0,0 +1,217 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.squareup.picasso.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The memory tier of the poster cache, which holds decoded poster bitmaps.
+ * The cache is limited by the number of bytes used by its bitmaps rather than by the number
+ * of bitmaps, and the least recently used bitmaps are evicted first.
+ * @author Edmund Johnson
+ */
+final class PosterMemoryCache implements Cache {
+
+    /** The separator between the URI and the rest of a Picasso cache key. */
+    private static final char KEY_SEPARATOR = '\n';
+
+    /** The maximum number of bytes used by the cached bitmaps. */
+    private final int mMaxBytes;
+
+    /** The pool to which bitmaps may be returned once they are no longer cached. */
+    private final BitmapPool mBitmapPool;
+
+    /** The cached bitmaps, in least-recently-used order. */
+    private final Map<String, Bitmap> mBitmaps;
+
+    /** The number of bytes used by the cached bitmaps. */
+    private int mBytes;
+
+    // Statistics
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    /**
+     * Constructor.
+     * @param maxBytes the maximum number of bytes used by the cached bitmaps
+     * @param bitmapPool the pool to which bitmaps may be returned once they are
+     *                   no longer cached
+     */
+    PosterMemoryCache(final int maxBytes, @NonNull final BitmapPool bitmapPool) {
+        mMaxBytes = maxBytes;
+        mBitmapPool = bitmapPool;
+        mBitmaps = new LinkedHashMap<>(0, 0.75f, true);
+    }
+
+    //---------------------------------------------------------------------
+    // Cache implementation
+
+    /**
+     * Returns the bitmap for a key, if it is cached.
+     * @param key the key, as generated by Picasso
+     * @return the bitmap for the key, or null if it is not cached
+     */
+    @Override
+    public synchronized Bitmap get(@NonNull final String key) {
+        Bitmap bitmap = mBitmaps.get(key);
+        if (bitmap == null) {
+            mMissCount++;
+        } else {
+            mHitCount++;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Adds a bitmap to the cache, evicting the least recently used bitmaps if necessary.
+     * A bitmap which is larger than the whole cache is not added.
+     * @param key the key, as generated by Picasso
+     * @param bitmap the bitmap
+     */
+    @Override
+    public synchronized void set(@NonNull final String key, @NonNull final Bitmap bitmap) {
+        int bitmapBytes = getBitmapBytes(bitmap);
+        if (bitmapBytes > mMaxBytes) {
+            return;
+        }
+        Bitmap previous = mBitmaps.put(key, bitmap);
+        mBytes += bitmapBytes;
+        mBitmapPool.onCached(bitmap);
+        if (previous != null) {
+            mBytes -= getBitmapBytes(previous);
+            if (previous != bitmap) {
+                mBitmapPool.onUncached(previous);
+            }
+        }
+        trimToSize(mMaxBytes);
+    }
+
+    /**
+     * Returns the number of bytes used by the cached bitmaps.
+     * @return the number of bytes used by the cached bitmaps
+     */
+    @Override
+    public synchronized int size() {
+        return mBytes;
+    }
+
+    /**
+     * Returns the maximum number of bytes used by the cached bitmaps.
+     * @return the maximum number of bytes used by the cached bitmaps
+     */
+    @Override
+    public int maxSize() {
+        return mMaxBytes;
+    }
+
+    /**
+     * Removes all the bitmaps from the cache.
+     */
+    @Override
+    public synchronized void clear() {
+        trimToSize(-1);
+    }
+
+    /**
+     * Removes all the bitmaps for a URI from the cache, whatever their transformations.
+     * @param uri the URI
+     */
+    @Override
+    public synchronized void clearKeyUri(@NonNull final String uri) {
+        int uriLength = uri.length();
+        Iterator<Map.Entry<String, Bitmap>> iterator = mBitmaps.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Bitmap> entry = iterator.next();
+            String key = entry.getKey();
+            if (key.startsWith(uri) && key.length() > uriLength
+                    && key.charAt(uriLength) == KEY_SEPARATOR) {
+                mBytes -= getBitmapBytes(entry.getValue());
+                mBitmapPool.onUncached(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Cache methods
+
+    /**
+     * Returns the bitmap for a URI which was loaded without any transformations,
+     * if it is cached. Unlike {@link #get(String)}, this is not counted as a hit or a miss,
+     * as it is not a request from Picasso.
+     * @param uri the URI
+     * @return the bitmap for the URI, or null if it is not cached
+     */
+    @Nullable
+    synchronized Bitmap peek(@NonNull final String uri) {
+        return mBitmaps.get(uri + KEY_SEPARATOR);
+    }
+
+    /**
+     * Evicts the least recently used bitmaps until the cached bitmaps use no more than
+     * a specified number of bytes.
+     * @param maxBytes the maximum number of bytes to be used by the cached bitmaps,
+     *                 or -1 to evict all the bitmaps
+     */
+    synchronized void trimToSize(final int maxBytes) {
+        Iterator<Bitmap> iterator = mBitmaps.values().iterator();
+        while (mBytes > maxBytes && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            mBytes -= getBitmapBytes(bitmap);
+            mBitmapPool.onUncached(bitmap);
+            iterator.remove();
+            mEvictionCount++;
+        }
+        if (mBitmaps.isEmpty()) {
+            mBytes = 0;
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by a bitmap.
+     * @param bitmap the bitmap
+     * @return the number of bytes used by the bitmap
+     */
+    private static int getBitmapBytes(@NonNull final Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+
+    //---------------------------------------------------------------------
+    // Statistics
+
+    /**
+     * Returns the number of requests for a bitmap which was in the cache.
+     * @return the number of cache hits
+     */
+    synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of requests for a bitmap which was not in the cache.
+     * @return the number of cache misses
+     */
+    synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of bitmaps evicted to keep the cache within its size limit.
+     * @return the number of evictions
+     */
+    synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+}
@@ -0,0 +1,251 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.AsyncTask;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The persistent cache of the colours derived from movie posters.
+ * Deriving the colours requires a palette pass over the decoded poster, so they are derived
+ * once per poster and saved, and can then be applied as soon as a movie is displayed,
+ * without waiting for its poster to load.
+ * The colours are keyed by poster path, so if a movie's poster changes its colours are
+ * derived again.
+ * The saved colours are loaded into memory and written back on a background thread, so the
+ * shared preferences are never read on the main thread; until they have been loaded, no
+ * saved colours are found. At most MAX_ENTRIES posters' colours are kept, and the least
+ * recently used are removed first; the colours not used since the app started count as
+ * least recently used.
+ * @author Edmund Johnson
+ */
+public final class PosterPaletteCache {
+    /** The singleton instance of this class. */
+    private static PosterPaletteCache sPosterPaletteCache = null;
+
+    /** The name of the shared preferences file in which the colours are saved. */
+    private static final String PREFERENCES_NAME = "poster_palettes";
+
+    /** The maximum number of posters whose colours are saved. */
+    private static final int MAX_ENTRIES = 500;
+
+    private SharedPreferences mSharedPreferences;
+
+    /** The saved colours, keyed by poster path, in least-recently-used order. */
+    private final Map<String, Long> mColors = new LinkedHashMap<>(16, 0.75f, true);
+    /** Whether the saved colours have started loading into mColors. */
+    private boolean mLoadStarted;
+    /** Whether the saved colours have been loaded into mColors. */
+    private boolean mLoaded;
+
+    //---------------------------------------------------------------------
+    // Instance handling methods
+
+    /**
+     * Returns an instance of this class.
+     * @return an instance of this class
+     */
+    @NonNull
+    public static PosterPaletteCache getInstance() {
+        if (sPosterPaletteCache == null) {
+            sPosterPaletteCache = new PosterPaletteCache();
+        }
+        return sPosterPaletteCache;
+    }
+
+    /** Private default constructor to prevent instantiation from outside this class. */
+    private PosterPaletteCache() {
+    }
+
+    //---------------------------------------------------------------------
+    // Cache methods
+
+    /**
+     * Returns the colours derived from a poster, if they have been saved and loaded.
+     * This does not read the shared preferences, so may be called on the main thread.
+     * @param context the context
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the colours derived from the poster, or null if they have not been saved,
+     *     or have not yet been loaded
+     */
+    @Nullable
+    public synchronized PosterColors get(@NonNull final Context context,
+                                         @Nullable final String poster) {
+        load(context);
+        if (poster == null) {
+            return null;
+        }
+        Long value = mColors.get(poster);
+        return value == null ? null : new PosterColors(value);
+    }
+
+    /**
+     * Saves the colours derived from a poster, removing the least recently used colours
+     * if there are then too many.
+     * The shared preferences are written on a background thread.
+     * @param context the context
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @param posterColors the colours derived from the poster
+     */
+    public synchronized void put(@NonNull final Context context, @Nullable final String poster,
+                                 @NonNull final PosterColors posterColors) {
+        load(context);
+        if (poster == null) {
+            return;
+        }
+        final long value = posterColors.toLong();
+        mColors.put(poster, value);
+        // Until the saved colours have been loaded, they are pruned once they are loaded
+        final List<String> removedPosters = mLoaded ? prune() : Collections.<String>emptyList();
+
+        final Context applicationContext = context.getApplicationContext();
+        AsyncTask.SERIAL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                SharedPreferences.Editor editor =
+                        getSharedPreferences(applicationContext).edit().putLong(poster, value);
+                for (String removedPoster : removedPosters) {
+                    editor.remove(removedPoster);
+                }
+                editor.apply();
+            }
+        });
+    }
+
+    /**
+     * Starts loading the saved colours on a background thread, if they have not already
+     * started loading, e.g. so that they are loaded before the first movie is displayed.
+     * The load runs on the same serial executor as the writes, so it reads the colours
+     * before any which are saved after it has started.
+     * @param context the context
+     */
+    public synchronized void load(@NonNull final Context context) {
+        if (mLoadStarted) {
+            return;
+        }
+        mLoadStarted = true;
+        final Context applicationContext = context.getApplicationContext();
+        AsyncTask.SERIAL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                SharedPreferences sharedPreferences = getSharedPreferences(applicationContext);
+                List<String> removedPosters = onLoaded(sharedPreferences.getAll());
+                if (!removedPosters.isEmpty()) {
+                    SharedPreferences.Editor editor = sharedPreferences.edit();
+                    for (String removedPoster : removedPosters) {
+                        editor.remove(removedPoster);
+                    }
+                    editor.apply();
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds the loaded colours to the colours saved since the app started, as less recently
+     * used, and prunes the colours.
+     * @param savedValues the values in the shared preferences, keyed by poster path
+     * @return the posters whose colours were pruned
+     */
+    @NonNull
+    private synchronized List<String> onLoaded(@NonNull final Map<String, ?> savedValues) {
+        Map<String, Long> colors = new LinkedHashMap<>(mColors);
+        mColors.clear();
+        for (Map.Entry<String, ?> entry : savedValues.entrySet()) {
+            if (entry.getValue() instanceof Long && !colors.containsKey(entry.getKey())) {
+                mColors.put(entry.getKey(), (Long) entry.getValue());
+            }
+        }
+        mColors.putAll(colors);
+        mLoaded = true;
+        return prune();
+    }
+
+    /**
+     * Removes the least recently used colours until there are at most MAX_ENTRIES.
+     * @return the posters whose colours were removed
+     */
+    @NonNull
+    private synchronized List<String> prune() {
+        List<String> removedPosters = new ArrayList<>();
+        Iterator<String> iterator = mColors.keySet().iterator();
+        while (mColors.size() > MAX_ENTRIES && iterator.hasNext()) {
+            removedPosters.add(iterator.next());
+            iterator.remove();
+        }
+        return removedPosters;
+    }
+
+    /**
+     * Returns the shared preferences in which the colours are saved.
+     * @param context the context
+     * @return the shared preferences in which the colours are saved
+     */
+    @NonNull
+    private synchronized SharedPreferences getSharedPreferences(@NonNull final Context context) {
+        if (mSharedPreferences == null) {
+            mSharedPreferences = context.getApplicationContext()
+                    .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        }
+        return mSharedPreferences;
+    }
+
+    //---------------------------------------------------------------------
+    // Poster colours
+
+    /**
+     * The colours derived from a poster.
+     * The colours are saved as a single long value, the dark muted colour in the high
+     * 32 bits and the light muted colour in the low 32 bits.
+     */
+    public static final class PosterColors {
+        private final @ColorInt int mDarkMutedColor;
+        private final @ColorInt int mLightMutedColor;
+
+        /**
+         * Constructor.
+         * @param darkMutedColor the dark muted colour
+         * @param lightMutedColor the light muted colour
+         */
+        public PosterColors(@ColorInt final int darkMutedColor, @ColorInt final int lightMutedColor) {
+            mDarkMutedColor = darkMutedColor;
+            mLightMutedColor = lightMutedColor;
+        }
+
+        /**
+         * Constructor which unpacks the colours from a saved long value.
+         * @param value the saved value
+         */
+        private PosterColors(final long value) {
+            this((int) (value >>> 32), (int) value);
+        }
+
+        /**
+         * Returns the colours packed into a long value for saving.
+         * @return the colours packed into a long value
+         */
+        private long toLong() {
+            return ((long) mDarkMutedColor << 32) | (mLightMutedColor & 0xFFFFFFFFL);
+        }
+
+        @ColorInt
+        public int getDarkMutedColor() {
+            return mDarkMutedColor;
+        }
+
+        @ColorInt
+        public int getLightMutedColor() {
+            return mLightMutedColor;
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.NonNull;
+
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The Picasso request handler which loads posters through the disk cache and decodes them,
+ * reusing a pooled bitmap of the same size where possible.
+ * Only posters which are not resized are decoded into pooled bitmaps, as Picasso recycles
+ * the decoded bitmap of a resized poster itself.
+ * @author Edmund Johnson
+ */
+final class PosterRequestHandler extends RequestHandler {
+
+    private static final String SCHEME_HTTP = "http";
+    private static final String SCHEME_HTTPS = "https";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final PosterDiskCache mDiskCache;
+    private final BitmapPool mBitmapPool;
+
+    /**
+     * Constructor.
+     * @param diskCache the disk cache through which posters are loaded
+     * @param bitmapPool the pool of bitmaps which can be reused
+     */
+    PosterRequestHandler(@NonNull final PosterDiskCache diskCache,
+                         @NonNull final BitmapPool bitmapPool) {
+        mDiskCache = diskCache;
+        mBitmapPool = bitmapPool;
+    }
+
+    /**
+     * Returns whether this handler can load a request, i.e. whether it is for a network URI.
+     * @param request the request
+     * @return true if this handler can load the request, false otherwise
+     */
+    @Override
+    public boolean canHandleRequest(@NonNull final Request request) {
+        String scheme = request.uri == null ? null : request.uri.getScheme();
+        return SCHEME_HTTP.equals(scheme) || SCHEME_HTTPS.equals(scheme);
+    }
+
+    /**
+     * Loads and decodes a poster. This is called by Picasso on a background thread.
+     * @param request the request
+     * @param networkPolicy the Picasso network policy for the request
+     * @return the decoded poster
+     * @throws IOException if the poster could not be loaded or decoded
+     */
+    @Override
+    public Result load(@NonNull final Request request, final int networkPolicy) throws IOException {
+        Picasso.LoadedFrom loadedFrom = mDiskCache.isCached(request.uri)
+                ? Picasso.LoadedFrom.DISK : Picasso.LoadedFrom.NETWORK;
+        InputStream inputStream = mDiskCache.load(request.uri, networkPolicy).getInputStream();
+        if (inputStream == null) {
+            throw new IOException("No poster data: " + request.uri);
+        }
+        byte[] data = readFully(inputStream);
+
+        // Read the size of the poster, then decode it into a pooled bitmap of that size
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = request.config == null ? Bitmap.Config.ARGB_8888 : request.config;
+        if (!request.hasSize() && options.outWidth > 0 && options.outHeight > 0) {
+            options.inBitmap = mBitmapPool.get(
+                    options.outWidth, options.outHeight, options.inPreferredConfig);
+        }
+
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap could not be reused, so decode into a new bitmap
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Poster could not be decoded: " + request.uri);
+        }
+        return new Result(bitmap, loadedFrom);
+    }
+
+    /**
+     * Reads and closes an input stream.
+     * @param inputStream the input stream
+     * @return the data read from the input stream
+     * @throws IOException if the input stream could not be read
+     */
+    @NonNull
+    private static byte[] readFully(@NonNull final InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, count);
+            }
+        } finally {
+            inputStream.close();
+        }
+        return outputStream.toByteArray();
+    }
+
+}
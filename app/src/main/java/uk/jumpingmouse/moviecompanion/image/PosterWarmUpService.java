@@ -0,0 +1,257 @@
+package uk.jumpingmouse.moviecompanion.image;
+
+import android.annotation.TargetApi;
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.database.Cursor;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import timber.log.Timber;
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+import uk.jumpingmouse.moviecompanion.R;
+import uk.jumpingmouse.moviecompanion.data.ViewAwardQueryParameters;
+import uk.jumpingmouse.moviecompanion.model.DataContract;
+import uk.jumpingmouse.moviecompanion.model.DataProvider;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+import uk.jumpingmouse.moviecompanion.utils.NetUtils;
+
+/**
+ * The job which downloads the posters of the newest awards into the poster disk cache,
+ * in the sizes displayed in the award list and on the movie screen, so that opening those
+ * screens does not wait for the network.
+ * The job runs periodically, only while the device is charging and on an unmetered network.
+ * Job scheduling requires API 21, so on earlier versions posters are not warmed up.
+ * @author Edmund Johnson
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public final class PosterWarmUpService extends JobService {
+
+    /** The id of the warm-up job, which is unique within the app. */
+    private static final int JOB_ID = 1001;
+    /** The interval between runs of the warm-up job. */
+    private static final long JOB_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    /** The number of newest awards whose posters are warmed up. */
+    private static final int NEWEST_AWARD_COUNT = 20;
+
+    /** The name of the shared preferences file in which the warmed-up posters are saved. */
+    private static final String PREFERENCES_NAME = "poster_warm_up";
+    /** The key of the posters warmed up by the most recent run. */
+    private static final String KEY_POSTERS = "posters";
+
+    /** The task which is warming up the posters, or null if the job is not running. */
+    private WarmUpTask mWarmUpTask;
+
+    //---------------------------------------------------------------------
+    // Scheduling
+
+    /**
+     * Schedules the warm-up job, unless it is already scheduled.
+     * @param context the context
+     */
+    public static void schedule(@NonNull final Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        JobScheduler jobScheduler =
+                (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (jobScheduler == null) {
+            return;
+        }
+        for (JobInfo jobInfo : jobScheduler.getAllPendingJobs()) {
+            if (jobInfo.getId() == JOB_ID) {
+                return;
+            }
+        }
+        JobInfo jobInfo = new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, PosterWarmUpService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .setPeriodic(JOB_INTERVAL_MILLIS)
+                .build();
+        if (jobScheduler.schedule(jobInfo) != JobScheduler.RESULT_SUCCESS) {
+            Timber.w("schedule: the poster warm-up job could not be scheduled");
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // JobService implementation
+
+    /**
+     * Starts warming up the posters in the background.
+     * @param jobParameters the job parameters
+     * @return true, as the job continues in the background
+     */
+    @Override
+    public boolean onStartJob(final JobParameters jobParameters) {
+        mWarmUpTask = new WarmUpTask(jobParameters);
+        mWarmUpTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        return true;
+    }
+
+    /**
+     * Stops warming up the posters, e.g. because the device is no longer charging.
+     * @param jobParameters the job parameters
+     * @return false, as the job will run again at its next interval
+     */
+    @Override
+    public boolean onStopJob(final JobParameters jobParameters) {
+        if (mWarmUpTask != null) {
+            mWarmUpTask.cancel(false);
+            mWarmUpTask = null;
+        }
+        return false;
+    }
+
+    //---------------------------------------------------------------------
+    // Warm-up methods
+
+    /**
+     * Returns the posters of the newest awards.
+     * The local database is only populated once the app has connected to the master
+     * database, so if the job runs before then, the posters from the previous run are used.
+     * @return the posters of the newest awards
+     */
+    @NonNull
+    private Set<String> getNewestPosters() {
+        ViewAwardQueryParameters parameters = ViewAwardQueryParameters.builder()
+                .sortOrder(DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_DESC)
+                .filterGenre(DataContract.ViewAwardEntry.FILTER_GENRE_ALL)
+                .filterWishlist(DataContract.ViewAwardEntry.FILTER_WISHLIST_ANY)
+                .filterWatched(DataContract.ViewAwardEntry.FILTER_WATCHED_ANY)
+                .filterFavourite(DataContract.ViewAwardEntry.FILTER_FAVOURITE_ANY)
+                .filterCategory(DataContract.ViewAwardEntry.FILTER_CATEGORY_DEFAULT)
+                .filterRuntime(DataContract.ViewAwardEntry.FILTER_RUNTIME_ANY)
+                .filterReleaseYear(DataContract.ViewAwardEntry.FILTER_RELEASE_YEAR_ANY)
+                .filterLanguage(DataContract.ViewAwardEntry.FILTER_LANGUAGE_ANY)
+                .filterCountry(DataContract.ViewAwardEntry.FILTER_COUNTRY_ANY)
+                .filterCertificate(DataContract.ViewAwardEntry.FILTER_CERTIFICATE_ANY)
+                .limit(NEWEST_AWARD_COUNT)
+                .build();
+        Cursor cursor = getContentResolver().query(
+                DataContract.ViewAwardEntry.buildUriWithParameters(parameters),
+                null,
+                DataProvider.getSelectionForViewAwardQueryParams(parameters),
+                DataProvider.getSelectionArgsForViewAwardQueryParams(parameters),
+                DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_DESC);
+
+        Set<String> posters = new LinkedHashSet<>();
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                String poster = cursor.getString(DataContract.ViewAwardEntry.COL_POSTER);
+                if (poster != null) {
+                    posters.add(poster);
+                }
+            }
+            cursor.close();
+        }
+
+        SharedPreferences sharedPreferences =
+                getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        if (posters.isEmpty()) {
+            posters.addAll(sharedPreferences.getStringSet(KEY_POSTERS, new HashSet<String>()));
+        } else {
+            sharedPreferences.edit().putStringSet(KEY_POSTERS, posters).apply();
+        }
+        return posters;
+    }
+
+    /**
+     * Returns the URLs of a poster in each size in which it is displayed, i.e. in the award
+     * list in list view and in grid view, and on the movie screen in portrait orientation.
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the URLs of the poster in each size in which it is displayed
+     */
+    @NonNull
+    private Set<String> getPosterUrls(@NonNull final String poster) {
+        Resources resources = getResources();
+        Set<String> posterUrls = new LinkedHashSet<>();
+        posterUrls.add(ModelUtils.getPosterUrl(poster,
+                resources.getDimensionPixelSize(R.dimen.list_image_width),
+                resources.getDimensionPixelSize(R.dimen.list_image_height)));
+        posterUrls.add(ModelUtils.getPosterUrl(poster,
+                resources.getDimensionPixelSize(R.dimen.grid_image_width),
+                resources.getDimensionPixelSize(R.dimen.grid_image_height)));
+        posterUrls.add(ModelUtils.getPosterUrl(poster,
+                resources.getDisplayMetrics().widthPixels,
+                resources.getDimensionPixelSize(R.dimen.detail_image_height)));
+        return posterUrls;
+    }
+
+    /**
+     * Convenience method which returns a reference to the poster cache.
+     * @return a reference to the poster cache
+     */
+    @NonNull
+    private static PosterCache getPosterCache() {
+        return ObjectFactory.getPosterCache();
+    }
+
+    /**
+     * Convenience method which returns a reference to a NetUtils object.
+     * @return a reference to a NetUtils object
+     */
+    @NonNull
+    private static NetUtils getNetUtils() {
+        return ObjectFactory.getNetUtils();
+    }
+
+    //---------------------------------------------------------------------
+    // Background task
+
+    /**
+     * The task which downloads the posters of the newest awards.
+     * It stops if it is cancelled or if the network becomes metered.
+     */
+    private final class WarmUpTask extends AsyncTask<Void, Void, Void> {
+        private final JobParameters mJobParameters;
+
+        /**
+         * Constructor.
+         * @param jobParameters the parameters of the job which started the task
+         */
+        WarmUpTask(@NonNull final JobParameters jobParameters) {
+            mJobParameters = jobParameters;
+        }
+
+        @Nullable
+        @Override
+        protected Void doInBackground(Void... params) {
+            Context context = getApplicationContext();
+            int warmedUpCount = 0;
+            for (String poster : getNewestPosters()) {
+                for (String posterUrl : getPosterUrls(poster)) {
+                    if (isCancelled() || !getNetUtils().isNetworkUnmetered(context)) {
+                        return null;
+                    }
+                    if (getPosterCache().warmUp(context, posterUrl)) {
+                        warmedUpCount++;
+                    }
+                }
+            }
+            Timber.d("WarmUpTask: posters in disk cache: " + warmedUpCount);
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Void result) {
+            mWarmUpTask = null;
+            jobFinished(mJobParameters, false);
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import android.content.ContentResolver;
 import android.net.Uri;
 import android.provider.BaseColumns;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import uk.jumpingmouse.moviecompanion.BuildConfig;
 import uk.jumpingmouse.moviecompanion.data.ViewAwardQueryParameters;
@@ -36,6 +37,8 @@ public final class DataContract {
     static final String URI_PATH_AWARD = "award";
     static final String URI_PATH_USER_MOVIE = "userMovie";
     static final String URI_PATH_VIEW_AWARD = "viewAward";
+    static final String URI_PATH_WIDGET_AWARD = "widgetAward";
+    static final String URI_PATH_PERSON = "person";
 
     // Query parameters
     public static final String PARAM_SORT_ORDER = "sortOrder";
@@ -44,7 +47,20 @@ public final class DataContract {
     public static final String PARAM_FILTER_WATCHED = "filterWatched";
     public static final String PARAM_FILTER_FAVOURITE = "filterFavourite";
     public static final String PARAM_FILTER_CATEGORY = "filterCategory";
+    public static final String PARAM_FILTER_RUNTIME = "filterRuntime";
+    public static final String PARAM_FILTER_RELEASE_YEAR = "filterReleaseYear";
+    public static final String PARAM_FILTER_LANGUAGE = "filterLanguage";
+    public static final String PARAM_FILTER_COUNTRY = "filterCountry";
+    public static final String PARAM_FILTER_CERTIFICATE = "filterCertificate";
     static final String PARAM_LIMIT = "limit";
+    // The latest award date included in a widget award query, e.g. "awardDateMax=170602"
+    static final String PARAM_AWARD_DATE_MAX = "awardDateMax";
+    // Keyset pagination parameters, e.g. "after=Arrival,tt2543164,[id]&pageSize=30"
+    public static final String PARAM_AFTER = "after";
+    public static final String PARAM_PAGE_SIZE = "pageSize";
+    // Debug parameter, e.g. "explain=1", which returns the query plan instead of the rows
+    public static final String PARAM_EXPLAIN = "explain";
+    static final String PARAM_EXPLAIN_VALUE = "1";
 
     // Values for sort direction (part of PARAM_SORT_ORDER)
     static final String SORT_DIRECTION_ASC = "ASC";
@@ -316,6 +332,14 @@ public final class DataContract {
         static final String COLUMN_ON_WISHLIST = "onWishlist";
         static final String COLUMN_WATCHED = "watched";
         static final String COLUMN_FAVOURITE = "favourite";
+        static final String COLUMN_RELEASE_YEAR = "releaseYear";
+
+        // Facet columns, which may be used in selections, e.g. "language=?", but which are
+        // not returned in cursors. A facet term selects the movies whose CSV field contains
+        // the value, and is served from the movie facet index rather than tested per row.
+        static final String COLUMN_LANGUAGE = MovieEntry.COLUMN_LANGUAGE;
+        static final String COLUMN_COUNTRY = MovieEntry.COLUMN_COUNTRY;
+        static final String COLUMN_CERTIFICATE = MovieEntry.COLUMN_CERTIFICATE;
 
         // Note: arrays are mutable, so ALL_COLUMNS should not be public.
         // See Effective Java, Item 13.
@@ -334,7 +358,8 @@ public final class DataContract {
                 COLUMN_POSTER,
                 COLUMN_ON_WISHLIST,
                 COLUMN_WATCHED,
-                COLUMN_FAVOURITE
+                COLUMN_FAVOURITE,
+                COLUMN_RELEASE_YEAR
         };
 
         public static String[] getAllColumns() {
@@ -356,6 +381,7 @@ public final class DataContract {
         public static final int COL_ON_WISHLIST = COL_POSTER + 1;
         public static final int COL_WATCHED = COL_ON_WISHLIST + 1;
         public static final int COL_FAVOURITE = COL_WATCHED + 1;
+        public static final int COL_RELEASE_YEAR = COL_FAVOURITE + 1;
 
         // Award List Sort Orders
 
@@ -405,6 +431,168 @@ public final class DataContract {
         public static final String FILTER_CATEGORY_DVD = "filter_category_dvd";
         public static final String FILTER_CATEGORY_DEFAULT = FILTER_CATEGORY_ANY;
 
+        // Range filters select a range of values of a numeric column, inclusive.
+        // Each value other than the "any" value is of the form "[prefix]_[min]_[max]",
+        // e.g. "filter_runtime_0_99" selects the movies which are shorter than 100 minutes.
+
+        // These values must match the values in arrays.xml "filter_runtime_pref_key"
+        public static final String FILTER_RUNTIME_ANY = "filter_runtime_any";
+        public static final String FILTER_RUNTIME_DEFAULT = FILTER_RUNTIME_ANY;
+
+        // These values must match the values in arrays.xml "filter_release_year_pref_key"
+        public static final String FILTER_RELEASE_YEAR_ANY = "filter_release_year_any";
+        public static final String FILTER_RELEASE_YEAR_DEFAULT = FILTER_RELEASE_YEAR_ANY;
+
+        /**
+         * Returns the range of values selected by a range filter value.
+         * @param filterValue the range filter value, e.g. "filter_runtime_0_99"
+         * @return the minimum and maximum values selected, inclusive, e.g. {0, 99},
+         *     or null if the filter value does not select a range, e.g. "filter_runtime_any"
+         */
+        @Nullable
+        static int[] getFilterRange(@NonNull final String filterValue) {
+            int maxSeparator = filterValue.lastIndexOf('_');
+            int minSeparator = filterValue.lastIndexOf('_', maxSeparator - 1);
+            if (minSeparator < 0) {
+                return null;
+            }
+            try {
+                int min = Integer.parseInt(filterValue.substring(minSeparator + 1, maxSeparator));
+                int max = Integer.parseInt(filterValue.substring(maxSeparator + 1));
+                return min <= max ? new int[] {min, max} : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        // Facet filters select the movies whose language, country or certificate CSV field
+        // contains a value. Each value other than the "any" value is of the form
+        // "[prefix]_[value]", e.g. "filter_country_GB" selects the movies made in the UK.
+
+        // These values must match the values in arrays.xml "filter_language_pref_key"
+        public static final String FILTER_LANGUAGE_ANY = "filter_language_any";
+        public static final String FILTER_LANGUAGE_DEFAULT = FILTER_LANGUAGE_ANY;
+
+        // These values must match the values in arrays.xml "filter_country_pref_key"
+        public static final String FILTER_COUNTRY_ANY = "filter_country_any";
+        public static final String FILTER_COUNTRY_DEFAULT = FILTER_COUNTRY_ANY;
+
+        // These values must match the values in arrays.xml "filter_certificate_pref_key"
+        public static final String FILTER_CERTIFICATE_ANY = "filter_certificate_any";
+        public static final String FILTER_CERTIFICATE_DEFAULT = FILTER_CERTIFICATE_ANY;
+
+        /**
+         * Returns the value selected by a facet filter value.
+         * @param filterValue the facet filter value, e.g. "filter_certificate_GB:15"
+         * @param filterValueAny the facet filter value which selects every movie,
+         *     e.g. "filter_certificate_any"
+         * @return the value selected, e.g. "GB:15", or null if the filter value does not
+         *     select a value
+         */
+        @Nullable
+        static String getFilterFacetValue(@NonNull final String filterValue,
+                                          @NonNull final String filterValueAny) {
+            int separator = filterValue.lastIndexOf('_');
+            if (filterValue.equals(filterValueAny) || separator < 0
+                    || separator == filterValue.length() - 1) {
+                return null;
+            }
+            return filterValue.substring(separator + 1);
+        }
+
+        // Keyset pagination
+
+        // The separator between the sort key, the tie-breaker and the id in the PARAM_AFTER
+        // value. The sort key and the tie-breaker are URI-encoded, so that any occurrence of
+        // the separator in them, e.g. in a title, is escaped.
+        static final String KEYSET_SEPARATOR = ",";
+
+        /**
+         * Returns the index of the cursor column which holds the sort key for a sort order,
+         * i.e. the column whose value is passed as the sort key in the PARAM_AFTER value.
+         * @param sortOrder the sort order, e.g. "title ASC"
+         * @return the index of the cursor column holding the sort key, e.g. COL_TITLE
+         */
+        public static int getSortKeyColumnIndex(@Nullable final String sortOrder) {
+            String sortColumn = sortOrder == null ? null : sortOrder.split(" ")[0];
+            if (COLUMN_TITLE.equals(sortColumn)) {
+                return COL_TITLE;
+            } else if (COLUMN_RUNTIME.equals(sortColumn)) {
+                return COL_RUNTIME;
+            } else {
+                return COL_AWARD_DATE;
+            }
+        }
+
+        /**
+         * Returns the index of the cursor column which holds the tie-breaker for a sort order,
+         * i.e. the column by which the view award comparator for the sort order orders rows
+         * with the same sort key, whose value is passed as the tie-breaker in the PARAM_AFTER
+         * value. Rows with the same sort key and tie-breaker are ordered by id.
+         * @param sortOrder the sort order, e.g. "title ASC"
+         * @return the index of the cursor column holding the tie-breaker, e.g. COL_IMDB_ID
+         */
+        public static int getTieBreakerColumnIndex(@Nullable final String sortOrder) {
+            String sortColumn = sortOrder == null ? null : sortOrder.split(" ")[0];
+            if (COLUMN_TITLE.equals(sortColumn)) {
+                return COL_IMDB_ID;
+            } else if (COLUMN_RUNTIME.equals(sortColumn)) {
+                return COL_TITLE;
+            } else {
+                return COL_CATEGORY;
+            }
+        }
+
+        /**
+         * Returns the parts of a PARAM_AFTER value.
+         * @param after the PARAM_AFTER value, as built by buildUriForPage(...)
+         * @return the sort key, tie-breaker and id of the last row of the previous page,
+         *     or null if the value is invalid
+         */
+        @Nullable
+        public static String[] parseKeyset(@NonNull final String after) {
+            String[] parts = after.split(KEYSET_SEPARATOR, -1);
+            if (parts.length != 3) {
+                return null;
+            }
+            return new String[] {Uri.decode(parts[0]), Uri.decode(parts[1]), parts[2]};
+        }
+
+        // Explain
+
+        // The columns of the cursor returned by an explain query.
+        // The first row describes the query plan, each subsequent row describes one stage.
+        static final String COLUMN_EXPLAIN_STAGE = "stage";
+        static final String COLUMN_EXPLAIN_ROWS = "rows";
+        static final String COLUMN_EXPLAIN_NANOS = "nanos";
+        static final String COLUMN_EXPLAIN_DETAIL = "detail";
+
+        // Note: arrays are mutable, so EXPLAIN_COLUMNS should not be public.
+        private static final String[] EXPLAIN_COLUMNS = {
+                COLUMN_EXPLAIN_STAGE,
+                COLUMN_EXPLAIN_ROWS,
+                COLUMN_EXPLAIN_NANOS,
+                COLUMN_EXPLAIN_DETAIL
+        };
+
+        public static String[] getExplainColumns() {
+            return EXPLAIN_COLUMNS.clone();
+        }
+
+        public static final int COL_EXPLAIN_STAGE = 0;
+        public static final int COL_EXPLAIN_ROWS = COL_EXPLAIN_STAGE + 1;
+        public static final int COL_EXPLAIN_NANOS = COL_EXPLAIN_ROWS + 1;
+        public static final int COL_EXPLAIN_DETAIL = COL_EXPLAIN_NANOS + 1;
+
+        /**
+         * Returns whether a view award list URI requests the query plan rather than the rows.
+         * @param uri the URI
+         * @return true if the URI contains the parameter "explain=1", false otherwise
+         */
+        public static boolean isExplain(@NonNull final Uri uri) {
+            return PARAM_EXPLAIN_VALUE.equals(uri.getQueryParameter(PARAM_EXPLAIN));
+        }
+
         // URIs
 
         static final Uri CONTENT_URI =
@@ -423,6 +611,37 @@ public final class DataContract {
                     .build();
         }
 
+        /**
+         * Build and return the URI for querying all the view awards for a movie,
+         * i.e. every award for the movie, most recent first.
+         * e.g. "content://uk.jumpingmouse.moviecompanion/viewAward/movie/4016934"
+         * @param movieId the id of the movie, e.g. "4016934"
+         * @return the URI for querying all the view awards for the movie
+         */
+        @NonNull
+        public static Uri buildUriForMovie(@NonNull final String movieId) {
+            return CONTENT_URI.buildUpon()
+                    .appendPath(URI_PATH_MOVIE)
+                    .appendPath(movieId)
+                    .build();
+        }
+
+        /**
+         * Build and return the URI for querying all the view awards featuring a person,
+         * i.e. every award for the movies which the person directed, wrote the screenplay of
+         * or appeared in, most recent first.
+         * e.g. "content://uk.jumpingmouse.moviecompanion/viewAward/person/Amy%20Adams"
+         * @param personName the person's name, e.g. "Amy Adams"
+         * @return the URI for querying all the view awards featuring the person
+         */
+        @NonNull
+        public static Uri buildUriForPerson(@NonNull final String personName) {
+            return CONTENT_URI.buildUpon()
+                    .appendPath(URI_PATH_PERSON)
+                    .appendPath(personName)
+                    .build();
+        }
+
         /**
          * Create and return a URI for querying all the view awards.
          * i.e. "content://uk.jumpingmouse.moviecompanion/viewAward".
@@ -449,6 +668,142 @@ public final class DataContract {
                     .appendQueryParameter(PARAM_FILTER_WATCHED, parameters.getFilterWatched())
                     .appendQueryParameter(PARAM_FILTER_FAVOURITE, parameters.getFilterFavourite())
                     .appendQueryParameter(PARAM_FILTER_CATEGORY, parameters.getFilterCategory())
+                    .appendQueryParameter(PARAM_FILTER_RUNTIME, parameters.getFilterRuntime())
+                    .appendQueryParameter(PARAM_FILTER_RELEASE_YEAR,
+                            parameters.getFilterReleaseYear())
+                    .appendQueryParameter(PARAM_FILTER_LANGUAGE, parameters.getFilterLanguage())
+                    .appendQueryParameter(PARAM_FILTER_COUNTRY, parameters.getFilterCountry())
+                    .appendQueryParameter(PARAM_FILTER_CERTIFICATE,
+                            parameters.getFilterCertificate())
+                    .build();
+        }
+
+        /**
+         * Create and return a URI for querying one page of view awards, based on a list URI.
+         * Any existing pagination parameters in the list URI are replaced.
+         * e.g. "content://uk.jumpingmouse.moviecompanion/viewAward?
+         *                     sortOrder=title ASC&...&after=Arrival,tt2543164,[id]&pageSize=30".
+         * @param uri the URI for the view award list, e.g. as built by buildUriWithParameters(...)
+         * @param afterSortKey the sort key of the last row of the previous page,
+         *                     or null for the first page
+         * @param afterTieBreaker the tie-breaker of the last row of the previous page,
+         *                        see getTieBreakerColumnIndex(...), or null for the first page
+         * @param afterId the id of the last row of the previous page, or null for the first page
+         * @param pageSize the maximum number of rows in the page
+         * @return the URI for querying the page of view awards
+         */
+        @NonNull
+        public static Uri buildUriForPage(@NonNull final Uri uri, @Nullable final String afterSortKey,
+                                          @Nullable final String afterTieBreaker,
+                                          @Nullable final String afterId, final int pageSize) {
+            Uri.Builder builder = uri.buildUpon().clearQuery();
+            for (String name : uri.getQueryParameterNames()) {
+                if (!PARAM_AFTER.equals(name) && !PARAM_PAGE_SIZE.equals(name)) {
+                    builder.appendQueryParameter(name, uri.getQueryParameter(name));
+                }
+            }
+            if (afterSortKey != null && afterTieBreaker != null && afterId != null) {
+                builder.appendQueryParameter(PARAM_AFTER, Uri.encode(afterSortKey)
+                        + KEYSET_SEPARATOR + Uri.encode(afterTieBreaker)
+                        + KEYSET_SEPARATOR + afterId);
+            }
+            return builder
+                    .appendQueryParameter(PARAM_PAGE_SIZE, Integer.toString(pageSize))
+                    .build();
+        }
+
+        /**
+         * Create and return a URI for explaining a view award list query, i.e. for obtaining
+         * the chosen query plan and the row count and timing of each stage of the query.
+         * e.g. "content://uk.jumpingmouse.moviecompanion/viewAward?
+         *                     sortOrder=title ASC&...&explain=1".
+         * @param uri the URI for the view award list, e.g. as built by buildUriWithParameters(...)
+         * @return the URI for explaining the view award list query
+         */
+        @NonNull
+        public static Uri buildUriForExplain(@NonNull final Uri uri) {
+            return uri.buildUpon()
+                    .appendQueryParameter(PARAM_EXPLAIN, PARAM_EXPLAIN_VALUE)
+                    .build();
+        }
+
+    }
+
+    /**
+     * Inner class that defines the contract for widget award information, i.e. the most
+     * recent view awards in a category, with only the columns displayed in the widgets.
+     * The most recent view awards in each category are precomputed, so that every widget
+     * displaying a category is served from the same result.
+     */
+    public static final class WidgetAwardEntry implements BaseColumns {
+
+        static final String CONTENT_DIR_TYPE =
+                ContentResolver.CURSOR_DIR_BASE_TYPE + "/" + CONTENT_AUTHORITY + "/" + URI_PATH_WIDGET_AWARD;
+
+        // Data
+
+        static final String COLUMN_ID = WidgetAwardEntry._ID;
+        static final String COLUMN_POSTER = "poster";
+        static final String COLUMN_AWARD_DATE = "awardDate";
+        static final String COLUMN_TITLE = "title";
+
+        // Note: arrays are mutable, so ALL_COLUMNS should not be public.
+        private static final String[] ALL_COLUMNS = {
+                COLUMN_ID,
+                COLUMN_POSTER,
+                COLUMN_AWARD_DATE,
+                COLUMN_TITLE
+        };
+
+        public static String[] getAllColumns() {
+            return ALL_COLUMNS.clone();
+        }
+
+        public static final int COL_ID = 0;
+        public static final int COL_POSTER = COL_ID + 1;
+        public static final int COL_AWARD_DATE = COL_POSTER + 1;
+        public static final int COL_TITLE = COL_AWARD_DATE + 1;
+
+        /** The maximum number of widget awards returned for a category. */
+        public static final int LIMIT_MAX = 10;
+
+        // URIs
+
+        static final Uri CONTENT_URI =
+                BASE_CONTENT_URI.buildUpon().appendPath(URI_PATH_WIDGET_AWARD).build();
+
+        /**
+         * Build and return the URI for querying the most recent widget awards in a category
+         * whose award date has started.
+         * Since today's date is not part of the URI, the result is not cached by the provider.
+         * e.g. "content://uk.jumpingmouse.moviecompanion/widgetAward/filter_category_movie?limit=5"
+         * @param filterCategory the category filter, e.g. ViewAwardEntry.FILTER_CATEGORY_MOVIE
+         * @param limit the maximum number of widget awards, which is at most LIMIT_MAX
+         * @return the URI for querying the most recent widget awards in the category
+         */
+        @NonNull
+        public static Uri buildUriForCategory(@NonNull final String filterCategory, final int limit) {
+            return CONTENT_URI.buildUpon()
+                    .appendPath(filterCategory)
+                    .appendQueryParameter(PARAM_LIMIT, Integer.toString(limit))
+                    .build();
+        }
+
+        /**
+         * Build and return the URI for querying the most recent widget awards in a category
+         * up to a given award date, rather than up to today.
+         * e.g. "content://uk.jumpingmouse.moviecompanion/widgetAward/filter_category_movie
+         *       ?limit=5&awardDateMax=170602"
+         * @param filterCategory the category filter, e.g. ViewAwardEntry.FILTER_CATEGORY_MOVIE
+         * @param limit the maximum number of widget awards, which is at most LIMIT_MAX
+         * @param awardDateMax the latest award date included, e.g. "170602"
+         * @return the URI for querying the most recent widget awards in the category
+         */
+        @NonNull
+        public static Uri buildUriForCategory(@NonNull final String filterCategory, final int limit,
+                                       @NonNull final String awardDateMax) {
+            return buildUriForCategory(filterCategory, limit).buildUpon()
+                    .appendQueryParameter(PARAM_AWARD_DATE_MAX, awardDateMax)
                     .build();
         }
 
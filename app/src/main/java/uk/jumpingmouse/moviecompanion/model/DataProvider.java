@@ -11,6 +11,8 @@ import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import timber.log.Timber;
@@ -40,17 +42,13 @@ public class DataProvider extends ContentProvider {
     private static final int USER_MOVIE_ID = 301;
     private static final int VIEW_AWARD = 400;
     private static final int VIEW_AWARD_ID = 401;
+    private static final int VIEW_AWARD_MOVIE_ID = 402;
+    private static final int VIEW_AWARD_PERSON = 403;
+    private static final int WIDGET_AWARD_CATEGORY = 500;
 
-    private static final String VIEW_AWARD_QUERY_SELECTION =
-            DataContract.PARAM_FILTER_CATEGORY + "=? "
-            + " AND " + DataContract.PARAM_FILTER_GENRE + "=? "
-            + " AND " + DataContract.PARAM_FILTER_WISHLIST + "=? "
-            + " AND " + DataContract.PARAM_FILTER_WATCHED + "=? "
-            + " AND " + DataContract.PARAM_FILTER_FAVOURITE + "=? "
-            + " AND " + DataContract.PARAM_LIMIT + "=? ";
-
-    /** The number of selection arguments supplied to a view awards query. */
-    private static final int VIEW_AWARD_QUERY_SELECTION_ARGS_MAX = 6;
+    /** The selection arg values for true and false boolean columns. */
+    private static final String SELECTION_ARG_TRUE = "1";
+    private static final String SELECTION_ARG_FALSE = "0";
 
     //---------------------------------------------------------------------
     // URI matcher
@@ -99,6 +97,17 @@ public class DataProvider extends ContentProvider {
         uriMatcher.addURI(DataContract.CONTENT_AUTHORITY,
                 DataContract.URI_PATH_VIEW_AWARD + "/*",
                 VIEW_AWARD_ID);
+        uriMatcher.addURI(DataContract.CONTENT_AUTHORITY,
+                DataContract.URI_PATH_VIEW_AWARD + "/" + DataContract.URI_PATH_MOVIE + "/*",
+                VIEW_AWARD_MOVIE_ID);
+        uriMatcher.addURI(DataContract.CONTENT_AUTHORITY,
+                DataContract.URI_PATH_VIEW_AWARD + "/" + DataContract.URI_PATH_PERSON + "/*",
+                VIEW_AWARD_PERSON);
+
+        // widget award
+        uriMatcher.addURI(DataContract.CONTENT_AUTHORITY,
+                DataContract.URI_PATH_WIDGET_AWARD + "/*",
+                WIDGET_AWARD_CATEGORY);
 
         // 3) Return the new matcher!
         return uriMatcher;
@@ -153,6 +162,12 @@ public class DataProvider extends ContentProvider {
                 return DataContract.ViewAwardEntry.CONTENT_DIR_TYPE;
             case VIEW_AWARD_ID:
                 return DataContract.ViewAwardEntry.CONTENT_ITEM_TYPE;
+            case VIEW_AWARD_MOVIE_ID:
+                return DataContract.ViewAwardEntry.CONTENT_DIR_TYPE;
+            case VIEW_AWARD_PERSON:
+                return DataContract.ViewAwardEntry.CONTENT_DIR_TYPE;
+            case WIDGET_AWARD_CATEGORY:
+                return DataContract.WidgetAwardEntry.CONTENT_DIR_TYPE;
             default:
                 throw new UnsupportedOperationException("Unsupported URI for getType: " + uri);
         }
@@ -208,6 +223,8 @@ public class DataProvider extends ContentProvider {
             default:
                 throw new UnsupportedOperationException("Unsupported URI for insert: " + uri);
         }
+        // Discard cached query results which are now out of date
+        getQueryResultCache().evictStale(getLocalDatabase().getDataVersion());
         // Notify any observers on the modified URI
         notifyChange(context, uri, null);
         // Notify any observers on the ViewAward URI, as ViewAwards are affected by
@@ -275,6 +292,8 @@ public class DataProvider extends ContentProvider {
         }
         // Notify the listeners
         if (rowsUpdated != 0) {
+            // Discard cached query results which are now out of date
+            getQueryResultCache().evictStale(getLocalDatabase().getDataVersion());
             // Notify any observers on the movie/award URI
             notifyChange(context, uri, null);
             // Notify any observers on the viewAward URI, as ViewAwards are affected by
@@ -352,6 +371,8 @@ public class DataProvider extends ContentProvider {
 
         // Notify the URI listeners (using the content resolver) if the rowsDeleted != 0.
         if (rowsDeleted != 0) {
+            // Discard cached query results which are now out of date
+            getQueryResultCache().evictStale(getLocalDatabase().getDataVersion());
             // Notify any observers on the modified URI
             notifyChange(context, uri, null);
             // Notify any observers on the viewAward URI, as ViewAwards are affected by
@@ -393,6 +414,54 @@ public class DataProvider extends ContentProvider {
     public final Cursor query(@NonNull final Uri uri, @Nullable final String[] projection,
                               @Nullable final String selection, @Nullable final String[] selectionArgs,
                               @Nullable final String sortOrder) {
+        // An explain query is never cached, as its result contains timings
+        if (URI_MATCHER.match(uri) == VIEW_AWARD && DataContract.ViewAwardEntry.isExplain(uri)) {
+            return getLocalDatabase().explainViewAwards(selection, selectionArgs, sortOrder);
+        }
+
+        // A widget award query without an award date selects up to today, which is not part
+        // of the key, so its result is not cached
+        final boolean cacheable = URI_MATCHER.match(uri) != WIDGET_AWARD_CATEGORY
+                || uri.getQueryParameter(DataContract.PARAM_AWARD_DATE_MAX) != null;
+
+        // Use the cached result if the data has not been modified since it was cached
+        final long dataVersion = getLocalDatabase().getDataVersion();
+        final String cacheKey =
+                QueryResultCache.getKey(uri, projection, selection, selectionArgs, sortOrder);
+        Cursor cursor = cacheable ? getQueryResultCache().get(cacheKey, dataVersion) : null;
+        if (cursor == null) {
+            cursor = queryLocalDatabase(uri, projection, selection, selectionArgs, sortOrder);
+            if (cursor != null && cacheable) {
+                getQueryResultCache().put(cacheKey, dataVersion, cursor);
+            }
+        }
+
+        Context context = getContext();
+        if (cursor != null && context != null) {
+            // register an observer on the URI in the content resolver, through the cursor
+            cursor.setNotificationUri(context.getContentResolver(), uri);
+        }
+        return cursor;
+    }
+
+    /**
+     * Query the local database, i.e. handle a query request for which there is no cached result.
+     * @param uri The URI to query.
+     * @param projection The list of columns to put into the cursor.
+     *                   If this is {@code null} all columns are included.
+     * @param selection A selection criteria to apply when filtering rows.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @param sortOrder How the rows in the cursor should be sorted.
+     *      If this is {@code null}, the sort order is undefined.
+     * @return a Cursor or {@code null}.
+     */
+    @Nullable
+    private Cursor queryLocalDatabase(@NonNull final Uri uri, @Nullable final String[] projection,
+                              @Nullable final String selection, @Nullable final String[] selectionArgs,
+                              @Nullable final String sortOrder) {
         // From the URI, determine what kind of request it is and query the database accordingly.
         Cursor cursor;
         switch (URI_MATCHER.match(uri)) {
@@ -436,7 +505,13 @@ public class DataProvider extends ContentProvider {
                 break;
             // "viewAward"
             case VIEW_AWARD:
-                cursor = selectViewAwards(projection, selection, selectionArgs, sortOrder);
+                if (uri.getQueryParameter(DataContract.PARAM_PAGE_SIZE) == null
+                        && uri.getQueryParameter(DataContract.PARAM_AFTER) == null) {
+                    cursor = selectViewAwards(projection, selection, selectionArgs, sortOrder);
+                } else {
+                    cursor = selectViewAwardsPage(uri, projection, selection, selectionArgs,
+                            sortOrder);
+                }
                 break;
             // "award/*"
             case VIEW_AWARD_ID:
@@ -448,14 +523,33 @@ public class DataProvider extends ContentProvider {
                     cursor = selectViewAwardById(viewAwardId);
                 }
                 break;
+            // "viewAward/movie/*"
+            case VIEW_AWARD_MOVIE_ID:
+                String viewAwardMovieId = uri.getLastPathSegment();
+                if (viewAwardMovieId == null) {
+                    Timber.w("Could not obtain movie id from URI" + uri);
+                    cursor = null;
+                } else {
+                    cursor = getLocalDatabase().selectViewAwardsByMovieId(viewAwardMovieId);
+                }
+                break;
+            // "viewAward/person/*"
+            case VIEW_AWARD_PERSON:
+                String personName = uri.getLastPathSegment();
+                if (personName == null) {
+                    Timber.w("Could not obtain person name from URI" + uri);
+                    cursor = null;
+                } else {
+                    cursor = getLocalDatabase().selectViewAwardsByPerson(personName);
+                }
+                break;
+            // "widgetAward/*"
+            case WIDGET_AWARD_CATEGORY:
+                cursor = selectWidgetAwards(uri);
+                break;
             default:
                 throw new UnsupportedOperationException("Unsupported URI for query: " + uri);
         }
-        Context context = getContext();
-        if (cursor != null && context != null) {
-            // register an observer on the URI in the content resolver, through the cursor
-            cursor.setNotificationUri(context.getContentResolver(), uri);
-        }
         return cursor;
     }
 
@@ -879,6 +973,103 @@ public class DataProvider extends ContentProvider {
                 projection, selection, selectionArgs, sortOrder);
     }
 
+    /**
+     * Return a cursor which contains one page of selected view awards from the database.
+     * The page is specified by the keyset pagination parameters of the URI, e.g.
+     * "after=Arrival,[push_id]&pageSize=30".
+     * @param uri the query URI, containing the pagination parameters
+     * @param projection The list of columns to put into the cursor.
+     *                   If this is {@code null} all columns are included.
+     * @param selection A selection criteria to apply when filtering rows.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in the order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @param sortOrder How the rows in the cursor should be sorted.
+     *      If this is {@code null}, the sort order is undefined.
+     * @return a cursor which contains a page of selected view awards from the database
+     */
+    @Nullable
+    private Cursor selectViewAwardsPage(@NonNull final Uri uri,
+            @Nullable final String[] projection, @Nullable final String selection,
+            @Nullable final String[] selectionArgs, @Nullable final String sortOrder) {
+        String afterSortKey = null;
+        String afterTieBreaker = null;
+        String afterId = null;
+        String after = uri.getQueryParameter(DataContract.PARAM_AFTER);
+        if (after != null) {
+            String[] keyset = DataContract.ViewAwardEntry.parseKeyset(after);
+            if (keyset == null) {
+                Timber.w("Invalid " + DataContract.PARAM_AFTER + " parameter: " + after);
+            } else {
+                afterSortKey = keyset[0];
+                afterTieBreaker = keyset[1];
+                afterId = keyset[2];
+            }
+        }
+
+        int pageSize = 0;
+        String pageSizeParam = uri.getQueryParameter(DataContract.PARAM_PAGE_SIZE);
+        if (pageSizeParam != null) {
+            try {
+                pageSize = Integer.parseInt(pageSizeParam);
+            } catch (NumberFormatException e) {
+                Timber.w("Invalid " + DataContract.PARAM_PAGE_SIZE + " parameter: " + pageSizeParam);
+            }
+        }
+
+        return getLocalDatabase().selectViewAwardsPage(projection, selection, selectionArgs,
+                sortOrder, afterSortKey, afterTieBreaker, afterId, pageSize);
+    }
+
+    //---------------------------------------------------------------------
+    // Widget award query methods
+
+    /**
+     * Return a cursor which contains the most recent widget awards in the category
+     * specified by a URI, up to the award date specified by the URI, or up to today.
+     * @param uri the URI, e.g. "widgetAward/filter_category_movie?limit=5"
+     * @return a cursor which contains the most recent widget awards in the category
+     */
+    @Nullable
+    private Cursor selectWidgetAwards(@NonNull final Uri uri) {
+        String awardCategory;
+        String filterCategory = uri.getLastPathSegment();
+        if (DataContract.ViewAwardEntry.FILTER_CATEGORY_MOVIE.equals(filterCategory)) {
+            awardCategory = Award.CATEGORY_MOVIE;
+        } else if (DataContract.ViewAwardEntry.FILTER_CATEGORY_DVD.equals(filterCategory)) {
+            awardCategory = Award.CATEGORY_DVD;
+        } else {
+            awardCategory = null;
+        }
+
+        int limit = DataContract.WidgetAwardEntry.LIMIT_MAX;
+        String limitParam = uri.getQueryParameter(DataContract.PARAM_LIMIT);
+        if (limitParam != null) {
+            try {
+                limit = Math.min(Integer.parseInt(limitParam), limit);
+            } catch (NumberFormatException e) {
+                Timber.w("Invalid " + DataContract.PARAM_LIMIT + " parameter: " + limitParam);
+            }
+        }
+
+        // By default, only awards whose award date has started are included
+        int awardDayMax;
+        String awardDateMax = uri.getQueryParameter(DataContract.PARAM_AWARD_DATE_MAX);
+        if (awardDateMax == null) {
+            awardDayMax = ModelUtils.toAwardDay(System.currentTimeMillis());
+        } else {
+            awardDayMax = ModelUtils.toAwardDay(awardDateMax);
+            if (awardDayMax == Award.AWARD_DAY_UNKNOWN) {
+                Timber.w("Invalid " + DataContract.PARAM_AWARD_DATE_MAX
+                        + " parameter: " + awardDateMax);
+                awardDayMax = ModelUtils.toAwardDay(System.currentTimeMillis());
+            }
+        }
+
+        return getLocalDatabase().selectWidgetAwards(awardCategory, awardDayMax, limit);
+    }
+
     /**
      * Returns a one-row cursor containing a view award.
      * @param viewAward the view award
@@ -886,46 +1077,194 @@ public class DataProvider extends ContentProvider {
      */
     @NonNull
     private Cursor toCursor(@NonNull ViewAward viewAward) {
-        // Create a cursor containing the award columns
-        String[] columns = DataContract.ViewAwardEntry.getAllColumns();
-        MatrixCursor matrixCursor = new MatrixCursor(columns);
-
-        // populate the cursor with the view award
-        matrixCursor.addRow(viewAward.toObjectArray());
-
-        return matrixCursor;
+        // The cursor reads the column values from the view award, rather than copying them
+        return new ViewAwardCursor(Collections.singletonList(viewAward));
     }
 
     /**
-     * Returns the selection string for a data provider query.
-     * The selection corresponds to the selectionArgs returned by getSelectionArgsForQueryParams(...).
-     * @return the selection, which is generated in the form:
-     *          " filterCategory=? AND filterGenre=? AND filterWishlist=?  AND [... etc] "
+     * Returns the selection string for a view award query based on the query parameters.
+     * The selection corresponds to the selectionArgs returned by
+     * getSelectionArgsForViewAwardQueryParams(...), and only contains the filters which are
+     * active, so that the selection can be compiled once and reused.
+     * @param parameters the query parameters
+     * @return the selection, e.g. "category=? AND onWishlist=? AND limit=?",
+     *     or null if all view awards are selected
      */
-    public static String getSelectionForViewAwardQueryParams() {
-        return VIEW_AWARD_QUERY_SELECTION;
+    @Nullable
+    public static String getSelectionForViewAwardQueryParams(
+            @NonNull ViewAwardQueryParameters parameters) {
+        StringBuilder selection = new StringBuilder();
+        buildViewAwardSelection(parameters, selection, null);
+        return selection.length() == 0 ? null : selection.toString();
     }
 
     /**
-     * Returns the selection args for a data provider query based on the query parameters.
-     * The selectionArgs corresponds to the selection returned by getSelectionForViewAwardQueryParams(...).
+     * Returns the selection args for a view award query based on the query parameters.
+     * The selectionArgs corresponds to the selection returned by
+     * getSelectionForViewAwardQueryParams(...).
      * @param parameters the query parameters
-     * @return the selectionArgs this is set to the selection argument values
+     * @return the selectionArgs, or null if all view awards are selected
      */
+    @Nullable
     public static String[] getSelectionArgsForViewAwardQueryParams(
             @NonNull ViewAwardQueryParameters parameters) {
+        List<String> selectionArgs = new ArrayList<>();
+        buildViewAwardSelection(parameters, new StringBuilder(), selectionArgs);
+        return selectionArgs.isEmpty() ? null : selectionArgs.toArray(new String[0]);
+    }
+
+    /**
+     * Builds the selection and selection args for a view award query.
+     * @param parameters the query parameters
+     * @param selection the builder to which the selection is appended
+     * @param selectionArgs the list to which the selection args are added, or null if
+     *                      they are not required
+     */
+    private static void buildViewAwardSelection(@NonNull ViewAwardQueryParameters parameters,
+                @NonNull StringBuilder selection, @Nullable List<String> selectionArgs) {
+        // category filter
+        switch (parameters.getFilterCategory()) {
+            case DataContract.ViewAwardEntry.FILTER_CATEGORY_MOVIE:
+                appendSelection(selection, selectionArgs,
+                        DataContract.ViewAwardEntry.COLUMN_CATEGORY, Award.CATEGORY_MOVIE);
+                break;
+            case DataContract.ViewAwardEntry.FILTER_CATEGORY_DVD:
+                appendSelection(selection, selectionArgs,
+                        DataContract.ViewAwardEntry.COLUMN_CATEGORY, Award.CATEGORY_DVD);
+                break;
+            default:
+                break;
+        }
+        // genre filter
+        if (!DataContract.ViewAwardEntry.FILTER_GENRE_ALL.equals(parameters.getFilterGenre())) {
+            appendSelection(selection, selectionArgs,
+                    DataContract.ViewAwardEntry.COLUMN_GENRE, parameters.getFilterGenre());
+        }
+        // wishlist filter
+        appendSelectionForBoolean(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_ON_WISHLIST, parameters.getFilterWishlist(),
+                DataContract.ViewAwardEntry.FILTER_WISHLIST_SHOW,
+                DataContract.ViewAwardEntry.FILTER_WISHLIST_HIDE);
+        // watched filter
+        appendSelectionForBoolean(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_WATCHED, parameters.getFilterWatched(),
+                DataContract.ViewAwardEntry.FILTER_WATCHED_SHOW,
+                DataContract.ViewAwardEntry.FILTER_WATCHED_HIDE);
+        // favourite filter
+        appendSelectionForBoolean(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_FAVOURITE, parameters.getFilterFavourite(),
+                DataContract.ViewAwardEntry.FILTER_FAVOURITE_SHOW,
+                DataContract.ViewAwardEntry.FILTER_FAVOURITE_HIDE);
+        // runtime filter
+        appendSelectionForRange(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_RUNTIME, parameters.getFilterRuntime());
+        // release year filter
+        appendSelectionForRange(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_RELEASE_YEAR, parameters.getFilterReleaseYear());
+        // language filter
+        appendSelectionForFacet(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_LANGUAGE, parameters.getFilterLanguage(),
+                DataContract.ViewAwardEntry.FILTER_LANGUAGE_ANY);
+        // country filter
+        appendSelectionForFacet(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_COUNTRY, parameters.getFilterCountry(),
+                DataContract.ViewAwardEntry.FILTER_COUNTRY_ANY);
+        // certificate filter
+        appendSelectionForFacet(selection, selectionArgs,
+                DataContract.ViewAwardEntry.COLUMN_CERTIFICATE, parameters.getFilterCertificate(),
+                DataContract.ViewAwardEntry.FILTER_CERTIFICATE_ANY);
+        // limit
+        if (parameters.getLimit() > 0) {
+            appendSelection(selection, selectionArgs,
+                    DataContract.PARAM_LIMIT, Integer.toString(parameters.getLimit()));
+        }
+    }
 
-        String[] selectionArgs = new String[VIEW_AWARD_QUERY_SELECTION_ARGS_MAX];
+    /**
+     * Appends a boolean column term to a view award selection, if its filter is active.
+     * @param selection the builder to which the selection is appended
+     * @param selectionArgs the list to which the selection args are added, or null if
+     *                      they are not required
+     * @param column the boolean column, e.g. "onWishlist"
+     * @param filterValue the value of the filter, e.g. "filter_wishlist_show"
+     * @param filterValueShow the filter value which selects rows where the column is true
+     * @param filterValueHide the filter value which selects rows where the column is false
+     */
+    private static void appendSelectionForBoolean(@NonNull StringBuilder selection,
+                @Nullable List<String> selectionArgs, @NonNull String column,
+                @NonNull String filterValue, @NonNull String filterValueShow,
+                @NonNull String filterValueHide) {
+        if (filterValueShow.equals(filterValue)) {
+            appendSelection(selection, selectionArgs, column, SELECTION_ARG_TRUE);
+        } else if (filterValueHide.equals(filterValue)) {
+            appendSelection(selection, selectionArgs, column, SELECTION_ARG_FALSE);
+        }
+    }
 
-        int argNumber = 0;
-        selectionArgs[argNumber++] = parameters.getFilterCategory();
-        selectionArgs[argNumber++] = parameters.getFilterGenre();
-        selectionArgs[argNumber++] = parameters.getFilterWishlist();
-        selectionArgs[argNumber++] = parameters.getFilterWatched();
-        selectionArgs[argNumber++] = parameters.getFilterFavourite();
-        selectionArgs[argNumber] = Integer.toString(parameters.getLimit());
+    /**
+     * Appends a "column BETWEEN ? AND ?" term to a view award selection, if its range filter
+     * is active. The local database serves these terms from a sorted index of the column.
+     * @param selection the builder to which the selection is appended
+     * @param selectionArgs the list to which the selection args are added, or null if
+     *                      they are not required
+     * @param column the numeric column, e.g. "runtime"
+     * @param filterValue the value of the range filter, e.g. "filter_runtime_0_99"
+     */
+    private static void appendSelectionForRange(@NonNull StringBuilder selection,
+                @Nullable List<String> selectionArgs, @NonNull String column,
+                @NonNull String filterValue) {
+        int[] range = DataContract.ViewAwardEntry.getFilterRange(filterValue);
+        if (range == null) {
+            return;
+        }
+        if (selection.length() > 0) {
+            selection.append(" AND ");
+        }
+        selection.append(column).append(" BETWEEN ? AND ?");
+        if (selectionArgs != null) {
+            selectionArgs.add(Integer.toString(range[0]));
+            selectionArgs.add(Integer.toString(range[1]));
+        }
+    }
+
+    /**
+     * Appends a "column=?" term for a facet column to a view award selection, if its facet
+     * filter is active. The local database serves these terms from the movie facet index.
+     * @param selection the builder to which the selection is appended
+     * @param selectionArgs the list to which the selection arg is added, or null if
+     *                      it is not required
+     * @param column the facet column, e.g. "country"
+     * @param filterValue the value of the facet filter, e.g. "filter_country_GB"
+     * @param filterValueAny the facet filter value which selects every movie
+     */
+    private static void appendSelectionForFacet(@NonNull StringBuilder selection,
+                @Nullable List<String> selectionArgs, @NonNull String column,
+                @NonNull String filterValue, @NonNull String filterValueAny) {
+        String facetValue =
+                DataContract.ViewAwardEntry.getFilterFacetValue(filterValue, filterValueAny);
+        if (facetValue != null) {
+            appendSelection(selection, selectionArgs, column, facetValue);
+        }
+    }
 
-        return selectionArgs;
+    /**
+     * Appends a "column=?" term to a view award selection.
+     * @param selection the builder to which the selection is appended
+     * @param selectionArgs the list to which the selection arg is added, or null if
+     *                      it is not required
+     * @param column the column, e.g. "category"
+     * @param selectionArg the value of the selection arg, e.g. "M"
+     */
+    private static void appendSelection(@NonNull StringBuilder selection,
+                @Nullable List<String> selectionArgs, @NonNull String column,
+                @NonNull String selectionArg) {
+        if (selection.length() > 0) {
+            selection.append(" AND ");
+        }
+        selection.append(column).append("=?");
+        if (selectionArgs != null) {
+            selectionArgs.add(selectionArg);
+        }
     }
 
     //---------------------------------------------------------------------
@@ -994,4 +1333,13 @@ public class DataProvider extends ContentProvider {
         return ObjectFactory.getLocalDatabase();
     }
 
+    /**
+     * Convenience method which returns a reference to the query result cache.
+     * @return a reference to the query result cache
+     */
+    @NonNull
+    private static QueryResultCache getQueryResultCache() {
+        return QueryResultCache.getInstance();
+    }
+
 }
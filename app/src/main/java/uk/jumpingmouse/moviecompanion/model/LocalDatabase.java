@@ -24,6 +24,16 @@ public interface LocalDatabase {
     String VIEW_AWARD_SORT_COLUMN_DEFAULT = DataContract.ViewAwardEntry.COLUMN_AWARD_DATE;
     boolean VIEW_AWARD_SORT_ASCENDING_DEFAULT = false;
 
+    //---------------------------------------------------------------------
+    // Data version methods
+
+    /**
+     * Returns the data version, which increases monotonically whenever a movie, award
+     * or user movie is modified.
+     * @return the data version
+     */
+    long getDataVersion();
+
     //---------------------------------------------------------------------
     // Movie methods
 
@@ -98,6 +108,14 @@ public interface LocalDatabase {
     @Nullable
     Award selectAwardById(@Nullable String id);
 
+    /**
+     * Returns the awards for a specified movie.
+     * @param movieId the id of the movie
+     * @return the awards for the movie
+     */
+    @NonNull
+    List<Award> selectAwardsByMovieId(@NonNull String movieId);
+
     /**
      * Returns a list of awards from the database.
      * @param projection The list of columns to put into the cursor.
@@ -162,6 +180,23 @@ public interface LocalDatabase {
     @Nullable
     ViewAward selectViewAwardById(@Nullable String id);
 
+    /**
+     * Returns the view awards for a specified movie, most recent first.
+     * @param movieId the id of the movie
+     * @return a cursor containing the view awards for the movie
+     */
+    @Nullable
+    Cursor selectViewAwardsByMovieId(@NonNull String movieId);
+
+    /**
+     * Returns the view awards featuring a specified person, i.e. the awards for the movies
+     * which the person directed, wrote the screenplay of or appeared in, most recent first.
+     * @param personName the person's name
+     * @return a cursor containing the view awards featuring the person
+     */
+    @Nullable
+    Cursor selectViewAwardsByPerson(@NonNull String personName);
+
     /**
      * Returns a list of view awards from the database.
      * @param projection The list of columns to put into the cursor.
@@ -180,4 +215,77 @@ public interface LocalDatabase {
             @Nullable String[] projection, @Nullable String selection,
             @Nullable String[] selectionArgs, @Nullable String sortOrder);
 
+    /**
+     * Returns one page of a list of view awards from the database, using keyset pagination.
+     * The page starts immediately after the row identified by afterSortKey, afterTieBreaker
+     * and afterId in the sorted list, so pages remain consistent while rows are added
+     * or removed.
+     * @param projection The list of columns to put into the cursor.
+     *                   If this is {@code null} all columns are included.
+     * @param selection A selection criteria to apply when filtering rows.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in the order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @param sortOrder How the rows in the cursor should be sorted.
+     *      If this is {@code null}, the sort order is undefined.
+     * @param afterSortKey the sort key of the last row of the previous page,
+     *                     or null to return the first page
+     * @param afterTieBreaker the tie-breaker of the last row of the previous page, i.e. its
+     *                        value in the column by which rows with the same sort key are
+     *                        ordered, or null to return the first page
+     * @param afterId the id of the last row of the previous page,
+     *                or null to return the first page
+     * @param pageSize the maximum number of rows in the page; if this is not positive,
+     *                 all the remaining rows are returned
+     * @return a cursor containing a page of view awards from the database
+     */
+    @Nullable
+    Cursor selectViewAwardsPage(
+            @Nullable String[] projection, @Nullable String selection,
+            @Nullable String[] selectionArgs, @Nullable String sortOrder,
+            @Nullable String afterSortKey, @Nullable String afterTieBreaker,
+            @Nullable String afterId, int pageSize);
+
+    /**
+     * Returns the most recent view awards in a category whose award date has started,
+     * with only the columns displayed in the widgets, as described by
+     * {@link DataContract.WidgetAwardEntry#getAllColumns()}.
+     * @param category the award category, e.g. Award.CATEGORY_MOVIE, or null for all categories
+     * @param awardDayMax the latest award day included, normally today's award day,
+     *                    i.e. the number of days since 1 Jan 1970
+     * @param limit the maximum number of view awards, which is at most
+     *              DataContract.WidgetAwardEntry.LIMIT_MAX
+     * @return a cursor containing the most recent view awards in the category
+     */
+    @Nullable
+    Cursor selectWidgetAwards(@Nullable String category, int awardDayMax, int limit);
+
+    /**
+     * Returns the earliest award day after a given award day of the awards in a category,
+     * i.e. the day on which the view awards displayed in the widgets next change,
+     * unless the data is changed first.
+     * @param category the award category, e.g. Award.CATEGORY_MOVIE, or null for all categories
+     * @param awardDay the award day, normally today's award day
+     * @return the earliest award day after awardDay, or Award.AWARD_DAY_UNKNOWN if there is none
+     */
+    int selectNextAwardDay(@Nullable String category, int awardDay);
+
+    /**
+     * Explains a view award list query, i.e. returns the chosen query plan, followed by
+     * the number of rows remaining after each stage of the query and the time taken
+     * by each stage.
+     * @param selection A selection criteria to apply when filtering rows.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in the order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @param sortOrder How the rows should be sorted.
+     *      If this is {@code null}, the default sort order is used.
+     * @return a cursor containing the query plan and the row count and timing of each stage
+     */
+    @Nullable
+    Cursor explainViewAwards(@Nullable String selection, @Nullable String[] selectionArgs,
+                             @Nullable String sortOrder);
+
 }
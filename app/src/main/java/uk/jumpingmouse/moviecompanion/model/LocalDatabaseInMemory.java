@@ -6,12 +6,18 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import timber.log.Timber;
 
@@ -19,6 +25,8 @@ import uk.jumpingmouse.moviecompanion.data.Award;
 import uk.jumpingmouse.moviecompanion.data.Movie;
 import uk.jumpingmouse.moviecompanion.data.UserMovie;
 import uk.jumpingmouse.moviecompanion.data.ViewAward;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+import uk.jumpingmouse.moviecompanion.utils.StringPool;
 
 /**
  * Class giving access to a local copy of the database.
@@ -30,12 +38,12 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
     /** The singleton instance of this class. */
     private static LocalDatabase sLocalDatabase = null;
 
-    private static final int ARG_INDEX_FILTER_CATEGORY = 0;
-    private static final int ARG_INDEX_FILTER_GENRE = ARG_INDEX_FILTER_CATEGORY + 1;
-    private static final int ARG_INDEX_FILTER_WISHLIST = ARG_INDEX_FILTER_GENRE + 1;
-    private static final int ARG_INDEX_FILTER_WATCHED = ARG_INDEX_FILTER_WISHLIST + 1;
-    private static final int ARG_INDEX_FILTER_FAVOURITE = ARG_INDEX_FILTER_WATCHED + 1;
-    private static final int ARG_INDEX_LIMIT = ARG_INDEX_FILTER_FAVOURITE + 1;
+    /** The columns by which a paged view award query may be sorted. */
+    private static final String[] VIEW_AWARD_SORT_COLUMNS = {
+            DataContract.ViewAwardEntry.COLUMN_AWARD_DATE,
+            DataContract.ViewAwardEntry.COLUMN_TITLE,
+            DataContract.ViewAwardEntry.COLUMN_RUNTIME
+    };
 
     /** The movies. */
     private final Map<String, Movie> mMovies;
@@ -44,9 +52,69 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
     /** The user movies. */
     private final Map<String, UserMovie> mUserMovies;
 
+    /**
+     * The ids of the awards for each movie, keyed by movie id.
+     * This is maintained whenever an award or movie is added or deleted.
+     */
+    private final Map<String, Set<String>> mAwardIdsByMovieId;
+
+    /**
+     * The ids of the movies featuring each person.
+     * This is maintained whenever a movie is added or deleted.
+     */
+    private final PeopleIndex mPeopleIndex;
+
+    /**
+     * The dictionary-encoded languages, countries and certificates of the movies,
+     * with the bitset of the movies which have each value.
+     * This is maintained whenever a movie is added or deleted.
+     */
+    private final MovieFacetIndex mFacetIndex;
+
+    /**
+     * The pool of the strings which are repeated across the movies and awards,
+     * e.g. the genres of a movie or the date of an award, so that each is held once.
+     * Movies and awards, and the person keys of the people index, are interned into the pool
+     * as they are added.
+     */
+    private final StringPool mStringPool;
+
     /** The cursor for the view award list. It is assumed there is only ever one. */
     private Cursor mCursorViewAwards;
 
+    /**
+     * The view awards sorted by each sort column, keyed by sort column, e.g. "title",
+     * or null until the first paged view award query.
+     * These are kept up to date as movies and awards are added and deleted, so that a page
+     * is found by walking the index for its sort order until the page is full, rather than
+     * by generating, filtering and sorting every view award. The indexed view awards have
+     * no user movie info, which is added as they are walked.
+     * This is guarded by the instance lock, as pages are loaded on background threads.
+     */
+    private Map<String, ViewAwardSortIndex> mViewAwardSortIndexes;
+
+    /** The data version, which is incremented whenever the data is modified. */
+    private final AtomicLong mDataVersion = new AtomicLong();
+
+    /**
+     * The most recent awards in each category whose award date has started, keyed by award
+     * category (or null for all categories) and the latest award date included,
+     * e.g. "M/170602", limited to DataContract.WidgetAwardEntry.LIMIT_MAX.
+     * These are shared by all the widgets, and are recomputed when the data version changes.
+     */
+    private final Map<String, List<ViewAward>> mWidgetAwardsByCategory = new HashMap<>();
+    /** The data version at which mWidgetAwardsByCategory was computed. */
+    private long mWidgetAwardsDataVersion = -1;
+
+    /**
+     * The sorted indexes of the awards by the numeric view award columns which are
+     * restricted by range filters, keyed by column, e.g. "runtime".
+     * These are built when they are first used, and rebuilt when the data version changes.
+     */
+    private final Map<String, ViewAwardColumnIndex> mColumnIndexes = new HashMap<>();
+    /** The data version at which mColumnIndexes was built. */
+    private long mColumnIndexesDataVersion = -1;
+
     //---------------------------------------------------------------------
     // Instance handling methods
 
@@ -67,6 +135,31 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         mMovies = new HashMap<>();
         mAwards = new HashMap<>();
         mUserMovies = new HashMap<>();
+        mAwardIdsByMovieId = new HashMap<>();
+        mStringPool = new StringPool();
+        mPeopleIndex = new PeopleIndex(mStringPool);
+        mFacetIndex = new MovieFacetIndex();
+    }
+
+    //---------------------------------------------------------------------
+    // Data version methods
+
+    /**
+     * Returns the data version, which increases monotonically whenever a movie, award
+     * or user movie is modified. Query results obtained at the same data version are the same.
+     * @return the data version
+     */
+    @Override
+    public long getDataVersion() {
+        return mDataVersion.get();
+    }
+
+    /**
+     * Records that a movie, award or user movie has been modified, by incrementing the
+     * data version.
+     */
+    private void onDataModified() {
+        mDataVersion.incrementAndGet();
     }
 
     //---------------------------------------------------------------------
@@ -88,14 +181,21 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         if (existingMovie != null) {
             mMovies.remove(id);
         }
-        // add the new movie
-        mMovies.put(id, movie);
+        // add the new movie, sharing its repeated strings with the other movies and awards
+        Movie internedMovie = movie.intern(mStringPool);
+        mMovies.put(internedMovie.getId(), internedMovie);
+        mPeopleIndex.addMovie(internedMovie);
+        mFacetIndex.addMovie(internedMovie);
+        updateViewAwardSortIndexes(id, existingMovie, internedMovie);
+        onDataModified();
 
         return 1;
     }
 
     /**
      * Deletes a movie from the database.
+     * The awards for the movie are kept, as they are in the master database, but they are
+     * not displayed while the movie is missing.
      * @param id the id of the movie to be deleted
      * @return the number of rows deleted
      */
@@ -107,6 +207,10 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
             return 0;
         } else {
             mMovies.remove(id);
+            mPeopleIndex.removeMovie(id);
+            mFacetIndex.removeMovie(id);
+            updateViewAwardSortIndexes(id, existingMovie, null);
+            onDataModified();
             return 1;
         }
     }
@@ -215,9 +319,15 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         Award existingAward = selectAwardById(id);
         if (existingAward != null) {
             mAwards.remove(id);
+            removeFromAwardIdsByMovieId(existingAward);
+            removeFromViewAwardSortIndexes(existingAward);
         }
-        // add the new award
-        mAwards.put(id, award);
+        // add the new award, sharing its repeated strings with the other movies and awards
+        Award internedAward = award.intern(mStringPool);
+        mAwards.put(id, internedAward);
+        addToAwardIdsByMovieId(internedAward);
+        addToViewAwardSortIndexes(internedAward);
+        onDataModified();
         return 1;
     }
 
@@ -234,10 +344,40 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
             return 0;
         } else {
             mAwards.remove(id);
+            removeFromAwardIdsByMovieId(existingAward);
+            removeFromViewAwardSortIndexes(existingAward);
+            onDataModified();
             return 1;
         }
     }
 
+    /**
+     * Adds an award to the index of award ids by movie id.
+     * @param award the award
+     */
+    private void addToAwardIdsByMovieId(@NonNull Award award) {
+        Set<String> awardIds = mAwardIdsByMovieId.get(award.getMovieId());
+        if (awardIds == null) {
+            awardIds = new HashSet<>();
+            mAwardIdsByMovieId.put(award.getMovieId(), awardIds);
+        }
+        awardIds.add(award.getId());
+    }
+
+    /**
+     * Removes an award from the index of award ids by movie id.
+     * @param award the award
+     */
+    private void removeFromAwardIdsByMovieId(@NonNull Award award) {
+        Set<String> awardIds = mAwardIdsByMovieId.get(award.getMovieId());
+        if (awardIds != null) {
+            awardIds.remove(award.getId());
+            if (awardIds.isEmpty()) {
+                mAwardIdsByMovieId.remove(award.getMovieId());
+            }
+        }
+    }
+
     //---------------------------------------------------------------------
     // Award query methods
 
@@ -259,6 +399,28 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         return award;
     }
 
+    /**
+     * Returns the awards for a specified movie.
+     * @param movieId the movie's id
+     * @return the awards for the movie, in no particular order
+     */
+    @Override
+    @NonNull
+    public List<Award> selectAwardsByMovieId(@NonNull String movieId) {
+        Set<String> awardIds = mAwardIdsByMovieId.get(movieId);
+        if (awardIds == null) {
+            return new ArrayList<>();
+        }
+        List<Award> awardList = new ArrayList<>(awardIds.size());
+        for (String awardId : awardIds) {
+            Award award = mAwards.get(awardId);
+            if (award != null) {
+                awardList.add(award);
+            }
+        }
+        return awardList;
+    }
+
     /**
      * Returns a list of awards from the database.
      * @param projection The list of columns to put into the cursor.
@@ -353,6 +515,7 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         }
         // add the new user movie
         mUserMovies.put(id, userMovie);
+        onDataModified();
 
         return 1;
     }
@@ -365,6 +528,7 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
     public int deleteUserMoviesAll() {
         int rowsDeleted = mUserMovies.size();
         mUserMovies.clear();
+        onDataModified();
         return rowsDeleted;
     }
 
@@ -381,6 +545,7 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
             return 0;
         } else {
             mUserMovies.remove(id);
+            onDataModified();
             return 1;
         }
     }
@@ -429,6 +594,43 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         return new ViewAward(award, movie, userMovie);
     }
 
+    /**
+     * Returns the view awards for a specified movie, i.e. every award for the movie,
+     * most recent first.
+     * @param movieId the movie's id
+     * @return a cursor containing the view awards for the movie
+     */
+    @Override
+    @NonNull
+    public Cursor selectViewAwardsByMovieId(@NonNull String movieId) {
+        List<ViewAward> viewAwardList = generateViewAwardList(selectAwardsByMovieId(movieId));
+        Collections.sort(viewAwardList,
+                Collections.reverseOrder(ViewAward.VIEW_AWARD_COMPARATOR_AWARD_DATE));
+        // The caller owns the cursor, so it is not assigned to mCursorViewAwards
+        return toCursorViewAwards(viewAwardList);
+    }
+
+    /**
+     * Returns the view awards featuring a specified person, i.e. every award for the movies
+     * which the person directed, wrote the screenplay of or appeared in, most recent first.
+     * The movies are found in the people index, rather than by searching every movie.
+     * @param personName the person's name, e.g. "Amy Adams"
+     * @return a cursor containing the view awards featuring the person
+     */
+    @Override
+    @NonNull
+    public Cursor selectViewAwardsByPerson(@NonNull String personName) {
+        List<Award> awardList = new ArrayList<>();
+        for (String movieId : mPeopleIndex.selectMovieIds(personName)) {
+            awardList.addAll(selectAwardsByMovieId(movieId));
+        }
+        List<ViewAward> viewAwardList = generateViewAwardList(awardList);
+        Collections.sort(viewAwardList,
+                Collections.reverseOrder(ViewAward.VIEW_AWARD_COMPARATOR_AWARD_DATE));
+        // The caller owns the cursor, so it is not assigned to mCursorViewAwards
+        return toCursorViewAwards(viewAwardList);
+    }
+
     /**
      * Returns a list of view awards from the database.
      * @param projection The list of columns to put into the cursor.
@@ -451,235 +653,492 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
             Timber.d("selectViewAwards: projection is currently not supported");
         }
 
+        QueryStats.Trace trace = new QueryStats.Trace();
+        List<ViewAward> viewAwardList =
+                queryViewAwardList(selection, selectionArgs, sortOrder, trace);
+
+        if (mCursorViewAwards != null) {
+            mCursorViewAwards.close();
+        }
+        mCursorViewAwards = toCursorViewAwards(viewAwardList);
+        trace.endStage(QueryStats.STAGE_TO_CURSOR, mCursorViewAwards.getCount());
+        getQueryStats().record(trace);
+        return mCursorViewAwards;
+    }
+
+    /**
+     * Explains a view award list query, i.e. runs the query and returns the chosen query plan,
+     * followed by the number of rows remaining after each stage of the query and the time
+     * taken by each stage.
+     * @param selection A selection criteria to apply when filtering rows.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in the order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @param sortOrder How the rows should be sorted.
+     *      If this is {@code null}, the default sort order is used.
+     * @return a cursor containing the query plan and the row count and timing of each stage,
+     *     as described by {@link DataContract.ViewAwardEntry#getExplainColumns()}
+     */
+    @Override
+    @NonNull
+    public Cursor explainViewAwards(@Nullable final String selection,
+            @Nullable final String[] selectionArgs, @Nullable final String sortOrder) {
+        QueryStats.Trace trace = new QueryStats.Trace();
+        List<ViewAward> viewAwardList =
+                queryViewAwardList(selection, selectionArgs, sortOrder, trace);
+        // The rows are converted to a cursor so that the stage is timed, then discarded
+        Cursor cursor = toCursorViewAwards(viewAwardList);
+        trace.endStage(QueryStats.STAGE_TO_CURSOR, cursor.getCount());
+        cursor.close();
+        getQueryStats().record(trace);
+
+        return trace.toExplainCursor(getViewAwardQueryPlan(selection, selectionArgs, sortOrder));
+    }
+
+    /**
+     * Returns a description of the plan for a view award list query, e.g.
+     * "sort: title ASC; index: none; facets: none; filter: category=? AND limit=? [M, 5];
+     * limit: 5".
+     * @param selection The selection criteria for the query.
+     * @param selectionArgs The values for the ?s in selection.
+     * @param sortOrder How the rows should be sorted, e.g. "awardDate DESC".
+     * @return a description of the plan for the query
+     */
+    @NonNull
+    private String getViewAwardQueryPlan(@Nullable final String selection,
+                @Nullable final String[] selectionArgs, @Nullable final String sortOrder) {
+        String sortColumn = getSortColumn(sortOrder, VIEW_AWARD_SORT_COLUMN_DEFAULT);
+        boolean sortAscending = isSortAscending(sortOrder, VIEW_AWARD_SORT_ASCENDING_DEFAULT);
+        String filter = selection == null ? "none" : selection + " " + Arrays.toString(selectionArgs);
+        int limit = 0;
+        Map<String, String> facetValues = null;
+        if (selection != null) {
+            try {
+                ViewAwardSelection compiledSelection = ViewAwardSelection.compile(selection);
+                limit = compiledSelection.getLimit(selectionArgs);
+                facetValues = compiledSelection.getFacetValues(selectionArgs);
+            } catch (IllegalArgumentException e) {
+                filter = "invalid, ignored (" + e.getMessage() + ")";
+            }
+        }
+        ViewAwardColumnIndex.Range indexRange = selectIndexRange(selection, selectionArgs);
+        BitSet facetMovies = selectFacetMovies(selection, selectionArgs);
+        return "sort: " + sortColumn + " "
+                + (sortAscending ? DataContract.SORT_DIRECTION_ASC : DataContract.SORT_DIRECTION_DESC)
+                + "; index: " + (indexRange == null ? "none" : indexRange.toString())
+                + "; facets: " + (facetMovies == null ? "none"
+                        : facetValues + " (" + facetMovies.cardinality() + " movies)")
+                + "; filter: " + filter
+                + "; limit: " + (limit > 0 ? Integer.toString(limit) : "none");
+    }
+
+    /**
+     * Returns the filtered, sorted and limited list of view awards for a query,
+     * recording the row count and elapsed time of each stage of the query.
+     * @param selection The selection criteria for the query.
+     * @param selectionArgs The values for the ?s in selection.
+     * @param sortOrder How the rows should be sorted, e.g. "awardDate DESC".
+     * @param trace the trace in which the stages of the query are recorded
+     * @return the list of view awards for the query
+     */
+    @NonNull
+    private List<ViewAward> queryViewAwardList(@Nullable final String selection,
+                @Nullable final String[] selectionArgs, @Nullable final String sortOrder,
+                @NonNull final QueryStats.Trace trace) {
         // Generate an unsorted, unfiltered ViewAward list from the list of awards.
         // We use viewAwardList rather than mAwards.values() in the call to generateViewAwardList(...)
         // because using mAwards.values() can lead to a ConcurrentModificationException.
         //List<ViewAward> viewAwardList = generateViewAwardList(awardList);
-        List<ViewAward> viewAwardList = generateViewAwardList(mAwards.values());
+        // If the selection has facet terms or restricts an indexed column to a range, only the
+        // candidate awards found in the indexes are generated, and the filter stage applies
+        // the rest of the selection.
+        List<ViewAward> viewAwardList =
+                generateViewAwardList(selectCandidateAwards(selection, selectionArgs));
+        trace.endStage(QueryStats.STAGE_GENERATE, viewAwardList.size());
 
         // Filter the ViewAward list
         viewAwardList = applyFilterToViewAwardList(viewAwardList, selection, selectionArgs);
+        trace.endStage(QueryStats.STAGE_FILTER, viewAwardList.size());
 
         // Sort the ViewAward list
         viewAwardList = applySortToViewAwardList(viewAwardList, sortOrder);
+        trace.endStage(QueryStats.STAGE_SORT, viewAwardList.size());
 
         // Apply limit to the ViewAward list
         viewAwardList = applyLimitToViewAwardList(viewAwardList, selection, selectionArgs);
+        trace.endStage(QueryStats.STAGE_LIMIT, viewAwardList.size());
 
-        if (mCursorViewAwards != null) {
-            mCursorViewAwards.close();
+        return viewAwardList;
+    }
+
+    /**
+     * Returns one page of a list of view awards from the database, using keyset pagination.
+     * @param projection The list of columns to put into the cursor.
+     *                   If this is {@code null} all columns are included.
+     * @param selection A selection criteria to apply when filtering rows.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in the order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @param sortOrder How the rows in the cursor should be sorted.
+     *      If this is {@code null}, the sort order is undefined.
+     * @param afterSortKey the sort key of the last row of the previous page,
+     *                     or null to return the first page
+     * @param afterTieBreaker the tie-breaker of the last row of the previous page, i.e. its
+     *                        value in the column by which rows with the same sort key are
+     *                        ordered, or null to return the first page
+     * @param afterId the id of the last row of the previous page,
+     *                or null to return the first page
+     * @param pageSize the maximum number of rows in the page; if this is not positive,
+     *                 all the remaining rows are returned
+     * @return a cursor containing a page of view awards from the database
+     */
+    @Override
+    @NonNull
+    public Cursor selectViewAwardsPage(
+            @Nullable final String[] projection, @Nullable final String selection,
+            @Nullable final String[] selectionArgs, @Nullable final String sortOrder,
+            @Nullable final String afterSortKey, @Nullable final String afterTieBreaker,
+            @Nullable final String afterId, final int pageSize) {
+        if (projection != null) {
+            Timber.d("selectViewAwardsPage: projection is currently not supported");
         }
-        mCursorViewAwards = toCursorViewAwards(viewAwardList);
-        return mCursorViewAwards;
+
+        QueryStats.Trace trace = new QueryStats.Trace();
+        List<ViewAward> page = walkViewAwardSortIndex(selection, selectionArgs, sortOrder,
+                afterSortKey, afterTieBreaker, afterId, pageSize, trace);
+
+        // The caller owns the page cursor, so it is not assigned to mCursorViewAwards
+        Cursor cursor = toCursorViewAwards(page);
+        trace.endStage(QueryStats.STAGE_TO_CURSOR, cursor.getCount());
+        getQueryStats().record(trace);
+        return cursor;
     }
 
     /**
-     * Generates and returns a ViewAward list corresponding to an Award list.
-     * @param awardList the award list
-     * @return a list of ViewAwards corresponding to awardList
+     * Returns one page of a list of view awards, found by walking the sort index for the
+     * sort order from the keyset position, and testing each view award against the
+     * selection, until the page is full.
+     * The time taken is proportional to the number of view awards walked, which is the page
+     * size divided by the fraction of view awards selected, rather than to the number of
+     * view awards. Over all the pages of a query, no view award is walked more than once.
+     * If the selection has a limit, the walk starts at the beginning of the index, so that
+     * the selected view awards before the page are counted.
+     * @param selection The selection criteria for the query.
+     * @param selectionArgs The values for the ?s in selection.
+     * @param sortOrder How the rows should be sorted, e.g. "awardDate DESC".
+     * @param afterSortKey the sort key of the last row of the previous page,
+     *                     or null for the first page
+     * @param afterTieBreaker the tie-breaker of the last row of the previous page,
+     *                        or null for the first page
+     * @param afterId the id of the last row of the previous page, or null for the first page
+     * @param pageSize the maximum number of rows in the page; if this is not positive,
+     *                 all the remaining rows are returned
+     * @param trace the trace in which the stages of the query are recorded
+     * @return the view awards in the page
      */
-    private List<ViewAward> generateViewAwardList(Collection<Award> awardList) {
-        List<ViewAward> viewAwardList = new ArrayList<>();
+    @NonNull
+    private synchronized List<ViewAward> walkViewAwardSortIndex(@Nullable final String selection,
+                @Nullable final String[] selectionArgs, @Nullable final String sortOrder,
+                @Nullable final String afterSortKey, @Nullable final String afterTieBreaker,
+                @Nullable final String afterId, final int pageSize,
+                @NonNull final QueryStats.Trace trace) {
+        String sortColumn = getSortColumn(sortOrder, VIEW_AWARD_SORT_COLUMN_DEFAULT);
+        boolean sortAscending = isSortAscending(sortOrder, VIEW_AWARD_SORT_ASCENDING_DEFAULT);
+        ViewAwardSortIndex sortIndex = getViewAwardSortIndex(sortColumn);
+        trace.endStage(QueryStats.STAGE_SORT, sortIndex.size());
 
-        for (Award award : awardList) {
-            Movie movie = selectMovieById(award.getMovieId());
-            if (movie != null) {
-                UserMovie userMovie = selectUserMovieById(award.getMovieId());
-                ViewAward viewAward = new ViewAward(award, movie, userMovie);
-                viewAwardList.add(viewAward);
+        ViewAwardSelection.Predicate predicate = ViewAwardSelection.Predicate.ALL;
+        int limit = 0;
+        if (selection != null) {
+            try {
+                ViewAwardSelection compiledSelection = ViewAwardSelection.compile(selection);
+                predicate = compiledSelection.bind(selectionArgs);
+                limit = compiledSelection.getLimit(selectionArgs);
+            } catch (IllegalArgumentException e) {
+                Timber.e(e, "walkViewAwardSortIndex: invalid selection");
             }
         }
-        return viewAwardList;
+        // The facet terms are not tested by the predicate
+        BitSet facetMovies = selectFacetMovies(selection, selectionArgs);
+
+        int step = sortAscending ? 1 : -1;
+        int startPosition =
+                sortIndex.getPositionAfter(afterSortKey, afterTieBreaker, afterId, sortAscending);
+        int position = limit > 0 ? (sortAscending ? 0 : sortIndex.size() - 1) : startPosition;
+        int selectedCount = 0;
+        List<ViewAward> page = new ArrayList<>();
+        while (position >= 0 && position < sortIndex.size()
+                && (pageSize <= 0 || page.size() < pageSize)
+                && (limit <= 0 || selectedCount < limit)) {
+            ViewAward viewAward = sortIndex.get(position);
+            if (facetMovies == null || mFacetIndex.contains(facetMovies, viewAward.getMovieId())) {
+                viewAward = viewAward.withUserMovie(mUserMovies.get(viewAward.getMovieId()));
+                if (predicate.matches(viewAward)) {
+                    selectedCount++;
+                    if (step * (position - startPosition) >= 0) {
+                        page.add(viewAward);
+                    }
+                }
+            }
+            position += step;
+        }
+        trace.endStage(QueryStats.STAGE_FILTER, page.size());
+        return page;
     }
 
     /**
-     * Returns a filtered list of view awards.
-     * @param viewAwardList a list of view awards to be filtered
-     * @param selection The selection criteria to apply when filtering rows.
-     *                  If this is {@code null} then all rows are included.
-     * @param selectionArgs Any ?s included in selection will be replaced by
-     *      the values from selectionArgs, in the order that they appear in the selection.
-     *      The values will be bound as Strings.
-     * @return the list of ViewAwards, filtered according to the selection and selectionArgs
+     * Returns the sort index of the view awards by a sort column, building the sort indexes
+     * if this is the first paged query.
+     * @param sortColumn the sort column, e.g. "title"
+     * @return the sort index of the view awards by the sort column
      */
     @NonNull
-    private List<ViewAward> applyFilterToViewAwardList(@NonNull List<ViewAward> viewAwardList,
-               @Nullable final String selection, @Nullable final String[] selectionArgs) {
-        //Timber.d(String.format("applyFilterToViewAwardList: selection = %s, selectionArgs = %s",
-        //        selection, selectionArgs.toString()));
-
-        if (selection == null || selectionArgs == null) {
-            return viewAwardList;
+    private synchronized ViewAwardSortIndex getViewAwardSortIndex(@NonNull String sortColumn) {
+        if (mViewAwardSortIndexes == null) {
+            List<ViewAward> viewAwardList = new ArrayList<>();
+            for (Award award : new ArrayList<>(mAwards.values())) {
+                Movie movie = mMovies.get(award.getMovieId());
+                if (movie != null) {
+                    viewAwardList.add(new ViewAward(award, movie, null));
+                }
+            }
+            mViewAwardSortIndexes = new HashMap<>();
+            for (String column : VIEW_AWARD_SORT_COLUMNS) {
+                mViewAwardSortIndexes.put(column, new ViewAwardSortIndex(column, viewAwardList));
+            }
         }
+        ViewAwardSortIndex sortIndex = mViewAwardSortIndexes.get(sortColumn);
+        return sortIndex != null ? sortIndex
+                : mViewAwardSortIndexes.get(VIEW_AWARD_SORT_COLUMN_DEFAULT);
+    }
 
-        List<ViewAward> filteredViewAwardList = new ArrayList<>();
-        for (ViewAward viewAward : viewAwardList) {
-            if (isIncludedByFilter(viewAward, selectionArgs)) {
-                filteredViewAwardList.add(viewAward);
+    /**
+     * Adds an award to the view award sort indexes, if they have been built and the award's
+     * movie is in the database.
+     * @param award the award
+     */
+    private synchronized void addToViewAwardSortIndexes(@NonNull Award award) {
+        Movie movie = mMovies.get(award.getMovieId());
+        if (mViewAwardSortIndexes != null && movie != null) {
+            ViewAward viewAward = new ViewAward(award, movie, null);
+            for (ViewAwardSortIndex sortIndex : mViewAwardSortIndexes.values()) {
+                sortIndex.add(viewAward);
             }
         }
-
-        return filteredViewAwardList;
     }
 
     /**
-     * Returns whether a view award is included after filtering.
-     * @param viewAward the view award
-     * @param selectionArgs the selectionArgs,
-     *             e.g. { "filter_wishlist_any", "filter_watched_show", "filter_favourite_hide" }
-     * @return true if the view award is included after filtering, false otherwise
+     * Removes an award from the view award sort indexes, if they have been built and the
+     * award's movie is in the database.
+     * This must be called before the award's movie is modified.
+     * @param award the award
      */
-    private boolean isIncludedByFilter(@NonNull ViewAward viewAward,
-                                       @NonNull final String[] selectionArgs) {
-        // category filter
-        if (selectionArgs.length > ARG_INDEX_FILTER_CATEGORY) {
-            if (!isIncludedByFilterCategory(viewAward, selectionArgs[ARG_INDEX_FILTER_CATEGORY])) {
-                return false;
+    private synchronized void removeFromViewAwardSortIndexes(@NonNull Award award) {
+        Movie movie = mMovies.get(award.getMovieId());
+        if (mViewAwardSortIndexes != null && movie != null) {
+            ViewAward viewAward = new ViewAward(award, movie, null);
+            for (ViewAwardSortIndex sortIndex : mViewAwardSortIndexes.values()) {
+                sortIndex.remove(viewAward);
             }
         }
-        // genre filter
-        if (selectionArgs.length > ARG_INDEX_FILTER_GENRE) {
-            if (!isIncludedByFilterGenre(viewAward, selectionArgs[ARG_INDEX_FILTER_GENRE])) {
-                return false;
-            }
+    }
+
+    /**
+     * Updates the view award sort indexes, if they have been built, after a movie has been
+     * added, modified or deleted, by replacing the view awards for the movie.
+     * @param movieId the id of the movie
+     * @param oldMovie the movie before the modification, or null if it was added
+     * @param newMovie the movie after the modification, or null if it was deleted
+     */
+    private synchronized void updateViewAwardSortIndexes(@NonNull String movieId,
+                @Nullable Movie oldMovie, @Nullable Movie newMovie) {
+        if (mViewAwardSortIndexes == null) {
+            return;
         }
-        // wishlist filter
-        if (selectionArgs.length > ARG_INDEX_FILTER_WISHLIST) {
-            if (!isIncludedByFilterWishlist(viewAward, selectionArgs[ARG_INDEX_FILTER_WISHLIST])) {
-                return false;
+        for (Award award : selectAwardsByMovieId(movieId)) {
+            for (ViewAwardSortIndex sortIndex : mViewAwardSortIndexes.values()) {
+                if (oldMovie != null) {
+                    sortIndex.remove(new ViewAward(award, oldMovie, null));
+                }
+                if (newMovie != null) {
+                    sortIndex.add(new ViewAward(award, newMovie, null));
+                }
             }
         }
-        // watched filter
-        if (selectionArgs.length > ARG_INDEX_FILTER_WATCHED) {
-            if (!isIncludedByFilterWatched(viewAward, selectionArgs[ARG_INDEX_FILTER_WATCHED])) {
-                return false;
-            }
+    }
+
+    /**
+     * Returns the awards which may be selected by a view award query, which are generated
+     * as view awards and tested by the filter stage.
+     * The facet terms of the selection are not tested by the filter stage, so if there are any,
+     * the candidates are restricted to the awards for the movies with the facet values.
+     * If the selection also restricts an indexed column to a range, the candidates are found
+     * from whichever is smaller: the awards in the range, which are tested against the
+     * facet values, or the movies with the facet values.
+     * @param selection The selection criteria for the query.
+     * @param selectionArgs The values for the ?s in selection.
+     * @return the awards which may be selected by the query
+     */
+    @NonNull
+    private Collection<Award> selectCandidateAwards(@Nullable final String selection,
+                @Nullable final String[] selectionArgs) {
+        ViewAwardColumnIndex.Range indexRange = selectIndexRange(selection, selectionArgs);
+        BitSet facetMovies = selectFacetMovies(selection, selectionArgs);
+        if (facetMovies == null) {
+            return indexRange == null ? mAwards.values() : indexRange.getAwards();
         }
-        // favourite filter
-        if (selectionArgs.length > ARG_INDEX_FILTER_FAVOURITE) {
-            if (!isIncludedByFilterFavourite(viewAward, selectionArgs[ARG_INDEX_FILTER_FAVOURITE])) {
-                return false;
+        List<Award> awardList = new ArrayList<>();
+        if (indexRange != null && indexRange.size() < facetMovies.cardinality()) {
+            for (Award award : indexRange.getAwards()) {
+                if (mFacetIndex.contains(facetMovies, award.getMovieId())) {
+                    awardList.add(award);
+                }
+            }
+        } else {
+            for (String movieId : mFacetIndex.getMovieIds(facetMovies)) {
+                awardList.addAll(selectAwardsByMovieId(movieId));
             }
         }
-        return true;
+        return awardList;
     }
 
     /**
-     * Returns whether a ViewAward is allowed through the category filter.
-     * @param viewAward the ViewAward
-     * @param filterValue the value of the category filter, e.g. "filter_category_movie"
-     * @return true if the ViewAward is allowed through the filter, false otherwise
+     * Returns the movies which have the values of the facet terms of a view award query,
+     * found in the movie facet index.
+     * @param selection The selection criteria for the query.
+     * @param selectionArgs The values for the ?s in selection.
+     * @return the ordinals in the movie facet index of the movies which have the facet values,
+     *     or null if the selection has no facet terms
      */
-    private boolean isIncludedByFilterCategory(
-            @NonNull ViewAward viewAward, @NonNull String filterValue) {
-        boolean isIncluded = true;
-        switch (filterValue) {
-            case DataContract.ViewAwardEntry.FILTER_CATEGORY_ANY:
-                break;
-            case DataContract.ViewAwardEntry.FILTER_CATEGORY_MOVIE:
-                isIncluded = Award.CATEGORY_MOVIE.equals(viewAward.getCategory());
-                break;
-            case DataContract.ViewAwardEntry.FILTER_CATEGORY_DVD:
-                isIncluded = Award.CATEGORY_DVD.equals(viewAward.getCategory());
-                break;
-            default:
-                break;
+    @Nullable
+    private BitSet selectFacetMovies(@Nullable final String selection,
+                @Nullable final String[] selectionArgs) {
+        if (selection == null) {
+            return null;
+        }
+        try {
+            Map<String, String> facetValues =
+                    ViewAwardSelection.compile(selection).getFacetValues(selectionArgs);
+            return facetValues.isEmpty() ? null : mFacetIndex.selectMovies(facetValues);
+        } catch (IllegalArgumentException e) {
+            // The invalid selection is reported, and ignored, by the filter stage
+            return null;
         }
-        return isIncluded;
     }
 
     /**
-     * Returns whether a ViewAward is allowed through when filtered by genre.
-     * @param viewAward the ViewAward
-     * @param filterGenreId the genre id being used as a filter, e.g. "genre_all", "15"
-     * @return true if the ViewAward is allowed through the filter, false otherwise
+     * Returns the range of the awards which may be selected by a view award query, found
+     * in the sorted index of a column whose values the selection restricts to a range.
+     * If the selection restricts several indexed columns, the narrowest range is returned,
+     * and the other columns are tested by the filter stage, on the awards in the range.
+     * @param selection The selection criteria for the query.
+     * @param selectionArgs The values for the ?s in selection.
+     * @return the narrowest range of an indexed column, or null if the selection does not
+     *     restrict an indexed column to a range
      */
-    private boolean isIncludedByFilterGenre(@NonNull ViewAward viewAward,
-                                            @NonNull String filterGenreId) {
-        if (filterGenreId.equals(DataContract.ViewAwardEntry.FILTER_GENRE_ALL)) {
-            return true;
+    @Nullable
+    private ViewAwardColumnIndex.Range selectIndexRange(@Nullable final String selection,
+                @Nullable final String[] selectionArgs) {
+        if (selection == null) {
+            return null;
         }
-        if (viewAward.getGenre() != null) {
-            String[] viewAwardGenreIds = viewAward.getGenre().split(",");
-            for (String viewAwardGenreId : viewAwardGenreIds) {
-                if (filterGenreId.equals(viewAwardGenreId)) {
-                    return true;
+        ViewAwardColumnIndex.Range narrowestRange = null;
+        try {
+            ViewAwardSelection compiledSelection = ViewAwardSelection.compile(selection);
+            for (String column : ViewAwardColumnIndex.INDEXABLE_COLUMNS) {
+                long[] bounds = compiledSelection.getRange(column, selectionArgs);
+                if (bounds != null) {
+                    ViewAwardColumnIndex.Range range =
+                            getColumnIndex(column).getRange(bounds[0], bounds[1]);
+                    if (narrowestRange == null || range.size() < narrowestRange.size()) {
+                        narrowestRange = range;
+                    }
                 }
             }
+        } catch (IllegalArgumentException e) {
+            // The invalid selection is reported, and ignored, by the filter stage
+            return null;
         }
-        return false;
+        return narrowestRange;
     }
 
     /**
-     * Returns whether a ViewAward is allowed through the wishlist filter.
-     * @param viewAward the ViewAward
-     * @param filterValue the value of the wishlist filter, e.g. "filter_wishlist_show"
-     * @return true if the ViewAward is allowed through the filter, false otherwise
+     * Returns the sorted index of the awards by a column, building it if the data
+     * has been modified since the index was built.
+     * @param column the column, which must be indexable, e.g. "runtime"
+     * @return the sorted index of the awards by the column
      */
-    private boolean isIncludedByFilterWishlist(
-            @NonNull ViewAward viewAward, @NonNull String filterValue) {
-        boolean isIncluded = true;
-        switch (filterValue) {
-            case DataContract.ViewAwardEntry.FILTER_WISHLIST_ANY:
-                break;
-            case DataContract.ViewAwardEntry.FILTER_WISHLIST_SHOW:
-                isIncluded = viewAward.isOnWishlist();
-                break;
-            case DataContract.ViewAwardEntry.FILTER_WISHLIST_HIDE:
-                isIncluded = !viewAward.isOnWishlist();
-                break;
-            default:
-                break;
+    @NonNull
+    private synchronized ViewAwardColumnIndex getColumnIndex(@NonNull final String column) {
+        long dataVersion = getDataVersion();
+        if (dataVersion != mColumnIndexesDataVersion) {
+            mColumnIndexes.clear();
+            mColumnIndexesDataVersion = dataVersion;
         }
-        return isIncluded;
+        ViewAwardColumnIndex columnIndex = mColumnIndexes.get(column);
+        if (columnIndex == null) {
+            columnIndex = ViewAwardColumnIndex.build(
+                    column, new ArrayList<>(mAwards.values()), mMovies);
+            mColumnIndexes.put(column, columnIndex);
+        }
+        return columnIndex;
     }
 
     /**
-     * Returns whether a ViewAward is allowed through the watched filter.
-     * @param viewAward the ViewAward
-     * @param filterValue the value of the watched filter, e.g. "filter_watched_show"
-     * @return true if the ViewAward is allowed through the filter, false otherwise
+     * Generates and returns a ViewAward list corresponding to an Award list.
+     * @param awardList the award list
+     * @return a list of ViewAwards corresponding to awardList
      */
-    private boolean isIncludedByFilterWatched(
-            @NonNull ViewAward viewAward, @NonNull String filterValue) {
-        boolean isIncluded = true;
-        switch (filterValue) {
-            case DataContract.ViewAwardEntry.FILTER_WATCHED_ANY:
-                break;
-            case DataContract.ViewAwardEntry.FILTER_WATCHED_SHOW:
-                isIncluded = viewAward.isWatched();
-                break;
-            case DataContract.ViewAwardEntry.FILTER_WATCHED_HIDE:
-                isIncluded = !viewAward.isWatched();
-                break;
-            default:
-                break;
+    private List<ViewAward> generateViewAwardList(Collection<Award> awardList) {
+        List<ViewAward> viewAwardList = new ArrayList<>();
+
+        for (Award award : awardList) {
+            Movie movie = selectMovieById(award.getMovieId());
+            if (movie != null) {
+                UserMovie userMovie = selectUserMovieById(award.getMovieId());
+                ViewAward viewAward = new ViewAward(award, movie, userMovie);
+                viewAwardList.add(viewAward);
+            }
         }
-        return isIncluded;
+        return viewAwardList;
     }
 
     /**
-     * Returns whether a ViewAward is allowed through the favourite filter.
-     * @param viewAward the ViewAward
-     * @param filterValue the value of the favourite filter, e.g. "filter_favourite_show"
-     * @return true if the ViewAward is allowed through the filter, false otherwise
+     * Returns a filtered list of view awards.
+     * @param viewAwardList a list of view awards to be filtered
+     * @param selection The selection criteria to apply when filtering rows,
+     *                  as described in {@link ViewAwardSelection}.
+     *                  If this is {@code null} then all rows are included.
+     * @param selectionArgs Any ?s included in selection will be replaced by
+     *      the values from selectionArgs, in the order that they appear in the selection.
+     *      The values will be bound as Strings.
+     * @return the list of ViewAwards, filtered according to the selection and selectionArgs
      */
-    private boolean isIncludedByFilterFavourite(
-            @NonNull ViewAward viewAward, @NonNull String filterValue) {
-        boolean isIncluded = true;
-        switch (filterValue) {
-            case DataContract.ViewAwardEntry.FILTER_FAVOURITE_ANY:
-                break;
-            case DataContract.ViewAwardEntry.FILTER_FAVOURITE_SHOW:
-                isIncluded = viewAward.isFavourite();
-                break;
-            case DataContract.ViewAwardEntry.FILTER_FAVOURITE_HIDE:
-                isIncluded = !viewAward.isFavourite();
-                break;
-            default:
-                break;
+    @NonNull
+    private List<ViewAward> applyFilterToViewAwardList(@NonNull List<ViewAward> viewAwardList,
+               @Nullable final String selection, @Nullable final String[] selectionArgs) {
+        if (selection == null) {
+            return viewAwardList;
+        }
+
+        ViewAwardSelection.Predicate predicate;
+        try {
+            predicate = ViewAwardSelection.compile(selection).bind(selectionArgs);
+        } catch (IllegalArgumentException e) {
+            Timber.e(e, "applyFilterToViewAwardList: invalid selection");
+            return viewAwardList;
         }
-        return isIncluded;
+
+        List<ViewAward> filteredViewAwardList = new ArrayList<>();
+        for (ViewAward viewAward : viewAwardList) {
+            if (predicate.matches(viewAward)) {
+                filteredViewAwardList.add(viewAward);
+            }
+        }
+
+        return filteredViewAwardList;
     }
 
     /**
@@ -700,23 +1159,7 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         String sortColumn = getSortColumn(sortOrder, VIEW_AWARD_SORT_COLUMN_DEFAULT);
         boolean sortAscending = isSortAscending(sortOrder, VIEW_AWARD_SORT_ASCENDING_DEFAULT);
 
-        Comparator<ViewAward> comparator;
-        // code coverage: sortColumn cannot be null
-        switch (sortColumn) {
-            case DataContract.ViewAwardEntry.COLUMN_AWARD_DATE:
-                comparator = ViewAward.VIEW_AWARD_COMPARATOR_AWARD_DATE;
-                break;
-            case DataContract.ViewAwardEntry.COLUMN_TITLE:
-                comparator = ViewAward.VIEW_AWARD_COMPARATOR_TITLE;
-                break;
-            case DataContract.ViewAwardEntry.COLUMN_RUNTIME:
-                comparator = ViewAward.VIEW_AWARD_COMPARATOR_RUNTIME;
-                break;
-            // code coverage: default case cannot happen due to earlier checks
-            default:
-                comparator = ViewAward.VIEW_AWARD_COMPARATOR_AWARD_DATE;
-                break;
-        }
+        Comparator<ViewAward> comparator = getViewAwardComparator(sortColumn);
         if (!sortAscending) {
             comparator = Collections.reverseOrder(comparator);
         }
@@ -725,6 +1168,23 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         return viewAwardList;
     }
 
+    /**
+     * Returns the comparator which orders view awards by a sort column, in ascending order.
+     * @param sortColumn the sort column, e.g. "title"
+     * @return the comparator for the sort column
+     */
+    @NonNull
+    private static Comparator<ViewAward> getViewAwardComparator(@NonNull String sortColumn) {
+        switch (sortColumn) {
+            case DataContract.ViewAwardEntry.COLUMN_TITLE:
+                return ViewAward.VIEW_AWARD_COMPARATOR_TITLE;
+            case DataContract.ViewAwardEntry.COLUMN_RUNTIME:
+                return ViewAward.VIEW_AWARD_COMPARATOR_RUNTIME;
+            default:
+                return ViewAward.VIEW_AWARD_COMPARATOR_AWARD_DATE;
+        }
+    }
+
     /**
      * Limits a list of view awards to a maximum number and returns the truncated list.
      * @param viewAwardList a list of view awards to be limited
@@ -741,48 +1201,324 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         //Timber.d(String.format("applyFilterToViewAwardList: selection = %s, selectionArgs = %s",
         //        selection, selectionArgs.toString()));
 
+        if (selection == null) {
+            return viewAwardList;
+        }
+        int limit = 0;
+        try {
+            limit = ViewAwardSelection.compile(selection).getLimit(selectionArgs);
+        } catch (IllegalArgumentException e) {
+            Timber.e(e, "applyLimitToViewAwardList: invalid limit");
+        }
         // if there is no limit, return the original list
-        if (selection != null
-                && selectionArgs != null
-                && selectionArgs.length > ARG_INDEX_LIMIT
-                && selectionArgs[ARG_INDEX_LIMIT] != null) {
-            int limit = 0;
-            try {
-                limit = Integer.parseInt(selectionArgs[ARG_INDEX_LIMIT]);
-            } catch (Exception e) {
-                Timber.e("Exception while parsing limit parameter: "
-                        + selectionArgs[ARG_INDEX_LIMIT]);
-            }
-            if (limit > 0) {
-                if (limit > viewAwardList.size()) {
-                    limit = viewAwardList.size();
-                }
-                return viewAwardList.subList(0, limit);
-            }
+        if (limit > 0 && limit < viewAwardList.size()) {
+            return viewAwardList.subList(0, limit);
         }
         return viewAwardList;
     }
 
     /**
      * Returns a multi-row cursor containing a list of view awards.
-     * @param viewAwards the list of view awards, correctly ordered for the cursor
+     * The cursor reads the column values from the view awards, rather than copying them.
+     * @param viewAwards the list of view awards, correctly ordered for the cursor,
+     *     which must not be modified afterwards
      * @return a multi-row cursor containing the list of view awards
      */
     @NonNull
     private Cursor toCursorViewAwards(@NonNull List<ViewAward> viewAwards) {
+        return new ViewAwardCursor(viewAwards);
+    }
 
-        // Create a cursor containing the view award columns
-        String[] columns = DataContract.ViewAwardEntry.getAllColumns();
-        MatrixCursor cursor = new MatrixCursor(columns);
+    //---------------------------------------------------------------------
+    // Widget award query methods
 
-        // populate the cursor with the view awards
-        for (ViewAward viewAward : viewAwards) {
-            cursor.addRow(viewAward.toObjectArray());
+    /**
+     * Returns the most recent view awards in a category whose award date has started,
+     * with only the columns displayed in the widgets, as described by
+     * {@link DataContract.WidgetAwardEntry#getAllColumns()}.
+     * @param category the award category, e.g. Award.CATEGORY_MOVIE, or null for all categories
+     * @param awardDayMax the latest award day included, normally today's award day,
+     *                    i.e. the number of days since 1 Jan 1970
+     * @param limit the maximum number of view awards, which is at most
+     *              DataContract.WidgetAwardEntry.LIMIT_MAX
+     * @return a cursor containing the most recent view awards in the category
+     */
+    @Override
+    @NonNull
+    public synchronized Cursor selectWidgetAwards(@Nullable final String category,
+                                                  final int awardDayMax,
+                                                  final int limit) {
+        long dataVersion = getDataVersion();
+        if (dataVersion != mWidgetAwardsDataVersion) {
+            mWidgetAwardsByCategory.clear();
+            mWidgetAwardsDataVersion = dataVersion;
+        }
+        String widgetAwardsKey = category + "/" + awardDayMax;
+        List<ViewAward> widgetAwards = mWidgetAwardsByCategory.get(widgetAwardsKey);
+        if (widgetAwards == null) {
+            widgetAwards = generateWidgetAwardList(category, awardDayMax);
+            mWidgetAwardsByCategory.put(widgetAwardsKey, widgetAwards);
         }
 
+        MatrixCursor cursor = new MatrixCursor(DataContract.WidgetAwardEntry.getAllColumns());
+        int rowCount = Math.min(Math.max(limit, 0), widgetAwards.size());
+        for (ViewAward viewAward : widgetAwards.subList(0, rowCount)) {
+            cursor.addRow(new Object[] {
+                    viewAward.getId(),
+                    viewAward.getPoster(),
+                    viewAward.getAwardDate(),
+                    viewAward.getTitle()
+            });
+        }
         return cursor;
     }
 
+    /**
+     * Generates and returns the most recent view awards in a category whose award date
+     * has started, most recent first.
+     * Only the most recent awards are kept while the awards are scanned, so only they
+     * are sorted and generated as view awards.
+     * @param category the award category, e.g. Award.CATEGORY_MOVIE, or null for all categories
+     * @param awardDayMax the latest award day included
+     * @return the most recent view awards in the category, limited to
+     *         DataContract.WidgetAwardEntry.LIMIT_MAX
+     */
+    @NonNull
+    private List<ViewAward> generateWidgetAwardList(@Nullable final String category,
+                                                    final int awardDayMax) {
+        int maxSize = DataContract.WidgetAwardEntry.LIMIT_MAX;
+        // The head of the queue is the least recent of the most recent awards found so far
+        PriorityQueue<Award> recentAwards =
+                new PriorityQueue<>(maxSize + 1, Award.AWARD_COMPARATOR_AWARD_DATE);
+        for (Award award : new ArrayList<>(mAwards.values())) {
+            if (isWidgetAward(award, category) && award.getAwardDay() <= awardDayMax) {
+                recentAwards.add(award);
+                if (recentAwards.size() > maxSize) {
+                    recentAwards.poll();
+                }
+            }
+        }
+
+        List<ViewAward> viewAwardList = generateViewAwardList(recentAwards);
+        Collections.sort(viewAwardList,
+                Collections.reverseOrder(ViewAward.VIEW_AWARD_COMPARATOR_AWARD_DATE));
+        return viewAwardList;
+    }
+
+    /**
+     * Returns the earliest award day after a given award day of the awards in a category,
+     * i.e. the day on which the view awards displayed in the widgets next change,
+     * unless the data is changed first.
+     * @param category the award category, e.g. Award.CATEGORY_MOVIE, or null for all categories
+     * @param awardDay the award day, normally today's award day
+     * @return the earliest award day after awardDay, or Award.AWARD_DAY_UNKNOWN if there is none
+     */
+    @Override
+    public synchronized int selectNextAwardDay(@Nullable final String category,
+                                               final int awardDay) {
+        int nextAwardDay = Integer.MAX_VALUE;
+        for (Award award : mAwards.values()) {
+            int day = award.getAwardDay();
+            if (day > awardDay && day < nextAwardDay && isWidgetAward(award, category)) {
+                nextAwardDay = day;
+            }
+        }
+        return nextAwardDay == Integer.MAX_VALUE ? Award.AWARD_DAY_UNKNOWN : nextAwardDay;
+    }
+
+    /**
+     * Returns whether an award can be displayed in the widgets for a category, i.e. whether
+     * it is in the category and its movie is in the database.
+     * @param award the award
+     * @param category the award category, e.g. Award.CATEGORY_MOVIE, or null for all categories
+     * @return whether the award can be displayed in the widgets for the category
+     */
+    private boolean isWidgetAward(@NonNull final Award award, @Nullable final String category) {
+        return (category == null || category.equals(award.getCategory()))
+                && mMovies.containsKey(award.getMovieId());
+    }
+
+    //---------------------------------------------------------------------
+    // View award sort index
+
+    /**
+     * A list of view awards sorted in ascending order by a sort column, then by the
+     * tie-breaker and id, as by the view award comparator for the column, which is kept
+     * sorted as view awards are added and removed, so that each page of a keyset-paged
+     * query can be found by walking it from the keyset position in either direction.
+     */
+    private static final class ViewAwardSortIndex {
+        /** The column by which the view awards are sorted. */
+        private final String mSortColumn;
+        /** The comparator which orders the view awards. */
+        private final Comparator<ViewAward> mComparator;
+        /** The sorted view awards. */
+        private final List<ViewAward> mViewAwards;
+
+        /**
+         * Constructor.
+         * @param sortColumn the column by which the view awards are sorted, e.g. "title"
+         * @param viewAwards the view awards, in any order
+         */
+        ViewAwardSortIndex(@NonNull String sortColumn, @NonNull List<ViewAward> viewAwards) {
+            mSortColumn = sortColumn;
+            mComparator = getViewAwardComparator(sortColumn);
+            mViewAwards = new ArrayList<>(viewAwards);
+            Collections.sort(mViewAwards, mComparator);
+        }
+
+        int size() {
+            return mViewAwards.size();
+        }
+
+        @NonNull
+        ViewAward get(int position) {
+            return mViewAwards.get(position);
+        }
+
+        /**
+         * Adds a view award at its sorted position, replacing any equal view award.
+         * @param viewAward the view award
+         */
+        void add(@NonNull ViewAward viewAward) {
+            int position = Collections.binarySearch(mViewAwards, viewAward, mComparator);
+            if (position >= 0) {
+                mViewAwards.set(position, viewAward);
+            } else {
+                mViewAwards.add(-position - 1, viewAward);
+            }
+        }
+
+        /**
+         * Removes a view award, if it is in the index.
+         * @param viewAward a view award equal, by the comparator, to the one to be removed
+         */
+        void remove(@NonNull ViewAward viewAward) {
+            int position = Collections.binarySearch(mViewAwards, viewAward, mComparator);
+            if (position >= 0) {
+                mViewAwards.remove(position);
+            }
+        }
+
+        /**
+         * Returns the position of the first view award after a keyset position, in the
+         * direction of the walk.
+         * The position is found by binary search on the full key by which the list is sorted,
+         * i.e. the sort key, then the tie-breaker, then the id, so that no view award
+         * with the same sort key as the keyset is skipped, even if the view award identified
+         * by the keyset has since been deleted.
+         * @param afterSortKey the sort key of the last row of the previous page,
+         *                     or null for the first page
+         * @param afterTieBreaker the tie-breaker of the last row of the previous page,
+         *                        or null for the first page
+         * @param afterId the id of the last row of the previous page, or null for the first page
+         * @param ascending whether the walk is in ascending order
+         * @return the position of the first view award after the keyset position, which is
+         *     -1 or size() if there is none
+         */
+        int getPositionAfter(@Nullable String afterSortKey, @Nullable String afterTieBreaker,
+                             @Nullable String afterId, boolean ascending) {
+            if (afterSortKey == null || afterTieBreaker == null || afterId == null) {
+                return ascending ? 0 : mViewAwards.size() - 1;
+            }
+            // Find the first view award which sorts after the keyset, or, for a descending
+            // walk, the first which does not sort before it, which follows the position
+            int low = 0;
+            int high = mViewAwards.size();
+            try {
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    int comparison = compareToKeyset(mViewAwards.get(mid),
+                            afterSortKey, afterTieBreaker, afterId);
+                    if (ascending ? comparison > 0 : comparison >= 0) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                Timber.w("getPositionAfter: invalid sort key: " + afterSortKey);
+                return ascending ? mViewAwards.size() : -1;
+            }
+            return ascending ? low : low - 1;
+        }
+
+        /**
+         * Returns the sort key of a view award, i.e. its value in the sort column.
+         * @param viewAward the view award
+         * @return the sort key of the view award
+         */
+        @NonNull
+        private String getSortKey(@NonNull ViewAward viewAward) {
+            switch (mSortColumn) {
+                case DataContract.ViewAwardEntry.COLUMN_TITLE:
+                    return viewAward.getTitle();
+                case DataContract.ViewAwardEntry.COLUMN_RUNTIME:
+                    return Integer.toString(viewAward.getRuntime());
+                default:
+                    return viewAward.getAwardDate();
+            }
+        }
+
+        /**
+         * Returns the tie-breaker of a view award, i.e. its value in the column by which
+         * the view award comparator for the sort column orders view awards with the same
+         * sort key, as described by DataContract.ViewAwardEntry.getTieBreakerColumnIndex(...).
+         * @param viewAward the view award
+         * @return the tie-breaker of the view award
+         */
+        @NonNull
+        private String getTieBreaker(@NonNull ViewAward viewAward) {
+            switch (mSortColumn) {
+                case DataContract.ViewAwardEntry.COLUMN_TITLE:
+                    return viewAward.getImdbId();
+                case DataContract.ViewAwardEntry.COLUMN_RUNTIME:
+                    return viewAward.getTitle();
+                default:
+                    return viewAward.getCategory();
+            }
+        }
+
+        /**
+         * Compares a view award with a keyset, in ascending order, i.e. by sort key,
+         * then by tie-breaker, then by id, as the view award comparators do.
+         * @param viewAward the view award
+         * @param sortKey the sort key of the keyset
+         * @param tieBreaker the tie-breaker of the keyset
+         * @param id the id of the keyset
+         * @return a negative number, zero or a positive number as the view award
+         *     sorts before, equal to or after the keyset
+         * @throws NumberFormatException if the list is sorted by runtime and sortKey
+         *     is not an integer, or the list is sorted by award date and sortKey
+         *     is not an award date
+         */
+        private int compareToKeyset(@NonNull ViewAward viewAward, @NonNull String sortKey,
+                                    @NonNull String tieBreaker, @NonNull String id) {
+            int comparison;
+            if (DataContract.ViewAwardEntry.COLUMN_RUNTIME.equals(mSortColumn)) {
+                int runtime = Integer.parseInt(sortKey);
+                comparison = viewAward.getRuntime() < runtime ? -1
+                        : (viewAward.getRuntime() == runtime ? 0 : 1);
+            } else if (DataContract.ViewAwardEntry.COLUMN_AWARD_DATE.equals(mSortColumn)) {
+                int awardDay = ModelUtils.toAwardDay(sortKey);
+                if (awardDay == Award.AWARD_DAY_UNKNOWN) {
+                    throw new NumberFormatException("Invalid award date: " + sortKey);
+                }
+                comparison = viewAward.getAwardDay() < awardDay ? -1
+                        : (viewAward.getAwardDay() == awardDay ? 0 : 1);
+            } else {
+                comparison = getSortKey(viewAward).compareTo(sortKey);
+            }
+            if (comparison == 0) {
+                comparison = getTieBreaker(viewAward).compareTo(tieBreaker);
+            }
+            if (comparison == 0) {
+                comparison = viewAward.getId().compareTo(id);
+            }
+            return comparison;
+        }
+    }
+
     //---------------------------------------------------------------------
     // Utility methods
 
@@ -829,4 +1565,16 @@ public final class LocalDatabaseInMemory implements LocalDatabase {
         return sortAscendingDefault;
     }
 
+    //---------------------------------------------------------------------
+    // Getters
+
+    /**
+     * Convenience method which returns the query statistics.
+     * @return the query statistics
+     */
+    @NonNull
+    private static QueryStats getQueryStats() {
+        return QueryStats.getInstance();
+    }
+
 }
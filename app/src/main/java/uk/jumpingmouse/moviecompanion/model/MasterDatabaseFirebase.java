@@ -24,7 +24,7 @@ import uk.jumpingmouse.moviecompanion.data.Movie;
 import uk.jumpingmouse.moviecompanion.data.UserMovie;
 import uk.jumpingmouse.moviecompanion.security.SecurityManager;
 import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
-import uk.jumpingmouse.moviecompanion.widget.WidgetProviderBase;
+import uk.jumpingmouse.moviecompanion.widget.WidgetRefreshScheduler;
 
 /**
  * Superclass for helper classes for accessing the Firebase Realtime Database.
@@ -515,11 +515,12 @@ abstract class MasterDatabaseFirebase implements MasterDatabase {
     }
 
     /**
-     * Updates the content displayed by the widgets.
+     * Requests an update of the content displayed by the widgets.
+     * The update is debounced, so a burst of database events results in a single update.
      * @param context the context
      */
     private void updateWidgets(@NonNull Context context) {
-        WidgetProviderBase.updateWidgets(context);
+        getWidgetRefreshScheduler().requestRefresh(context);
     }
 
     //---------------------------------------------------------------------
@@ -616,4 +617,13 @@ abstract class MasterDatabaseFirebase implements MasterDatabase {
         return ObjectFactory.getViewUtils();
     }
 
+    /**
+     * Convenience method which returns a reference to the widget refresh scheduler.
+     * @return a reference to the widget refresh scheduler
+     */
+    @NonNull
+    private static WidgetRefreshScheduler getWidgetRefreshScheduler() {
+        return ObjectFactory.getWidgetRefreshScheduler();
+    }
+
 }
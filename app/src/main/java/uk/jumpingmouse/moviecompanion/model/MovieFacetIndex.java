@@ -0,0 +1,245 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.data.Movie;
+
+/**
+ * The index of the movies by the values of their language, country and certificate
+ * CSV fields, e.g. the language "EN", the country "GB" or the certificate "GB:15".
+ * Each distinct value of a facet is dictionary-encoded as a small int code, and each movie
+ * is given a small int ordinal, so that the movies with a value are held as a bitset of
+ * ordinals, rather than the value being held as a string and split for each movie.
+ * Selecting the movies with values of several facets is then an AND of their bitsets.
+ * Values are compared ignoring case, and each is held once, in upper case.
+ * The index is maintained whenever a movie is added or deleted.
+ * @author Edmund Johnson
+ */
+final class MovieFacetIndex {
+
+    /** The dictionary of each facet, keyed by facet column, e.g. "country". */
+    private final Map<String, Dictionary> mDictionaries = new HashMap<>();
+
+    /** The ordinal of each movie, keyed by movie id. */
+    private final Map<String, Integer> mOrdinalsByMovieId = new HashMap<>();
+    /** The id of the movie with each ordinal, or null if the ordinal is not in use. */
+    private final List<String> mMovieIdsByOrdinal = new ArrayList<>();
+    /** The ordinals which are in use, so that the ordinals of deleted movies are reused. */
+    private final BitSet mOrdinalsInUse = new BitSet();
+
+    /**
+     * Constructor.
+     */
+    MovieFacetIndex() {
+        for (String facet : ViewAwardSelection.FACET_COLUMNS) {
+            mDictionaries.put(facet, new Dictionary());
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Modification methods
+
+    /**
+     * Adds the facet values of a movie to the index, replacing those of any
+     * previous version of the movie.
+     * @param movie the movie
+     */
+    synchronized void addMovie(@NonNull Movie movie) {
+        Integer ordinal = mOrdinalsByMovieId.get(movie.getId());
+        if (ordinal == null) {
+            ordinal = mOrdinalsInUse.nextClearBit(0);
+            mOrdinalsInUse.set(ordinal);
+            mOrdinalsByMovieId.put(movie.getId(), ordinal);
+            if (ordinal == mMovieIdsByOrdinal.size()) {
+                mMovieIdsByOrdinal.add(movie.getId());
+            } else {
+                mMovieIdsByOrdinal.set(ordinal, movie.getId());
+            }
+        } else {
+            clearOrdinal(ordinal);
+        }
+
+        mDictionaries.get(DataContract.ViewAwardEntry.COLUMN_LANGUAGE)
+                .add(ordinal, movie.getLanguage());
+        mDictionaries.get(DataContract.ViewAwardEntry.COLUMN_COUNTRY)
+                .add(ordinal, movie.getCountry());
+        mDictionaries.get(DataContract.ViewAwardEntry.COLUMN_CERTIFICATE)
+                .add(ordinal, movie.getCertificate());
+    }
+
+    /**
+     * Removes a movie from the index.
+     * @param movieId the id of the movie
+     */
+    synchronized void removeMovie(@NonNull String movieId) {
+        Integer ordinal = mOrdinalsByMovieId.remove(movieId);
+        if (ordinal != null) {
+            clearOrdinal(ordinal);
+            mMovieIdsByOrdinal.set(ordinal, null);
+            mOrdinalsInUse.clear(ordinal);
+        }
+    }
+
+    /**
+     * Removes a movie ordinal from the bitsets of every facet value.
+     * @param ordinal the movie ordinal
+     */
+    private void clearOrdinal(int ordinal) {
+        for (Dictionary dictionary : mDictionaries.values()) {
+            dictionary.clear(ordinal);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Query methods
+
+    /**
+     * Returns the movies which have all of a set of facet values.
+     * @param facetValues the facet values, keyed by facet column, e.g. "country" maps to "GB"
+     * @return the ordinals of the movies which have all the facet values
+     * @throws IllegalArgumentException if a facet column is not a facet of the index
+     */
+    @NonNull
+    synchronized BitSet selectMovies(@NonNull Map<String, String> facetValues) {
+        BitSet movies = (BitSet) mOrdinalsInUse.clone();
+        for (Map.Entry<String, String> facetValue : facetValues.entrySet()) {
+            Dictionary dictionary = mDictionaries.get(facetValue.getKey());
+            if (dictionary == null) {
+                throw new IllegalArgumentException("Unknown facet: " + facetValue.getKey());
+            }
+            BitSet valueMovies = dictionary.getMovies(facetValue.getValue());
+            if (valueMovies == null) {
+                movies.clear();
+                break;
+            }
+            movies.and(valueMovies);
+        }
+        return movies;
+    }
+
+    /**
+     * Returns whether a movie is in a set of movies returned by {@link #selectMovies(Map)}.
+     * @param movies the ordinals of the movies
+     * @param movieId the id of the movie
+     * @return true if the movie is in the set of movies, false otherwise
+     */
+    synchronized boolean contains(@NonNull BitSet movies, @NonNull String movieId) {
+        Integer ordinal = mOrdinalsByMovieId.get(movieId);
+        return ordinal != null && movies.get(ordinal);
+    }
+
+    /**
+     * Returns the ids of a set of movies returned by {@link #selectMovies(Map)}.
+     * @param movies the ordinals of the movies
+     * @return the ids of the movies, in ordinal order
+     */
+    @NonNull
+    synchronized List<String> getMovieIds(@NonNull BitSet movies) {
+        List<String> movieIds = new ArrayList<>(movies.cardinality());
+        for (int ordinal = movies.nextSetBit(0); ordinal >= 0;
+                ordinal = movies.nextSetBit(ordinal + 1)) {
+            if (ordinal < mMovieIdsByOrdinal.size() && mMovieIdsByOrdinal.get(ordinal) != null) {
+                movieIds.add(mMovieIdsByOrdinal.get(ordinal));
+            }
+        }
+        return movieIds;
+    }
+
+    /**
+     * Returns the number of distinct values of a facet.
+     * @param facet the facet column, e.g. "country"
+     * @return the number of distinct values of the facet
+     */
+    synchronized int getValueCount(@NonNull String facet) {
+        Dictionary dictionary = mDictionaries.get(facet);
+        return dictionary == null ? 0 : dictionary.size();
+    }
+
+    //---------------------------------------------------------------------
+    // Dictionary
+
+    /**
+     * The dictionary of the distinct values of a facet, which encodes each value as
+     * an int code, with the bitset of the ordinals of the movies which have the value.
+     * Codes are never reused, as a facet has few distinct values.
+     */
+    private static final class Dictionary {
+        /** The code of each value, keyed by value. */
+        private final Map<String, Integer> mCodes = new HashMap<>();
+        /** The ordinals of the movies which have each value, by code. */
+        private final List<BitSet> mMoviesByCode = new ArrayList<>();
+
+        /**
+         * Adds the values of a facet CSV field of a movie to the dictionary.
+         * @param ordinal the movie ordinal
+         * @param csv the facet CSV field, e.g. "GB,FR"
+         */
+        void add(int ordinal, @Nullable String csv) {
+            if (csv == null) {
+                return;
+            }
+            for (String value : csv.split(",")) {
+                value = toDictionaryValue(value);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                Integer code = mCodes.get(value);
+                if (code == null) {
+                    code = mMoviesByCode.size();
+                    mCodes.put(value, code);
+                    mMoviesByCode.add(new BitSet());
+                }
+                mMoviesByCode.get(code).set(ordinal);
+            }
+        }
+
+        /**
+         * Removes a movie ordinal from the bitset of every value.
+         * @param ordinal the movie ordinal
+         */
+        void clear(int ordinal) {
+            for (BitSet movies : mMoviesByCode) {
+                movies.clear(ordinal);
+            }
+        }
+
+        /**
+         * Returns the ordinals of the movies which have a value.
+         * @param value the value, e.g. "GB"
+         * @return the ordinals of the movies which have the value, or null if no movie
+         *     has ever had the value
+         */
+        @Nullable
+        BitSet getMovies(@NonNull String value) {
+            Integer code = mCodes.get(toDictionaryValue(value));
+            return code == null ? null : mMoviesByCode.get(code);
+        }
+
+        /**
+         * Returns the number of distinct values in the dictionary.
+         * @return the number of distinct values in the dictionary
+         */
+        int size() {
+            return mCodes.size();
+        }
+
+        /**
+         * Returns the form in which a value is held in the dictionary.
+         * @param value the value, e.g. " en"
+         * @return the value, trimmed and in upper case, e.g. "EN"
+         */
+        @NonNull
+        private static String toDictionaryValue(@NonNull String value) {
+            return value.trim().toUpperCase(Locale.ROOT);
+        }
+    }
+
+}
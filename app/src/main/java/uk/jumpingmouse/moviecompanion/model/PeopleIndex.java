@@ -0,0 +1,140 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uk.jumpingmouse.moviecompanion.data.Movie;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+import uk.jumpingmouse.moviecompanion.utils.StringPool;
+
+/**
+ * The index of the movies featuring each person, i.e. each director, screenwriter
+ * and cast member, so that the movies featuring a person can be found by a lookup
+ * rather than by splitting the director, screenplay and cast of every movie.
+ * People are keyed by {@link ModelUtils#toPersonKey(String)}, so that a person is found
+ * however their name is written. Each key is interned through the string pool shared
+ * with the movies and awards, so it is held once however many movies feature the person.
+ * The index is maintained whenever a movie is added or deleted.
+ * @author Edmund Johnson
+ */
+final class PeopleIndex {
+
+    /** The ids of the movies featuring each person, keyed by person key. */
+    private final Map<String, Set<String>> mMovieIdsByPersonKey = new HashMap<>();
+    /** The pool through which the person keys are interned. */
+    private final StringPool mStringPool;
+    /**
+     * The keys of the people featured in each movie, keyed by movie id.
+     * These are used to remove a movie from the index when it is updated or deleted.
+     */
+    private final Map<String, List<String>> mPersonKeysByMovieId = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param stringPool the pool through which the person keys are interned
+     */
+    PeopleIndex(@NonNull StringPool stringPool) {
+        mStringPool = stringPool;
+    }
+
+    //---------------------------------------------------------------------
+    // Modification methods
+
+    /**
+     * Adds the people featured in a movie to the index, replacing those of any
+     * previous version of the movie.
+     * @param movie the movie
+     */
+    synchronized void addMovie(@NonNull Movie movie) {
+        String movieId = movie.getId();
+        removeMovie(movieId);
+
+        Set<String> personKeys = new HashSet<>();
+        addPersonKeys(personKeys, movie.getDirector());
+        addPersonKeys(personKeys, movie.getScreenplay());
+        addPersonKeys(personKeys, movie.getCast());
+        if (personKeys.isEmpty()) {
+            return;
+        }
+
+        List<String> internedPersonKeys = new ArrayList<>(personKeys.size());
+        for (String personKey : personKeys) {
+            String internedPersonKey = mStringPool.intern(personKey);
+            Set<String> movieIds = mMovieIdsByPersonKey.get(internedPersonKey);
+            if (movieIds == null) {
+                movieIds = new HashSet<>();
+                mMovieIdsByPersonKey.put(internedPersonKey, movieIds);
+            }
+            movieIds.add(movieId);
+            internedPersonKeys.add(internedPersonKey);
+        }
+        mPersonKeysByMovieId.put(movieId, internedPersonKeys);
+    }
+
+    /**
+     * Removes the people featured in a movie from the index.
+     * People who are not featured in any other movie are removed altogether.
+     * @param movieId the id of the movie
+     */
+    synchronized void removeMovie(@NonNull String movieId) {
+        List<String> personKeys = mPersonKeysByMovieId.remove(movieId);
+        if (personKeys == null) {
+            return;
+        }
+        for (String personKey : personKeys) {
+            Set<String> movieIds = mMovieIdsByPersonKey.get(personKey);
+            if (movieIds != null) {
+                movieIds.remove(movieId);
+                if (movieIds.isEmpty()) {
+                    mMovieIdsByPersonKey.remove(personKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the keys of the people in a CSV string of people to a set.
+     * @param personKeys the set of person keys
+     * @param personCsv a CSV string of people, e.g. "Amy Adams, Jeremy Renner"
+     */
+    private static void addPersonKeys(@NonNull Set<String> personKeys,
+                                      @Nullable String personCsv) {
+        for (String personName : ModelUtils.toPersonNames(personCsv)) {
+            personKeys.add(ModelUtils.toPersonKey(personName));
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Query methods
+
+    /**
+     * Returns the ids of the movies featuring a person.
+     * @param personName the person's name, e.g. "Amy Adams"
+     * @return the ids of the movies featuring the person, in no particular order
+     */
+    @NonNull
+    synchronized List<String> selectMovieIds(@NonNull String personName) {
+        Set<String> movieIds = mMovieIdsByPersonKey.get(ModelUtils.toPersonKey(personName));
+        if (movieIds == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(movieIds);
+    }
+
+    /**
+     * Returns the number of people in the index.
+     * @return the number of people in the index
+     */
+    synchronized int size() {
+        return mMovieIdsByPersonKey.size();
+    }
+
+}
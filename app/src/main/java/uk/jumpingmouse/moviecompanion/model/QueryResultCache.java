@@ -0,0 +1,250 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.data.ViewAward;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+
+/**
+ * A cache of the results of content provider queries.
+ * Results are keyed by the query URI, projection, selection, selection args and sort order;
+ * since the limit is passed as a selection arg or URI parameter, it is part of the key too.
+ * Each result is stamped with the local database's data version when it was queried,
+ * and is discarded when it is found to be older than the current data version.
+ * A view award result is cached as the list of view awards which its cursor reads, so its
+ * rows are not copied; other results are copied, unless they are too large to be worth
+ * holding.
+ * @author Edmund Johnson
+ */
+public final class QueryResultCache {
+    /** The singleton instance of this class. */
+    private static QueryResultCache sQueryResultCache = null;
+
+    /** The maximum number of query results held in the cache. */
+    private static final int MAX_ENTRIES = 16;
+    /** The maximum number of rows in a result whose rows are copied into the cache. */
+    private static final int MAX_COPIED_ROWS = 200;
+
+    /** The cached query results, in least-recently-used order. */
+    private final Map<String, Entry> mEntries;
+
+    // Statistics
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    //---------------------------------------------------------------------
+    // Instance handling methods
+
+    /**
+     * Returns an instance of this class.
+     * @return an instance of this class
+     */
+    @NonNull
+    public static QueryResultCache getInstance() {
+        if (sQueryResultCache == null) {
+            sQueryResultCache = new QueryResultCache();
+        }
+        return sQueryResultCache;
+    }
+
+    /** Private default constructor to prevent instantiation from outside this class. */
+    private QueryResultCache() {
+        mEntries = new LinkedHashMap<String, Entry>(MAX_ENTRIES * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > MAX_ENTRIES) {
+                    mEvictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //---------------------------------------------------------------------
+    // Cache methods
+
+    /**
+     * Returns the key for a query.
+     * @param uri the query URI
+     * @param projection the projection
+     * @param selection the selection
+     * @param selectionArgs the selection args
+     * @param sortOrder the sort order
+     * @return the key for the query
+     */
+    @NonNull
+    static String getKey(@NonNull final Uri uri, @Nullable final String[] projection,
+                         @Nullable final String selection, @Nullable final String[] selectionArgs,
+                         @Nullable final String sortOrder) {
+        return uri + "|" + Arrays.toString(projection) + "|" + selection
+                + "|" + Arrays.toString(selectionArgs) + "|" + sortOrder;
+    }
+
+    /**
+     * Returns a new cursor containing the cached result for a query, if there is a cached
+     * result which is up to date.
+     * @param key the key for the query
+     * @param dataVersion the current data version of the local database
+     * @return a new cursor containing the cached result, or null if there is no cached result
+     *     for the data version
+     */
+    @Nullable
+    synchronized Cursor get(@NonNull final String key, final long dataVersion) {
+        Entry entry = mEntries.get(key);
+        if (entry != null && entry.mDataVersion != dataVersion) {
+            // The data has been modified since the result was cached
+            mEntries.remove(key);
+            mEvictionCount++;
+            entry = null;
+        }
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        if (entry.mViewAwards != null) {
+            return new ViewAwardCursor(entry.mViewAwards);
+        }
+        MatrixCursor cursor = new MatrixCursor(entry.mColumnNames, entry.mRows.size());
+        for (Object[] row : entry.mRows) {
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    /**
+     * Adds the result of a query to the cache.
+     * If the cursor is a view award cursor, its list of view awards is cached, which is safe
+     * because the list is not modified once it has been queried. Otherwise the rows of the
+     * cursor are copied, and the cursor is left positioned before the first row; a result with
+     * more than MAX_COPIED_ROWS rows is not cached.
+     * @param key the key for the query
+     * @param dataVersion the data version of the local database when the query was started
+     * @param cursor the cursor containing the query result
+     */
+    synchronized void put(@NonNull final String key, final long dataVersion,
+                          @NonNull final Cursor cursor) {
+        if (cursor instanceof ViewAwardCursor) {
+            mEntries.put(key, new Entry(dataVersion, ((ViewAwardCursor) cursor).getViewAwards()));
+            return;
+        }
+        if (cursor.getCount() > MAX_COPIED_ROWS) {
+            // Remove any previous result, which is no longer up to date
+            mEntries.remove(key);
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(cursor.getCount());
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext()) {
+            rows.add(ModelUtils.getRowValues(cursor));
+        }
+        cursor.moveToPosition(-1);
+        mEntries.put(key, new Entry(dataVersion, cursor.getColumnNames(), rows));
+    }
+
+    /**
+     * Removes all the results which are older than a data version.
+     * @param dataVersion the current data version of the local database
+     */
+    synchronized void evictStale(final long dataVersion) {
+        Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().mDataVersion != dataVersion) {
+                iterator.remove();
+                mEvictionCount++;
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Statistics
+
+    /**
+     * Returns the number of queries which were answered from the cache.
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of queries which were not answered from the cache.
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of results removed from the cache, either because the cache was full
+     * or because the data had been modified since the result was cached.
+     * @return the number of cache evictions
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "QueryResultCache{"
+                + "size=" + mEntries.size()
+                + ", hits=" + mHitCount
+                + ", misses=" + mMissCount
+                + ", evictions=" + mEvictionCount
+                + "}";
+    }
+
+    //---------------------------------------------------------------------
+    // Cache entry
+
+    /**
+     * A cached query result.
+     */
+    private static final class Entry {
+        /** The data version of the local database when the query was started. */
+        private final long mDataVersion;
+        /** The view awards read by the result cursor, or null if the rows were copied. */
+        private final List<ViewAward> mViewAwards;
+        private final String[] mColumnNames;
+        private final List<Object[]> mRows;
+
+        /**
+         * Constructor for a view award result, which is not copied.
+         * @param dataVersion the data version of the local database when the query was started
+         * @param viewAwards the view awards read by the result cursor
+         */
+        Entry(long dataVersion, @NonNull List<ViewAward> viewAwards) {
+            mDataVersion = dataVersion;
+            mViewAwards = viewAwards;
+            mColumnNames = null;
+            mRows = null;
+        }
+
+        /**
+         * Constructor for a result whose rows were copied.
+         * @param dataVersion the data version of the local database when the query was started
+         * @param columnNames the column names of the result
+         * @param rows the copied rows of the result
+         */
+        Entry(long dataVersion, @NonNull String[] columnNames, @NonNull List<Object[]> rows) {
+            mDataVersion = dataVersion;
+            mViewAwards = null;
+            mColumnNames = columnNames;
+            mRows = rows;
+        }
+    }
+
+}
@@ -0,0 +1,218 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.support.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Statistics for the stages of view award list queries.
+ * The elapsed time of each stage of each query is accumulated in a per-stage histogram,
+ * whose buckets are powers of two of nanoseconds. The histograms can be dumped as text,
+ * e.g. for display on a debug screen.
+ * @author Edmund Johnson
+ */
+public final class QueryStats {
+    /** The singleton instance of this class. */
+    private static QueryStats sQueryStats = null;
+
+    // The stages of a view award list query, in the order in which they are performed
+    static final int STAGE_GENERATE = 0;
+    static final int STAGE_FILTER = STAGE_GENERATE + 1;
+    static final int STAGE_SORT = STAGE_FILTER + 1;
+    static final int STAGE_LIMIT = STAGE_SORT + 1;
+    static final int STAGE_TO_CURSOR = STAGE_LIMIT + 1;
+
+    /** The names of the stages, indexed by stage. */
+    private static final String[] STAGE_NAMES = {
+            "generateViewAwardList",
+            "applyFilter",
+            "applySort",
+            "applyLimit",
+            "toCursorViewAwards"
+    };
+
+    /** The name of the first row of an explain cursor, which describes the query plan. */
+    private static final String PLAN = "plan";
+
+    /** The number of histogram buckets; bucket n counts times in the range [2^n, 2^(n+1)) ns. */
+    private static final int BUCKET_COUNT = 40;
+
+    /** The histograms, indexed by stage and bucket. */
+    private final long[][] mHistograms = new long[STAGE_NAMES.length][BUCKET_COUNT];
+    /** The total elapsed time of each stage, in nanoseconds. */
+    private final long[] mTotalNanos = new long[STAGE_NAMES.length];
+    /** The maximum elapsed time of each stage, in nanoseconds. */
+    private final long[] mMaxNanos = new long[STAGE_NAMES.length];
+    /** The number of queries recorded. */
+    private long mQueryCount;
+
+    //---------------------------------------------------------------------
+    // Instance handling methods
+
+    /**
+     * Returns an instance of this class.
+     * @return an instance of this class
+     */
+    @NonNull
+    public static QueryStats getInstance() {
+        if (sQueryStats == null) {
+            sQueryStats = new QueryStats();
+        }
+        return sQueryStats;
+    }
+
+    /** Private default constructor to prevent instantiation from outside this class. */
+    private QueryStats() {
+    }
+
+    //---------------------------------------------------------------------
+    // Recording methods
+
+    /**
+     * Adds the stage timings of a query to the histograms.
+     * @param trace the trace of the query
+     */
+    synchronized void record(@NonNull final Trace trace) {
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            long nanos = trace.mNanos[stage];
+            mHistograms[stage][getBucket(nanos)]++;
+            mTotalNanos[stage] += nanos;
+            if (nanos > mMaxNanos[stage]) {
+                mMaxNanos[stage] = nanos;
+            }
+        }
+        mQueryCount++;
+    }
+
+    /**
+     * Discards all recorded statistics.
+     */
+    public synchronized void reset() {
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                mHistograms[stage][bucket] = 0;
+            }
+            mTotalNanos[stage] = 0;
+            mMaxNanos[stage] = 0;
+        }
+        mQueryCount = 0;
+    }
+
+    /**
+     * Returns a text representation of the histograms, containing the mean and maximum time
+     * of each stage followed by its non-empty buckets, e.g.
+     * "applySort: mean 412us, max 1.9ms; &lt;512us: 7, &lt;1ms: 2, &lt;2ms: 1".
+     * @return a text representation of the histograms
+     */
+    @NonNull
+    public synchronized String dump() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Queries: ").append(mQueryCount).append('\n');
+        if (mQueryCount == 0) {
+            return builder.toString();
+        }
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            builder.append('\n').append(STAGE_NAMES[stage])
+                    .append(": mean ").append(formatNanos(mTotalNanos[stage] / mQueryCount))
+                    .append(", max ").append(formatNanos(mMaxNanos[stage]))
+                    .append(';');
+            String separator = " ";
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                long count = mHistograms[stage][bucket];
+                if (count > 0) {
+                    builder.append(separator)
+                            .append('<').append(formatNanos(1L << (bucket + 1)))
+                            .append(": ").append(count);
+                    separator = ", ";
+                }
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    //---------------------------------------------------------------------
+    // Utility methods
+
+    /**
+     * Returns the histogram bucket for an elapsed time.
+     * @param nanos the elapsed time in nanoseconds
+     * @return the histogram bucket for the elapsed time
+     */
+    private static int getBucket(final long nanos) {
+        if (nanos <= 1) {
+            return 0;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(nanos);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Returns an elapsed time formatted for display, e.g. "512ns", "1.9ms".
+     * @param nanos the elapsed time in nanoseconds
+     * @return the formatted elapsed time
+     */
+    @NonNull
+    private static String formatNanos(final long nanos) {
+        if (nanos < 1000L) {
+            return nanos + "ns";
+        } else if (nanos < 1000000L) {
+            return String.format(Locale.UK, "%.3gus", nanos / 1e3);
+        } else if (nanos < 1000000000L) {
+            return String.format(Locale.UK, "%.3gms", nanos / 1e6);
+        } else {
+            return String.format(Locale.UK, "%.3gs", nanos / 1e9);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Query trace
+
+    /**
+     * The row count and elapsed time of each stage of a single view award list query.
+     * A trace is used by a single thread, so it is not synchronized.
+     */
+    static final class Trace {
+        private final int[] mRows = new int[STAGE_NAMES.length];
+        private final long[] mNanos = new long[STAGE_NAMES.length];
+        private long mStageStartNanos;
+
+        /** Constructor, which starts the timing of the first stage. */
+        Trace() {
+            mStageStartNanos = System.nanoTime();
+        }
+
+        /**
+         * Records the end of a stage, and starts the timing of the next stage.
+         * @param stage the stage which has ended, e.g. STAGE_SORT
+         * @param rowCount the number of rows remaining after the stage
+         */
+        void endStage(final int stage, final int rowCount) {
+            long now = System.nanoTime();
+            mRows[stage] = rowCount;
+            mNanos[stage] = now - mStageStartNanos;
+            mStageStartNanos = now;
+        }
+
+        /**
+         * Returns an explain cursor for the traced query.
+         * The first row describes the query plan, each subsequent row contains the name,
+         * row count and elapsed time of one stage.
+         * @param plan a description of the query plan
+         * @return an explain cursor for the traced query
+         */
+        @NonNull
+        Cursor toExplainCursor(@NonNull final String plan) {
+            MatrixCursor cursor = new MatrixCursor(DataContract.ViewAwardEntry.getExplainColumns(),
+                    STAGE_NAMES.length + 1);
+            cursor.addRow(new Object[] {PLAN, null, null, plan});
+            for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+                cursor.addRow(new Object[] {STAGE_NAMES[stage], mRows[stage], mNanos[stage], null});
+            }
+            return cursor;
+        }
+    }
+
+}
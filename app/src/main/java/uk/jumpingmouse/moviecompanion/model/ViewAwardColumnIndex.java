@@ -0,0 +1,213 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.data.Award;
+import uk.jumpingmouse.moviecompanion.data.Movie;
+
+/**
+ * A sorted index of the awards by a numeric view award column whose value comes from
+ * the movie, e.g. runtime, so that the awards in a range of values of the column can be
+ * found by binary search, rather than by generating and testing the view award of every award.
+ * The values and awards are held in parallel arrays, sorted by value.
+ * An index is built from a snapshot of the awards and movies, so it must be rebuilt
+ * whenever they are modified.
+ * @author Edmund Johnson
+ */
+final class ViewAwardColumnIndex {
+
+    /** The view award columns which can be indexed. */
+    static final String[] INDEXABLE_COLUMNS = {
+            DataContract.ViewAwardEntry.COLUMN_RUNTIME,
+            DataContract.ViewAwardEntry.COLUMN_RELEASE_YEAR
+    };
+
+    /** The indexed column, e.g. "runtime". */
+    private final String mColumn;
+    /** The column values of the awards, in ascending order. */
+    private final int[] mValues;
+    /** The awards, in the order of their column values. */
+    private final Award[] mAwards;
+
+    /**
+     * Constructor.
+     * @param column the indexed column
+     * @param values the column values of the awards, in ascending order
+     * @param awards the awards, in the order of their column values
+     */
+    private ViewAwardColumnIndex(@NonNull String column, @NonNull int[] values,
+                                 @NonNull Award[] awards) {
+        mColumn = column;
+        mValues = values;
+        mAwards = awards;
+    }
+
+    //---------------------------------------------------------------------
+    // Building methods
+
+    /**
+     * Builds and returns the index of a column.
+     * Awards whose movie is not in the database are not indexed, as they have no view award.
+     * @param column the column, which must be indexable, e.g. "runtime"
+     * @param awards the awards
+     * @param movies the movies, keyed by movie id
+     * @return the index of the column
+     */
+    @NonNull
+    static ViewAwardColumnIndex build(@NonNull String column, @NonNull Collection<Award> awards,
+                                      @NonNull Map<String, Movie> movies) {
+        Award[] unsortedAwards = awards.toArray(new Award[awards.size()]);
+        // Each key holds the value in its high half and the award's position in its low half,
+        // so that sorting the keys sorts the positions by value, without boxing
+        long[] keys = new long[unsortedAwards.length];
+        int count = 0;
+        for (int i = 0; i < unsortedAwards.length; i++) {
+            Movie movie = movies.get(unsortedAwards[i].getMovieId());
+            if (movie != null) {
+                keys[count++] = ((long) getValue(column, movie) << 32) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] values = new int[count];
+        Award[] sortedAwards = new Award[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (int) (keys[i] >> 32);
+            sortedAwards[i] = unsortedAwards[(int) keys[i]];
+        }
+        return new ViewAwardColumnIndex(column, values, sortedAwards);
+    }
+
+    /**
+     * Returns the value of an indexable column for a movie.
+     * @param column the column, e.g. "runtime"
+     * @param movie the movie
+     * @return the value of the column for the movie
+     */
+    private static int getValue(@NonNull String column, @NonNull Movie movie) {
+        switch (column) {
+            case DataContract.ViewAwardEntry.COLUMN_RUNTIME:
+                return movie.getRuntime();
+            case DataContract.ViewAwardEntry.COLUMN_RELEASE_YEAR:
+                return movie.getReleaseYear();
+            default:
+                throw new IllegalArgumentException("Not an indexable column: " + column);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Query methods
+
+    /**
+     * Returns the awards whose column value lies within a range.
+     * @param low the lowest value of the range, inclusive
+     * @param high the highest value of the range, inclusive
+     * @return the awards whose column value lies within the range, in ascending order
+     *     of column value
+     */
+    @NonNull
+    Range getRange(long low, long high) {
+        int fromIndex = lowerBound(low);
+        int toIndex = Math.max(fromIndex, upperBound(high));
+        return new Range(low, high, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the position of the first value which is not less than a value.
+     * @param value the value
+     * @return the position of the first value which is not less than value,
+     *     or the number of values if there is none
+     */
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = mValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mValues[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first value which is greater than a value.
+     * @param value the value
+     * @return the position of the first value which is greater than value,
+     *     or the number of values if there is none
+     */
+    private int upperBound(long value) {
+        int low = 0;
+        int high = mValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The awards whose column value lies within a range, which are a contiguous
+     * run of the index.
+     */
+    final class Range {
+        private final long mLow;
+        private final long mHigh;
+        private final int mFromIndex;
+        private final int mToIndex;
+
+        /**
+         * Constructor.
+         * @param low the lowest value of the range, inclusive
+         * @param high the highest value of the range, inclusive
+         * @param fromIndex the position in the index of the first award in the range
+         * @param toIndex the position in the index after the last award in the range
+         */
+        private Range(long low, long high, int fromIndex, int toIndex) {
+            mLow = low;
+            mHigh = high;
+            mFromIndex = fromIndex;
+            mToIndex = toIndex;
+        }
+
+        /**
+         * Returns the number of awards in the range.
+         * @return the number of awards in the range
+         */
+        int size() {
+            return mToIndex - mFromIndex;
+        }
+
+        /**
+         * Returns the awards in the range.
+         * @return the awards in the range, in ascending order of column value
+         */
+        @NonNull
+        List<Award> getAwards() {
+            return Collections.unmodifiableList(
+                    Arrays.asList(mAwards).subList(mFromIndex, mToIndex));
+        }
+
+        /**
+         * Returns a description of the range, e.g. "runtime BETWEEN 0 AND 99 (42 rows)".
+         * @return a description of the range
+         */
+        @Override
+        public String toString() {
+            return mColumn + " BETWEEN " + mLow + " AND " + mHigh + " (" + size() + " rows)";
+        }
+    }
+
+}
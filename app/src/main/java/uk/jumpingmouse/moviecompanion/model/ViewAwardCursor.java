@@ -0,0 +1,194 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.database.CursorIndexOutOfBoundsException;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.List;
+
+import uk.jumpingmouse.moviecompanion.data.ViewAward;
+
+/**
+ * A cursor over a list of view awards, with the columns described by
+ * {@link DataContract.ViewAwardEntry#getAllColumns()}.
+ * The column values are read from the view awards as they are requested, rather than
+ * being copied into the cursor as they are by a MatrixCursor, so the cursor holds no
+ * more than the list itself, and no int column value is boxed.
+ * The view awards must not be modified while the cursor is in use.
+ * @author Edmund Johnson
+ */
+final class ViewAwardCursor extends AbstractCursor {
+
+    /** The view awards, in cursor order. */
+    private final List<ViewAward> mViewAwards;
+
+    /**
+     * Constructor.
+     * @param viewAwards the view awards, in cursor order
+     */
+    ViewAwardCursor(@NonNull List<ViewAward> viewAwards) {
+        mViewAwards = viewAwards;
+    }
+
+    /**
+     * Returns the view awards read by the cursor, which must not be modified.
+     * @return the view awards, in cursor order
+     */
+    @NonNull
+    List<ViewAward> getViewAwards() {
+        return mViewAwards;
+    }
+
+    //---------------------------------------------------------------------
+    // Cursor implementation
+
+    @Override
+    public int getCount() {
+        return mViewAwards.size();
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return DataContract.ViewAwardEntry.getAllColumns();
+    }
+
+    @Override
+    public String getString(int column) {
+        Object value = getValue(column);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public short getShort(int column) {
+        return (short) getLong(column);
+    }
+
+    @Override
+    public int getInt(int column) {
+        return (int) getLong(column);
+    }
+
+    @Override
+    public long getLong(int column) {
+        ViewAward viewAward = getViewAward();
+        switch (column) {
+            case DataContract.ViewAwardEntry.COL_TMDB_ID:
+                return viewAward.getTmdbId();
+            case DataContract.ViewAwardEntry.COL_DISPLAY_ORDER:
+                return viewAward.getDisplayOrder();
+            case DataContract.ViewAwardEntry.COL_RUNTIME:
+                return viewAward.getRuntime();
+            case DataContract.ViewAwardEntry.COL_ON_WISHLIST:
+                return viewAward.isOnWishlist() ? 1 : 0;
+            case DataContract.ViewAwardEntry.COL_WATCHED:
+                return viewAward.isWatched() ? 1 : 0;
+            case DataContract.ViewAwardEntry.COL_FAVOURITE:
+                return viewAward.isFavourite() ? 1 : 0;
+            case DataContract.ViewAwardEntry.COL_RELEASE_YEAR:
+                return viewAward.getReleaseYear();
+            default:
+                // As for a MatrixCursor, a string value is parsed as a number
+                String value = getString(column);
+                return value == null ? 0 : Long.parseLong(value);
+        }
+    }
+
+    @Override
+    public float getFloat(int column) {
+        return getLong(column);
+    }
+
+    @Override
+    public double getDouble(int column) {
+        return getLong(column);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return getValue(column) == null;
+    }
+
+    @Override
+    public int getType(int column) {
+        if (isIntegerColumn(column)) {
+            return Cursor.FIELD_TYPE_INTEGER;
+        }
+        return getValue(column) == null ? Cursor.FIELD_TYPE_NULL : Cursor.FIELD_TYPE_STRING;
+    }
+
+    //---------------------------------------------------------------------
+    // Column value methods
+
+    /**
+     * Returns the view award at the current position of the cursor.
+     * @return the view award at the current position
+     * @throws IllegalStateException if the cursor is not positioned at a row
+     */
+    @NonNull
+    private ViewAward getViewAward() {
+        int position = getPosition();
+        if (position < 0 || position >= mViewAwards.size()) {
+            throw new IllegalStateException("Cursor is not positioned at a row: " + position);
+        }
+        return mViewAwards.get(position);
+    }
+
+    /**
+     * Returns the value of a column of the view award at the current position of the cursor.
+     * @param column the column index, e.g. DataContract.ViewAwardEntry.COL_TITLE
+     * @return the value of the column, which is a String for a string column
+     *     and an Integer for an integer column, or null if the value is null
+     */
+    @Nullable
+    private Object getValue(int column) {
+        ViewAward viewAward = getViewAward();
+        switch (column) {
+            case DataContract.ViewAwardEntry.COL_ID:
+                return viewAward.getId();
+            case DataContract.ViewAwardEntry.COL_MOVIE_ID:
+                return viewAward.getMovieId();
+            case DataContract.ViewAwardEntry.COL_IMDB_ID:
+                return viewAward.getImdbId();
+            case DataContract.ViewAwardEntry.COL_AWARD_DATE:
+                return viewAward.getAwardDate();
+            case DataContract.ViewAwardEntry.COL_CATEGORY:
+                return viewAward.getCategory();
+            case DataContract.ViewAwardEntry.COL_REVIEW:
+                return viewAward.getReview();
+            case DataContract.ViewAwardEntry.COL_TITLE:
+                return viewAward.getTitle();
+            case DataContract.ViewAwardEntry.COL_GENRE:
+                return viewAward.getGenre();
+            case DataContract.ViewAwardEntry.COL_POSTER:
+                return viewAward.getPoster();
+            default:
+                if (isIntegerColumn(column)) {
+                    return (int) getLong(column);
+                }
+                throw new CursorIndexOutOfBoundsException("Invalid column index: " + column);
+        }
+    }
+
+    /**
+     * Returns whether a column holds integer values.
+     * @param column the column index
+     * @return true if the column holds integer values, false otherwise
+     */
+    private static boolean isIntegerColumn(int column) {
+        switch (column) {
+            case DataContract.ViewAwardEntry.COL_TMDB_ID:
+            case DataContract.ViewAwardEntry.COL_DISPLAY_ORDER:
+            case DataContract.ViewAwardEntry.COL_RUNTIME:
+            case DataContract.ViewAwardEntry.COL_ON_WISHLIST:
+            case DataContract.ViewAwardEntry.COL_WATCHED:
+            case DataContract.ViewAwardEntry.COL_FAVOURITE:
+            case DataContract.ViewAwardEntry.COL_RELEASE_YEAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
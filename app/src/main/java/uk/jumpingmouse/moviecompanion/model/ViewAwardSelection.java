@@ -0,0 +1,995 @@
+package uk.jumpingmouse.moviecompanion.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import uk.jumpingmouse.moviecompanion.data.ViewAward;
+
+/**
+ * A compiled selection for view award queries.
+ * A selection is written in a small subset of SQL over the view award columns, e.g.
+ * <blockquote><pre>
+ * {@code
+ *   category=? AND (genre IN ('18', '35') OR runtime BETWEEN 90 AND 120) AND limit=?
+ * }
+ * </pre></blockquote>
+ * The supported predicates are =, !=, &lt;&gt;, &lt;, &lt;=, &gt;, &gt;=, IN and BETWEEN,
+ * combined with AND, OR and parentheses. Values are either ?s, which are replaced by the
+ * selection args in the order they appear, string literals in single quotes or integers.
+ * The genre column holds a CSV list of genre ids, so "genre=?" selects the view awards which
+ * have the genre. "limit=?" is not a predicate: it limits the number of rows returned,
+ * and may only appear as a top-level AND term. Nor are the facet terms "language=?",
+ * "country=?" and "certificate=?", which select the movies whose CSV field contains the value:
+ * they are served from the movie facet index by the database, and may likewise only appear
+ * as top-level AND terms.
+ * Selections are parsed once and cached by selection string.
+ * @author Edmund Johnson
+ */
+final class ViewAwardSelection {
+
+    /** The maximum number of compiled selections which are cached. */
+    private static final int CACHE_SIZE_MAX = 32;
+
+    /** The cache of compiled selections, keyed by selection string. */
+    private static final Map<String, ViewAwardSelection> CACHE =
+            new LinkedHashMap<String, ViewAwardSelection>(CACHE_SIZE_MAX * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ViewAwardSelection> eldest) {
+                    return size() > CACHE_SIZE_MAX;
+                }
+            };
+
+    /** The pseudo-column used to limit the number of rows returned. */
+    private static final String LIMIT = DataContract.PARAM_LIMIT;
+
+    /** The facet columns, which are served from the movie facet index. */
+    static final String[] FACET_COLUMNS = {
+            DataContract.ViewAwardEntry.COLUMN_LANGUAGE,
+            DataContract.ViewAwardEntry.COLUMN_COUNTRY,
+            DataContract.ViewAwardEntry.COLUMN_CERTIFICATE
+    };
+
+    /** The root of the predicate tree, or null if all rows are selected. */
+    private final Node mRoot;
+    /** The limit on the number of rows returned, or null if there is no limit. */
+    private final Operand mLimit;
+    /** The values of the facet terms, keyed by facet column. */
+    private final Map<String, Operand> mFacets;
+
+    /**
+     * Constructor.
+     * @param root the root of the predicate tree, or null if all rows are selected
+     * @param limit the limit on the number of rows returned, or null if there is no limit
+     * @param facets the values of the facet terms, keyed by facet column
+     */
+    private ViewAwardSelection(@Nullable Node root, @Nullable Operand limit,
+                               @NonNull Map<String, Operand> facets) {
+        mRoot = root;
+        mLimit = limit;
+        mFacets = facets;
+    }
+
+    //---------------------------------------------------------------------
+    // Public methods
+
+    /**
+     * Returns the compiled form of a selection, parsing it if it has not been parsed before.
+     * @param selection the selection, e.g. "category=? AND onWishlist=?"
+     * @return the compiled selection
+     * @throws IllegalArgumentException if the selection is invalid
+     */
+    @NonNull
+    static ViewAwardSelection compile(@NonNull final String selection) {
+        synchronized (CACHE) {
+            ViewAwardSelection compiled = CACHE.get(selection);
+            if (compiled == null) {
+                compiled = new Parser(selection).parse();
+                CACHE.put(selection, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * Returns a predicate which tests view awards against this selection,
+     * with its ?s replaced by selection args.
+     * @param selectionArgs the selection args
+     * @return a predicate which tests view awards against this selection
+     * @throws IllegalArgumentException if there are too few selection args,
+     *     or a selection arg for a numeric column is not an integer
+     */
+    @NonNull
+    Predicate bind(@Nullable final String[] selectionArgs) {
+        if (mRoot == null) {
+            return Predicate.ALL;
+        }
+        return mRoot.bind(selectionArgs);
+    }
+
+    /**
+     * Returns the maximum number of rows to return.
+     * @param selectionArgs the selection args
+     * @return the maximum number of rows to return, or 0 if there is no limit
+     * @throws IllegalArgumentException if the limit is not an integer
+     */
+    int getLimit(@Nullable final String[] selectionArgs) {
+        if (mLimit == null) {
+            return 0;
+        }
+        return (int) mLimit.resolveLong(selectionArgs);
+    }
+
+    /**
+     * Returns the values of the facet terms of this selection, which must be served
+     * from the movie facet index, as they are not tested by the predicate.
+     * @param selectionArgs the selection args
+     * @return the values of the facet terms, keyed by facet column, e.g. "country" maps
+     *     to "GB", or an empty map if the selection has no facet terms
+     * @throws IllegalArgumentException if there are too few selection args
+     */
+    @NonNull
+    Map<String, String> getFacetValues(@Nullable final String[] selectionArgs) {
+        Map<String, String> facetValues = new LinkedHashMap<>();
+        for (Map.Entry<String, Operand> facet : mFacets.entrySet()) {
+            facetValues.put(facet.getKey(), facet.getValue().resolve(selectionArgs));
+        }
+        return facetValues;
+    }
+
+    /**
+     * Returns the range of values of a numeric column to which this selection restricts
+     * the view awards, i.e. the intersection of its top-level AND terms which compare
+     * the column with a value. Every selected view award lies within the range, so the
+     * candidate rows can be found in a sorted index of the column rather than by testing
+     * every row, and the whole selection is then applied to the candidates.
+     * @param column the numeric column, e.g. "runtime"
+     * @param selectionArgs the selection args
+     * @return the lowest and highest values of the range, inclusive, or null if no
+     *     top-level term restricts the column
+     * @throws IllegalArgumentException if a selection arg of a term on the column
+     *     is not an integer
+     */
+    @Nullable
+    long[] getRange(@NonNull final String column, @Nullable final String[] selectionArgs) {
+        int columnIndex = getColumnIndex(column);
+        if (mRoot == null || !isNumericColumn(columnIndex)) {
+            return null;
+        }
+        List<Node> terms;
+        if (mRoot instanceof LogicalNode && ((LogicalNode) mRoot).mIsAnd) {
+            terms = ((LogicalNode) mRoot).mChildren;
+        } else {
+            terms = Collections.singletonList(mRoot);
+        }
+
+        long[] range = null;
+        for (Node term : terms) {
+            long low = Long.MIN_VALUE;
+            long high = Long.MAX_VALUE;
+            if (term instanceof BetweenNode && ((BetweenNode) term).mColumnIndex == columnIndex) {
+                low = ((BetweenNode) term).mLow.resolveLong(selectionArgs);
+                high = ((BetweenNode) term).mHigh.resolveLong(selectionArgs);
+            } else if (term instanceof ComparisonNode
+                    && ((ComparisonNode) term).mColumnIndex == columnIndex) {
+                long value = ((ComparisonNode) term).mOperand.resolveLong(selectionArgs);
+                switch (((ComparisonNode) term).mOperator) {
+                    case ComparisonNode.OPERATOR_EQUALS:
+                        low = value;
+                        high = value;
+                        break;
+                    case ComparisonNode.OPERATOR_LESS:
+                        if (value == Long.MIN_VALUE) {
+                            // nothing is less than the value, so the range is empty
+                            low = Long.MAX_VALUE;
+                            high = Long.MIN_VALUE;
+                        } else {
+                            high = value - 1;
+                        }
+                        break;
+                    case ComparisonNode.OPERATOR_LESS_OR_EQUALS:
+                        high = value;
+                        break;
+                    case ComparisonNode.OPERATOR_GREATER:
+                        if (value == Long.MAX_VALUE) {
+                            // nothing is greater than the value, so the range is empty
+                            low = Long.MAX_VALUE;
+                            high = Long.MIN_VALUE;
+                        } else {
+                            low = value + 1;
+                        }
+                        break;
+                    case ComparisonNode.OPERATOR_GREATER_OR_EQUALS:
+                        low = value;
+                        break;
+                    default:
+                        // != does not restrict the column to a range
+                        continue;
+                }
+            } else {
+                continue;
+            }
+            if (range == null) {
+                range = new long[] {low, high};
+            } else {
+                range[0] = Math.max(range[0], low);
+                range[1] = Math.min(range[1], high);
+            }
+        }
+        return range;
+    }
+
+    /**
+     * A predicate which tests whether a view award is selected.
+     */
+    interface Predicate {
+        /** A predicate which selects every view award. */
+        Predicate ALL = new Predicate() {
+            @Override
+            public boolean matches(@NonNull ViewAward viewAward) {
+                return true;
+            }
+        };
+
+        /**
+         * Returns whether a view award is selected.
+         * @param viewAward the view award
+         * @return true if the view award is selected, false otherwise
+         */
+        boolean matches(@NonNull ViewAward viewAward);
+    }
+
+    //---------------------------------------------------------------------
+    // Columns
+
+    /**
+     * Returns the index of a view award column.
+     * @param column the column name, e.g. "runtime"
+     * @return the index of the column, e.g. DataContract.ViewAwardEntry.COL_RUNTIME
+     * @throws IllegalArgumentException if there is no view award column with the name
+     */
+    private static int getColumnIndex(@NonNull String column) {
+        String[] columns = DataContract.ViewAwardEntry.ALL_COLUMNS;
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown view award column: " + column);
+    }
+
+    /**
+     * Returns whether a view award column holds integer values.
+     * Boolean columns hold 1 for true and 0 for false.
+     * @param columnIndex the index of the column
+     * @return true if the column holds integer values, false if it holds strings
+     */
+    private static boolean isNumericColumn(int columnIndex) {
+        switch (columnIndex) {
+            case DataContract.ViewAwardEntry.COL_TMDB_ID:
+            case DataContract.ViewAwardEntry.COL_DISPLAY_ORDER:
+            case DataContract.ViewAwardEntry.COL_RUNTIME:
+            case DataContract.ViewAwardEntry.COL_ON_WISHLIST:
+            case DataContract.ViewAwardEntry.COL_WATCHED:
+            case DataContract.ViewAwardEntry.COL_FAVOURITE:
+            case DataContract.ViewAwardEntry.COL_RELEASE_YEAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns whether a column is a facet column, which is served from the movie facet index.
+     * @param column the column name, e.g. "country"
+     * @return true if the column is a facet column, false otherwise
+     */
+    private static boolean isFacetColumn(@NonNull String column) {
+        for (String facetColumn : FACET_COLUMNS) {
+            if (facetColumn.equals(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of a numeric column of a view award.
+     * @param viewAward the view award
+     * @param columnIndex the index of a numeric column
+     * @return the value of the column
+     */
+    private static long getLongValue(@NonNull ViewAward viewAward, int columnIndex) {
+        switch (columnIndex) {
+            case DataContract.ViewAwardEntry.COL_TMDB_ID:
+                return viewAward.getTmdbId();
+            case DataContract.ViewAwardEntry.COL_DISPLAY_ORDER:
+                return viewAward.getDisplayOrder();
+            case DataContract.ViewAwardEntry.COL_RUNTIME:
+                return viewAward.getRuntime();
+            case DataContract.ViewAwardEntry.COL_ON_WISHLIST:
+                return viewAward.isOnWishlist() ? 1 : 0;
+            case DataContract.ViewAwardEntry.COL_WATCHED:
+                return viewAward.isWatched() ? 1 : 0;
+            case DataContract.ViewAwardEntry.COL_FAVOURITE:
+                return viewAward.isFavourite() ? 1 : 0;
+            case DataContract.ViewAwardEntry.COL_RELEASE_YEAR:
+                return viewAward.getReleaseYear();
+            default:
+                throw new IllegalArgumentException("Not a numeric column: " + columnIndex);
+        }
+    }
+
+    /**
+     * Returns the value of a string column of a view award.
+     * @param viewAward the view award
+     * @param columnIndex the index of a string column
+     * @return the value of the column
+     */
+    @Nullable
+    private static String getStringValue(@NonNull ViewAward viewAward, int columnIndex) {
+        switch (columnIndex) {
+            case DataContract.ViewAwardEntry.COL_ID:
+                return viewAward.getId();
+            case DataContract.ViewAwardEntry.COL_MOVIE_ID:
+                return viewAward.getMovieId();
+            case DataContract.ViewAwardEntry.COL_IMDB_ID:
+                return viewAward.getImdbId();
+            case DataContract.ViewAwardEntry.COL_AWARD_DATE:
+                return viewAward.getAwardDate();
+            case DataContract.ViewAwardEntry.COL_CATEGORY:
+                return viewAward.getCategory();
+            case DataContract.ViewAwardEntry.COL_REVIEW:
+                return viewAward.getReview();
+            case DataContract.ViewAwardEntry.COL_TITLE:
+                return viewAward.getTitle();
+            case DataContract.ViewAwardEntry.COL_GENRE:
+                return viewAward.getGenre();
+            case DataContract.ViewAwardEntry.COL_POSTER:
+                return viewAward.getPoster();
+            default:
+                throw new IllegalArgumentException("Not a string column: " + columnIndex);
+        }
+    }
+
+    /**
+     * Returns whether a CSV list contains a value, e.g. whether "18,35" contains "35".
+     * @param csv the CSV list
+     * @param value the value
+     * @return true if the CSV list contains the value, false otherwise
+     */
+    private static boolean csvContains(@Nullable String csv, @NonNull String value) {
+        if (csv == null) {
+            return false;
+        }
+        // The elements are compared in place, rather than splitting the list for every row
+        int length = value.length();
+        int start = 0;
+        while (start <= csv.length()) {
+            int end = csv.indexOf(',', start);
+            if (end < 0) {
+                end = csv.length();
+            }
+            if (end - start == length && csv.regionMatches(start, value, 0, length)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    //---------------------------------------------------------------------
+    // Predicate tree
+
+    /** A node of the predicate tree, before the selection args are bound. */
+    private interface Node {
+        /**
+         * Returns a predicate for this node with the selection args bound.
+         * @param selectionArgs the selection args
+         * @return a predicate for this node
+         */
+        @NonNull
+        Predicate bind(@Nullable String[] selectionArgs);
+    }
+
+    /** A value in a predicate, which is either a literal or a ?. */
+    private static final class Operand {
+        /** The literal value, or null if the operand is a ?. */
+        private final String mLiteral;
+        /** The index of the selection arg, if the operand is a ?. */
+        private final int mArgIndex;
+
+        Operand(@Nullable String literal, int argIndex) {
+            mLiteral = literal;
+            mArgIndex = argIndex;
+        }
+
+        @NonNull
+        String resolve(@Nullable String[] selectionArgs) {
+            if (mLiteral != null) {
+                return mLiteral;
+            }
+            if (selectionArgs == null || mArgIndex >= selectionArgs.length
+                    || selectionArgs[mArgIndex] == null) {
+                throw new IllegalArgumentException("Missing selection arg: " + (mArgIndex + 1));
+            }
+            return selectionArgs[mArgIndex];
+        }
+
+        long resolveLong(@Nullable String[] selectionArgs) {
+            String value = resolve(selectionArgs);
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not an integer: " + value);
+            }
+        }
+    }
+
+    /** A node combining its children with AND or OR. */
+    private static final class LogicalNode implements Node {
+        private final boolean mIsAnd;
+        private final List<Node> mChildren;
+
+        LogicalNode(boolean isAnd, @NonNull List<Node> children) {
+            mIsAnd = isAnd;
+            mChildren = children;
+        }
+
+        @NonNull
+        @Override
+        public Predicate bind(@Nullable String[] selectionArgs) {
+            final Predicate[] predicates = new Predicate[mChildren.size()];
+            for (int i = 0; i < predicates.length; i++) {
+                predicates[i] = mChildren.get(i).bind(selectionArgs);
+            }
+            final boolean isAnd = mIsAnd;
+            return new Predicate() {
+                @Override
+                public boolean matches(@NonNull ViewAward viewAward) {
+                    for (Predicate predicate : predicates) {
+                        if (predicate.matches(viewAward) != isAnd) {
+                            return !isAnd;
+                        }
+                    }
+                    return isAnd;
+                }
+            };
+        }
+    }
+
+    /**
+     * A node comparing a column with a value using a comparison operator.
+     * The operator is resolved when the selection is parsed, and bind(...) returns a predicate
+     * specialised for the operator and the column type, so that matching a row does not
+     * dispatch on the operator.
+     */
+    private static final class ComparisonNode implements Node {
+        // Comparison operators
+        static final int OPERATOR_EQUALS = 0;
+        static final int OPERATOR_NOT_EQUALS = 1;
+        static final int OPERATOR_LESS = 2;
+        static final int OPERATOR_LESS_OR_EQUALS = 3;
+        static final int OPERATOR_GREATER = 4;
+        static final int OPERATOR_GREATER_OR_EQUALS = 5;
+
+        private final int mColumnIndex;
+        /** The comparison operator, e.g. OPERATOR_LESS. */
+        private final int mOperator;
+        private final Operand mOperand;
+
+        ComparisonNode(int columnIndex, int operator, @NonNull Operand operand) {
+            mColumnIndex = columnIndex;
+            mOperator = operator;
+            mOperand = operand;
+        }
+
+        @NonNull
+        @Override
+        public Predicate bind(@Nullable String[] selectionArgs) {
+            if (isNumericColumn(mColumnIndex)) {
+                return bindLong(mColumnIndex, mOperator, mOperand.resolveLong(selectionArgs));
+            }
+            final String value = mOperand.resolve(selectionArgs);
+            if (mColumnIndex == DataContract.ViewAwardEntry.COL_GENRE) {
+                if (mOperator == OPERATOR_EQUALS) {
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return csvContains(viewAward.getGenre(), value);
+                        }
+                    };
+                } else if (mOperator == OPERATOR_NOT_EQUALS) {
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return !csvContains(viewAward.getGenre(), value);
+                        }
+                    };
+                }
+            }
+            return bindString(mColumnIndex, mOperator, value);
+        }
+
+        /**
+         * Returns a predicate comparing a numeric column with a value.
+         * @param columnIndex the index of the numeric column
+         * @param operator the comparison operator, e.g. OPERATOR_LESS
+         * @param value the value
+         * @return a predicate comparing the column with the value
+         */
+        @NonNull
+        private static Predicate bindLong(final int columnIndex, int operator, final long value) {
+            switch (operator) {
+                case OPERATOR_EQUALS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return getLongValue(viewAward, columnIndex) == value;
+                        }
+                    };
+                case OPERATOR_NOT_EQUALS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return getLongValue(viewAward, columnIndex) != value;
+                        }
+                    };
+                case OPERATOR_LESS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return getLongValue(viewAward, columnIndex) < value;
+                        }
+                    };
+                case OPERATOR_LESS_OR_EQUALS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return getLongValue(viewAward, columnIndex) <= value;
+                        }
+                    };
+                case OPERATOR_GREATER:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return getLongValue(viewAward, columnIndex) > value;
+                        }
+                    };
+                default:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return getLongValue(viewAward, columnIndex) >= value;
+                        }
+                    };
+            }
+        }
+
+        /**
+         * Returns a predicate comparing a string column with a value.
+         * A null column value satisfies no comparison.
+         * @param columnIndex the index of the string column
+         * @param operator the comparison operator, e.g. OPERATOR_LESS
+         * @param value the value
+         * @return a predicate comparing the column with the value
+         */
+        @NonNull
+        private static Predicate bindString(final int columnIndex, int operator,
+                                            @NonNull final String value) {
+            switch (operator) {
+                case OPERATOR_EQUALS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            return value.equals(getStringValue(viewAward, columnIndex));
+                        }
+                    };
+                case OPERATOR_NOT_EQUALS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            String columnValue = getStringValue(viewAward, columnIndex);
+                            return columnValue != null && !value.equals(columnValue);
+                        }
+                    };
+                case OPERATOR_LESS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            String columnValue = getStringValue(viewAward, columnIndex);
+                            return columnValue != null && columnValue.compareTo(value) < 0;
+                        }
+                    };
+                case OPERATOR_LESS_OR_EQUALS:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            String columnValue = getStringValue(viewAward, columnIndex);
+                            return columnValue != null && columnValue.compareTo(value) <= 0;
+                        }
+                    };
+                case OPERATOR_GREATER:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            String columnValue = getStringValue(viewAward, columnIndex);
+                            return columnValue != null && columnValue.compareTo(value) > 0;
+                        }
+                    };
+                default:
+                    return new Predicate() {
+                        @Override
+                        public boolean matches(@NonNull ViewAward viewAward) {
+                            String columnValue = getStringValue(viewAward, columnIndex);
+                            return columnValue != null && columnValue.compareTo(value) >= 0;
+                        }
+                    };
+            }
+        }
+    }
+
+    /** A node testing whether a column's value is one of a list of values. */
+    private static final class InNode implements Node {
+        private final int mColumnIndex;
+        private final List<Operand> mOperands;
+
+        InNode(int columnIndex, @NonNull List<Operand> operands) {
+            mColumnIndex = columnIndex;
+            mOperands = operands;
+        }
+
+        @NonNull
+        @Override
+        public Predicate bind(@Nullable String[] selectionArgs) {
+            final int columnIndex = mColumnIndex;
+            if (isNumericColumn(columnIndex)) {
+                final long[] values = new long[mOperands.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = mOperands.get(i).resolveLong(selectionArgs);
+                }
+                return new Predicate() {
+                    @Override
+                    public boolean matches(@NonNull ViewAward viewAward) {
+                        long columnValue = getLongValue(viewAward, columnIndex);
+                        for (long value : values) {
+                            if (columnValue == value) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+                };
+            }
+            final String[] values = new String[mOperands.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = mOperands.get(i).resolve(selectionArgs);
+            }
+            final boolean isGenre = columnIndex == DataContract.ViewAwardEntry.COL_GENRE;
+            return new Predicate() {
+                @Override
+                public boolean matches(@NonNull ViewAward viewAward) {
+                    String columnValue = getStringValue(viewAward, columnIndex);
+                    for (String value : values) {
+                        if (isGenre ? csvContains(columnValue, value) : value.equals(columnValue)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    /** A node testing whether a column's value lies within an inclusive range. */
+    private static final class BetweenNode implements Node {
+        private final int mColumnIndex;
+        private final Operand mLow;
+        private final Operand mHigh;
+
+        BetweenNode(int columnIndex, @NonNull Operand low, @NonNull Operand high) {
+            mColumnIndex = columnIndex;
+            mLow = low;
+            mHigh = high;
+        }
+
+        @NonNull
+        @Override
+        public Predicate bind(@Nullable String[] selectionArgs) {
+            final int columnIndex = mColumnIndex;
+            if (isNumericColumn(columnIndex)) {
+                final long low = mLow.resolveLong(selectionArgs);
+                final long high = mHigh.resolveLong(selectionArgs);
+                return new Predicate() {
+                    @Override
+                    public boolean matches(@NonNull ViewAward viewAward) {
+                        long columnValue = getLongValue(viewAward, columnIndex);
+                        return columnValue >= low && columnValue <= high;
+                    }
+                };
+            }
+            final String low = mLow.resolve(selectionArgs);
+            final String high = mHigh.resolve(selectionArgs);
+            return new Predicate() {
+                @Override
+                public boolean matches(@NonNull ViewAward viewAward) {
+                    String columnValue = getStringValue(viewAward, columnIndex);
+                    return columnValue != null
+                            && columnValue.compareTo(low) >= 0 && columnValue.compareTo(high) <= 0;
+                }
+            };
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Parser
+
+    /**
+     * A recursive descent parser for selections.
+     * <blockquote><pre>
+     * {@code
+     *   selection  := or
+     *   or         := and ( "OR" and )*
+     *   and        := primary ( "AND" primary )*
+     *   primary    := "(" or ")" | column predicate | "limit" "=" value
+     *                 | facet "=" value
+     *   predicate  := operator value | "IN" "(" value ( "," value )* ")"
+     *                 | "BETWEEN" value "AND" value
+     * }
+     * </pre></blockquote>
+     */
+    private static final class Parser {
+        private final String mSelection;
+        private final List<String> mTokens;
+        private int mPosition;
+        private int mArgCount;
+        private Operand mLimit;
+        private final Map<String, Operand> mFacets = new LinkedHashMap<>();
+
+        Parser(@NonNull String selection) {
+            mSelection = selection;
+            mTokens = tokenize(selection);
+        }
+
+        @NonNull
+        ViewAwardSelection parse() {
+            Node root = null;
+            if (!mTokens.isEmpty()) {
+                root = parseOr(true);
+                if (mPosition < mTokens.size()) {
+                    throw error("Unexpected " + mTokens.get(mPosition));
+                }
+            }
+            return new ViewAwardSelection(root, mLimit, mFacets);
+        }
+
+        /**
+         * Parses a list of terms combined with OR.
+         * @param isTopLevel whether the terms are at the top level of the selection
+         * @return the parsed node, or null if the selection only contains a limit
+         */
+        @Nullable
+        private Node parseOr(boolean isTopLevel) {
+            Node node = parseAnd(isTopLevel);
+            if (!isKeyword(peek(), "OR")) {
+                return node;
+            }
+            if (mLimit != null || !mFacets.isEmpty()) {
+                throw error("limit and facets may not be combined with OR");
+            }
+            List<Node> children = new ArrayList<>();
+            children.add(requireNode(node));
+            while (isKeyword(peek(), "OR")) {
+                mPosition++;
+                // a limit on one side of an OR would be meaningless
+                children.add(requireNode(parseAnd(false)));
+            }
+            return new LogicalNode(false, children);
+        }
+
+        @Nullable
+        private Node parseAnd(boolean isTopLevel) {
+            List<Node> children = new ArrayList<>();
+            addIfNotNull(children, parsePrimary(isTopLevel));
+            while (isKeyword(peek(), "AND")) {
+                mPosition++;
+                addIfNotNull(children, parsePrimary(isTopLevel));
+            }
+            if (children.isEmpty()) {
+                return null;
+            }
+            return children.size() == 1 ? children.get(0) : new LogicalNode(true, children);
+        }
+
+        @Nullable
+        private Node parsePrimary(boolean isTopLevel) {
+            String token = next();
+            if ("(".equals(token)) {
+                Node node = requireNode(parseOr(false));
+                expect(")");
+                return node;
+            }
+            if (!isIdentifier(token)) {
+                throw error("Expected a column but found " + token);
+            }
+            if (LIMIT.equals(token)) {
+                if (!isTopLevel || mLimit != null) {
+                    throw error("limit may only appear once, as a top-level AND term");
+                }
+                expect("=");
+                mLimit = parseValue();
+                return null;
+            }
+            if (isFacetColumn(token)) {
+                if (!isTopLevel || mFacets.containsKey(token)) {
+                    throw error(token + " may only appear once, as a top-level AND term");
+                }
+                expect("=");
+                mFacets.put(token, parseValue());
+                return null;
+            }
+            int columnIndex = getColumnIndex(token);
+            String operator = next();
+            if (isKeyword(operator, "IN")) {
+                expect("(");
+                List<Operand> operands = new ArrayList<>();
+                operands.add(parseValue());
+                while (",".equals(peek())) {
+                    mPosition++;
+                    operands.add(parseValue());
+                }
+                expect(")");
+                return new InNode(columnIndex, operands);
+            }
+            if (isKeyword(operator, "BETWEEN")) {
+                Operand low = parseValue();
+                if (!isKeyword(next(), "AND")) {
+                    throw error("Expected AND in BETWEEN");
+                }
+                return new BetweenNode(columnIndex, low, parseValue());
+            }
+            return new ComparisonNode(columnIndex, parseOperator(operator), parseValue());
+        }
+
+        /**
+         * Returns the comparison operator represented by a token.
+         * @param token the token, e.g. "&lt;="
+         * @return the comparison operator, e.g. ComparisonNode.OPERATOR_LESS_OR_EQUALS
+         * @throws IllegalArgumentException if the token is not a comparison operator
+         */
+        private int parseOperator(@NonNull String token) {
+            switch (token) {
+                case "=":
+                    return ComparisonNode.OPERATOR_EQUALS;
+                case "!=":
+                case "<>":
+                    return ComparisonNode.OPERATOR_NOT_EQUALS;
+                case "<":
+                    return ComparisonNode.OPERATOR_LESS;
+                case "<=":
+                    return ComparisonNode.OPERATOR_LESS_OR_EQUALS;
+                case ">":
+                    return ComparisonNode.OPERATOR_GREATER;
+                case ">=":
+                    return ComparisonNode.OPERATOR_GREATER_OR_EQUALS;
+                default:
+                    throw error("Expected an operator but found " + token);
+            }
+        }
+
+        @NonNull
+        private Operand parseValue() {
+            String token = next();
+            if ("?".equals(token)) {
+                return new Operand(null, mArgCount++);
+            }
+            if (token.startsWith("'")) {
+                return new Operand(token.substring(1, token.length() - 1).replace("''", "'"), 0);
+            }
+            if (token.matches("-?\\d+")) {
+                return new Operand(token, 0);
+            }
+            throw error("Expected a value but found " + token);
+        }
+
+        @NonNull
+        private Node requireNode(@Nullable Node node) {
+            if (node == null) {
+                throw error("Expected a predicate");
+            }
+            return node;
+        }
+
+        private static void addIfNotNull(@NonNull List<Node> nodes, @Nullable Node node) {
+            if (node != null) {
+                nodes.add(node);
+            }
+        }
+
+        @Nullable
+        private String peek() {
+            return mPosition < mTokens.size() ? mTokens.get(mPosition) : null;
+        }
+
+        @NonNull
+        private String next() {
+            if (mPosition >= mTokens.size()) {
+                throw error("Unexpected end of selection");
+            }
+            return mTokens.get(mPosition++);
+        }
+
+        private void expect(@NonNull String expected) {
+            String token = next();
+            if (!expected.equals(token)) {
+                throw error("Expected " + expected + " but found " + token);
+            }
+        }
+
+        private static boolean isKeyword(@Nullable String token, @NonNull String keyword) {
+            return keyword.equalsIgnoreCase(token);
+        }
+
+        private static boolean isIdentifier(@NonNull String token) {
+            return Character.isLetter(token.charAt(0)) || token.charAt(0) == '_';
+        }
+
+        @NonNull
+        private IllegalArgumentException error(@NonNull String message) {
+            return new IllegalArgumentException(String.format(Locale.US,
+                    "%s at token %d of selection: %s", message, mPosition, mSelection));
+        }
+
+        /**
+         * Splits a selection into tokens.
+         * @param selection the selection
+         * @return the tokens of the selection
+         */
+        @NonNull
+        private static List<String> tokenize(@NonNull String selection) {
+            List<String> tokens = new ArrayList<>();
+            int length = selection.length();
+            int i = 0;
+            while (i < length) {
+                char c = selection.charAt(i);
+                int start = i;
+                if (Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                } else if (c == '\'') {
+                    // string literal, in which a quote is escaped by doubling it
+                    i++;
+                    while (i < length && (selection.charAt(i) != '\''
+                            || (i + 1 < length && selection.charAt(i + 1) == '\''))) {
+                        i += selection.charAt(i) == '\'' ? 2 : 1;
+                    }
+                    if (i >= length) {
+                        throw new IllegalArgumentException(
+                                "Unterminated string in selection: " + selection);
+                    }
+                    i++;
+                } else if (Character.isLetterOrDigit(c) || c == '_' || c == '-') {
+                    i++;
+                    while (i < length && (Character.isLetterOrDigit(selection.charAt(i))
+                            || selection.charAt(i) == '_')) {
+                        i++;
+                    }
+                } else if ((c == '<' || c == '>' || c == '!') && i + 1 < length
+                        && (selection.charAt(i + 1) == '=' || (c == '<' && selection.charAt(i + 1) == '>'))) {
+                    i += 2;
+                } else {
+                    i++;
+                }
+                tokens.add(selection.substring(start, i));
+            }
+            return tokens;
+        }
+    }
+
+}
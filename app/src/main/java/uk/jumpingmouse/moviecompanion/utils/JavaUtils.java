@@ -11,6 +11,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
 
 import timber.log.Timber;
 
@@ -20,6 +21,13 @@ import timber.log.Timber;
  */
 public final class JavaUtils {
 
+    /** The number of milliseconds in a day, ignoring daylight saving changes. */
+    public static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    /** The number of days in a 400-year era of the Gregorian calendar. */
+    private static final int DAYS_PER_ERA = 146097;
+    /** The number of days from 1 Mar 0000 to 1 Jan 1970. */
+    private static final int EPOCH_DAY_OF_ERA_0 = 719468;
+
     //---------------------------------------------------------------------
     // Date utilities
 
@@ -61,6 +69,70 @@ public final class JavaUtils {
         return dateFormat.format(date);
     }
 
+    /**
+     * Returns the epoch day of a date, i.e. the number of days since 1 Jan 1970,
+     * in the proleptic Gregorian calendar.
+     * This is plain arithmetic, so unlike SimpleDateFormat and Calendar, it does not
+     * allocate and is thread-safe.
+     * @param year the year, e.g. 2017
+     * @param month the month, from 1 to 12
+     * @param dayOfMonth the day of the month, from 1 to 31
+     * @return the epoch day of the date
+     */
+    public static int toEpochDay(int year, int month, int dayOfMonth) {
+        // Days from civil, with the year starting in March so that leap days come last
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - EPOCH_DAY_OF_ERA_0;
+    }
+
+    /**
+     * Returns the date of an epoch day, as a single int.
+     * @param epochDay the number of days since 1 Jan 1970
+     * @return the date of the epoch day, as year * 10000 + month * 100 + dayOfMonth,
+     *         e.g. 20170602
+     */
+    public static int toYearMonthDay(int epochDay) {
+        int z = epochDay + EPOCH_DAY_OF_ERA_0;
+        int era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+        int dayOfEra = z - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int dayOfMonth = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + dayOfMonth;
+    }
+
+    /**
+     * Returns the epoch day of the local date at a point in time, in the default time zone.
+     * @param timeMillis the point in time, in milliseconds since the epoch
+     * @return the number of days since 1 Jan 1970 of the local date at the point in time
+     */
+    public static int toLocalEpochDay(long timeMillis) {
+        long localMillis = timeMillis + TimeZone.getDefault().getOffset(timeMillis);
+        long epochDay = localMillis / MILLIS_PER_DAY;
+        if (localMillis < 0 && localMillis % MILLIS_PER_DAY != 0) {
+            epochDay--;
+        }
+        return (int) epochDay;
+    }
+
+    /**
+     * Returns the point in time at the start of a local date, in the default time zone.
+     * This is the inverse of {@link #toLocalEpochDay(long)}.
+     * @param epochDay the number of days since 1 Jan 1970 of the local date
+     * @return the point in time at the start of the local date, in milliseconds since the epoch
+     */
+    public static long toLocalTimeMillis(int epochDay) {
+        long localMillis = epochDay * MILLIS_PER_DAY;
+        return localMillis - TimeZone.getDefault().getOffset(localMillis);
+    }
+
     //---------------------------------------------------------------------
     // Type conversions
 
@@ -1,15 +1,21 @@
 package uk.jumpingmouse.moviecompanion.utils;
 
+import android.content.ComponentCallbacks;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.database.Cursor;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import timber.log.Timber;
@@ -29,8 +35,12 @@ public final class ModelUtils {
     private static final String TMDB_BASE_URL = "http://image.tmdb.org/t/p/";
     // 2/8/17: The available poster sizes are:
     // "w92", "w154", "w185", "w342", "w500", "w780", "original"
-    private static final String TMDB_POSTER_SIZE = "w500";
-    private static final String TMDB_THUMBNAIL_SIZE = "w154";
+    // The widths of the fixed-width sizes, in ascending order. "original" is not used,
+    // as it can be several megabytes.
+    private static final int[] TMDB_POSTER_WIDTHS = {92, 154, 185, 342, 500, 780};
+    private static final String TMDB_POSTER_SIZE_PREFIX = "w";
+    // The height of a poster divided by its width
+    private static final float TMDB_POSTER_ASPECT_RATIO = 1.5f;
 
     // This map contains a mapping between genre ids and their corresponding genre names.
     // The map keys are the genre ids stored in the database and match "@string/genre_id...".
@@ -67,6 +77,23 @@ public final class ModelUtils {
         GENRES = Collections.unmodifiableMap(genresStoredModifiable);
     }
 
+    /** The lock which guards the genre name table and the cached genre name CSV strings. */
+    private static final Object GENRE_NAME_LOCK = new Object();
+    /** The maximum number of genre name CSV strings cached. */
+    private static final int GENRE_NAME_CSV_CACHE_SIZE = 256;
+    /** The genre names for the current configuration, keyed by genre id, or null if not built. */
+    private static Map<String, String> sGenreNames = null;
+    /** Whether the callbacks which discard the genre names have been registered. */
+    private static boolean sGenreNameCallbacksRegistered = false;
+    /** The genre name CSV strings for the current configuration, keyed by genre id CSV. */
+    private static final Map<String, String> GENRE_NAME_CSVS =
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > GENRE_NAME_CSV_CACHE_SIZE;
+                }
+            };
+
     /**
      * Private default constructor to prevent instantiation.
      */
@@ -295,23 +322,96 @@ public final class ModelUtils {
     }
 
     /**
-     * Returns the URL for a TMDb poster image for a supplied TMDb poster path
+     * Returns the URL for a TMDb poster image for a supplied TMDb poster path, in the smallest
+     * size which covers a target view of a specified pixel size when it is centre-cropped.
      * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
-     * @return the poster URL, e.g. "http://image.tmdb.org/t/p/w780/d2f3g4sd12fg.jpg"
+     * @param targetWidth the width of the target view in pixels
+     * @param targetHeight the height of the target view in pixels
+     * @return the poster URL, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
      */
-    public static String getPosterUrl(@Nullable String poster) {
-        return TMDB_BASE_URL + TMDB_POSTER_SIZE + poster;
+    public static String getPosterUrl(@Nullable String poster, int targetWidth, int targetHeight) {
+        return TMDB_BASE_URL + getTmdbPosterSize(targetWidth, targetHeight) + poster;
+    }
 
+    /**
+     * Returns the smallest TMDb poster size which covers a target view of a specified pixel
+     * size when it is centre-cropped, or the largest fixed-width size if none covers it.
+     * @param targetWidth the width of the target view in pixels
+     * @param targetHeight the height of the target view in pixels
+     * @return the TMDb poster size, e.g. "w154"
+     */
+    @NonNull
+    public static String getTmdbPosterSize(int targetWidth, int targetHeight) {
+        // The poster must be at least as wide as the view, and at least as high as the view
+        int requiredWidth = Math.max(targetWidth,
+                (int) Math.ceil(targetHeight / TMDB_POSTER_ASPECT_RATIO));
+        for (int width : TMDB_POSTER_WIDTHS) {
+            if (width >= requiredWidth) {
+                return TMDB_POSTER_SIZE_PREFIX + width;
+            }
+        }
+        return TMDB_POSTER_SIZE_PREFIX + TMDB_POSTER_WIDTHS[TMDB_POSTER_WIDTHS.length - 1];
     }
 
     /**
-     * Returns the URL for a TMDb thumbnail image for a supplied TMDb poster path
+     * Returns the URLs for a TMDb poster image in each TMDb size which is smaller than
+     * the size which covers a target view, largest first.
+     * These are the sizes which can be displayed as a placeholder while the poster loads.
      * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
-     * @return the thumbnail URL, e.g. "http://image.tmdb.org/t/p/w154/d2f3g4sd12fg.jpg"
+     * @param targetWidth the width of the target view in pixels
+     * @param targetHeight the height of the target view in pixels
+     * @return the smaller poster URLs, e.g. "http://image.tmdb.org/t/p/w342/d2f3g4sd12fg.jpg",
+     *         "http://image.tmdb.org/t/p/w185/d2f3g4sd12fg.jpg", etc.
      */
-    public static String getThumbnailUrl(@Nullable String poster) {
-        return TMDB_BASE_URL + TMDB_THUMBNAIL_SIZE + poster;
+    @NonNull
+    public static List<String> getSmallerPosterUrls(@Nullable String poster,
+                                                    int targetWidth, int targetHeight) {
+        List<String> posterUrls = new ArrayList<>();
+        String tmdbPosterSize = getTmdbPosterSize(targetWidth, targetHeight);
+        boolean isSmaller = false;
+        for (int i = TMDB_POSTER_WIDTHS.length - 1; i >= 0; i--) {
+            String size = TMDB_POSTER_SIZE_PREFIX + TMDB_POSTER_WIDTHS[i];
+            if (isSmaller) {
+                posterUrls.add(TMDB_BASE_URL + size + poster);
+            } else if (size.equals(tmdbPosterSize)) {
+                isSmaller = true;
+            }
+        }
+        return posterUrls;
+    }
 
+    /**
+     * Returns the names of the people in a CSV string of people, as held in the
+     * director, screenplay and cast fields of a movie.
+     * @param personCsv a CSV string of people, e.g. "Amy Adams, Jeremy Renner"
+     * @return the names of the people, in CSV order, with blank names omitted,
+     *         e.g. "Amy Adams", "Jeremy Renner"
+     */
+    @NonNull
+    public static List<String> toPersonNames(@Nullable String personCsv) {
+        List<String> personNames = new ArrayList<>();
+        if (personCsv != null) {
+            for (String personName : personCsv.split(",")) {
+                personName = personName.trim();
+                if (!personName.isEmpty()) {
+                    personNames.add(personName);
+                }
+            }
+        }
+        return personNames;
+    }
+
+    /**
+     * Returns the key by which a person is indexed, which is the same for the different
+     * ways the person's name may be written in the movie data, i.e. the name in Unicode
+     * normal form C, with runs of whitespace replaced by a single space, in lower case.
+     * @param personName the person's name, e.g. "Denis  Villeneuve"
+     * @return the key by which the person is indexed, e.g. "denis villeneuve"
+     */
+    @NonNull
+    public static String toPersonKey(@NonNull String personName) {
+        String personKey = Normalizer.normalize(personName.trim(), Normalizer.Form.NFC);
+        return personKey.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 
     //---------------------------------------------------------------------
@@ -415,6 +515,82 @@ public final class ModelUtils {
                 .build();
     }
 
+    /**
+     * Returns the award day, i.e. the epoch day, of an award date.
+     * This is normally called once per award, when it is added to the database,
+     * so that award dates can then be compared and displayed without parsing them.
+     * @param awardDate the award date as stored in the database, e.g. "170602"
+     * @return the award day, i.e. the number of days since 1 Jan 1970,
+     *         or Award.AWARD_DAY_UNKNOWN if the award date is invalid
+     */
+    public static int toAwardDay(@Nullable String awardDate) {
+        if (awardDate == null || awardDate.length() != 6) {
+            return Award.AWARD_DAY_UNKNOWN;
+        }
+        for (int i = 0; i < 6; i++) {
+            char c = awardDate.charAt(i);
+            if (c < '0' || c > '9') {
+                return Award.AWARD_DAY_UNKNOWN;
+            }
+        }
+        int year = 2000 + (awardDate.charAt(0) - '0') * 10 + (awardDate.charAt(1) - '0');
+        int month = (awardDate.charAt(2) - '0') * 10 + (awardDate.charAt(3) - '0');
+        int dayOfMonth = (awardDate.charAt(4) - '0') * 10 + (awardDate.charAt(5) - '0');
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+            return Award.AWARD_DAY_UNKNOWN;
+        }
+        int awardDay = JavaUtils.toEpochDay(year, month, dayOfMonth);
+        // Reject dates such as 31 Jun, which would otherwise roll over into the next month
+        if (JavaUtils.toYearMonthDay(awardDay) % 100 != dayOfMonth) {
+            return Award.AWARD_DAY_UNKNOWN;
+        }
+        return awardDay;
+    }
+
+    /**
+     * Returns the award date, in the format stored in the database, of an award day.
+     * @param awardDay the award day, i.e. the number of days since 1 Jan 1970
+     * @return the award date, e.g. "170602"
+     */
+    @NonNull
+    public static String toAwardDate(int awardDay) {
+        int yearMonthDay = JavaUtils.toYearMonthDay(awardDay);
+        char[] awardDate = new char[6];
+        int value = yearMonthDay % 1000000;
+        for (int i = 5; i >= 0; i--) {
+            awardDate[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(awardDate);
+    }
+
+    /**
+     * Returns the award day of the local date at a point in time.
+     * @param timeMillis the point in time, in milliseconds since the epoch
+     * @return the award day of the local date at the point in time
+     */
+    public static int toAwardDay(long timeMillis) {
+        return JavaUtils.toLocalEpochDay(timeMillis);
+    }
+
+    /**
+     * Returns the point in time at which an award day starts, i.e. local midnight
+     * at the start of the award day.
+     * @param awardDay the award day, i.e. the number of days since 1 Jan 1970
+     * @return the point in time at which the award day starts, in milliseconds since
+     *         the epoch, or -1 if the award day is unknown
+     */
+    public static long getAwardDayStartMillis(int awardDay) {
+        if (awardDay == Award.AWARD_DAY_UNKNOWN) {
+            return -1;
+        }
+        int yearMonthDay = JavaUtils.toYearMonthDay(awardDay);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(yearMonthDay / 10000, yearMonthDay / 100 % 100 - 1, yearMonthDay % 100);
+        return calendar.getTimeInMillis();
+    }
+
     //---------------------------------------------------------------------
     // UserMovie methods
 
@@ -494,6 +670,7 @@ public final class ModelUtils {
         final boolean onWishlist = cursor.getInt(DataContract.ViewAwardEntry.COL_ON_WISHLIST) == 1;
         final boolean watched = cursor.getInt(DataContract.ViewAwardEntry.COL_WATCHED) == 1;
         final boolean favourite = cursor.getInt(DataContract.ViewAwardEntry.COL_FAVOURITE) == 1;
+        final int releaseYear = cursor.getInt(DataContract.ViewAwardEntry.COL_RELEASE_YEAR);
 
         // if the runtime is invalid, set it to unknown
         if (runtime < 1 && runtime != Movie.RUNTIME_UNKNOWN) {
@@ -537,6 +714,7 @@ public final class ModelUtils {
                 .displayOrder(displayOrder)
                 .title(title)
                 .runtime(runtime)
+                .releaseYear(releaseYear)
                 .genre(genre)
                 .poster(poster)
                 .onWishlist(onWishlist)
@@ -547,6 +725,8 @@ public final class ModelUtils {
 
     /**
      * Returns a CSV string of genre names corresponding to a CSV string of genre ids.
+     * The genre names are looked up in a table which is built once per configuration,
+     * and the CSV strings of genre names are cached, as few combinations of genres occur.
      * @param context the context
      * @param genreIdCsv a CSV string of genre ids, e.g. "18,44,28"
      * @return a CSV string of genre names corresponding to the CSV string of genre ids,
@@ -557,10 +737,31 @@ public final class ModelUtils {
         if (context == null || genreIdCsv == null) {
             return null;
         }
+        synchronized (GENRE_NAME_LOCK) {
+            Map<String, String> genreNames = getGenreNames(context);
+            String genreNameCsv = GENRE_NAME_CSVS.get(genreIdCsv);
+            if (genreNameCsv == null) {
+                genreNameCsv = toGenreNameCsv(genreNames, genreIdCsv);
+                GENRE_NAME_CSVS.put(genreIdCsv, genreNameCsv);
+            }
+            return genreNameCsv;
+        }
+    }
+
+    /**
+     * Returns a CSV string of genre names corresponding to a CSV string of genre ids.
+     * @param genreNames the genre names, keyed by genre id
+     * @param genreIdCsv a CSV string of genre ids, e.g. "18,44,28"
+     * @return a CSV string of genre names corresponding to the CSV string of genre ids,
+     *         e.g. "Comedy, Drama, Action"
+     */
+    @NonNull
+    private static String toGenreNameCsv(@NonNull Map<String, String> genreNames,
+                                         @NonNull String genreIdCsv) {
         StringBuilder genreNameCsv = new StringBuilder();
         String[] genreIdArray = genreIdCsv.split(",");
         for (String genreId : genreIdArray) {
-            String genreName = toGenreName(context, genreId);
+            String genreName = genreNames.get(genreId);
             if (genreName != null) {
                 if (genreNameCsv.length() > 0) {
                     genreNameCsv.append(", ");
@@ -572,18 +773,76 @@ public final class ModelUtils {
     }
 
     /**
-     * Returns the genre name corresponding to a genre id.
+     * Returns the table of genre names for the current configuration, building it
+     * if necessary. The table is discarded when the configuration changes, e.g. when
+     * the locale changes.
+     * This must be called while holding GENRE_NAME_LOCK.
      * @param context the context
-     * @param genreId the genre id, e.g. "35"
-     * @return the genre name, e.g. "Comedy"
+     * @return the genre names, keyed by genre id, e.g. "35" maps to "Comedy"
      */
-    @Nullable
-    private static String toGenreName(@NonNull Context context, @NonNull String genreId) {
-        Integer genreNameStringRes = GENRES.get(genreId);
-        if (genreNameStringRes != null) {
-            return context.getString(genreNameStringRes);
+    @NonNull
+    private static Map<String, String> getGenreNames(@NonNull Context context) {
+        if (sGenreNames == null) {
+            Map<String, String> genreNames = new HashMap<>(GENRES.size() * 2);
+            for (Map.Entry<String, Integer> genre : GENRES.entrySet()) {
+                genreNames.put(genre.getKey(), context.getString(genre.getValue()));
+            }
+            sGenreNames = genreNames;
+            if (!sGenreNameCallbacksRegistered) {
+                context.getApplicationContext().registerComponentCallbacks(
+                        new ComponentCallbacks() {
+                            @Override
+                            public void onConfigurationChanged(Configuration newConfig) {
+                                synchronized (GENRE_NAME_LOCK) {
+                                    sGenreNames = null;
+                                    GENRE_NAME_CSVS.clear();
+                                }
+                            }
+
+                            @Override
+                            public void onLowMemory() {
+                                // no action required, the cached names are small
+                            }
+                        });
+                sGenreNameCallbacksRegistered = true;
+            }
         }
-        return null;
+        return sGenreNames;
+    }
+
+    //---------------------------------------------------------------------
+    // Cursor methods
+
+    /**
+     * Returns the values of the current row of a cursor, as they would be passed to
+     * {@link android.database.MatrixCursor#addRow(Object[])} to copy the row.
+     * @param cursor a cursor positioned at the required row
+     * @return the values of the current row of the cursor
+     */
+    @NonNull
+    public static Object[] getRowValues(@NonNull Cursor cursor) {
+        int columnCount = cursor.getColumnCount();
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            switch (cursor.getType(i)) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    row[i] = cursor.getLong(i);
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    row[i] = cursor.getDouble(i);
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    row[i] = cursor.getBlob(i);
+                    break;
+                case Cursor.FIELD_TYPE_NULL:
+                    row[i] = null;
+                    break;
+                default:
+                    row[i] = cursor.getString(i);
+                    break;
+            }
+        }
+        return row;
     }
 
 }
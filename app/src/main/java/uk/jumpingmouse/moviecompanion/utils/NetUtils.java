@@ -3,8 +3,10 @@ package uk.jumpingmouse.moviecompanion.utils;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.net.ConnectivityManagerCompat;
 
 
 /**
@@ -12,11 +14,35 @@ import android.support.annotation.Nullable;
  * @author Edmund Johnson
  */
 public final class NetUtils {
+
+    // The quality of the connection, as estimated from the throughput of recent downloads
+    public static final int CONNECTION_QUALITY_UNKNOWN = 0;
+    public static final int CONNECTION_QUALITY_POOR = 1;
+    public static final int CONNECTION_QUALITY_MODERATE = 2;
+    public static final int CONNECTION_QUALITY_GOOD = 3;
+
+    /** The bandwidth in kilobits per second below which the connection quality is poor. */
+    private static final long POOR_BANDWIDTH_KBPS = 150;
+    /** The bandwidth in kilobits per second below which the connection quality is moderate. */
+    private static final long MODERATE_BANDWIDTH_KBPS = 550;
+
+    /** Downloads smaller than this are not sampled, as their time is dominated by latency. */
+    private static final long MIN_SAMPLE_BYTES = 4 * 1024;
+    /** The weight of the latest sample in the moving average bandwidth, out of 10. */
+    private static final int SAMPLE_WEIGHT = 3;
+    /** The time after which the bandwidth estimate expires, so that it is estimated again. */
+    private static final long SAMPLE_EXPIRY_MILLIS = 5 * 60 * 1000;
+
     /**
      * Reference to the connectivity manager object.
      */
     private ConnectivityManager mConnectivityManager = null;
 
+    /** The moving average bandwidth in kilobits per second, or -1 if it is not known. */
+    private long mBandwidthKbps = -1;
+    /** The time of the latest bandwidth sample. */
+    private long mSampleTimeMillis;
+
     /**
      * The singleton instance of this class.
      */
@@ -52,6 +78,81 @@ public final class NetUtils {
         return activeNetworkInfo != null && activeNetworkInfo.isConnected();
     }
 
+    /**
+     * Returns whether the device is connected to a network which is not metered,
+     * e.g. Wi-Fi rather than mobile data, so that data can be downloaded in advance of
+     * its use without costing the user anything.
+     * @param context the context
+     * @return true if there is an unmetered network connection, false otherwise
+     */
+    public boolean isNetworkUnmetered(@Nullable final Context context) {
+        return isNetworkAvailable(context)
+                && !ConnectivityManagerCompat.isActiveNetworkMetered(getConnectivityManager(context));
+    }
+
+    //---------------------------------------------------------------------
+    // Connection quality
+
+    /**
+     * Records the size and duration of a download, e.g. of a poster, as a sample of
+     * the bandwidth of the connection.
+     * @param bytes the number of bytes downloaded
+     * @param elapsedNanos the time taken by the download, in nanoseconds
+     */
+    public synchronized void recordDownload(final long bytes, final long elapsedNanos) {
+        if (bytes < MIN_SAMPLE_BYTES || elapsedNanos <= 0) {
+            return;
+        }
+        // bits per nanosecond * 1e9 / 1000 = kilobits per second
+        long sampleKbps = bytes * 8 * 1000000L / elapsedNanos;
+        if (getBandwidthKbps() < 0) {
+            mBandwidthKbps = sampleKbps;
+        } else {
+            mBandwidthKbps = (sampleKbps * SAMPLE_WEIGHT + mBandwidthKbps * (10 - SAMPLE_WEIGHT)) / 10;
+        }
+        mSampleTimeMillis = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Returns the estimated bandwidth of the connection, based on recent downloads.
+     * @return the estimated bandwidth in kilobits per second, or -1 if there have been
+     *         no recent downloads
+     */
+    public synchronized long getBandwidthKbps() {
+        if (mBandwidthKbps >= 0
+                && SystemClock.elapsedRealtime() - mSampleTimeMillis > SAMPLE_EXPIRY_MILLIS) {
+            // The estimate is out of date, e.g. the device may have changed network
+            mBandwidthKbps = -1;
+        }
+        return mBandwidthKbps;
+    }
+
+    /**
+     * Returns the quality of the connection, as estimated from recent downloads.
+     * @return the connection quality, e.g. CONNECTION_QUALITY_POOR
+     */
+    public int getConnectionQuality() {
+        long bandwidthKbps = getBandwidthKbps();
+        if (bandwidthKbps < 0) {
+            return CONNECTION_QUALITY_UNKNOWN;
+        } else if (bandwidthKbps < POOR_BANDWIDTH_KBPS) {
+            return CONNECTION_QUALITY_POOR;
+        } else if (bandwidthKbps < MODERATE_BANDWIDTH_KBPS) {
+            return CONNECTION_QUALITY_MODERATE;
+        } else {
+            return CONNECTION_QUALITY_GOOD;
+        }
+    }
+
+    /**
+     * Returns whether the connection is estimated to be poor, in which case smaller images
+     * should be downloaded.
+     * @return true if the connection is estimated to be poor, false otherwise
+     */
+    public boolean isConnectionPoor() {
+        return getConnectionQuality() == CONNECTION_QUALITY_POOR;
+    }
+
     /**
      * Returns a reference to the connectivity manager.
      *
@@ -242,6 +242,117 @@ public final class PrefUtils {
         return stringEqualsResId(context, value, R.string.pref_award_list_filter_category_key);
     }
 
+    /**
+     * Returns the value of the award list runtime filter shared preference.
+     * @param context the context
+     * @return the value of the award list runtime filter shared preference
+     */
+    @NonNull
+    public static String getAwardListFilterRuntime(@Nullable Context context) {
+        return getSharedPreferenceString(context, R.string.pref_award_list_filter_runtime_key,
+                DataContract.ViewAwardEntry.FILTER_RUNTIME_DEFAULT);
+    }
+
+    /**
+     * Returns whether a string has the same value as the award list runtime filter preference key.
+     * @param context the context
+     * @param value the value to compare to the award list runtime filter preference key
+     * @return true if value is the award list runtime filter preference key, false otherwise
+     */
+    public static boolean isAwardListFilterRuntimeKey(@NonNull Context context, @Nullable String value) {
+        return stringEqualsResId(context, value, R.string.pref_award_list_filter_runtime_key);
+    }
+
+    /**
+     * Returns the value of the award list release year filter shared preference.
+     * @param context the context
+     * @return the value of the award list release year filter shared preference
+     */
+    @NonNull
+    public static String getAwardListFilterReleaseYear(@Nullable Context context) {
+        return getSharedPreferenceString(context, R.string.pref_award_list_filter_release_year_key,
+                DataContract.ViewAwardEntry.FILTER_RELEASE_YEAR_DEFAULT);
+    }
+
+    /**
+     * Returns whether a string has the same value as the award list release year filter
+     * preference key.
+     * @param context the context
+     * @param value the value to compare to the award list release year filter preference key
+     * @return true if value is the award list release year filter preference key, false otherwise
+     */
+    public static boolean isAwardListFilterReleaseYearKey(@NonNull Context context,
+                                                          @Nullable String value) {
+        return stringEqualsResId(context, value, R.string.pref_award_list_filter_release_year_key);
+    }
+
+    /**
+     * Returns the value of the award list language filter shared preference.
+     * @param context the context
+     * @return the value of the award list language filter shared preference
+     */
+    @NonNull
+    public static String getAwardListFilterLanguage(@Nullable Context context) {
+        return getSharedPreferenceString(context, R.string.pref_award_list_filter_language_key,
+                DataContract.ViewAwardEntry.FILTER_LANGUAGE_DEFAULT);
+    }
+
+    /**
+     * Returns whether a string has the same value as the award list language filter preference key.
+     * @param context the context
+     * @param value the value to compare to the award list language filter preference key
+     * @return true if value is the award list language filter preference key, false otherwise
+     */
+    public static boolean isAwardListFilterLanguageKey(@NonNull Context context,
+                                                       @Nullable String value) {
+        return stringEqualsResId(context, value, R.string.pref_award_list_filter_language_key);
+    }
+
+    /**
+     * Returns the value of the award list country filter shared preference.
+     * @param context the context
+     * @return the value of the award list country filter shared preference
+     */
+    @NonNull
+    public static String getAwardListFilterCountry(@Nullable Context context) {
+        return getSharedPreferenceString(context, R.string.pref_award_list_filter_country_key,
+                DataContract.ViewAwardEntry.FILTER_COUNTRY_DEFAULT);
+    }
+
+    /**
+     * Returns whether a string has the same value as the award list country filter preference key.
+     * @param context the context
+     * @param value the value to compare to the award list country filter preference key
+     * @return true if value is the award list country filter preference key, false otherwise
+     */
+    public static boolean isAwardListFilterCountryKey(@NonNull Context context,
+                                                      @Nullable String value) {
+        return stringEqualsResId(context, value, R.string.pref_award_list_filter_country_key);
+    }
+
+    /**
+     * Returns the value of the award list certificate filter shared preference.
+     * @param context the context
+     * @return the value of the award list certificate filter shared preference
+     */
+    @NonNull
+    public static String getAwardListFilterCertificate(@Nullable Context context) {
+        return getSharedPreferenceString(context, R.string.pref_award_list_filter_certificate_key,
+                DataContract.ViewAwardEntry.FILTER_CERTIFICATE_DEFAULT);
+    }
+
+    /**
+     * Returns whether a string has the same value as the award list certificate filter
+     * preference key.
+     * @param context the context
+     * @param value the value to compare to the award list certificate filter preference key
+     * @return true if value is the award list certificate filter preference key, false otherwise
+     */
+    public static boolean isAwardListFilterCertificateKey(@NonNull Context context,
+                                                          @Nullable String value) {
+        return stringEqualsResId(context, value, R.string.pref_award_list_filter_certificate_key);
+    }
+
     /**
      * Returns whether there are any active filters, i.e. whether any filter is set to
      * a non-default value.
@@ -259,7 +370,17 @@ public final class PrefUtils {
                 || !PrefUtils.getAwardListFilterFavourite(context).equals(
                         DataContract.ViewAwardEntry.FILTER_FAVOURITE_DEFAULT)
                 || !PrefUtils.getAwardListFilterCategory(context).equals(
-                        DataContract.ViewAwardEntry.FILTER_CATEGORY_DEFAULT);
+                        DataContract.ViewAwardEntry.FILTER_CATEGORY_DEFAULT)
+                || !PrefUtils.getAwardListFilterRuntime(context).equals(
+                        DataContract.ViewAwardEntry.FILTER_RUNTIME_DEFAULT)
+                || !PrefUtils.getAwardListFilterReleaseYear(context).equals(
+                        DataContract.ViewAwardEntry.FILTER_RELEASE_YEAR_DEFAULT)
+                || !PrefUtils.getAwardListFilterLanguage(context).equals(
+                        DataContract.ViewAwardEntry.FILTER_LANGUAGE_DEFAULT)
+                || !PrefUtils.getAwardListFilterCountry(context).equals(
+                        DataContract.ViewAwardEntry.FILTER_COUNTRY_DEFAULT)
+                || !PrefUtils.getAwardListFilterCertificate(context).equals(
+                        DataContract.ViewAwardEntry.FILTER_CERTIFICATE_DEFAULT);
     }
 
 }
@@ -0,0 +1,51 @@
+package uk.jumpingmouse.moviecompanion.utils;
+
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of string instances, so that the equal strings which occur in many records,
+ * e.g. the category of an award or the genres of a movie, share a single instance,
+ * rather than each record holding the copy which was deserialized for it.
+ * Unlike {@link String#intern()}, the pool is an ordinary object, so its strings can be
+ * garbage collected along with it.
+ * Only strings which are expected to repeat should be pooled, as the pool holds every
+ * distinct string it is given.
+ * @author Edmund Johnson
+ */
+public final class StringPool {
+
+    /** The single instance of each pooled string, keyed by itself. */
+    private final Map<String, String> mStrings = new HashMap<>();
+
+    /**
+     * Returns the pooled instance of a string, adding the string to the pool if it is
+     * not already there.
+     * @param string the string
+     * @return the pooled instance of the string, which is equal to it,
+     *     or null if the string is null
+     */
+    @Nullable
+    public synchronized String intern(@Nullable String string) {
+        if (string == null) {
+            return null;
+        }
+        String pooledString = mStrings.get(string);
+        if (pooledString == null) {
+            mStrings.put(string, string);
+            return string;
+        }
+        return pooledString;
+    }
+
+    /**
+     * Returns the number of distinct strings in the pool.
+     * @return the number of distinct strings in the pool
+     */
+    public synchronized int size() {
+        return mStrings.size();
+    }
+
+}
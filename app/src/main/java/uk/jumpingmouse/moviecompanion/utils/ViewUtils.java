@@ -19,8 +19,9 @@ import android.view.View;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.Toast;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import android.util.SparseArray;
+
+import java.text.DateFormatSymbols;
 import java.util.Locale;
 
 import uk.jumpingmouse.moviecompanion.R;
@@ -36,12 +37,12 @@ public final class ViewUtils {
     /** The singleton instance of this class. */
     private static ViewUtils sViewUtils = null;
 
-    /** The date format in which award dates are stored in the database, e.g. "170602". */
-    private static final SimpleDateFormat AWARD_DATE_FORMAT_STORED =
-            new SimpleDateFormat("yyMMdd", Locale.getDefault());
-    /** The date format in which award dates are displayed, e.g. "02 Jun 17. */
-    private static final SimpleDateFormat AWARD_DATE_FORMAT_DISPLAYED =
-            new SimpleDateFormat("dd MMM yy", Locale.getDefault());
+    /** The locale of the displayed award dates and month names. */
+    private Locale mAwardDateLocale;
+    /** The short month names of mAwardDateLocale, e.g. "Jun". */
+    private String[] mShortMonths;
+    /** The displayed award dates, e.g. "02 Jun 17", keyed by award day. */
+    private final SparseArray<String> mAwardDatesDisplayable = new SparseArray<>();
 
     //---------------------------------------------------------------------
     // Instance handling methods
@@ -229,9 +230,39 @@ public final class ViewUtils {
         if (awardDate == null) {
             return "?";
         }
-        Date dateAwardDate = JavaUtils.toDate(AWARD_DATE_FORMAT_STORED, awardDate);
-        return dateAwardDate == null
-                ? "?" : JavaUtils.toString(AWARD_DATE_FORMAT_DISPLAYED, dateAwardDate);
+        return getAwardDateDisplayable(ModelUtils.toAwardDay(awardDate));
+    }
+
+    /**
+     * Returns the award date of an award day in a displayable format.
+     * The displayed award dates are cached, as few award dates occur, and the cache is
+     * cleared when the locale changes. This is synchronized, as the view award list
+     * formats its award dates on the threads which load the view awards.
+     * @param awardDay the award day, i.e. the number of days since 1 Jan 1970
+     * @return the award date in a displayable format, e.g. "02 Jun 17"
+     */
+    public synchronized String getAwardDateDisplayable(int awardDay) {
+        if (awardDay == Award.AWARD_DAY_UNKNOWN) {
+            return "?";
+        }
+        Locale locale = Locale.getDefault();
+        if (!locale.equals(mAwardDateLocale)) {
+            mAwardDatesDisplayable.clear();
+            mShortMonths = DateFormatSymbols.getInstance(locale).getShortMonths();
+            mAwardDateLocale = locale;
+        }
+        String awardDateDisplayable = mAwardDatesDisplayable.get(awardDay);
+        if (awardDateDisplayable == null) {
+            int yearMonthDay = JavaUtils.toYearMonthDay(awardDay);
+            int dayOfMonth = yearMonthDay % 100;
+            int month = yearMonthDay / 100 % 100;
+            int year = yearMonthDay / 10000 % 100;
+            awardDateDisplayable = (dayOfMonth < 10 ? "0" : "") + dayOfMonth
+                    + " " + mShortMonths[month - 1]
+                    + " " + (year < 10 ? "0" : "") + year;
+            mAwardDatesDisplayable.put(awardDay, awardDateDisplayable);
+        }
+        return awardDateDisplayable;
     }
 
     /**
@@ -372,6 +403,19 @@ public final class ViewUtils {
         }
     }
 
+    /**
+     * Display a debugging message in a dialog, e.g. query statistics.
+     * @param activity the activity
+     * @param titleStringRes the string resource id of the dialog title
+     * @param message the message to be displayed
+     */
+    public void displayDebugMessage(@Nullable Activity activity, @StringRes int titleStringRes,
+                                    @NonNull String message) {
+        if (activity != null) {
+            displayAlertDialog(activity, titleStringRes, message);
+        }
+    }
+
     /**
      * Display an alert dialog.
      * @param activity the activity
@@ -379,7 +423,7 @@ public final class ViewUtils {
      * @param message the dialog message
      */
     private static void displayAlertDialog(@NonNull Activity activity,
-            @SuppressWarnings("SameParameterValue") @StringRes int titleStringRes, @NonNull String message) {
+            @StringRes int titleStringRes, @NonNull String message) {
 
         if (!activity.isFinishing()) {
             new AlertDialog.Builder(activity)
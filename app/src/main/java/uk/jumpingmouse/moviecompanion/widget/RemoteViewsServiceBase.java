@@ -3,24 +3,21 @@ package uk.jumpingmouse.moviecompanion.widget;
 import android.content.Context;
 import android.content.Intent;
 import android.database.Cursor;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Binder;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.widget.AdapterView;
 import android.widget.RemoteViews;
 import android.widget.RemoteViewsService;
 
-import com.squareup.picasso.Picasso;
+import java.util.ArrayList;
+import java.util.List;
 
-import java.io.IOException;
-
-import timber.log.Timber;
 import uk.jumpingmouse.moviecompanion.ObjectFactory;
 import uk.jumpingmouse.moviecompanion.R;
-import uk.jumpingmouse.moviecompanion.data.ViewAwardQueryParameters;
 import uk.jumpingmouse.moviecompanion.model.DataContract;
-import uk.jumpingmouse.moviecompanion.model.DataProvider;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
 import uk.jumpingmouse.moviecompanion.utils.ViewUtils;
 
 /**
@@ -32,10 +29,13 @@ public abstract class RemoteViewsServiceBase extends RemoteViewsService {
     public final RemoteViewsFactory onGetViewFactory(Intent intent) {
         return new RemoteViewsFactory() {
             private Cursor mCursor = null;
+            private WidgetPosterStore mWidgetPosterStore = null;
+            /** The posters which were all rendered by the last call to onDataSetChanged(). */
+            private List<String> mRenderedPosters = null;
 
             @Override
             public void onCreate() {
-                // Nothing to do
+                mWidgetPosterStore = new WidgetPosterStore(getBaseContext());
             }
 
             @Override
@@ -49,28 +49,40 @@ public abstract class RemoteViewsServiceBase extends RemoteViewsService {
                 // that calls use our process and permission
                 final long identityToken = Binder.clearCallingIdentity();
 
-                ViewAwardQueryParameters parameters = ViewAwardQueryParameters.builder()
-                        .sortOrder(DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_DESC)
-                        .filterGenre(DataContract.ViewAwardEntry.FILTER_GENRE_ALL)
-                        .filterWishlist(DataContract.ViewAwardEntry.FILTER_WISHLIST_ANY)
-                        .filterWatched(DataContract.ViewAwardEntry.FILTER_WATCHED_ANY)
-                        .filterFavourite(DataContract.ViewAwardEntry.FILTER_FAVOURITE_ANY)
-                        .filterCategory(getFilterCategory())
-                        .limit(getViewAwardLimit())
-                        .build();
-
-                // Get the selection and selectionArgs corresponding to the parameters
-                String selection = DataProvider.getSelectionForViewAwardQueryParams();
-                String[] selectionArgs = DataProvider.getSelectionArgsForViewAwardQueryParams(parameters);
-
-                mCursor = getContentResolver().query(
-                        DataContract.ViewAwardEntry.buildUriWithParameters(parameters),
-                        null,
-                        selection,
-                        selectionArgs,
-                        DataContract.ViewAwardEntry.SORT_ORDER_AWARD_DATE_DESC);
+                mCursor = queryWidgetAwards(getBaseContext(), getFilterCategory(), getViewAwardLimit());
 
                 Binder.restoreCallingIdentity(identityToken);
+
+                // Render the widget-sized posters now, while the host waits for the data,
+                // so that getViewAt() only needs to pass their URIs to the host.
+                // If the host reloads the widget without its posters having changed,
+                // e.g. when the host restarts, they are not rendered again.
+                if (mCursor != null) {
+                    List<String> posters = new ArrayList<>(mCursor.getCount());
+                    mCursor.moveToPosition(-1);
+                    while (mCursor.moveToNext()) {
+                        posters.add(mCursor.getString(DataContract.WidgetAwardEntry.COL_POSTER));
+                    }
+                    if (!posters.equals(mRenderedPosters)) {
+                        mWidgetPosterStore.render(posters);
+                        mRenderedPosters = isRendered(posters) ? posters : null;
+                    }
+                }
+            }
+
+            /**
+             * Returns whether the widget posters for a list of posters have all been rendered.
+             * @param posters the TMDb poster paths
+             * @return whether the widget posters have all been rendered
+             */
+            private boolean isRendered(@NonNull final List<String> posters) {
+                for (String poster : posters) {
+                    if (WidgetPosterStore.getFileName(poster) != null
+                            && mWidgetPosterStore.getUri(poster) == null) {
+                        return false;
+                    }
+                }
+                return true;
             }
 
             @Override
@@ -95,24 +107,19 @@ public abstract class RemoteViewsServiceBase extends RemoteViewsService {
                 }
 
                 // Get data from cursor
-                final String viewAwardId = mCursor.getString(DataContract.ViewAwardEntry.COL_ID);
-                String poster = mCursor.getString(DataContract.ViewAwardEntry.COL_POSTER);
+                final String viewAwardId = mCursor.getString(DataContract.WidgetAwardEntry.COL_ID);
+                String poster = mCursor.getString(DataContract.WidgetAwardEntry.COL_POSTER);
                 String awardDate = getViewUtils().getAwardDateDisplayable(
-                        mCursor.getString(DataContract.ViewAwardEntry.COL_AWARD_DATE));
-                String title = mCursor.getString(DataContract.ViewAwardEntry.COL_TITLE);
+                        mCursor.getString(DataContract.WidgetAwardEntry.COL_AWARD_DATE));
+                String title = mCursor.getString(DataContract.WidgetAwardEntry.COL_TITLE);
 
                 RemoteViews views = new RemoteViews(getPackageName(), R.layout.widget_list_item);
 
                 // Load data into view
-                Context context = getBaseContext();
                 views.setTextViewText(R.id.txtAwardDate, awardDate);
                 views.setTextViewText(R.id.txtTitle, title);
-                try {
-                    Bitmap bitmap = Picasso.with(context).load(poster).get();
-                    views.setImageViewBitmap(R.id.imgPoster, bitmap);
-                } catch (IOException e) {
-                    Timber.w("getViewAt: IOException loading poster", e);
-                }
+                // The host reads the widget poster from the widget poster provider
+                views.setImageViewUri(R.id.imgPoster, mWidgetPosterStore.getUri(poster));
 
                 // If a list item is clicked on, pass the URI for the selected ViewAward to the
                 // launched activity
@@ -155,6 +162,29 @@ public abstract class RemoteViewsServiceBase extends RemoteViewsService {
         };
     }
 
+    /**
+     * Queries the ViewAwards displayed in a widget, most recent first, with only the
+     * columns displayed in the widget.
+     * This is also used to detect whether the content of a widget has changed.
+     * Today's award date is passed in the URI, so that a result cached by the content
+     * provider on one day is not returned on the next.
+     * @param context the context
+     * @param filterCategory the category of ViewAwards displayed in the widget
+     * @param viewAwardLimit the number of ViewAwards displayed in the widget
+     * @return a cursor containing the ViewAwards displayed in the widget, with the columns
+     *         described by {@link DataContract.WidgetAwardEntry#getAllColumns()}
+     */
+    @Nullable
+    static Cursor queryWidgetAwards(@NonNull final Context context, @NonNull final String filterCategory,
+                                    final int viewAwardLimit) {
+        String awardDateMax =
+                ModelUtils.toAwardDate(ModelUtils.toAwardDay(System.currentTimeMillis()));
+        return context.getContentResolver().query(
+                DataContract.WidgetAwardEntry.buildUriForCategory(
+                        filterCategory, viewAwardLimit, awardDateMax),
+                null, null, null, null);
+    }
+
     /**
      * Returns the category of ViewAwards displayed in the widget.
      * @return the category of ViewAwards displayed in the widget
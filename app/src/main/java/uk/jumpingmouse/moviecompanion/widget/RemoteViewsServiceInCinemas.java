@@ -7,7 +7,7 @@ import uk.jumpingmouse.moviecompanion.model.DataContract;
  */
 public class RemoteViewsServiceInCinemas extends RemoteViewsServiceBase {
 
-    private static final int VIEW_AWARD_LIMIT_IN_CINEMAS = 5;
+    static final int VIEW_AWARD_LIMIT_IN_CINEMAS = 5;
 
     /**
      * Returns the category of ViewAwards displayed in this widget.
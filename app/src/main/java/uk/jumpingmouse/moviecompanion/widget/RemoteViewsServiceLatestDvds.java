@@ -7,7 +7,7 @@ import uk.jumpingmouse.moviecompanion.model.DataContract;
  */
 public class RemoteViewsServiceLatestDvds extends RemoteViewsServiceBase {
 
-    private static final int VIEW_AWARD_LIMIT_LATEST_DVDS = 10;
+    static final int VIEW_AWARD_LIMIT_LATEST_DVDS = 10;
 
     /**
      * Returns the category of ViewAwards displayed in this widget.
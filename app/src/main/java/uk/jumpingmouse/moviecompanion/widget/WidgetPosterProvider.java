@@ -0,0 +1,112 @@
+package uk.jumpingmouse.moviecompanion.widget;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+
+import uk.jumpingmouse.moviecompanion.R;
+
+/**
+ * The content provider which serves widget posters to the app hosting the widgets.
+ * The widgets' remote views contain the URIs of the widget posters rather than poster
+ * bitmaps, so the host reads each poster from a file descriptor instead of receiving
+ * a copy of the bitmap in every remote views transaction.
+ * This provider is exported, as the host needs to read the posters, so it serves only
+ * the files in the widget poster directory, and only for reading.
+ * @author Edmund Johnson
+ */
+public final class WidgetPosterProvider extends ContentProvider {
+
+    /** The MIME type of a widget poster. */
+    private static final String MIME_TYPE = "image/jpeg";
+
+    /**
+     * Returns the URI of a widget poster.
+     * @param context the context
+     * @param fileName the name of the widget poster file, e.g. "d2f3g4sd12fg.jpg"
+     * @return the URI of the widget poster
+     */
+    @NonNull
+    static Uri buildUri(@NonNull final Context context, @NonNull final String fileName) {
+        return new Uri.Builder()
+                .scheme("content")
+                .authority(context.getString(R.string.widget_poster_authority))
+                .appendPath(fileName)
+                .build();
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    /**
+     * Opens a widget poster file for reading.
+     * @param uri the URI of the widget poster
+     * @param mode the access mode, which must be "r"
+     * @return a file descriptor for the widget poster
+     * @throws FileNotFoundException if the widget poster does not exist
+     */
+    @Nullable
+    @Override
+    public ParcelFileDescriptor openFile(@NonNull final Uri uri, @NonNull final String mode)
+            throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new SecurityException("Widget posters are read-only: " + uri);
+        }
+        Context context = getContext();
+        List<String> segments = uri.getPathSegments();
+        String fileName = segments.size() == 1 ? segments.get(0) : null;
+        if (context == null || fileName == null
+                || !fileName.equals(WidgetPosterStore.getFileName(fileName))) {
+            throw new FileNotFoundException("Invalid widget poster URI: " + uri);
+        }
+        File file = new File(WidgetPosterStore.getDirectory(context), fileName);
+        return ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull final Uri uri) {
+        return MIME_TYPE;
+    }
+
+    //---------------------------------------------------------------------
+    // Unsupported operations
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull final Uri uri, @Nullable final String[] projection,
+                        @Nullable final String selection, @Nullable final String[] selectionArgs,
+                        @Nullable final String sortOrder) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull final Uri uri, @Nullable final ContentValues values) {
+        throw new UnsupportedOperationException("Widget posters are read-only: " + uri);
+    }
+
+    @Override
+    public int delete(@NonNull final Uri uri, @Nullable final String selection,
+                      @Nullable final String[] selectionArgs) {
+        throw new UnsupportedOperationException("Widget posters are read-only: " + uri);
+    }
+
+    @Override
+    public int update(@NonNull final Uri uri, @Nullable final ContentValues values,
+                      @Nullable final String selection, @Nullable final String[] selectionArgs) {
+        throw new UnsupportedOperationException("Widget posters are read-only: " + uri);
+    }
+
+}
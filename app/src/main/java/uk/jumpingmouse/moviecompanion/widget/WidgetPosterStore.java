@@ -0,0 +1,222 @@
+package uk.jumpingmouse.moviecompanion.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import timber.log.Timber;
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+import uk.jumpingmouse.moviecompanion.R;
+import uk.jumpingmouse.moviecompanion.image.PosterCache;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+
+/**
+ * The store of widget posters, i.e. posters which have been downsampled to the size of
+ * a widget list item's image and saved as files.
+ * The files are served to the app hosting the widget by {@link WidgetPosterProvider}, so that
+ * the widget's remote views contain poster URIs rather than poster bitmaps.
+ * @author Edmund Johnson
+ */
+final class WidgetPosterStore {
+
+    /** The name of the directory containing the widget posters, within the cache directory. */
+    private static final String DIRECTORY = "widget_posters";
+    /** The maximum number of widget posters kept; the least recently used are deleted. */
+    private static final int MAX_FILES = 40;
+    /** The JPEG quality of the widget posters. */
+    private static final int JPEG_QUALITY = 85;
+    /** The suffix of a widget poster which is being written. */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Context mContext;
+    private final File mDirectory;
+    private final int mWidth;
+    private final int mHeight;
+
+    /**
+     * Constructor.
+     * @param context the context
+     */
+    WidgetPosterStore(@NonNull final Context context) {
+        mContext = context.getApplicationContext();
+        mDirectory = getDirectory(mContext);
+        mWidth = mContext.getResources().getDimensionPixelSize(R.dimen.widget_image_width);
+        mHeight = mContext.getResources().getDimensionPixelSize(R.dimen.widget_image_height);
+    }
+
+    /**
+     * Returns the directory containing the widget posters.
+     * @param context the context
+     * @return the directory containing the widget posters
+     */
+    @NonNull
+    static File getDirectory(@NonNull final Context context) {
+        return new File(context.getCacheDir(), DIRECTORY);
+    }
+
+    //---------------------------------------------------------------------
+    // Rendering
+
+    /**
+     * Renders the widget posters for a collection of posters, unless they have already
+     * been rendered, and deletes the least recently used widget posters if there are
+     * too many. This loads posters synchronously, so must not be called on the main thread.
+     * @param posters the TMDb poster paths, e.g. "/d2f3g4sd12fg.jpg"
+     */
+    void render(@NonNull final Collection<String> posters) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Timber.w("render: could not create widget poster directory: " + mDirectory);
+            return;
+        }
+        for (String poster : posters) {
+            File file = getFile(poster);
+            if (file == null) {
+                continue;
+            }
+            if (file.exists()) {
+                // Keep the widget posters which are still displayed
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+                continue;
+            }
+            try {
+                renderFile(poster, file);
+            } catch (IOException e) {
+                Timber.w("render: IOException rendering widget poster: " + poster, e);
+            }
+        }
+        deleteExcessFiles();
+    }
+
+    /**
+     * Renders a widget poster file.
+     * The poster is loaded in the smallest TMDb size which covers the widget image,
+     * downsampled and cropped to exactly the widget image size, and written to a
+     * temporary file which is then renamed, so that a partly written file is never served.
+     * @param poster the TMDb poster path
+     * @param file the widget poster file
+     * @throws IOException if the poster could not be loaded or the file could not be written
+     */
+    private void renderFile(@NonNull final String poster, @NonNull final File file)
+            throws IOException {
+        String posterUrl = ModelUtils.getPosterUrl(poster, mWidth, mHeight);
+        Bitmap bitmap = getPosterCache().getPicasso(mContext)
+                .load(posterUrl)
+                .resize(mWidth, mHeight)
+                .centerCrop()
+                .get();
+        if (bitmap == null) {
+            throw new IOException("Poster could not be loaded: " + posterUrl);
+        }
+
+        // The temporary file name is unique to the thread, as each widget is refreshed
+        // on its own thread
+        File tempFile = new File(mDirectory,
+                file.getName() + "." + Thread.currentThread().getId() + TEMP_FILE_SUFFIX);
+        OutputStream outputStream = new FileOutputStream(tempFile);
+        try {
+            if (!bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, outputStream)) {
+                throw new IOException("Poster could not be compressed: " + posterUrl);
+            }
+        } finally {
+            outputStream.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw new IOException("Could not rename widget poster file: " + tempFile);
+        }
+    }
+
+    /**
+     * Deletes the least recently used widget posters, so that no more than
+     * MAX_FILES are kept.
+     */
+    private void deleteExcessFiles() {
+        File[] files = mDirectory.listFiles();
+        if (files == null || files.length <= MAX_FILES) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                long lastModified1 = file1.lastModified();
+                long lastModified2 = file2.lastModified();
+                return lastModified1 < lastModified2 ? -1 : (lastModified1 == lastModified2 ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < files.length - MAX_FILES; i++) {
+            if (!files[i].delete()) {
+                Timber.w("deleteExcessFiles: could not delete widget poster: " + files[i]);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Serving
+
+    /**
+     * Returns the URI through which the widget poster for a poster is served,
+     * if it has been rendered.
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the URI of the widget poster, or null if it has not been rendered
+     */
+    @Nullable
+    Uri getUri(@Nullable final String poster) {
+        File file = getFile(poster);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        return WidgetPosterProvider.buildUri(mContext, file.getName());
+    }
+
+    /**
+     * Returns the widget poster file for a poster.
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the widget poster file, e.g. "d2f3g4sd12fg.jpg", or null if there is no poster
+     */
+    @Nullable
+    private File getFile(@Nullable final String poster) {
+        String fileName = getFileName(poster);
+        return fileName == null ? null : new File(mDirectory, fileName);
+    }
+
+    /**
+     * Returns the widget poster file name for a poster, which contains only characters
+     * which are safe in a file name.
+     * @param poster the TMDb poster path, e.g. "/d2f3g4sd12fg.jpg"
+     * @return the widget poster file name, e.g. "d2f3g4sd12fg.jpg", or null if there is no poster
+     */
+    @Nullable
+    static String getFileName(@Nullable final String poster) {
+        if (poster == null) {
+            return null;
+        }
+        String fileName = poster.substring(poster.lastIndexOf('/') + 1)
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+        if (fileName.isEmpty() || fileName.startsWith(".")) {
+            return null;
+        }
+        return fileName;
+    }
+
+    /**
+     * Convenience method which returns a reference to the poster cache.
+     * @return a reference to the poster cache
+     */
+    @NonNull
+    private static PosterCache getPosterCache() {
+        return ObjectFactory.getPosterCache();
+    }
+
+}
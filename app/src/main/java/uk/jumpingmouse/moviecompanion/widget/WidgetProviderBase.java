@@ -1,5 +1,6 @@
 package uk.jumpingmouse.moviecompanion.widget;
 
+import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.appwidget.AppWidgetManager;
 import android.appwidget.AppWidgetProvider;
@@ -12,6 +13,7 @@ import android.support.annotation.StringRes;
 import android.support.v4.app.TaskStackBuilder;
 import android.widget.RemoteViews;
 
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
 import uk.jumpingmouse.moviecompanion.R;
 import uk.jumpingmouse.moviecompanion.activity.MainActivity;
 import uk.jumpingmouse.moviecompanion.activity.MovieActivity;
@@ -24,6 +26,9 @@ public abstract class WidgetProviderBase extends AppWidgetProvider {
     // For now, the same changes in data trigger the update of the widgets
     private static final String ACTION_DATA_UPDATED =
             "uk.jumpingmouse.moviecompanion.ACTION_DATA_UPDATED";
+    // Broadcast by the alarm set for the start of the next award date
+    private static final String ACTION_AWARD_DATE_STARTED =
+            "uk.jumpingmouse.moviecompanion.ACTION_AWARD_DATE_STARTED";
 
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
@@ -52,6 +57,16 @@ public abstract class WidgetProviderBase extends AppWidgetProvider {
             // Tell the AppWidgetManager to perform an update on the current app widget
             appWidgetManager.updateAppWidget(appWidgetId, views);
         }
+
+        // Schedule the refresh at the start of the next award date, e.g. after a reboot
+        getWidgetRefreshScheduler().requestRefresh(context);
+    }
+
+    @Override
+    public void onDisabled(@NonNull Context context) {
+        super.onDisabled(context);
+        // The last widget of this provider has been removed
+        scheduleRefresh(context, getClass(), -1);
     }
 
     @Override
@@ -62,6 +77,9 @@ public abstract class WidgetProviderBase extends AppWidgetProvider {
             int[] appWidgetIds = appWidgetManager.getAppWidgetIds(
                     new ComponentName(context, getClass()));
             appWidgetManager.notifyAppWidgetViewDataChanged(appWidgetIds, R.id.listWidget);
+        } else if (ACTION_AWARD_DATE_STARTED.equals(intent.getAction())) {
+            // The widget is only updated if the awards it displays have changed
+            getWidgetRefreshScheduler().requestRefresh(context);
         }
     }
 
@@ -76,16 +94,41 @@ public abstract class WidgetProviderBase extends AppWidgetProvider {
     }
 
     /**
-     * Notify any listening receivers (e.g. the widget provider) that the data has changed.
-     * "notifyWidgetProvider" might be a better name.
+     * Notify one widget provider that the data displayed by its widgets has changed.
      * @param context the context
+     * @param providerClass the widget provider class
      */
-    public static void updateWidgets(@NonNull Context context) {
-        // Setting the package ensures that only components in our app will receive the broadcast
-        Intent dataUpdatedIntent = new Intent(ACTION_DATA_UPDATED).setPackage(context.getPackageName());
+    static void updateWidgets(@NonNull Context context, @NonNull Class providerClass) {
+        Intent dataUpdatedIntent = new Intent(ACTION_DATA_UPDATED).setClass(context, providerClass);
         context.sendBroadcast(dataUpdatedIntent);
     }
 
+    /**
+     * Schedules the refresh of one widget provider's widgets at the start of the next
+     * award date, replacing any refresh previously scheduled for the provider.
+     * The alarm does not wake the device, so the refresh runs when the device is next awake.
+     * @param context the context
+     * @param providerClass the widget provider class
+     * @param triggerAtMillis the start of the next award date, in milliseconds since the
+     *                        epoch, or a negative value to cancel the scheduled refresh
+     */
+    static void scheduleRefresh(@NonNull Context context, @NonNull Class providerClass,
+                                long triggerAtMillis) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            return;
+        }
+        Intent awardDateStartedIntent =
+                new Intent(ACTION_AWARD_DATE_STARTED).setClass(context, providerClass);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, 0,
+                awardDateStartedIntent, PendingIntent.FLAG_UPDATE_CURRENT);
+        if (triggerAtMillis < 0) {
+            alarmManager.cancel(pendingIntent);
+        } else {
+            alarmManager.set(AlarmManager.RTC, triggerAtMillis, pendingIntent);
+        }
+    }
+
     /**
      * Returns the string resource id of the widget title.
      * @return the string resource id of the widget title
@@ -99,4 +142,13 @@ public abstract class WidgetProviderBase extends AppWidgetProvider {
     @NonNull
     protected abstract Class getRemoteViewsServiceClass();
 
+    /**
+     * Convenience method which returns a reference to a WidgetRefreshScheduler object.
+     * @return a reference to a WidgetRefreshScheduler object
+     */
+    @NonNull
+    private static WidgetRefreshScheduler getWidgetRefreshScheduler() {
+        return ObjectFactory.getWidgetRefreshScheduler();
+    }
+
 }
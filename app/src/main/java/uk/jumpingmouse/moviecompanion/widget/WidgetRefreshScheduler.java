@@ -0,0 +1,305 @@
+package uk.jumpingmouse.moviecompanion.widget;
+
+import android.appwidget.AppWidgetManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import timber.log.Timber;
+import uk.jumpingmouse.moviecompanion.ObjectFactory;
+import uk.jumpingmouse.moviecompanion.data.Award;
+import uk.jumpingmouse.moviecompanion.model.DataContract;
+import uk.jumpingmouse.moviecompanion.model.LocalDatabase;
+import uk.jumpingmouse.moviecompanion.utils.ModelUtils;
+
+/**
+ * The scheduler which refreshes the widgets when the data they display may have changed.
+ * Refresh requests are debounced, so that a burst of database events, such as the initial
+ * sync of every movie and award, results in a single refresh.
+ * When a refresh runs, the ViewAwards displayed by each widget are queried again, and
+ * a widget is only updated if the content hash of its ViewAwards has changed.
+ * As the widgets only display awards whose award date has started, a refresh is also
+ * scheduled at the start of the next award date, which is the only time at which the
+ * widgets change without the data changing.
+ * @author Edmund Johnson
+ */
+public final class WidgetRefreshScheduler {
+    /** The singleton instance of this class. */
+    private static WidgetRefreshScheduler sWidgetRefreshScheduler = null;
+
+    /** The time after the latest refresh request at which the refresh runs. */
+    private static final long DEBOUNCE_MILLIS = 1000;
+    /** The maximum time after the first pending refresh request at which the refresh runs. */
+    private static final long MAX_DELAY_MILLIS = 5000;
+
+    /** The widgets which are refreshed, each with the ViewAwards it displays. */
+    private static final WidgetSpec[] WIDGET_SPECS = {
+            new WidgetSpec(WidgetProviderInCinemas.class,
+                    DataContract.ViewAwardEntry.FILTER_CATEGORY_MOVIE, Award.CATEGORY_MOVIE,
+                    RemoteViewsServiceInCinemas.VIEW_AWARD_LIMIT_IN_CINEMAS),
+            new WidgetSpec(WidgetProviderLatestDvds.class,
+                    DataContract.ViewAwardEntry.FILTER_CATEGORY_DVD, Award.CATEGORY_DVD,
+                    RemoteViewsServiceLatestDvds.VIEW_AWARD_LIMIT_LATEST_DVDS)
+    };
+
+    /** The handler of the thread on which refreshes run. */
+    private final Handler mHandler;
+    /** The application context, which is set by the first refresh request. */
+    private Context mContext;
+    /** The time of the first pending refresh request, or 0 if no refresh is pending. */
+    private long mFirstRequestMillis;
+
+    /** The content hashes of the ViewAwards last pushed to each widget, keyed by provider. */
+    private final Map<Class, Integer> mContentHashes = new HashMap<>();
+    /** The award day at whose start each widget's refresh is scheduled, keyed by provider. */
+    private final Map<Class, Integer> mScheduledAwardDays = new HashMap<>();
+
+    // Statistics
+    private long mRequestCount;
+    private long mRefreshCount;
+    private long mPushCount;
+    private long mScheduleCount;
+
+    //---------------------------------------------------------------------
+    // Instance handling methods
+
+    /**
+     * Returns an instance of this class.
+     * @return an instance of this class
+     */
+    @NonNull
+    public static synchronized WidgetRefreshScheduler getInstance() {
+        if (sWidgetRefreshScheduler == null) {
+            sWidgetRefreshScheduler = new WidgetRefreshScheduler();
+        }
+        return sWidgetRefreshScheduler;
+    }
+
+    /** Private default constructor to prevent instantiation from outside this class. */
+    private WidgetRefreshScheduler() {
+        HandlerThread handlerThread =
+                new HandlerThread("WidgetRefresh", Process.THREAD_PRIORITY_BACKGROUND);
+        handlerThread.start();
+        mHandler = new Handler(handlerThread.getLooper());
+    }
+
+    //---------------------------------------------------------------------
+    // Scheduling methods
+
+    /**
+     * Requests a refresh of the widgets, e.g. because a movie or award has changed.
+     * The refresh runs once no further request has been made for a short time,
+     * or once the first pending request is a few seconds old.
+     * @param context the context
+     */
+    public synchronized void requestRefresh(@NonNull final Context context) {
+        mContext = context.getApplicationContext();
+        mRequestCount++;
+        long nowMillis = SystemClock.elapsedRealtime();
+        if (mFirstRequestMillis == 0) {
+            mFirstRequestMillis = nowMillis;
+        }
+        long delayMillis = Math.min(DEBOUNCE_MILLIS,
+                Math.max(0, mFirstRequestMillis + MAX_DELAY_MILLIS - nowMillis));
+        mHandler.removeCallbacks(mRefreshRunnable);
+        mHandler.postDelayed(mRefreshRunnable, delayMillis);
+    }
+
+    /** The runnable which refreshes the widgets, on the refresh thread. */
+    private final Runnable mRefreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            Context context;
+            synchronized (WidgetRefreshScheduler.this) {
+                mFirstRequestMillis = 0;
+                mRefreshCount++;
+                context = mContext;
+            }
+            for (WidgetSpec widgetSpec : WIDGET_SPECS) {
+                refresh(context, widgetSpec);
+            }
+            Timber.d(WidgetRefreshScheduler.this.toString());
+        }
+    };
+
+    /**
+     * Updates a widget if the content hash of the ViewAwards it displays has changed since
+     * it was last updated, and schedules its next refresh at the start of the next award date.
+     * Widgets which have not been added to the home screen are ignored.
+     * @param context the context
+     * @param widgetSpec the widget
+     */
+    private void refresh(@NonNull final Context context, @NonNull final WidgetSpec widgetSpec) {
+        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
+        int[] appWidgetIds = appWidgetManager.getAppWidgetIds(
+                new ComponentName(context, widgetSpec.mProviderClass));
+        if (appWidgetIds == null || appWidgetIds.length == 0) {
+            mContentHashes.remove(widgetSpec.mProviderClass);
+            if (mScheduledAwardDays.remove(widgetSpec.mProviderClass) != null) {
+                WidgetProviderBase.scheduleRefresh(context, widgetSpec.mProviderClass, -1);
+            }
+            return;
+        }
+
+        Integer contentHash = getContentHash(context, widgetSpec);
+        Integer previousContentHash = mContentHashes.get(widgetSpec.mProviderClass);
+        if (contentHash == null && previousContentHash == null) {
+            // The data has not been loaded since the process started, so the widget
+            // keeps its current content, and its scheduled refresh
+            return;
+        }
+        if (contentHash == null) {
+            contentHash = 0;
+        }
+        mContentHashes.put(widgetSpec.mProviderClass, contentHash);
+        if (!contentHash.equals(previousContentHash)) {
+            synchronized (this) {
+                mPushCount++;
+            }
+            WidgetProviderBase.updateWidgets(context, widgetSpec.mProviderClass);
+        }
+
+        scheduleRefresh(context, widgetSpec);
+    }
+
+    /**
+     * Schedules the refresh of a widget at the start of the next award date in its category,
+     * unless it is already scheduled then.
+     * @param context the context
+     * @param widgetSpec the widget
+     */
+    private void scheduleRefresh(@NonNull final Context context,
+                                 @NonNull final WidgetSpec widgetSpec) {
+        int today = ModelUtils.toAwardDay(System.currentTimeMillis());
+        int nextAwardDay =
+                getLocalDatabase().selectNextAwardDay(widgetSpec.mAwardCategory, today);
+        Integer scheduledAwardDay = mScheduledAwardDays.get(widgetSpec.mProviderClass);
+        if (nextAwardDay == Award.AWARD_DAY_UNKNOWN ? scheduledAwardDay == null
+                : scheduledAwardDay != null && nextAwardDay == scheduledAwardDay) {
+            return;
+        }
+
+        long triggerAtMillis = ModelUtils.getAwardDayStartMillis(nextAwardDay);
+        if (triggerAtMillis < 0) {
+            mScheduledAwardDays.remove(widgetSpec.mProviderClass);
+        } else {
+            mScheduledAwardDays.put(widgetSpec.mProviderClass, nextAwardDay);
+        }
+        synchronized (this) {
+            mScheduleCount++;
+        }
+        WidgetProviderBase.scheduleRefresh(context, widgetSpec.mProviderClass, triggerAtMillis);
+    }
+
+    /**
+     * Returns the content hash of the ViewAwards displayed by a widget, which is based
+     * on the values displayed for each ViewAward, in display order.
+     * @param context the context
+     * @param widgetSpec the widget
+     * @return the content hash of the ViewAwards displayed by the widget,
+     *         or null if the widget displays no ViewAwards
+     */
+    @Nullable
+    private static Integer getContentHash(@NonNull final Context context,
+                                          @NonNull final WidgetSpec widgetSpec) {
+        Cursor cursor = RemoteViewsServiceBase.queryWidgetAwards(
+                context, widgetSpec.mFilterCategory, widgetSpec.mViewAwardLimit);
+        if (cursor == null) {
+            return null;
+        }
+        int contentHash = 1;
+        try {
+            if (cursor.getCount() == 0) {
+                return null;
+            }
+            while (cursor.moveToNext()) {
+                contentHash = 31 * contentHash
+                        + hashCode(cursor.getString(DataContract.WidgetAwardEntry.COL_ID));
+                contentHash = 31 * contentHash
+                        + hashCode(cursor.getString(DataContract.WidgetAwardEntry.COL_POSTER));
+                contentHash = 31 * contentHash
+                        + hashCode(cursor.getString(DataContract.WidgetAwardEntry.COL_AWARD_DATE));
+                contentHash = 31 * contentHash
+                        + hashCode(cursor.getString(DataContract.WidgetAwardEntry.COL_TITLE));
+            }
+        } finally {
+            cursor.close();
+        }
+        return contentHash;
+    }
+
+    /**
+     * Returns the hash code of a string, or 0 if it is null.
+     * @param string the string
+     * @return the hash code of the string, or 0 if it is null
+     */
+    private static int hashCode(final String string) {
+        return string == null ? 0 : string.hashCode();
+    }
+
+    //---------------------------------------------------------------------
+    // Statistics
+
+    /**
+     * Returns a description of the refresh statistics, i.e. the number of refresh requests,
+     * the number of refreshes run, the number of widget updates pushed, and the number of
+     * times a refresh was scheduled at the start of an award date.
+     * @return a description of the refresh statistics
+     */
+    @Override
+    public synchronized String toString() {
+        return "WidgetRefreshScheduler{"
+                + "requests=" + mRequestCount
+                + ", refreshes=" + mRefreshCount
+                + ", pushes=" + mPushCount
+                + ", schedules=" + mScheduleCount
+                + "}";
+    }
+
+    /**
+     * Convenience method which returns a reference to a LocalDatabase object.
+     * @return a reference to a LocalDatabase object
+     */
+    @NonNull
+    private static LocalDatabase getLocalDatabase() {
+        return ObjectFactory.getLocalDatabase();
+    }
+
+    //---------------------------------------------------------------------
+    // Widget specification
+
+    /**
+     * A widget which is refreshed, with the ViewAwards it displays.
+     */
+    private static final class WidgetSpec {
+        private final Class mProviderClass;
+        private final String mFilterCategory;
+        private final String mAwardCategory;
+        private final int mViewAwardLimit;
+
+        /**
+         * Constructor.
+         * @param providerClass the widget provider class
+         * @param filterCategory the category of ViewAwards displayed in the widget
+         * @param awardCategory the award category of the ViewAwards displayed in the widget
+         * @param viewAwardLimit the number of ViewAwards displayed in the widget
+         */
+        WidgetSpec(@NonNull final Class providerClass, @NonNull final String filterCategory,
+                   @NonNull final String awardCategory, final int viewAwardLimit) {
+            mProviderClass = providerClass;
+            mFilterCategory = filterCategory;
+            mAwardCategory = awardCategory;
+            mViewAwardLimit = viewAwardLimit;
+        }
+    }
+
+}